@@ -0,0 +1,96 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinme.models.EngineCard;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory cache of the engine cards indexed by card id.
+ *
+ * The cache holds immutable EngineCard snapshots so that the card is read and deserialized from the repository
+ * only once and the same snapshot can be given to every caller.  It is populated when an engine card is created
+ * or loaded and the entry is dropped when the card is updated or deleted.  The observers are notified with the
+ * new snapshot or with null when the entry is invalidated.
+ */
+final class EngineCardCache {
+    private static final String LOG_TAG = "EngineCardCache";
+    private static final boolean DEBUG = false;
+
+    private final ConcurrentHashMap<UUID, EngineCard> mEngineCards = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<TwinmeEngine.EngineCardObserver> mObservers = new CopyOnWriteArrayList<>();
+
+    @Nullable
+    EngineCard get(@NonNull UUID cardId) {
+
+        return mEngineCards.get(cardId);
+    }
+
+    /**
+     * Put the engine card in the cache.
+     *
+     * @param engineCard the engine card created or loaded.
+     * @return the immutable snapshot which is cached.
+     */
+    @NonNull
+    EngineCard put(@NonNull EngineCard engineCard) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "put: cardId=" + engineCard.getId());
+        }
+
+        final EngineCard snapshot = engineCard.snapshot();
+        final EngineCard previous = mEngineCards.put(snapshot.getId(), snapshot);
+        if (previous != snapshot) {
+            for (TwinmeEngine.EngineCardObserver observer : mObservers) {
+                observer.onUpdateEngineCard(snapshot.getId(), snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    void invalidate(@NonNull UUID cardId) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "invalidate: cardId=" + cardId);
+        }
+
+        if (mEngineCards.remove(cardId) != null) {
+            for (TwinmeEngine.EngineCardObserver observer : mObservers) {
+                observer.onUpdateEngineCard(cardId, null);
+            }
+        }
+    }
+
+    /**
+     * Drop every card when the account is signed out or deleted.  The observers are not notified.
+     */
+    void clear() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "clear");
+        }
+
+        mEngineCards.clear();
+    }
+
+    void addObserver(@NonNull TwinmeEngine.EngineCardObserver observer) {
+
+        mObservers.addIfAbsent(observer);
+    }
+
+    void removeObserver(@NonNull TwinmeEngine.EngineCardObserver observer) {
+
+        mObservers.remove(observer);
+    }
+}
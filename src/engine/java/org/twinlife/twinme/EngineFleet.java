@@ -0,0 +1,202 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.BaseService.ErrorCode;
+import org.twinlife.twinlife.JobService;
+import org.twinlife.twinme.TwinmeContext.Consumer;
+import org.twinlife.twinme.actions.EngineAction;
+import org.twinlife.twinme.models.Contact;
+import org.twinlife.twinme.models.EngineCommandResult;
+import org.twinlife.twinme.models.EngineFleetResult;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Send the same engine command to several supervisor contacts concurrently.
+ *
+ * Each server is given the same timeout: a server that does not answer in time is reported with TIMEOUT_ERROR
+ * and does not delay the others.  The last good result of each server is kept per command so that a server
+ * which fails is still present in the merged view, flagged as cached.
+ */
+final class EngineFleet {
+    private static final String LOG_TAG = "EngineFleet";
+    private static final boolean DEBUG = false;
+
+    interface ActionFactory<T extends EngineCommandResult> {
+        @NonNull
+        EngineAction<T> create(@NonNull Contact server);
+    }
+
+    private final class Operation<T extends EngineCommandResult> {
+        @NonNull
+        final String key;
+        @NonNull
+        final Consumer<EngineFleetResult<T>> consumer;
+        final Set<UUID> remaining = new HashSet<>();
+        final Map<UUID, T> results = new HashMap<>();
+        final Map<UUID, ErrorCode> errors = new HashMap<>();
+        @Nullable
+        JobService.Job timeoutJob;
+        boolean finished;
+
+        Operation(@NonNull String key, @NonNull Consumer<EngineFleetResult<T>> consumer) {
+
+            this.key = key;
+            this.consumer = consumer;
+        }
+
+        void onResult(@NonNull UUID serverId, @NonNull T result) {
+
+            synchronized (EngineFleet.this) {
+                Map<UUID, EngineCommandResult> lastGood = mLastGood.get(key);
+                if (lastGood == null) {
+                    lastGood = new HashMap<>();
+                    mLastGood.put(key, lastGood);
+                }
+                lastGood.put(serverId, result);
+
+                if (finished || !remaining.remove(serverId)) {
+                    return;
+                }
+                results.put(serverId, result);
+                if (!remaining.isEmpty()) {
+                    return;
+                }
+            }
+            finish();
+        }
+
+        void onError(@NonNull UUID serverId, @NonNull ErrorCode errorCode) {
+
+            synchronized (EngineFleet.this) {
+                if (finished || !remaining.remove(serverId)) {
+                    return;
+                }
+                errors.put(serverId, errorCode);
+                if (!remaining.isEmpty()) {
+                    return;
+                }
+            }
+            finish();
+        }
+
+        void onTimeout() {
+            if (DEBUG) {
+                Log.d(LOG_TAG, "onTimeout: key=" + key + " remaining=" + remaining.size());
+            }
+
+            synchronized (EngineFleet.this) {
+                timeoutJob = null;
+                for (UUID serverId : remaining) {
+                    errors.put(serverId, ErrorCode.TIMEOUT_ERROR);
+                }
+                remaining.clear();
+            }
+            finish();
+        }
+
+        @SuppressWarnings("unchecked")
+        void finish() {
+
+            final EngineFleetResult<T> result;
+            synchronized (EngineFleet.this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                if (timeoutJob != null) {
+                    timeoutJob.cancel();
+                    timeoutJob = null;
+                }
+
+                final Set<UUID> cached = new HashSet<>();
+                final Map<UUID, EngineCommandResult> lastGood = mLastGood.get(key);
+                if (lastGood != null) {
+                    for (UUID serverId : errors.keySet()) {
+                        final EngineCommandResult previous = lastGood.get(serverId);
+                        if (previous != null) {
+                            results.put(serverId, (T) previous);
+                            cached.add(serverId);
+                        }
+                    }
+                }
+                result = new EngineFleetResult<>(results, errors, cached);
+            }
+
+            consumer.accept(result);
+        }
+    }
+
+    @NonNull
+    private final TwinmeContext mTwinmeContext;
+    @NonNull
+    private final Executor mExecutor;
+    private final Map<String, Map<UUID, EngineCommandResult>> mLastGood = new HashMap<>();
+
+    EngineFleet(@NonNull TwinmeContext twinmeContext, @NonNull Executor executor) {
+
+        mTwinmeContext = twinmeContext;
+        mExecutor = executor;
+    }
+
+    /**
+     * Create and start one engine action per server and call the consumer with the merged result when every server
+     * has answered or when the timeout has expired.
+     *
+     * @param key the key identifying the command and its parameters to keep the last good result.
+     * @param servers the supervisor contacts.
+     * @param timeout the maximum time to wait for each server in milliseconds.
+     * @param factory the operation creating the engine action for a server.
+     * @param consumer the consumer called with the merged result.
+     */
+    <T extends EngineCommandResult> void execute(@NonNull String key, @NonNull List<Contact> servers, long timeout,
+                                                 @NonNull ActionFactory<T> factory,
+                                                 @NonNull Consumer<EngineFleetResult<T>> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "execute: key=" + key + " servers=" + servers.size() + " timeout=" + timeout);
+        }
+
+        final Operation<T> operation = new Operation<>(key, consumer);
+        synchronized (this) {
+            for (Contact server : servers) {
+                operation.remaining.add(server.getId());
+            }
+            if (operation.remaining.isEmpty()) {
+                operation.finished = true;
+            } else {
+                operation.timeoutJob = mTwinmeContext.getJobService().scheduleIn("EngineFleet", operation::onTimeout,
+                        timeout, JobService.Priority.MESSAGE);
+            }
+        }
+
+        if (servers.isEmpty()) {
+            consumer.accept(new EngineFleetResult<>(new HashMap<>(), new HashMap<>(), new HashSet<>()));
+            return;
+        }
+
+        for (Contact server : servers) {
+            final UUID serverId = server.getId();
+            final EngineAction<T> action = factory.create(server);
+            action.onResult((EngineAction<?> a, T result) -> operation.onResult(serverId, result));
+            action.onError((a, errorCode) -> operation.onError(serverId, errorCode));
+            mExecutor.execute(action::start);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.BaseService;
+import org.twinlife.twinlife.ConversationService;
+import org.twinlife.twinlife.ConversationService.Descriptor;
+import org.twinlife.twinlife.ConversationService.DescriptorId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forwarding rules of the engine: the descriptors received from a source are forwarded to one or several
+ * target conversations.
+ *
+ * The rules are stored in a concurrent table indexed by source id and they are read by the conversation
+ * service observer without locking.  A rule can filter the descriptor types and the senders (twincode outbound
+ * ids).  The forwards are queued per target and a single drain task submits every queued descriptor of the
+ * target, in order, so that a burst of messages does not post one task per message and per target.
+ */
+public final class ForwardRules {
+    private static final String LOG_TAG = "ForwardRules";
+    private static final boolean DEBUG = false;
+
+    static final class Rule {
+        @NonNull
+        final UUID sourceId;
+        @NonNull
+        final UUID targetConversationId;
+        @NonNull
+        final Set<Descriptor.Type> types;
+        @Nullable
+        final Set<UUID> senders;
+
+        Rule(@NonNull UUID sourceId, @NonNull UUID targetConversationId, @NonNull Set<Descriptor.Type> types,
+             @Nullable Set<UUID> senders) {
+
+            this.sourceId = sourceId;
+            this.targetConversationId = targetConversationId;
+            this.types = types;
+            this.senders = senders;
+        }
+
+        boolean accept(@NonNull Descriptor descriptor) {
+
+            if (!types.contains(descriptor.getType())) {
+                return false;
+            }
+            return senders == null || senders.contains(descriptor.getTwincodeOutboundId());
+        }
+    }
+
+    public static final class Stats {
+        public final long received;
+        public final long forwarded;
+        public final long batches;
+        public final long totalLag;
+        public final long maxLag;
+
+        Stats(long received, long forwarded, long batches, long totalLag, long maxLag) {
+
+            this.received = received;
+            this.forwarded = forwarded;
+            this.batches = batches;
+            this.totalLag = totalLag;
+            this.maxLag = maxLag;
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+
+            return "received=" + received + " forwarded=" + forwarded + " batches=" + batches
+                    + " totalLag=" + totalLag + " maxLag=" + maxLag;
+        }
+    }
+
+    private static final class Pending {
+        @NonNull
+        final DescriptorId descriptorId;
+        final long queueTime;
+
+        Pending(@NonNull DescriptorId descriptorId, long queueTime) {
+
+            this.descriptorId = descriptorId;
+            this.queueTime = queueTime;
+        }
+    }
+
+    private static final class Target {
+        final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+    }
+
+    @NonNull
+    private final TwinmeContext mTwinmeContext;
+    @NonNull
+    private final Executor mExecutor;
+    private final ConcurrentHashMap<UUID, CopyOnWriteArrayList<Rule>> mRules = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Target> mTargets = new ConcurrentHashMap<>();
+    private final AtomicLong mReceived = new AtomicLong();
+    private final AtomicLong mForwarded = new AtomicLong();
+    private final AtomicLong mBatches = new AtomicLong();
+    private final AtomicLong mTotalLag = new AtomicLong();
+    private final AtomicLong mMaxLag = new AtomicLong();
+
+    ForwardRules(@NonNull TwinmeContext twinmeContext, @NonNull Executor executor) {
+
+        mTwinmeContext = twinmeContext;
+        mExecutor = executor;
+    }
+
+    /**
+     * Add a forwarding rule.
+     *
+     * @param sourceId the source contact id for the received descriptors or conversation id for the updates.
+     * @param targetConversationId the target conversation.
+     * @param types the descriptor types to forward.
+     * @param senders the sender twincodes to forward or null for every sender.
+     */
+    void add(@NonNull UUID sourceId, @NonNull UUID targetConversationId, @NonNull Set<Descriptor.Type> types,
+             @Nullable Set<UUID> senders) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "add: sourceId=" + sourceId + " targetConversationId=" + targetConversationId);
+        }
+
+        final Rule rule = new Rule(sourceId, targetConversationId,
+                Collections.unmodifiableSet(types.isEmpty() ? EnumSet.noneOf(Descriptor.Type.class) : EnumSet.copyOf(types)),
+                senders == null ? null : Collections.unmodifiableSet(new HashSet<>(senders)));
+        final CopyOnWriteArrayList<Rule> rules = mRules.computeIfAbsent(sourceId, (UUID id) -> new CopyOnWriteArrayList<>());
+        for (Rule item : rules) {
+            if (item.targetConversationId.equals(targetConversationId)) {
+                rules.remove(item);
+            }
+        }
+        rules.add(rule);
+    }
+
+    /**
+     * Remove the rules of the source or the rules that forward to the target.
+     *
+     * @param id the source id or the target conversation id.
+     */
+    void remove(@NonNull UUID id) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "remove: id=" + id);
+        }
+
+        mRules.remove(id);
+        for (CopyOnWriteArrayList<Rule> rules : mRules.values()) {
+            for (Rule rule : rules) {
+                if (rule.targetConversationId.equals(id)) {
+                    rules.remove(rule);
+                }
+            }
+        }
+        mTargets.remove(id);
+    }
+
+    /**
+     * Forward the descriptor to the targets of the source.
+     *
+     * @param descriptor the descriptor received or updated.
+     * @param sourceId the source id (contact id for a received descriptor, conversation id for an update).
+     */
+    void forward(@NonNull Descriptor descriptor, @NonNull UUID sourceId) {
+
+        final List<Rule> rules = mRules.get(sourceId);
+        if (rules == null) {
+            return;
+        }
+
+        mReceived.incrementAndGet();
+        final long now = System.currentTimeMillis();
+        for (Rule rule : rules) {
+            if (rule.accept(descriptor)) {
+                final Target target = mTargets.computeIfAbsent(rule.targetConversationId, (UUID id) -> new Target());
+                target.queue.add(new Pending(descriptor.getDescriptorId(), now));
+                if (target.scheduled.compareAndSet(false, true)) {
+                    mExecutor.execute(() -> drain(rule.targetConversationId, target));
+                }
+            }
+        }
+    }
+
+    @NonNull
+    Stats getStats() {
+
+        return new Stats(mReceived.get(), mForwarded.get(), mBatches.get(), mTotalLag.get(), mMaxLag.get());
+    }
+
+    /**
+     * Get the target conversations of the source.
+     *
+     * @param sourceId the source id.
+     * @return the list of target conversation ids.
+     */
+    @NonNull
+    List<UUID> getTargets(@NonNull UUID sourceId) {
+
+        final List<UUID> result = new ArrayList<>();
+        final List<Rule> rules = mRules.get(sourceId);
+        if (rules != null) {
+            for (Rule rule : rules) {
+                result.add(rule.targetConversationId);
+            }
+        }
+        return result;
+    }
+
+    //
+    // Private methods
+    //
+
+    private void drain(@NonNull UUID targetConversationId, @NonNull Target target) {
+
+        target.scheduled.set(false);
+        final ConversationService conversationService = mTwinmeContext.getConversationService();
+        long maxLag = 0;
+        int count = 0;
+        Pending pending;
+        while ((pending = target.queue.poll()) != null) {
+            conversationService.forwardDescriptor(BaseService.DEFAULT_REQUEST_ID, targetConversationId, pending.descriptorId);
+            final long lag = System.currentTimeMillis() - pending.queueTime;
+            mTotalLag.addAndGet(lag);
+            if (lag > maxLag) {
+                maxLag = lag;
+            }
+            count++;
+        }
+
+        if (count > 0) {
+            mForwarded.addAndGet(count);
+            mBatches.incrementAndGet();
+            long current;
+            do {
+                current = mMaxLag.get();
+            } while (maxLag > current && !mMaxLag.compareAndSet(current, maxLag));
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2019 twinlife SA.
+ *  Copyright (c) 2019-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -13,21 +13,38 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import org.twinlife.twinme.TwinmeContext.Consumer;
+import org.twinlife.twinme.models.Contact;
 import org.twinlife.twinme.models.EngineCard;
 import org.twinlife.twinme.models.EngineCard.ChannelInvitation;
 import org.twinlife.twinme.models.EngineCard.GroupProvisioning;
+import org.twinlife.twinme.models.EngineFleetResult;
+import org.twinlife.twinme.models.EngineListResult;
 import org.twinlife.twinme.models.EngineProvisioningDescriptor;
+import org.twinlife.twinme.models.EngineServerInfoResult;
+import org.twinlife.twinme.models.EngineStatResult;
 import org.twinlife.twinme.models.GroupProvisioningDescriptor;
 import org.twinlife.twinme.models.InvitationProvisioningDescriptor;
 import org.twinlife.twinme.models.Space;
 import org.twinlife.twinme.models.SpaceCard;
 import org.twinlife.twinme.models.SpaceCardProvisioningDescriptor;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 public interface TwinmeEngine {
 
+    interface EngineCardObserver {
+
+        /**
+         * Called when the engine card is loaded, created or invalidated.
+         *
+         * @param cardId the engine card id.
+         * @param engineCard the new engine card snapshot or null when the card was updated or deleted.
+         */
+        void onUpdateEngineCard(@NonNull UUID cardId, @Nullable EngineCard engineCard);
+    }
+
     @NonNull
     TwinmeApplication getApplication();
 
@@ -54,5 +71,31 @@ public interface TwinmeEngine {
 
     void getEngineCard(long requestId, @NonNull UUID cardId, TwinmeContext.Consumer<EngineCard> consumer);
 
+    //
+    // Engine card cache: getEngineCard() and createEngineCard() give an immutable snapshot of the engine card which
+    // is kept until the card is invalidated.  The card must be invalidated when it is updated or deleted.
+    //
+
+    void invalidateEngineCard(@NonNull UUID cardId);
+
+    void addEngineCardObserver(@NonNull EngineCardObserver observer);
+
+    void removeEngineCardObserver(@NonNull EngineCardObserver observer);
+
     void setupEngine(long requestId, @NonNull EngineCard engineCard, @NonNull Space space);
+
+    //
+    // Fleet operations: the command is sent concurrently to each supervisor contact and the consumer is called
+    // once every server has answered or the timeout has expired.  A server that failed is reported with its
+    // error and with its last good result when there is one.
+    //
+
+    void listFleetEngines(@NonNull List<Contact> servers, @NonNull String filter, long timeout,
+                          @NonNull Consumer<EngineFleetResult<EngineListResult>> consumer);
+
+    void getFleetStats(@NonNull List<Contact> servers, @NonNull String filter, long timeout,
+                       @NonNull Consumer<EngineFleetResult<EngineStatResult>> consumer);
+
+    void getFleetServerInfo(@NonNull List<Contact> servers, long timeout,
+                            @NonNull Consumer<EngineFleetResult<EngineServerInfoResult>> consumer);
 }
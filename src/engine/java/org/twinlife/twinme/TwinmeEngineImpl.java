@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2019-2023 twinlife SA.
+ *  Copyright (c) 2019-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -23,6 +23,9 @@ import org.twinlife.twinlife.ConversationService.GroupConversation;
 import org.twinlife.twinlife.ConversationService.Descriptor;
 import org.twinlife.twinlife.ConversationService.UpdateType;
 import org.twinlife.twinlife.TwincodeFactoryService;
+import org.twinlife.twinme.actions.EngineListAction;
+import org.twinlife.twinme.actions.EngineServerInfoAction;
+import org.twinlife.twinme.actions.EngineStatAction;
 import org.twinlife.twinme.executors.CreateEngineCardExecutor;
 import org.twinlife.twinme.executors.CreateGroupEngineExecutor;
 import org.twinlife.twinme.executors.CreateGroupProvisioningExecutor;
@@ -34,7 +37,12 @@ import org.twinlife.twinme.executors.SetupEngineExecutor;
 import org.twinlife.twinme.models.EngineCard;
 import org.twinlife.twinme.models.EngineCard.ChannelInvitation;
 import org.twinlife.twinme.models.EngineCard.GroupProvisioning;
+import org.twinlife.twinme.models.Contact;
+import org.twinlife.twinme.models.EngineFleetResult;
+import org.twinlife.twinme.models.EngineListResult;
 import org.twinlife.twinme.models.EngineProvisioningDescriptor;
+import org.twinlife.twinme.models.EngineServerInfoResult;
+import org.twinlife.twinme.models.EngineStatResult;
 import org.twinlife.twinme.models.Group;
 import org.twinlife.twinme.models.GroupProvisioningDescriptor;
 import org.twinlife.twinme.models.InvitationProvisioningDescriptor;
@@ -43,9 +51,11 @@ import org.twinlife.twinme.TwinmeContext.Consumer;
 import org.twinlife.twinme.models.SpaceCard;
 import org.twinlife.twinme.models.SpaceCardProvisioningDescriptor;
 
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Executor;
 
@@ -70,6 +80,15 @@ public class TwinmeEngineImpl extends TwinmeContext.DefaultObserver implements T
             }
         }
 
+        @Override
+        public void onDeleteAccount(long requestId) {
+            if (DEBUG) {
+                Log.d(LOG_TAG, "TwinmeContextObserver.onDeleteAccount: requestId=" + requestId);
+            }
+
+            mEngineCards.clear();
+        }
+
     }
 
     private class ConversationServiceObserver extends ConversationService.DefaultServiceObserver {
@@ -124,7 +143,7 @@ public class TwinmeEngineImpl extends TwinmeContext.DefaultObserver implements T
 
     private final TwinmeApplication mTwinmeApplication;
     private final TwinmeContext mTwinmeContext;
-    private final HashMap<UUID, UUID> mForwardConversations = new HashMap<>();
+    private final ForwardRules mForwardRules;
 
     @SuppressLint("UseSparseArrays")
     private final HashMap<Long, Integer> mRequestIds = new HashMap<>();
@@ -132,6 +151,8 @@ public class TwinmeEngineImpl extends TwinmeContext.DefaultObserver implements T
     private final TwinmeContextObserver mTwinmeContextObserver;
     private final ConversationServiceObserver mConversationServiceObserver;
     private final Executor mTwinlifeExecutor;
+    private final EngineFleet mFleet;
+    private final EngineCardCache mEngineCards = new EngineCardCache();
 
     public TwinmeEngineImpl(@NonNull TwinmeApplication twinmeApplication,
                             @NonNull TwinmeContext twinmeContext,
@@ -143,6 +164,8 @@ public class TwinmeEngineImpl extends TwinmeContext.DefaultObserver implements T
         mTwinmeApplication = twinmeApplication;
         mTwinmeContext = twinmeContext;
         mTwinlifeExecutor = executor;
+        mFleet = new EngineFleet(twinmeContext, executor);
+        mForwardRules = new ForwardRules(twinmeContext, executor);
 
         mTwinmeContextObserver = new TwinmeContextObserver();
         mConversationServiceObserver = new ConversationServiceObserver();
@@ -168,10 +191,53 @@ public class TwinmeEngineImpl extends TwinmeContext.DefaultObserver implements T
             Log.d(LOG_TAG, "getEngineCard: requestId=" + requestId + " cardId=" + cardId);
         }
 
-        GetEngineCardExecutor getEngineCardExecutor = new GetEngineCardExecutor((TwinmeContextImpl)mTwinmeContext, requestId, cardId, consumer);
+        final EngineCard engineCard = mEngineCards.get(cardId);
+        if (engineCard != null) {
+            mTwinlifeExecutor.execute(() -> consumer.accept(engineCard));
+            return;
+        }
+
+        // The executor gives a null card when the object cannot be deserialized.
+        GetEngineCardExecutor getEngineCardExecutor = new GetEngineCardExecutor((TwinmeContextImpl)mTwinmeContext, requestId, cardId,
+                (EngineCard card) -> consumer.accept(card == null ? null : mEngineCards.put(card)));
         mTwinlifeExecutor.execute(getEngineCardExecutor::start);
     }
 
+    @Override
+    public void invalidateEngineCard(@NonNull UUID cardId) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "invalidateEngineCard: cardId=" + cardId);
+        }
+
+        mEngineCards.invalidate(cardId);
+    }
+
+    /**
+     * Replace the cached snapshot of the engine card after it was updated by a provisioning executor.
+     *
+     * @param engineCard the updated engine card.
+     */
+    public void updateEngineCard(@NonNull EngineCard engineCard) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "updateEngineCard: cardId=" + engineCard.getId());
+        }
+
+        mEngineCards.invalidate(engineCard.getId());
+        mEngineCards.put(engineCard);
+    }
+
+    @Override
+    public void addEngineCardObserver(@NonNull EngineCardObserver observer) {
+
+        mEngineCards.addObserver(observer);
+    }
+
+    @Override
+    public void removeEngineCardObserver(@NonNull EngineCardObserver observer) {
+
+        mEngineCards.removeObserver(observer);
+    }
+
     @Override
     public void setupEngine(long requestId, @NonNull EngineCard engineCard, @NonNull Space space) {
         if (DEBUG) {
@@ -256,7 +322,8 @@ public class TwinmeEngineImpl extends TwinmeContext.DefaultObserver implements T
         }
 
         CreateEngineCardExecutor createEngineCardExecutor
-                = new CreateEngineCardExecutor((TwinmeContextImpl)mTwinmeContext, requestId, this, engineDescriptor, consumer);
+                = new CreateEngineCardExecutor((TwinmeContextImpl)mTwinmeContext, requestId, this, engineDescriptor,
+                (EngineCard engineCard) -> consumer.accept(mEngineCards.put(engineCard)));
 
         mTwinlifeExecutor.execute(createEngineCardExecutor::start);
     }
@@ -278,10 +345,77 @@ public class TwinmeEngineImpl extends TwinmeContext.DefaultObserver implements T
         mTwinlifeExecutor.execute(createSpaceCardExecutor::start);
     }
 
+    @Override
+    public void listFleetEngines(@NonNull List<Contact> servers, @NonNull String filter, long timeout,
+                                 @NonNull Consumer<EngineFleetResult<EngineListResult>> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "listFleetEngines: servers=" + servers.size() + " filter=" + filter);
+        }
+
+        mFleet.execute("list:" + filter, servers, timeout,
+                (Contact server) -> EngineListAction.create(mTwinmeContext, server, filter), consumer);
+    }
+
+    @Override
+    public void getFleetStats(@NonNull List<Contact> servers, @NonNull String filter, long timeout,
+                              @NonNull Consumer<EngineFleetResult<EngineStatResult>> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "getFleetStats: servers=" + servers.size() + " filter=" + filter);
+        }
+
+        mFleet.execute("stat:" + filter, servers, timeout,
+                (Contact server) -> EngineStatAction.create(mTwinmeContext, server, filter), consumer);
+    }
+
+    @Override
+    public void getFleetServerInfo(@NonNull List<Contact> servers, long timeout,
+                                   @NonNull Consumer<EngineFleetResult<EngineServerInfoResult>> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "getFleetServerInfo: servers=" + servers.size());
+        }
+
+        mFleet.execute("info", servers, timeout,
+                (Contact server) -> EngineServerInfoAction.create(mTwinmeContext, server), consumer);
+    }
+
     public void addForward(@NonNull UUID contactId, @NonNull UUID targetConversationId) {
 
         Log.i(LOG_TAG, "Forward " + contactId + " on " + targetConversationId);
-        mForwardConversations.put(contactId, targetConversationId);
+        mForwardRules.add(contactId, targetConversationId, EnumSet.of(Descriptor.Type.OBJECT_DESCRIPTOR), null);
+    }
+
+    /**
+     * Forward the descriptors received from the source to the target conversation.  Several targets can be
+     * added for the same source.
+     *
+     * @param sourceId the source contact id for the received descriptors or conversation id for the updates.
+     * @param targetConversationId the target conversation.
+     * @param types the descriptor types to forward.
+     * @param senders the sender twincodes to forward or null for every sender.
+     */
+    public void addForward(@NonNull UUID sourceId, @NonNull UUID targetConversationId,
+                           @NonNull Set<Descriptor.Type> types, @Nullable Set<UUID> senders) {
+
+        Log.i(LOG_TAG, "Forward " + sourceId + " on " + targetConversationId + " types=" + types);
+        mForwardRules.add(sourceId, targetConversationId, types, senders);
+    }
+
+    @NonNull
+    public List<UUID> getForwardTargets(@NonNull UUID sourceId) {
+
+        return mForwardRules.getTargets(sourceId);
+    }
+
+    /**
+     * Get the forwarding metrics: descriptors received from a forwarded source, descriptors forwarded, number of
+     * forward batches and the lag between the reception and the forward.
+     *
+     * @return the forwarding metrics.
+     */
+    @NonNull
+    public ForwardRules.Stats getForwardStats() {
+
+        return mForwardRules.getStats();
     }
 
     //
@@ -296,6 +430,8 @@ public class TwinmeEngineImpl extends TwinmeContext.DefaultObserver implements T
 
         super.onTwinlifeReady();
 
+        // The cached cards belong to the previous account when the user signed out and signed in again.
+        mEngineCards.clear();
         mTwinmeContext.setObserver(mTwinmeContextObserver);
         mTwinmeContext.getConversationService().addServiceObserver(mConversationServiceObserver);
     }
@@ -314,9 +450,7 @@ public class TwinmeEngineImpl extends TwinmeContext.DefaultObserver implements T
             Log.d(LOG_TAG, "removeConversation: twincodeOutboundId=" + conversationId);
         }
 
-        synchronized (mForwardConversations) {
-            mForwardConversations.remove(conversationId);
-        }
+        mForwardRules.remove(conversationId);
     }
 
     private void onLeaveGroup(@NonNull UUID memberId) {
@@ -347,16 +481,7 @@ public class TwinmeEngineImpl extends TwinmeContext.DefaultObserver implements T
             Log.d(LOG_TAG, "onPopDescriptor: conversation=" + conversation + " descriptor=" + descriptor);
         }
 
-        if (descriptor.getType() != Descriptor.Type.OBJECT_DESCRIPTOR) {
-
-            return;
-        }
-        UUID forwardConversationId = mForwardConversations.get(conversation.getContactId());
-        if (forwardConversationId != null) {
-            long requestId = BaseService.DEFAULT_REQUEST_ID;
-
-            mTwinmeContext.getConversationService().forwardDescriptor(requestId, forwardConversationId, descriptor.getDescriptorId());
-        }
+        mForwardRules.forward(descriptor, conversation.getContactId());
     }
 
     private void onUpdateDescriptor(@NonNull Conversation conversation, @NonNull Descriptor descriptor, UpdateType updateType) {
@@ -369,12 +494,9 @@ public class TwinmeEngineImpl extends TwinmeContext.DefaultObserver implements T
             return;
         }
 
-        UUID forwardConversationId = mForwardConversations.get(conversation.getId());
-        if (forwardConversationId != null) {
-            long requestId = BaseService.DEFAULT_REQUEST_ID;
-
-            mTwinmeContext.getConversationService().forwardDescriptor(requestId, forwardConversationId, descriptor.getDescriptorId());
-        }
+        // The updates are only forwarded by the rules keyed on the conversation id: a rule keyed on the
+        // contact id has already forwarded the descriptor when it was received.
+        mForwardRules.forward(descriptor, conversation.getId());
     }
 
     private void onError(int operationId, ErrorCode errorCode, @Nullable String errorParameter) {
@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2021 twinlife SA.
+ *  Copyright (c) 2021-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -82,36 +82,46 @@ public abstract class EngineAction<Result extends EngineCommandResult> extends M
             Log.d(LOG_TAG, "onResponse response=" + response);
         }
 
-        switch (response.getStatus()) {
+        if (response.getStatus() == EngineCommandResult.Status.SUCCESS) {
+            if (mConsumer != null) {
+                mConsumer.accept(this, (Result) response);
+            }
+        } else {
+            fireError(toErrorCode(response.getStatus()));
+        }
+    }
+
+    /**
+     * Get the error code that corresponds to the engine command status.
+     *
+     * @param status the engine command status.
+     * @return the error code.
+     */
+    @NonNull
+    public static ErrorCode toErrorCode(@NonNull EngineCommandResult.Status status) {
+
+        switch (status) {
             case SUCCESS:
-                if (mConsumer != null) {
-                    mConsumer.accept(this, (Result) response);
-                }
-                return;
+                return ErrorCode.SUCCESS;
 
             case ITEM_NOT_FOUND:
-                fireError(ErrorCode.ITEM_NOT_FOUND);
-                return;
-
-            case ERROR:
-                fireError(ErrorCode.SERVER_ERROR);
-                return;
+                return ErrorCode.ITEM_NOT_FOUND;
 
             case BAD_COMMAND:
-                fireError(ErrorCode.BAD_REQUEST);
-                return;
+                return ErrorCode.BAD_REQUEST;
 
             case PERMISSION_DENIED:
-                fireError(ErrorCode.NO_PERMISSION);
-                return;
+                return ErrorCode.NO_PERMISSION;
 
             case NO_SPACE:
-                fireError(ErrorCode.NO_STORAGE_SPACE);
-                return;
+                return ErrorCode.NO_STORAGE_SPACE;
 
             case UNKNOWN_ENGINE_CLASS:
-                fireError(ErrorCode.FEATURE_NOT_SUPPORTED_BY_PEER);
-                return;
+                return ErrorCode.FEATURE_NOT_SUPPORTED_BY_PEER;
+
+            case ERROR:
+            default:
+                return ErrorCode.SERVER_ERROR;
         }
     }
 }
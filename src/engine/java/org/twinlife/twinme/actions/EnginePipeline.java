@@ -0,0 +1,315 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.actions;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.BaseService.ErrorCode;
+import org.twinlife.twinlife.Consumer;
+import org.twinlife.twinlife.ConversationService;
+import org.twinlife.twinlife.ConversationService.Conversation;
+import org.twinlife.twinlife.ConversationService.Descriptor;
+import org.twinlife.twinlife.ConversationService.TransientObjectDescriptor;
+import org.twinlife.twinlife.JobService;
+import org.twinlife.twinme.TwinmeContext;
+import org.twinlife.twinme.models.Contact;
+import org.twinlife.twinme.models.EngineBatchCommand;
+import org.twinlife.twinme.models.EngineBatchResult;
+import org.twinlife.twinme.models.EngineCommand;
+import org.twinlife.twinme.models.EngineCommandResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Send engine commands to a supervisor contact while keeping several of them in flight.
+ *
+ * An EngineAction waits for the EngineCommandResult before the caller can send the next command.  The pipeline
+ * sends up to `window` commands (or batches of commands) without waiting and matches the results with the
+ * request ids.  The commands are sent in the order of submission and the commands which exceed the window are
+ * queued until a result is received.  Each command is given the same 20s timeout as an EngineAction.
+ */
+public class EnginePipeline {
+    private static final String LOG_TAG = "EnginePipeline";
+    private static final boolean DEBUG = false;
+
+    private static final long ENGINE_TIMEOUT = 20000;
+
+    private static final class Pending {
+        final long requestId;
+        @NonNull
+        final Object command;
+        @Nullable
+        final Consumer<EngineCommandResult> consumer;
+        @Nullable
+        final Consumer<List<EngineCommandResult>> batchConsumer;
+        long deadline;
+
+        Pending(long requestId, @NonNull Object command, @Nullable Consumer<EngineCommandResult> consumer,
+                @Nullable Consumer<List<EngineCommandResult>> batchConsumer) {
+
+            this.requestId = requestId;
+            this.command = command;
+            this.consumer = consumer;
+            this.batchConsumer = batchConsumer;
+        }
+
+        void fail(@NonNull ErrorCode errorCode) {
+
+            if (consumer != null) {
+                consumer.onGet(errorCode, null);
+            } else if (batchConsumer != null) {
+                batchConsumer.onGet(errorCode, null);
+            }
+        }
+    }
+
+    private class ConversationServiceObserver extends ConversationService.DefaultServiceObserver {
+
+        @Override
+        public void onPopDescriptor(long requestId, @NonNull Conversation conversation, @NonNull Descriptor descriptor) {
+
+            if (!(descriptor instanceof TransientObjectDescriptor)) {
+                return;
+            }
+
+            final Object object = ((TransientObjectDescriptor) descriptor).getObject();
+            if (object instanceof EngineCommandResult) {
+                EnginePipeline.this.onResult(conversation, (EngineCommandResult) object);
+            }
+        }
+    }
+
+    @NonNull
+    private final TwinmeContext mTwinmeContext;
+    @NonNull
+    private final Contact mContact;
+    private final int mWindow;
+    @NonNull
+    private final ConversationServiceObserver mConversationServiceObserver;
+    private final ArrayDeque<Pending> mWaiting = new ArrayDeque<>();
+    private final Map<Long, Pending> mInFlight = new HashMap<>();
+    @Nullable
+    private Conversation mConversation;
+    @Nullable
+    private JobService.Job mTimeoutJob;
+    private boolean mClosed;
+
+    public EnginePipeline(@NonNull TwinmeContext twinmeContext, @NonNull Contact contact, int window) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "EnginePipeline: contact=" + contact + " window=" + window);
+        }
+
+        mTwinmeContext = twinmeContext;
+        mContact = contact;
+        mWindow = Math.max(1, window);
+        mConversationServiceObserver = new ConversationServiceObserver();
+        twinmeContext.getConversationService().addServiceObserver(mConversationServiceObserver);
+    }
+
+    /**
+     * Send the command and call the consumer with its result.
+     *
+     * @param command the engine command.
+     * @param consumer the consumer called with the command result or the error.
+     */
+    public void send(@NonNull EngineCommand command, @NonNull Consumer<EngineCommandResult> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "send: command=" + command);
+        }
+
+        submit(new Pending(command.getRequestId(), command, consumer, null));
+    }
+
+    /**
+     * Send the commands in a single EngineBatchCommand and call the consumer with the result of each command.
+     *
+     * @param commands the engine commands executed in order by the engine (at most EngineBatchCommand.MAX_COMMANDS).
+     * @param consumer the consumer called with the list of command results or the error.
+     */
+    public void sendBatch(@NonNull List<EngineCommand> commands, @NonNull Consumer<List<EngineCommandResult>> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "sendBatch: commands=" + commands.size());
+        }
+
+        final EngineBatchCommand batch = new EngineBatchCommand(mTwinmeContext.newRequestId(), commands);
+        submit(new Pending(batch.getRequestId(), batch, null, consumer));
+    }
+
+    /**
+     * Get the number of commands sent and waiting for their result.
+     *
+     * @return the number of commands in flight.
+     */
+    public synchronized int getInFlightCount() {
+
+        return mInFlight.size();
+    }
+
+    /**
+     * Close the pipeline: the commands not yet answered are terminated with the EXPIRED error.
+     */
+    public void close() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "close");
+        }
+
+        final List<Pending> pending;
+        synchronized (this) {
+            if (mClosed) {
+                return;
+            }
+            mClosed = true;
+            pending = new ArrayList<>(mInFlight.values());
+            pending.addAll(mWaiting);
+            mInFlight.clear();
+            mWaiting.clear();
+            if (mTimeoutJob != null) {
+                mTimeoutJob.cancel();
+                mTimeoutJob = null;
+            }
+        }
+
+        mTwinmeContext.getConversationService().removeServiceObserver(mConversationServiceObserver);
+        for (Pending item : pending) {
+            item.fail(ErrorCode.EXPIRED);
+        }
+    }
+
+    //
+    // Private methods
+    //
+
+    private void submit(@NonNull Pending pending) {
+
+        final boolean closed;
+        synchronized (this) {
+            closed = mClosed;
+            if (!closed) {
+                mWaiting.add(pending);
+            }
+        }
+
+        if (closed) {
+            pending.fail(ErrorCode.EXPIRED);
+            return;
+        }
+        sendNext();
+    }
+
+    private void sendNext() {
+
+        final List<Pending> toSend = new ArrayList<>();
+        final Conversation conversation;
+        synchronized (this) {
+            if (mConversation == null) {
+                mConversation = mTwinmeContext.getConversationService().getOrCreateConversation(mContact);
+            }
+            conversation = mConversation;
+            if (conversation != null) {
+                final long deadline = System.currentTimeMillis() + ENGINE_TIMEOUT;
+                while (mInFlight.size() < mWindow && !mWaiting.isEmpty()) {
+                    final Pending pending = mWaiting.poll();
+                    pending.deadline = deadline;
+                    mInFlight.put(pending.requestId, pending);
+                    toSend.add(pending);
+                }
+                if (!toSend.isEmpty() && mTimeoutJob == null) {
+                    mTimeoutJob = mTwinmeContext.getJobService().scheduleIn("EnginePipeline", this::onTimeout,
+                            ENGINE_TIMEOUT, JobService.Priority.MESSAGE);
+                }
+            } else {
+                toSend.addAll(mWaiting);
+                mWaiting.clear();
+            }
+        }
+
+        if (conversation == null) {
+            for (Pending pending : toSend) {
+                pending.fail(ErrorCode.ITEM_NOT_FOUND);
+            }
+            return;
+        }
+
+        final ConversationService conversationService = mTwinmeContext.getConversationService();
+        for (Pending pending : toSend) {
+            conversationService.pushCommand(pending.requestId, conversation, pending.command);
+        }
+    }
+
+    private void onResult(@NonNull Conversation conversation, @NonNull EngineCommandResult result) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onResult: result=" + result);
+        }
+
+        final Pending pending;
+        synchronized (this) {
+            if (mConversation == null || !mConversation.getId().equals(conversation.getId())) {
+                return;
+            }
+            pending = mInFlight.remove(result.getRequestId());
+        }
+        if (pending == null) {
+            return;
+        }
+
+        if (result.getStatus() != EngineCommandResult.Status.SUCCESS) {
+            pending.fail(EngineAction.toErrorCode(result.getStatus()));
+        } else if (pending.consumer != null) {
+            pending.consumer.onGet(ErrorCode.SUCCESS, result);
+        } else if (pending.batchConsumer != null) {
+            if (result instanceof EngineBatchResult) {
+                pending.batchConsumer.onGet(ErrorCode.SUCCESS, ((EngineBatchResult) result).getResults());
+            } else {
+                pending.batchConsumer.onGet(ErrorCode.BAD_REQUEST, null);
+            }
+        }
+        sendNext();
+    }
+
+    private void onTimeout() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onTimeout");
+        }
+
+        final List<Pending> expired = new ArrayList<>();
+        synchronized (this) {
+            mTimeoutJob = null;
+            final long now = System.currentTimeMillis();
+            long nextDeadline = Long.MAX_VALUE;
+            final Iterator<Pending> iterator = mInFlight.values().iterator();
+            while (iterator.hasNext()) {
+                final Pending pending = iterator.next();
+                if (pending.deadline <= now) {
+                    expired.add(pending);
+                    iterator.remove();
+                } else if (pending.deadline < nextDeadline) {
+                    nextDeadline = pending.deadline;
+                }
+            }
+            if (!mClosed && nextDeadline != Long.MAX_VALUE) {
+                mTimeoutJob = mTwinmeContext.getJobService().scheduleIn("EnginePipeline", this::onTimeout,
+                        nextDeadline - now, JobService.Priority.MESSAGE);
+            }
+        }
+
+        for (Pending pending : expired) {
+            pending.fail(ErrorCode.TIMEOUT_ERROR);
+        }
+        if (!expired.isEmpty()) {
+            sendNext();
+        }
+    }
+}
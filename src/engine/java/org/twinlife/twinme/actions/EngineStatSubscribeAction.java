@@ -0,0 +1,49 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.actions;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import org.twinlife.twinme.TwinmeContext;
+import org.twinlife.twinme.models.Contact;
+import org.twinlife.twinme.models.EngineCommand;
+import org.twinlife.twinme.models.EngineCommandResult;
+
+/**
+ * Engine stat subscribe action to receive periodic EngineStatUpdate from the Twinroom engines.
+ */
+public class EngineStatSubscribeAction extends EngineAction<EngineCommandResult> {
+    private static final String LOG_TAG = "EngineStatSubscribeAct";
+    private static final boolean DEBUG = false;
+
+    private final long mSubscriptionId;
+
+    @NonNull
+    public static EngineStatSubscribeAction create(@NonNull TwinmeContext twinmeContext, @NonNull Contact contact,
+                                                   @NonNull String filter, long period) {
+
+        return new EngineStatSubscribeAction(twinmeContext, contact,
+                EngineCommand.subscribeStats(twinmeContext.newRequestId(), filter, period));
+    }
+
+    private EngineStatSubscribeAction(@NonNull TwinmeContext twinmeContext, @NonNull Contact contact,
+                                      @NonNull EngineCommand command) {
+        super(twinmeContext, contact, command);
+        if (DEBUG) {
+            Log.d(LOG_TAG, "EngineStatSubscribeAction");
+        }
+
+        mSubscriptionId = command.getSubscriptionId();
+    }
+
+    public long getSubscriptionId() {
+
+        return mSubscriptionId;
+    }
+}
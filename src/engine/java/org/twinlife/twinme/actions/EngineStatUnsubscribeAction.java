@@ -0,0 +1,39 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.actions;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import org.twinlife.twinme.TwinmeContext;
+import org.twinlife.twinme.models.Contact;
+import org.twinlife.twinme.models.EngineCommand;
+import org.twinlife.twinme.models.EngineCommandResult;
+
+/**
+ * Engine stat unsubscribe action to stop the EngineStatUpdate of a subscription.
+ */
+public class EngineStatUnsubscribeAction extends EngineAction<EngineCommandResult> {
+    private static final String LOG_TAG = "EngineStatUnsubscribeA";
+    private static final boolean DEBUG = false;
+
+    @NonNull
+    public static EngineStatUnsubscribeAction create(@NonNull TwinmeContext twinmeContext, @NonNull Contact contact,
+                                                     long subscriptionId) {
+
+        return new EngineStatUnsubscribeAction(twinmeContext, contact, subscriptionId);
+    }
+
+    private EngineStatUnsubscribeAction(@NonNull TwinmeContext twinmeContext, @NonNull Contact contact,
+                                        long subscriptionId) {
+        super(twinmeContext, contact, EngineCommand.unsubscribeStats(twinmeContext.newRequestId(), subscriptionId));
+        if (DEBUG) {
+            Log.d(LOG_TAG, "EngineStatUnsubscribeAction");
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2019 twinlife SA.
+ *  Copyright (c) 2019-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -38,7 +38,7 @@ import java.util.UUID;
 // All observers are running in the SingleThreadExecutor provided by the twinlife library
 // All observers are reachable (not eligible for garbage collection) between start() and stop() calls
 //
-// version: 1.0
+// version: 1.1
 //
 
 public class CreateEngineCardExecutor {
@@ -91,7 +91,7 @@ public class CreateEngineCardExecutor {
 
             Integer operationId = mRequestIds.remove(requestId);
             if (operationId != null) {
-                CreateEngineCardExecutor.this.onError(operationId, errorCode, errorParameter);
+                CreateEngineCardExecutor.this.onError(requestId, operationId, errorCode, errorParameter);
                 onOperation();
             }
         }
@@ -120,7 +120,7 @@ public class CreateEngineCardExecutor {
 
             Integer operationId = mRequestIds.remove(requestId);
             if (operationId != null) {
-                CreateEngineCardExecutor.this.onError(operationId, errorCode, errorParameter);
+                CreateEngineCardExecutor.this.onError(requestId, operationId, errorCode, errorParameter);
             }
         }
     }
@@ -152,6 +152,12 @@ public class CreateEngineCardExecutor {
     private final List<GroupInvitationPair> mInvitations;
     private final List<SpaceCardProvisioningDescriptor> mSpaceCards;
     private final Map<GroupProvisioningDescriptor, UUID> mGroupTwincodes;
+    private final GroupProvisioning[] mGroupResults;
+    private final SpaceCard[] mSpaceCardResults;
+    @NonNull
+    private final ProvisioningPlanner mPlanner;
+    @SuppressLint("UseSparseArrays")
+    private final HashMap<Long, Integer> mStepRequestIds = new HashMap<>();
     @NonNull
     private final Consumer<EngineCard> mConsumer;
 
@@ -173,12 +179,38 @@ public class CreateEngineCardExecutor {
         mTwinmeContextImpl = twinmeContextImpl;
         mTwinmeEngineImpl = twinmeEngineImpl;
         mRequestId = requestId;
-        mGroups = engineDescriptor.groups;
+        mGroups = new ArrayList<>(engineDescriptor.groups);
         mGroupTwincodes = new HashMap<>();
-        mSpaceCards = engineDescriptor.spaceCards;
+        mSpaceCards = new ArrayList<>(engineDescriptor.spaceCards);
         mEngineCard = new EngineCard();
         mInvitations = new ArrayList<>();
         mConsumer = consumer;
+        mGroupResults = new GroupProvisioning[mGroups.size()];
+        mSpaceCardResults = new SpaceCard[mSpaceCards.size()];
+
+        // Build the provisioning plan: the groups are independent and a space card depends on the groups
+        // for which it creates an invitation.
+        mPlanner = new ProvisioningPlanner(ProvisioningPlanner.MAX_PARALLEL);
+        final Map<GroupProvisioningDescriptor, Integer> groupSteps = new HashMap<>();
+        for (GroupProvisioningDescriptor group : mGroups) {
+            groupSteps.put(group, mPlanner.addStep(this::createGroup));
+        }
+        for (SpaceCardProvisioningDescriptor spaceCard : mSpaceCards) {
+            final List<Integer> dependencies = new ArrayList<>();
+            if (spaceCard.invitations != null) {
+                for (GroupProvisioningDescriptor group : spaceCard.invitations.keySet()) {
+                    final Integer stepId = groupSteps.get(group);
+                    if (stepId != null && !dependencies.contains(stepId)) {
+                        dependencies.add(stepId);
+                    }
+                }
+            }
+            final int[] stepIds = new int[dependencies.size()];
+            for (int i = 0; i < stepIds.length; i++) {
+                stepIds[i] = dependencies.get(i);
+            }
+            mPlanner.addStep(this::createSpaceCard, stepIds);
+        }
 
         mTwinmeContextObserver = new TwinmeContextObserver();
         mRepositoryServiceObserver = new RepositoryServiceObserver();
@@ -248,91 +280,38 @@ public class CreateEngineCardExecutor {
         }
 
         //
-        // Step 1: create the group provisioning list (admin and group twincodes).
+        // Step 1: create the group provisioning (admin and group twincodes) and the space cards with their
+        // invitations, in parallel, a space card being created when its groups are created.
         //
 
-        if (!mGroups.isEmpty()) {
-            boolean completedStep1 = true;
-
-            if ((mState & CREATE_GROUP) == 0) {
-                mState |= CREATE_GROUP;
-                completedStep1 = false;
-
-                long requestId = newOperation(CREATE_GROUP);
-                if (DEBUG) {
-                    Log.d(LOG_TAG, "twinmeContext.getGroups: requestId=" + requestId);
-                }
-                GroupProvisioningDescriptor groupDescriptor = mGroups.get(0);
-                mTwinmeEngineImpl.createGroupProvisionning(requestId, groupDescriptor, (GroupProvisioning group) -> {
-                    mRequestIds.remove(requestId);
-                    //if (!groupDescriptor.invitations.isEmpty()) {
-                    //    mInvitations.add(new GroupInvitationPair(groupDescriptor, group.groupTwincodeOutId, groupDescriptor.invitations));
-                    //}
-                    mGroupTwincodes.put(groupDescriptor, group.groupTwincodeOutId);
-                    mEngineCard.getGroups().add(group);
-                    mGroups.remove(0);
-                    if (mGroups.isEmpty()) {
-                        mState |= CREATE_GROUP_DONE;
-                    } else {
-                        mState &= ~(CREATE_GROUP);
-                    }
-                    onOperation();
-                });
-            }
-            if ((mState & CREATE_GROUP_DONE) == 0) {
-                completedStep1 = false;
+        if ((mState & CREATE_SPACE_CARD_DONE) == 0) {
+            if (!mRestarted) {
+                mPlanner.schedule();
             }
-
-            if (!completedStep1) {
+            if (!mPlanner.isFinished()) {
 
                 return;
             }
-        }
-
-        //
-        // Step 2: create the invitations provisionning for the groups.
-        //
-        if (!mSpaceCards.isEmpty()) {
-            boolean completedStep2 = true;
-
-            if ((mState & CREATE_SPACE_CARD) == 0) {
-                mState |= CREATE_SPACE_CARD;
-                completedStep2 = false;
 
-                long requestId = newOperation(CREATE_SPACE_CARD);
-                if (DEBUG) {
-                    Log.d(LOG_TAG, "twinmeContext.getGroups: requestId=" + requestId);
-                }
-                SpaceCardProvisioningDescriptor spaceCardProvisioningDescriptor = mSpaceCards.get(0);
-
-                mTwinmeEngineImpl.createSpaceCardProvisionning(requestId, mEngineCard, mGroupTwincodes, spaceCardProvisioningDescriptor,
-                        (SpaceCard spaceCard) -> {
-                            mRequestIds.remove(requestId);
-                            mEngineCard.getSpaceCards().add(spaceCard);
-                            mSpaceCards.remove(0);
-                            if (mSpaceCards.isEmpty()) {
-                                mState |= CREATE_SPACE_CARD_DONE;
-                            } else {
-                                mState &= ~(CREATE_SPACE_CARD);
-                            }
-                            onOperation();
-                        });
+            // Populate the engine card in the order of the provisioning descriptor.
+            mState |= CREATE_GROUP | CREATE_GROUP_DONE | CREATE_SPACE_CARD | CREATE_SPACE_CARD_DONE;
+            for (GroupProvisioning group : mGroupResults) {
+                mEngineCard.getGroups().add(group);
             }
-            if ((mState & CREATE_SPACE_CARD_DONE) == 0) {
-                completedStep2 = false;
-            }
-
-            if (!completedStep2) {
-
-                return;
+            for (SpaceCard spaceCard : mSpaceCardResults) {
+                mEngineCard.getSpaceCards().add(spaceCard);
             }
         }
 
-        boolean completedStep3 = true;
+        //
+        // Step 2: create the engine card object.
+        //
+
+        boolean completedStep2 = true;
 
         if ((mState & CREATE_OBJECT) == 0) {
             mState |= CREATE_OBJECT;
-            completedStep3 = false;
+            completedStep2 = false;
 
             long requestId = newOperation(CREATE_OBJECT);
             String content = mEngineCard.serialize(mTwinmeContextImpl.getRepositoryService());
@@ -344,10 +323,10 @@ public class CreateEngineCardExecutor {
                     mEngineCard.getSerializer(), mEngineCard.isImmutable(), mEngineCard.getId(), content, null);
         }
         if ((mState & CREATE_OBJECT_DONE) == 0) {
-            completedStep3 = false;
+            completedStep2 = false;
         }
 
-        if (!completedStep3) {
+        if (!completedStep2) {
 
             return;
         }
@@ -380,14 +359,61 @@ public class CreateEngineCardExecutor {
         }
     }
 
-    private void onError(int operationId, ErrorCode errorCode, @Nullable String errorParameter) {
+    private void createGroup(int stepId) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "createGroup: stepId=" + stepId);
+        }
+
+        final GroupProvisioningDescriptor groupDescriptor = mGroups.get(stepId);
+        final long requestId = newOperation(CREATE_GROUP);
+        mStepRequestIds.put(requestId, stepId);
+        if (DEBUG) {
+            Log.d(LOG_TAG, "twinmeEngine.createGroupProvisionning: requestId=" + requestId);
+        }
+        mTwinmeEngineImpl.createGroupProvisionning(requestId, groupDescriptor, (GroupProvisioning group) -> {
+            mRequestIds.remove(requestId);
+            mStepRequestIds.remove(requestId);
+            mGroupTwincodes.put(groupDescriptor, group.groupTwincodeOutId);
+            mGroupResults[stepId] = group;
+            mPlanner.complete(stepId);
+            onOperation();
+        });
+    }
+
+    private void createSpaceCard(int stepId) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "createSpaceCard: stepId=" + stepId);
+        }
+
+        final int index = stepId - mGroups.size();
+        final SpaceCardProvisioningDescriptor spaceCardProvisioningDescriptor = mSpaceCards.get(index);
+        final long requestId = newOperation(CREATE_SPACE_CARD);
+        mStepRequestIds.put(requestId, stepId);
+        if (DEBUG) {
+            Log.d(LOG_TAG, "twinmeEngine.createSpaceCardProvisionning: requestId=" + requestId);
+        }
+        mTwinmeEngineImpl.createSpaceCardProvisionning(requestId, mEngineCard, mGroupTwincodes, spaceCardProvisioningDescriptor,
+                (SpaceCard spaceCard) -> {
+                    mRequestIds.remove(requestId);
+                    mStepRequestIds.remove(requestId);
+                    mSpaceCardResults[index] = spaceCard;
+                    mPlanner.complete(stepId);
+                    onOperation();
+                });
+    }
+
+    private void onError(long requestId, int operationId, ErrorCode errorCode, @Nullable String errorParameter) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onError: operationId=" + operationId + " errorCode=" + errorCode + " errorParameter=" + errorParameter);
         }
 
-        // Wait for reconnection
+        // Wait for reconnection and launch the interrupted provisioning step again.
+        Integer stepId = mStepRequestIds.remove(requestId);
         if (errorCode == ErrorCode.TWINLIFE_OFFLINE) {
             mRestarted = true;
+            if (stepId != null) {
+                mPlanner.retry(stepId);
+            }
 
             return;
         }
@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2019-2023 twinlife SA.
+ *  Copyright (c) 2019-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -42,7 +42,7 @@ import java.util.UUID;
 // All observers are running in the SingleThreadExecutor provided by the twinlife library
 // All observers are reachable (not eligible for garbage collection) between start() and stop() calls
 //
-// version: 1.1
+// version: 1.2
 //
 
 public class CreateSpaceCardExecutor {
@@ -95,7 +95,7 @@ public class CreateSpaceCardExecutor {
 
             Integer operationId = mRequestIds.remove(requestId);
             if (operationId != null) {
-                CreateSpaceCardExecutor.this.onError(operationId, errorCode, errorParameter);
+                CreateSpaceCardExecutor.this.onError(requestId, operationId, errorCode, errorParameter);
                 onOperation();
             }
         }
@@ -124,7 +124,7 @@ public class CreateSpaceCardExecutor {
 
             Integer operationId = mRequestIds.remove(requestId);
             if (operationId != null) {
-                CreateSpaceCardExecutor.this.onError(operationId, errorCode, errorParameter);
+                CreateSpaceCardExecutor.this.onError(requestId, operationId, errorCode, errorParameter);
             }
         }
     }
@@ -154,7 +154,11 @@ public class CreateSpaceCardExecutor {
     private SpaceCard mSpaceCard;
     @NonNull
     private final EngineCard mEngineCard;
+    private final boolean mUpdateCache;
     private final List<GroupInvitationPair> mInvitations;
+    private final ChannelInvitation[] mInvitationResults;
+    @NonNull
+    private final ProvisioningPlanner mPlanner;
     @NonNull
     private final Consumer<SpaceCard> mConsumer;
     private final String mName;
@@ -165,6 +169,8 @@ public class CreateSpaceCardExecutor {
     private int mState = 0;
     @SuppressLint("UseSparseArrays")
     private final HashMap<Long, Integer> mRequestIds = new HashMap<>();
+    @SuppressLint("UseSparseArrays")
+    private final HashMap<Long, Integer> mStepRequestIds = new HashMap<>();
     private final long mRequestId;
     private boolean mRestarted = false;
     private boolean mStopped = false;
@@ -182,7 +188,9 @@ public class CreateSpaceCardExecutor {
         mTwinmeContextImpl = twinmeContextImpl;
         mTwinmeEngineImpl = twinmeEngineImpl;
         mRequestId = requestId;
-        mEngineCard = engineCard;
+        // A cached snapshot cannot be modified: populate a copy and put it back in the cache at the end.
+        mUpdateCache = engineCard.isSnapshot();
+        mEngineCard = mUpdateCache ? engineCard.copy() : engineCard;
         mName = spaceCardProvisioningDescriptor.name;
         mDescription = spaceCardProvisioningDescriptor.description;
         mAvatar = spaceCardProvisioningDescriptor.avatar;
@@ -191,6 +199,13 @@ public class CreateSpaceCardExecutor {
 
             mInvitations.add(new GroupInvitationPair(invitation.getKey(), groupTwincodes.get(invitation.getKey()), invitation.getValue()));
         }
+        mInvitationResults = new ChannelInvitation[mInvitations.size()];
+
+        // The invitations only depend on their group twincode which is already created.
+        mPlanner = new ProvisioningPlanner(ProvisioningPlanner.MAX_PARALLEL);
+        for (int i = 0; i < mInvitations.size(); i++) {
+            mPlanner.addStep(this::createInvitation);
+        }
         mConsumer = consumer;
 
         mTwinmeContextObserver = new TwinmeContextObserver();
@@ -292,7 +307,8 @@ public class CreateSpaceCardExecutor {
                         + "twincodeInboundAttributes=null" + "twincodeOutboundAttributes=" + twincodeOutboundAttributes);
             }
             mTwinmeEngineImpl.createTwincode(requestId, twincodeFactoryAttributes, null,
-                    twincodeOutboundAttributes, null, this::onCreateTwincode);
+                    twincodeOutboundAttributes, null,
+                    (ErrorCode status, TwincodeFactory twincodeFactory) -> onCreateTwincode(requestId, status, twincodeFactory));
         }
         if ((mState & CREATE_SPACE_TWINCODE_DONE) == 0) {
             completedStep1 = false;
@@ -304,45 +320,25 @@ public class CreateSpaceCardExecutor {
         }
 
         //
-        // Step 2: create the invitations provisioning for the groups.
+        // Step 2: create the invitations provisioning for the groups, in parallel.
         //
-        if (!mInvitations.isEmpty()) {
-            boolean completedStep2 = true;
-
-            if ((mState & CREATE_INVITATION) == 0) {
-                mState |= CREATE_INVITATION;
-                completedStep2 = false;
-
-                long requestId = newOperation(CREATE_INVITATION);
-                if (DEBUG) {
-                    Log.d(LOG_TAG, "twinmeContext.getGroups: requestId=" + requestId);
-                }
-                GroupInvitationPair groupInvitations = mInvitations.get(0);
-                InvitationProvisioningDescriptor invitationProvisioningDescriptor = groupInvitations.invitation;
-
-                mTwinmeEngineImpl.createInvitationProvisionning(requestId, groupInvitations.groupTwincodeId,
-                        groupInvitations.group, invitationProvisioningDescriptor,
-                        (ChannelInvitation invitation) -> {
-                            mRequestIds.remove(requestId);
-                            mEngineCard.getInvitations().add(invitation);
-                            mSpaceCard.getInvitations().add(invitation.invitationTwincodeOutId);
-                            mInvitations.remove(0);
-                            if (mInvitations.isEmpty()) {
-                                mState |= CREATE_INVITATION_DONE;
-                            } else {
-                                mState &= ~(CREATE_INVITATION);
-                            }
-                            onOperation();
-                        });
-            }
-            if ((mState & CREATE_INVITATION_DONE) == 0) {
-                completedStep2 = false;
-            }
 
-            if (!completedStep2) {
+        if ((mState & CREATE_INVITATION_DONE) == 0) {
+            mState |= CREATE_INVITATION;
+            if (!mRestarted) {
+                mPlanner.schedule();
+            }
+            if (!mPlanner.isFinished()) {
 
                 return;
             }
+
+            // Populate the cards in the order of the provisioning descriptor.
+            mState |= CREATE_INVITATION_DONE;
+            for (ChannelInvitation invitation : mInvitationResults) {
+                mEngineCard.getInvitations().add(invitation);
+                mSpaceCard.getInvitations().add(invitation.invitationTwincodeOutId);
+            }
         }
 
         boolean completedStep3 = true;
@@ -375,17 +371,42 @@ public class CreateSpaceCardExecutor {
 
         mTwinmeContextImpl.assertNotNull(LOG_TAG, mSpaceCard);
 
+        if (mUpdateCache) {
+            mTwinmeEngineImpl.updateEngineCard(mEngineCard);
+        }
         mConsumer.accept(mSpaceCard);
         stop();
     }
 
-    private void onCreateTwincode(@Nullable ErrorCode status, @Nullable TwincodeFactory twincodeFactory) {
+    private void createInvitation(int stepId) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "createInvitation: stepId=" + stepId);
+        }
+
+        final GroupInvitationPair groupInvitations = mInvitations.get(stepId);
+        final long requestId = newOperation(CREATE_INVITATION);
+        mStepRequestIds.put(requestId, stepId);
+        if (DEBUG) {
+            Log.d(LOG_TAG, "twinmeEngine.createInvitationProvisionning: requestId=" + requestId);
+        }
+        mTwinmeEngineImpl.createInvitationProvisionning(requestId, groupInvitations.groupTwincodeId,
+                groupInvitations.group, groupInvitations.invitation,
+                (ChannelInvitation invitation) -> {
+                    mRequestIds.remove(requestId);
+                    mStepRequestIds.remove(requestId);
+                    mInvitationResults[stepId] = invitation;
+                    mPlanner.complete(stepId);
+                    onOperation();
+                });
+    }
+
+    private void onCreateTwincode(long requestId, @Nullable ErrorCode status, @Nullable TwincodeFactory twincodeFactory) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onCreateInvitationTwincode: factory=" + twincodeFactory);
         }
 
         if (status != ErrorCode.SUCCESS || twincodeFactory == null) {
-            onError(CREATE_SPACE_TWINCODE, status, null);
+            onError(requestId, CREATE_SPACE_TWINCODE, status, null);
             return;
         }
 
@@ -417,14 +438,18 @@ public class CreateSpaceCardExecutor {
         }
     }
 
-    private void onError(int operationId, ErrorCode errorCode, @Nullable String errorParameter) {
+    private void onError(long requestId, int operationId, ErrorCode errorCode, @Nullable String errorParameter) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onError: operationId=" + operationId + " errorCode=" + errorCode + " errorParameter=" + errorParameter);
         }
 
-        // Wait for reconnection
+        // Wait for reconnection and launch the interrupted invitation step again.
+        Integer stepId = mStepRequestIds.remove(requestId);
         if (errorCode == ErrorCode.TWINLIFE_OFFLINE) {
             mRestarted = true;
+            if (stepId != null) {
+                mPlanner.retry(stepId);
+            }
 
             return;
         }
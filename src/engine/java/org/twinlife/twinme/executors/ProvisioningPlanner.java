@@ -0,0 +1,182 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.executors;
+
+import androidx.annotation.NonNull;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plan the provisioning steps of an executor.
+ *
+ * Each step is registered with the steps it depends on (group twincodes before the invitations and the
+ * invitations before the space cards) and the planner launches the steps whose dependencies are completed
+ * with at most `maxParallel` steps running at the same time.  A step that was interrupted (service offline)
+ * is put back in the pending state by retry() and launched again by the next schedule(): the completed steps
+ * are kept so that the provisioning resumes where it stopped.
+ *
+ * Like the executors, the planner must be used from the twinlife executor thread only.
+ */
+final class ProvisioningPlanner {
+    private static final String LOG_TAG = "ProvisioningPlanner";
+    private static final boolean DEBUG = false;
+
+    static final int MAX_PARALLEL = 4;
+
+    private static final int PENDING = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+
+    interface Step {
+
+        void launch(int stepId);
+    }
+
+    private static final class Node {
+        @NonNull
+        final Step step;
+        @NonNull
+        final int[] dependencies;
+        int state = PENDING;
+
+        Node(@NonNull Step step, @NonNull int[] dependencies) {
+
+            this.step = step;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private final int mMaxParallel;
+    private final List<Node> mNodes = new ArrayList<>();
+    private int mRunning;
+    private int mDone;
+    private boolean mScheduling;
+    private boolean mRescan;
+
+    ProvisioningPlanner(int maxParallel) {
+
+        mMaxParallel = Math.max(1, maxParallel);
+    }
+
+    /**
+     * Add a step which is launched when the steps it depends on are completed.
+     *
+     * @param step the step to launch.
+     * @param dependencies the identifiers of the steps that must be completed first.
+     * @return the step identifier.
+     */
+    int addStep(@NonNull Step step, @NonNull int... dependencies) {
+
+        final int stepId = mNodes.size();
+        for (int dependency : dependencies) {
+            if (dependency < 0 || dependency >= stepId) {
+                throw new IllegalArgumentException("Invalid dependency " + dependency + " for step " + stepId);
+            }
+        }
+        mNodes.add(new Node(step, dependencies.clone()));
+        return stepId;
+    }
+
+    /**
+     * Launch the steps which are ready while the parallelism limit is not reached.
+     *
+     * @return true when every step is completed.
+     */
+    boolean schedule() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "schedule: running=" + mRunning + " done=" + mDone + " steps=" + mNodes.size());
+        }
+
+        // A step can complete synchronously and call schedule() again: let the outer call scan again.
+        if (mScheduling) {
+            mRescan = true;
+
+            return isFinished();
+        }
+
+        mScheduling = true;
+        try {
+            do {
+                mRescan = false;
+                for (int i = 0; i < mNodes.size() && mRunning < mMaxParallel; i++) {
+                    final Node node = mNodes.get(i);
+                    if (node.state == PENDING && isReady(node)) {
+                        node.state = RUNNING;
+                        mRunning++;
+                        node.step.launch(i);
+                    }
+                }
+            } while (mRescan && mRunning < mMaxParallel);
+        } finally {
+            mScheduling = false;
+        }
+        return isFinished();
+    }
+
+    /**
+     * Mark the running step as completed.
+     *
+     * @param stepId the step identifier.
+     */
+    void complete(int stepId) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "complete: stepId=" + stepId);
+        }
+
+        final Node node = mNodes.get(stepId);
+        if (node.state == RUNNING) {
+            node.state = DONE;
+            mRunning--;
+            mDone++;
+        }
+    }
+
+    /**
+     * Put the running step back in the pending state so that it is launched again by the next schedule().
+     *
+     * @param stepId the step identifier.
+     */
+    void retry(int stepId) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "retry: stepId=" + stepId);
+        }
+
+        final Node node = mNodes.get(stepId);
+        if (node.state == RUNNING) {
+            node.state = PENDING;
+            mRunning--;
+        }
+    }
+
+    boolean isFinished() {
+
+        return mDone == mNodes.size();
+    }
+
+    int getRunningCount() {
+
+        return mRunning;
+    }
+
+    //
+    // Private methods
+    //
+
+    private boolean isReady(@NonNull Node node) {
+
+        for (int dependency : node.dependencies) {
+            if (mNodes.get(dependency).state != DONE) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
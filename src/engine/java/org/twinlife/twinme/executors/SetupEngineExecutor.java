@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2019 twinlife SA.
+ *  Copyright (c) 2019-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -37,7 +37,7 @@ import java.util.UUID;
 // All observers are running in the SingleThreadExecutor provided by the twinlife library
 // All observers are reachable (not eligible for garbage collection) between start() and stop() calls
 //
-// version: 1.0
+// version: 1.1
 //
 
 public class SetupEngineExecutor {
@@ -91,8 +91,9 @@ public class SetupEngineExecutor {
             }
 
             Integer operationId = mRequestIds.remove(requestId);
-            if (operationId != null) {
-                SetupEngineExecutor.this.onCreateGroup(group, groupConversation);
+            Integer stepId = mStepRequestIds.remove(requestId);
+            if (operationId != null && stepId != null) {
+                SetupEngineExecutor.this.onCreateGroup(stepId, group, groupConversation);
                 onOperation();
             }
         }
@@ -104,8 +105,9 @@ public class SetupEngineExecutor {
             }
 
             Integer operationId = mRequestIds.remove(requestId);
-            if (operationId != null) {
-                SetupEngineExecutor.this.onCreateInvitation(invitation);
+            Integer stepId = mStepRequestIds.remove(requestId);
+            if (operationId != null && stepId != null) {
+                SetupEngineExecutor.this.onCreateInvitation(stepId, invitation);
                 onOperation();
             }
         }
@@ -118,7 +120,7 @@ public class SetupEngineExecutor {
 
             Integer operationId = mRequestIds.remove(requestId);
             if (operationId != null) {
-                SetupEngineExecutor.this.onError(operationId, errorCode, errorParameter);
+                SetupEngineExecutor.this.onError(operationId, mStepRequestIds.remove(requestId), errorCode, errorParameter);
                 onOperation();
             }
         }
@@ -133,6 +135,10 @@ public class SetupEngineExecutor {
     private final Map<UUID, Group> mGroups = new HashMap<>();
     private final List<GroupProvisioning> mCreateGroupList = new ArrayList<>();
     private final Space mSpace;
+    @NonNull
+    private final ProvisioningPlanner mPlanner;
+    @SuppressLint("UseSparseArrays")
+    private final HashMap<Long, Integer> mStepRequestIds = new HashMap<>();
 
     private int mState = 0;
     @SuppressLint("UseSparseArrays")
@@ -153,6 +159,7 @@ public class SetupEngineExecutor {
 
         mTwinmeContextObserver = new TwinmeContextObserver();
         mInvitations = new ArrayList<>(engineCard.getInvitations());
+        mPlanner = new ProvisioningPlanner(ProvisioningPlanner.MAX_PARALLEL);
     }
 
     public void start() {
@@ -269,61 +276,20 @@ public class SetupEngineExecutor {
         }
 
         //
-        // Step 3: create the group that are not yet created.
+        // Step 3: create the groups that are not yet created and the invitations to join the groups, in parallel,
+        // an invitation being created when its group is created.
         //
-        if (!mCreateGroupList.isEmpty()) {
-
-            boolean completedStep3 = true;
-
-            if ((mState & CREATE_GROUP) == 0) {
-                mState |= CREATE_GROUP;
-                completedStep3 = false;
 
-                long requestId = newOperation(CREATE_GROUP);
-                if (DEBUG) {
-                    Log.d(LOG_TAG, "twinmeContext.findInvitations: requestId=" + requestId);
-                }
-                GroupProvisioning info = mCreateGroupList.get(0);
-                mTwinmeEngineImpl.createGroup(requestId, mSpace, info);
-            }
-            if ((mState & CREATE_GROUP_DONE) == 0) {
-                completedStep3 = false;
-            }
-
-            if (!completedStep3) {
-
-                return;
+        if ((mState & CREATE_INVITATION_DONE) == 0) {
+            mState |= CREATE_GROUP | CREATE_INVITATION;
+            if (!mRestarted) {
+                mPlanner.schedule();
             }
-        }
-
-        //
-        // Step 4: create the invitation to join the groups.
-        //
-        if (!mInvitations.isEmpty()) {
-
-            boolean completedStep4 = true;
-
-            if ((mState & CREATE_INVITATION) == 0) {
-                mState |= CREATE_INVITATION;
-                completedStep4 = false;
-
-                long requestId = newOperation(CREATE_INVITATION);
-                if (DEBUG) {
-                    Log.d(LOG_TAG, "twinmeContext.createInvitation: requestId=" + requestId);
-                }
-                EngineCard.ChannelInvitation info = mInvitations.get(0);
-                Group group = mGroups.get(info.groupTwincodeId);
-                mTwinmeEngineImpl.createInvitation(requestId, mSpace, group, info.permissions,
-                        info.invitationTwincodeInId, info.invitationTwincodeOutId);
-            }
-            if ((mState & CREATE_INVITATION_DONE) == 0) {
-                completedStep4 = false;
-            }
-
-            if (!completedStep4) {
+            if (!mPlanner.isFinished()) {
 
                 return;
             }
+            mState |= CREATE_GROUP_DONE | CREATE_INVITATION_DONE;
         }
 
         //
@@ -393,44 +359,82 @@ public class SetupEngineExecutor {
                 }
             }
         }
+
+        // Build the provisioning plan: an invitation depends on the creation of its group.
+        final Map<UUID, Integer> groupSteps = new HashMap<>();
+        for (GroupProvisioning groupProvisioning : mCreateGroupList) {
+            groupSteps.put(groupProvisioning.groupTwincodeOutId, mPlanner.addStep(this::createGroup));
+        }
+        for (EngineCard.ChannelInvitation channelInvitation : mInvitations) {
+            final Integer groupStep = groupSteps.get(channelInvitation.groupTwincodeId);
+            if (groupStep != null) {
+                mPlanner.addStep(this::createInvitation, groupStep);
+            } else {
+                mPlanner.addStep(this::createInvitation);
+            }
+        }
     }
 
-    private void onCreateGroup(@NonNull Group group, @NonNull GroupConversation groupConversation) {
+    private void createGroup(int stepId) {
         if (DEBUG) {
-            Log.d(LOG_TAG, "onCreateGroup: group=" + group + " groupConversation=" + groupConversation);
+            Log.d(LOG_TAG, "createGroup: stepId=" + stepId);
         }
 
-        mState |= CREATE_GROUP_DONE;
-        mGroups.put(group.getGroupTwincodeOutboundId(), group);
-        mCreateGroupList.remove(0);
-        if (!mCreateGroupList.isEmpty()) {
-            mState &= ~(CREATE_GROUP | CREATE_GROUP_DONE);
+        final long requestId = newOperation(CREATE_GROUP);
+        mStepRequestIds.put(requestId, stepId);
+        if (DEBUG) {
+            Log.d(LOG_TAG, "twinmeEngine.createGroup: requestId=" + requestId);
+        }
+        mTwinmeEngineImpl.createGroup(requestId, mSpace, mCreateGroupList.get(stepId));
+    }
+
+    private void createInvitation(int stepId) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "createInvitation: stepId=" + stepId);
         }
 
+        final long requestId = newOperation(CREATE_INVITATION);
+        mStepRequestIds.put(requestId, stepId);
+        if (DEBUG) {
+            Log.d(LOG_TAG, "twinmeEngine.createInvitation: requestId=" + requestId);
+        }
+        final EngineCard.ChannelInvitation info = mInvitations.get(stepId - mCreateGroupList.size());
+        final Group group = mGroups.get(info.groupTwincodeId);
+        mTwinmeEngineImpl.createInvitation(requestId, mSpace, group, info.permissions,
+                info.invitationTwincodeInId, info.invitationTwincodeOutId);
+    }
+
+    private void onCreateGroup(int stepId, @NonNull Group group, @NonNull GroupConversation groupConversation) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onCreateGroup: stepId=" + stepId + " group=" + group + " groupConversation=" + groupConversation);
+        }
+
+        mGroups.put(group.getGroupTwincodeOutboundId(), group);
+        mPlanner.complete(stepId);
+
         // Setup the engine to forward messages.
         mTwinmeEngineImpl.addForward(groupConversation.getContactId(), groupConversation.getId());
     }
 
-    private void onCreateInvitation(Invitation invitation) {
+    private void onCreateInvitation(int stepId, Invitation invitation) {
         if (DEBUG) {
-            Log.d(LOG_TAG, "onCreateInvitation: invitation=" + invitation);
+            Log.d(LOG_TAG, "onCreateInvitation: stepId=" + stepId + " invitation=" + invitation);
         }
 
-        mState |= CREATE_INVITATION_DONE;
-        mInvitations.remove(0);
-        if (!mInvitations.isEmpty()) {
-            mState &= ~(CREATE_INVITATION | CREATE_INVITATION_DONE);
-        }
+        mPlanner.complete(stepId);
     }
 
-    private void onError(int operationId, ErrorCode errorCode, @Nullable String errorParameter) {
+    private void onError(int operationId, @Nullable Integer stepId, ErrorCode errorCode, @Nullable String errorParameter) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onError: operationId=" + operationId + " errorCode=" + errorCode + " errorParameter=" + errorParameter);
         }
 
-        // Wait for reconnection
+        // Wait for reconnection and launch the interrupted provisioning step again.
         if (errorCode == ErrorCode.TWINLIFE_OFFLINE) {
             mRestarted = true;
+            if (stepId != null) {
+                mPlanner.retry(stepId);
+            }
 
             return;
         }
@@ -0,0 +1,162 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.models;
+
+import androidx.annotation.NonNull;
+
+import android.util.Log;
+
+import org.twinlife.twinlife.Decoder;
+import org.twinlife.twinlife.Encoder;
+import org.twinlife.twinlife.Serializer;
+import org.twinlife.twinlife.SerializerException;
+import org.twinlife.twinlife.SerializerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * <pre>
+ *
+ * Schema version 1
+ *
+ * {
+ *  "type":"record",
+ *  "name":"EngineBatchCommand",
+ *  "namespace":"org.twinlife.twinme.schemas",
+ *  "fields":
+ *  [
+ *   {"name":"schemaId", "type":"uuid"},
+ *   {"name":"schemaVersion", "type":"int"}
+ *   {"name":"requestId", "type":"long"}
+ *   {"name":"count", "type":"int"}
+ *   {"name":"commands", [{"type":"EngineCommand"}]}
+ *   {"name":"extension", "type":"enum"}
+ *  ]
+ * }
+ *
+ * </pre>
+ */
+
+/**
+ * Envelope with several engine commands sent in one transient object.
+ *
+ * The engine executes the commands in order and answers with one EngineBatchResult that contains
+ * the result of each command.  Each command keeps its own request id.
+ */
+public class EngineBatchCommand {
+    private static final String LOG_TAG = "EngineBatchCommand";
+    private static final boolean DEBUG = false;
+
+    private static final UUID SCHEMA_ID = UUID.fromString("e3b1c6a8-52d4-4f0e-9a7b-0c84d2f61e35");
+    private static final int SCHEMA_VERSION = 1;
+
+    private static final int CONVERSATION_SERVICE_MIN_MAJOR_VERSION = 2;
+    private static final int CONVERSATION_SERVICE_MIN_MINOR_VERSION = 11;
+
+    // Maximum number of commands in a batch (the EngineBatchResult has as many results).
+    public static final int MAX_COMMANDS = 256;
+
+    public static class EngineBatchCommandSerializer extends Serializer {
+
+        private static final EngineCommand.EngineCommandSerializer COMMAND_SERIALIZER = new EngineCommand.EngineCommandSerializer();
+
+        public EngineBatchCommandSerializer() {
+
+            super(SCHEMA_ID, SCHEMA_VERSION, EngineBatchCommand.class);
+        }
+
+        @Override
+        public void serialize(@NonNull SerializerFactory serializerFactory, @NonNull Encoder encoder, @NonNull Object object) throws SerializerException {
+
+            encoder.writeUUID(schemaId);
+            encoder.writeInt(schemaVersion);
+
+            EngineBatchCommand batch = (EngineBatchCommand) object;
+            if (batch.mCommands.size() > MAX_COMMANDS) {
+                throw new SerializerException("EngineBatchCommand too many commands");
+            }
+            encoder.writeLong(batch.mRequestId);
+            encoder.writeInt(batch.mCommands.size());
+            for (EngineCommand command : batch.mCommands) {
+                COMMAND_SERIALIZER.serialize(serializerFactory, encoder, command);
+            }
+
+            // Finish with a 0 so that we can more easily extend the EngineBatchCommand object.
+            encoder.writeEnum(0);
+        }
+
+        @Override
+        @NonNull
+        public Object deserialize(@NonNull SerializerFactory serializerFactory, @NonNull Decoder decoder) throws SerializerException {
+
+            long requestId = decoder.readLong();
+            int count = decoder.readInt();
+            if (count < 0 || count > MAX_COMMANDS) {
+                throw new SerializerException("EngineBatchCommand invalid command count");
+            }
+            List<EngineCommand> commands = new ArrayList<>(count);
+            while (count > 0) {
+                count--;
+                UUID schemaId = decoder.readUUID();
+                int schemaVersion = decoder.readInt();
+                if (!COMMAND_SERIALIZER.schemaId.equals(schemaId) || COMMAND_SERIALIZER.schemaVersion != schemaVersion) {
+                    throw new SerializerException("EngineBatchCommand command not recognized");
+                }
+                commands.add((EngineCommand) COMMAND_SERIALIZER.deserialize(serializerFactory, decoder));
+            }
+
+            // If we add information in EngineBatchCommand, we can extract it with.  It is ignored otherwise.
+            // if (decoder.readEnum() != 0) {
+            //
+            // }
+
+            return new EngineBatchCommand(requestId, commands);
+        }
+
+        @Override
+        public boolean isSupported(int majorVersion, int minorVersion) {
+
+            return majorVersion == CONVERSATION_SERVICE_MIN_MAJOR_VERSION && minorVersion >= CONVERSATION_SERVICE_MIN_MINOR_VERSION;
+        }
+    }
+
+    private final long mRequestId;
+    @NonNull
+    private final List<EngineCommand> mCommands;
+
+    public EngineBatchCommand(long requestId, @NonNull List<EngineCommand> commands) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "EngineBatchCommand: requestId=" + requestId + " commands=" + commands.size());
+        }
+
+        mRequestId = requestId;
+        mCommands = Collections.unmodifiableList(new ArrayList<>(commands));
+    }
+
+    public long getRequestId() {
+
+        return mRequestId;
+    }
+
+    @NonNull
+    public List<EngineCommand> getCommands() {
+
+        return mCommands;
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+
+        return "EngineBatchCommand: requestId=" + mRequestId + " commands=" + mCommands.size() + "\n";
+    }
+}
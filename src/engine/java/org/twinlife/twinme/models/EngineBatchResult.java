@@ -0,0 +1,181 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import android.util.Log;
+
+import org.twinlife.twinlife.Decoder;
+import org.twinlife.twinlife.Encoder;
+import org.twinlife.twinlife.SerializerException;
+import org.twinlife.twinlife.SerializerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * <pre>
+ *
+ * Schema version 1
+ *
+ * {
+ *  "type":"record",
+ *  "name":"EngineBatchResult",
+ *  "namespace":"org.twinlife.twinme.schemas",
+ *  "fields":
+ *  [
+ *   {"name":"schemaId", "type":"uuid"},
+ *   {"name":"schemaVersion", "type":"int"}
+ *   {"name":"requestId", "type":"long"}
+ *   {"name":"status", "type":"enum"}
+ *   {"name":"count", "type":"int"}
+ *   {"name":"results", [{"type":["EngineCommandResult", "EngineCreateResult", "EngineListResult",
+ *                                "EngineStatResult", "EngineServerInfoResult"]}]}
+ *  ]
+ * }
+ *
+ * </pre>
+ */
+
+/**
+ * Result of an EngineBatchCommand: the result of each command in the order of the batch.
+ */
+public class EngineBatchResult extends EngineCommandResult {
+    private static final String LOG_TAG = "EngineBatchResult";
+    private static final boolean DEBUG = false;
+
+    private static final UUID SCHEMA_ID = UUID.fromString("4f9d2b67-0a3e-4c15-b8e2-7d61a9c03f52");
+    private static final int SCHEMA_VERSION = 1;
+
+    public static class EngineBatchResultSerializer extends EngineCommandResult.EngineCommandResultSerializer {
+
+        // The EngineStatResult schema version 1 is only decoded: a peer which supports the batch also supports
+        // the EngineStatResult schema version 2 (they require the same conversation service version).
+        private static final EngineCommandResultSerializer[] RESULT_SERIALIZERS = {
+                new EngineCommandResult.EngineCommandResultSerializer(),
+                new EngineCreateResult.EngineCreateResultSerializer(),
+                new EngineListResult.EngineListResultSerializer(),
+                new EngineStatResult.EngineStatResultSerializerV2(),
+                new EngineServerInfoResult.EngineServerInfoResultSerializer(),
+                new EngineStatResult.EngineStatResultSerializer()
+        };
+
+        public EngineBatchResultSerializer() {
+
+            super(SCHEMA_ID, SCHEMA_VERSION, EngineBatchResult.class);
+        }
+
+        @Override
+        public void serialize(@NonNull SerializerFactory serializerFactory, @NonNull Encoder encoder, @NonNull Object object) throws SerializerException {
+
+            encoder.writeUUID(schemaId);
+            encoder.writeInt(schemaVersion);
+
+            EngineBatchResult result = (EngineBatchResult) object;
+            serialize(encoder, result);
+
+            encoder.writeInt(result.mResults.size());
+            for (EngineCommandResult item : result.mResults) {
+                getSerializer(item).serialize(serializerFactory, encoder, item);
+            }
+        }
+
+        @Override
+        @NonNull
+        public Object deserialize(@NonNull SerializerFactory serializerFactory, @NonNull Decoder decoder) throws SerializerException {
+
+            EngineCommandResult result = deserialize(decoder);
+
+            int count = decoder.readInt();
+            if (count < 0 || count > EngineBatchCommand.MAX_COMMANDS) {
+                throw new SerializerException("EngineBatchResult invalid result count");
+            }
+            List<EngineCommandResult> results = new ArrayList<>(count);
+            while (count > 0) {
+                count--;
+                UUID schemaId = decoder.readUUID();
+                int schemaVersion = decoder.readInt();
+                EngineCommandResultSerializer serializer = findSerializer(schemaId, schemaVersion);
+                if (serializer == null) {
+                    throw new SerializerException("EngineBatchResult result not recognized");
+                }
+                results.add((EngineCommandResult) serializer.deserialize(serializerFactory, decoder));
+            }
+
+            return new EngineBatchResult(result.getRequestId(), result.getStatus(), results);
+        }
+
+        @NonNull
+        private static EngineCommandResultSerializer getSerializer(@NonNull EngineCommandResult result) {
+
+            if (result instanceof EngineCreateResult) {
+                return RESULT_SERIALIZERS[1];
+            } else if (result instanceof EngineListResult) {
+                return RESULT_SERIALIZERS[2];
+            } else if (result instanceof EngineStatResult) {
+                return RESULT_SERIALIZERS[3];
+            } else if (result instanceof EngineServerInfoResult) {
+                return RESULT_SERIALIZERS[4];
+            } else {
+                return RESULT_SERIALIZERS[0];
+            }
+        }
+
+        @Nullable
+        private static EngineCommandResultSerializer findSerializer(@NonNull UUID schemaId, int schemaVersion) {
+
+            for (EngineCommandResultSerializer serializer : RESULT_SERIALIZERS) {
+                if (serializer.schemaId.equals(schemaId) && serializer.schemaVersion == schemaVersion) {
+                    return serializer;
+                }
+            }
+            return null;
+        }
+    }
+
+    @NonNull
+    private final List<EngineCommandResult> mResults;
+
+    public EngineBatchResult(@NonNull EngineBatchCommand batch, @NonNull List<EngineCommandResult> results) {
+        this(batch.getRequestId(), Status.SUCCESS, results);
+    }
+
+    private EngineBatchResult(long requestId, @NonNull Status status, @NonNull List<EngineCommandResult> results) {
+        super(requestId, status);
+        if (DEBUG) {
+            Log.d(LOG_TAG, "EngineBatchResult: requestId=" + requestId + " results=" + results.size());
+        }
+
+        mResults = Collections.unmodifiableList(new ArrayList<>(results));
+    }
+
+    /**
+     * Get the result of each command of the batch.  A command which was not executed by the engine
+     * has no result in the list.
+     *
+     * @return the list of results in the order of the batch commands.
+     */
+    @NonNull
+    public List<EngineCommandResult> getResults() {
+
+        return mResults;
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+
+        return "EngineBatchResult: requestId=" + getRequestId() + " status=" + getStatus()
+                + " results=" + mResults.size() + "\n";
+    }
+}
@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2019 twinlife SA.
+ *  Copyright (c) 2019-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -18,6 +18,7 @@ import org.twinlife.twinlife.RepositoryService;
 import org.twinlife.twinlife.util.Utils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -38,6 +39,9 @@ import java.util.UUID;
  *   - the invitation twincode outbound,
  *   - the group twincode id,
  *   - the member's permission when the invitation is accepted.
+ *
+ * A snapshot of the engine card is immutable: its lists cannot be modified and it can be shared between callers.
+ * It is updated by populating a copy() of the snapshot.
  */
 public class EngineCard {
 
@@ -59,6 +63,7 @@ public class EngineCard {
     private final List<GroupProvisioning> mGroups;
     @NonNull
     private final List<SpaceCard> mSpaceCards;
+    private final boolean mSnapshot;
 
     // Information to create a channel invitation.
     public final static class ChannelInvitation {
@@ -271,6 +276,46 @@ public class EngineCard {
         return mSpaceCards;
     }
 
+    public boolean isSnapshot() {
+
+        return mSnapshot;
+    }
+
+    /**
+     * Get an immutable snapshot of the engine card.  The snapshot is not affected by changes made on this
+     * engine card and its lists cannot be modified.
+     *
+     * @return the engine card snapshot.
+     */
+    @NonNull
+    public EngineCard snapshot() {
+
+        if (mSnapshot) {
+            return this;
+        }
+
+        synchronized (this) {
+            return new EngineCard(mId, mImmutable, Collections.unmodifiableList(new ArrayList<>(mGroups)),
+                    Collections.unmodifiableList(new ArrayList<>(mInvitations)),
+                    Collections.unmodifiableList(copy(mSpaceCards)), true);
+        }
+    }
+
+    /**
+     * Get a mutable copy of the engine card, used to update a snapshot.  The space cards are copied so that
+     * the snapshot is not affected by changes made on the copy.
+     *
+     * @return the engine card copy.
+     */
+    @NonNull
+    public EngineCard copy() {
+
+        synchronized (this) {
+            return new EngineCard(mId, mImmutable, new ArrayList<>(mGroups), new ArrayList<>(mInvitations),
+                    copy(mSpaceCards), false);
+        }
+    }
+
     @Override
     public String toString() {
 
@@ -304,6 +349,9 @@ public class EngineCard {
 
     public void updateFrom(EngineCard engineCard) {
 
+        if (mSnapshot) {
+            throw new UnsupportedOperationException("EngineCard snapshot cannot be updated");
+        }
         if (engineCard != null && engineCard.getId() != null) {
             mId = engineCard.getId();
         }
@@ -319,15 +367,33 @@ public class EngineCard {
         mGroups = new ArrayList<>();
         mInvitations = new ArrayList<>();
         mSpaceCards = new ArrayList<>();
+        mSnapshot = false;
     }
 
     //
     // Private Methods
     //
 
+    @NonNull
+    private static List<SpaceCard> copy(@NonNull List<SpaceCard> spaceCards) {
+
+        final List<SpaceCard> result = new ArrayList<>(spaceCards.size());
+        for (SpaceCard spaceCard : spaceCards) {
+            result.add(new SpaceCard(spaceCard));
+        }
+        return result;
+    }
+
     private EngineCard(@NonNull UUID id, boolean immutable, @NonNull List<GroupProvisioning> groups,
                        @NonNull List<ChannelInvitation> invitations) {
 
+        this(id, immutable, groups, invitations, new ArrayList<>(), false);
+    }
+
+    private EngineCard(@NonNull UUID id, boolean immutable, @NonNull List<GroupProvisioning> groups,
+                       @NonNull List<ChannelInvitation> invitations, @NonNull List<SpaceCard> spaceCards,
+                       boolean snapshot) {
+
         mId = id;
         mSchemaId = SCHEMA_ID;
         mSchemaVersion = SCHEMA_VERSION;
@@ -335,6 +401,7 @@ public class EngineCard {
         mImmutable = immutable;
         mGroups = groups;
         mInvitations = invitations;
-        mSpaceCards = new ArrayList<>();
+        mSpaceCards = spaceCards;
+        mSnapshot = snapshot;
     }
 }
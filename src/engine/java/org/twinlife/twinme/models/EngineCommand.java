@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2020-2021 twinlife SA.
+ *  Copyright (c) 2020-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -43,6 +43,12 @@ import java.util.UUID;
  *   {"name":"engineId", [null, "type":"uuid"]}
  *   {"name":"image", [null, "type":"bitmap"]}
  *   {"name":"config", [null, "type":"EngineConfig"]}
+ *   {"name":"roomConfig", [null, "type":"RoomConfig"]}
+ *   {"name":"subscription", [null, {
+ *     {"name":"subscriptionId", "type":"long"}
+ *     {"name":"period", "type":"long"}
+ *   }]}
+ *   {"name":"extension", "type":"enum"}
  * }
  *
  * </pre>
@@ -113,6 +119,14 @@ public class EngineCommand {
                 case ENGINE_SERVER_INFO:
                     encoder.writeEnum(8);
                     break;
+
+                case ENGINE_STAT_SUBSCRIBE:
+                    encoder.writeEnum(9);
+                    break;
+
+                case ENGINE_STAT_UNSUBSCRIBE:
+                    encoder.writeEnum(10);
+                    break;
             }
             encoder.writeOptionalString(command.mText);
             encoder.writeOptionalUUID(command.mEngineId);
@@ -132,6 +146,13 @@ public class EngineCommand {
                 RoomConfig.Serializer.serialize(encoder, command.mRoomConfig);
             }
 
+            // The subscription is an extension: older engines ignore it.
+            if (command.mAction == Action.ENGINE_STAT_SUBSCRIBE || command.mAction == Action.ENGINE_STAT_UNSUBSCRIBE) {
+                encoder.writeEnum(1);
+                encoder.writeLong(command.mSubscriptionId);
+                encoder.writeLong(command.mPeriod);
+            }
+
             // Finish with a 0 so that we can more easily extend the EngineConfig object.
             encoder.writeEnum(0);
         }
@@ -179,6 +200,14 @@ public class EngineCommand {
                     action = Action.ENGINE_SERVER_INFO;
                     break;
 
+                case 9:
+                    action = Action.ENGINE_STAT_SUBSCRIBE;
+                    break;
+
+                case 10:
+                    action = Action.ENGINE_STAT_UNSUBSCRIBE;
+                    break;
+
                 default:
                     throw new SerializerException("EngineCommand action not recognized");
             }
@@ -197,12 +226,22 @@ public class EngineCommand {
                 roomConfig = RoomConfig.Serializer.deserialize(decoder);
             }
 
+            long subscriptionId = 0;
+            long period = 0;
+            if (decoder.readEnum() != 0) {
+                subscriptionId = decoder.readLong();
+                period = decoder.readLong();
+            }
+
             // If we add information in EngineCommand, we can extract it with.  It is ignored otherwise.
             // if (decoder.readEnum() != 0) {
             //
             // }
 
-            return new EngineCommand(requestId, action, text, engineId, rawImage, config, roomConfig);
+            EngineCommand command = new EngineCommand(requestId, action, text, engineId, rawImage, config, roomConfig);
+            command.mSubscriptionId = subscriptionId;
+            command.mPeriod = period;
+            return command;
         }
 
         @Override
@@ -225,6 +264,8 @@ public class EngineCommand {
     private final EngineConfig mConfig;
     @Nullable
     private final RoomConfig mRoomConfig;
+    private long mSubscriptionId;
+    private long mPeriod;
 
     public enum Action {
         ENGINE_CREATE,
@@ -235,7 +276,9 @@ public class EngineCommand {
         ENGINE_DESTROY,
         ENGINE_LIST,
         ENGINE_STAT,
-        ENGINE_SERVER_INFO
+        ENGINE_SERVER_INFO,
+        ENGINE_STAT_SUBSCRIBE,
+        ENGINE_STAT_UNSUBSCRIBE
     }
 
     @NonNull
@@ -309,6 +352,32 @@ public class EngineCommand {
         return new EngineCommand(requestId, Action.ENGINE_STAT, filter);
     }
 
+    /**
+     * Subscribe to the engine statistics: the engine sends the full statistics and then, every period,
+     * an EngineStatUpdate with the counters that have changed.  The request id identifies the subscription.
+     *
+     * @param requestId the request id which is also the subscription id.
+     * @param filter the engine filter.
+     * @param period the update period in milliseconds.
+     * @return the subscribe command.
+     */
+    @NonNull
+    public static EngineCommand subscribeStats(long requestId, @NonNull String filter, long period) {
+
+        EngineCommand command = new EngineCommand(requestId, Action.ENGINE_STAT_SUBSCRIBE, filter);
+        command.mSubscriptionId = requestId;
+        command.mPeriod = period;
+        return command;
+    }
+
+    @NonNull
+    public static EngineCommand unsubscribeStats(long requestId, long subscriptionId) {
+
+        EngineCommand command = new EngineCommand(requestId, Action.ENGINE_STAT_UNSUBSCRIBE, null);
+        command.mSubscriptionId = subscriptionId;
+        return command;
+    }
+
     @NonNull
     public static EngineCommand serverInformation(long requestId) {
 
@@ -420,6 +489,16 @@ public class EngineCommand {
         return mRoomConfig;
     }
 
+    public long getSubscriptionId() {
+
+        return mSubscriptionId;
+    }
+
+    public long getPeriod() {
+
+        return mPeriod;
+    }
+
     @Override
     @NonNull
     public String toString() {
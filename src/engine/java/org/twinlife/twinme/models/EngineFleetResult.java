@@ -0,0 +1,114 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.BaseService.ErrorCode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Result of an engine command sent to several supervisor contacts.
+ *
+ * The result is indexed by the supervisor contact id.  When a server did not answer in time or returned an
+ * error, its last good result is used if there is one and the server is reported as cached.  The error of each
+ * server that failed is always reported.
+ */
+public class EngineFleetResult<T extends EngineCommandResult> {
+
+    public interface Extractor<T, V> {
+        @Nullable
+        List<V> extract(@NonNull T result);
+    }
+
+    @NonNull
+    private final Map<UUID, T> mResults;
+    @NonNull
+    private final Map<UUID, ErrorCode> mErrors;
+    @NonNull
+    private final Set<UUID> mCached;
+
+    public EngineFleetResult(@NonNull Map<UUID, T> results, @NonNull Map<UUID, ErrorCode> errors,
+                             @NonNull Set<UUID> cached) {
+
+        mResults = Collections.unmodifiableMap(new HashMap<>(results));
+        mErrors = Collections.unmodifiableMap(new HashMap<>(errors));
+        mCached = Collections.unmodifiableSet(new HashSet<>(cached));
+    }
+
+    /**
+     * Get the result of each server that answered or for which a previous result is known.
+     *
+     * @return the results indexed by supervisor contact id.
+     */
+    @NonNull
+    public Map<UUID, T> getResults() {
+
+        return mResults;
+    }
+
+    /**
+     * Get the error of each server that failed or did not answer in time.
+     *
+     * @return the errors indexed by supervisor contact id.
+     */
+    @NonNull
+    public Map<UUID, ErrorCode> getErrors() {
+
+        return mErrors;
+    }
+
+    /**
+     * Returns true if the result of the server is the last good result and not a fresh answer.
+     *
+     * @param serverId the supervisor contact id.
+     * @return true if the result comes from the cache.
+     */
+    public boolean isCached(@NonNull UUID serverId) {
+
+        return mCached.contains(serverId);
+    }
+
+    /**
+     * Merge the lists extracted from each server result, for example with EngineListResult::getEngines or
+     * EngineStatResult::getStats.
+     *
+     * @param extractor the operation to get the list from a server result.
+     * @return the merged list.
+     */
+    @NonNull
+    public <V> List<V> merge(@NonNull Extractor<T, V> extractor) {
+
+        final List<V> result = new ArrayList<>();
+        for (T item : mResults.values()) {
+            final List<V> list = extractor.extract(item);
+            if (list != null) {
+                result.addAll(list);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+
+        return "EngineFleetResult: results=" + mResults.size() + " errors=" + mErrors.size()
+                + " cached=" + mCached.size() + "\n";
+    }
+}
@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2021 twinlife SA.
+ *  Copyright (c) 2021-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -12,7 +12,6 @@ package org.twinlife.twinme.models;
 import androidx.annotation.NonNull;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -33,14 +32,14 @@ public class EngineStat {
     @NonNull
     private final UUID mEngineId;
     @NonNull
-    private final Map<String, Object> mStats;
+    private final StatValues mStats;
     private final List<RoomStat> mRooms;
 
     public EngineStat(@NonNull final String logicalName, @NonNull final UUID engineId) {
 
         this.mLogicalName = logicalName;
         this.mEngineId = engineId;
-        this.mStats = new HashMap<>();
+        this.mStats = new StatValues();
         this.mRooms = new ArrayList<>();
     }
 
@@ -56,10 +55,15 @@ public class EngineStat {
         return mEngineId;
     }
 
+    /**
+     * Get a copy of the engine statistics with Long and String values.
+     *
+     * @return a new map with the engine statistics.
+     */
     @NonNull
     public Map<String, Object> getEngineStats() {
 
-        return mStats;
+        return mStats.toMap();
     }
 
     @NonNull
@@ -70,43 +74,65 @@ public class EngineStat {
 
     public Long getLongValue(@NonNull String name) {
 
-        Object value = mStats.get(name);
-        if (!(value instanceof Long)) {
-            return null;
-        }
+        return mStats.getLongValue(name);
+    }
 
-        return (Long) value;
+    public long getLong(@NonNull String name, long defaultValue) {
+
+        return mStats.getLong(name, defaultValue);
     }
 
     public String getStringValue(@NonNull String name) {
 
-        Object value = mStats.get(name);
-        if (!(value instanceof String)) {
-            return null;
-        }
-
-        return (String) value;
+        return mStats.getStringValue(name);
     }
 
     public void putValue(@NonNull String name, long value) {
 
-        mStats.put(name, value);
+        mStats.putValue(name, value);
     }
 
     public void putValue(@NonNull String name, long value, boolean ignoreZero) {
 
         if (!ignoreZero || value != 0) {
-            mStats.put(name, value);
+            mStats.putValue(name, value);
         }
     }
 
     public void putValue(@NonNull String name, @NonNull String value) {
 
-        mStats.put(name, value);
+        mStats.putValue(name, value);
     }
 
     public void add(@NonNull RoomStat roomStat) {
 
         mRooms.add(roomStat);
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the number of long values (used with getValueName() and getValue() to iterate without boxing).
+     *
+     * @return the number of long values.
+     */
+    public int getValueCount() {
+
+        return mStats.size();
+    }
+
+    @NonNull
+    public String getValueName(int index) {
+
+        return mStats.getName(index);
+    }
+
+    public long getValue(int index) {
+
+        return mStats.getValue(index);
+    }
+
+    @NonNull
+    StatValues getValues() {
+
+        return mStats;
+    }
+}
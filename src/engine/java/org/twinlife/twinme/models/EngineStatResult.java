@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2021 twinlife SA.
+ *  Copyright (c) 2021-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -20,6 +20,7 @@ import org.twinlife.twinlife.SerializerException;
 import org.twinlife.twinlife.SerializerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -27,11 +28,49 @@ import java.util.UUID;
 /*
  * <pre>
  *
+ * Schema version 2
+ *
+ * {
+ *  "type":"record",
+ *  "name":"EngineStatResult",
+ *  "namespace":"org.twinlife.twinme.schemas",
+ *  "fields":
+ *  [
+ *   {"name":"schemaId", "type":"uuid"},
+ *   {"name":"schemaVersion", "type":"int"}
+ *   {"name":"requestId", "type":"long"}
+ *   {"name":"status", "type":"enum"}
+ *   {"name":"nameCount", "type":"int"}
+ *   {"name":"names", [{"name":"name", "type":"string"}]}
+ *   {"name":"engineCount", "type":"int"}
+ *   {"name":"engines", [
+ *     {"name":"logicalName", "type":"string"}
+ *     {"name":"engineId", "type":"uuid"}
+ *     {"name":"values", "type":"StatValues"}
+ *     {"name":"roomCount", "type":"int"}
+ *     {"name":"rooms", [
+ *       {"name":"engineId", "type":"uuid"}
+ *       {"name":"values", "type":"StatValues"}
+ *     ]}
+ *   ]}
+ *  ]
+ * }
+ *
+ * StatValues:
+ *   {"name":"longCount", "type":"int"}
+ *   {"name":"longNames", [{"name":"nameIndex", "type":"int"}]}
+ *   {"name":"longValues", [{"name":"value", "type":"long"}]}
+ *   {"name":"stringCount", "type":"int"}
+ *   {"name":"strings", [
+ *     {"name":"nameIndex", "type":"int"}
+ *     {"name":"value", "type":"string"}
+ *   ]}
+ *
  * Schema version 1
  *
  * {
  *  "type":"record",
- *  "name":"RoomCommand",
+ *  "name":"EngineStatResult",
  *  "namespace":"org.twinlife.twinme.schemas",
  *  "fields":
  *  [
@@ -39,6 +78,17 @@ import java.util.UUID;
  *   {"name":"schemaVersion", "type":"int"}
  *   {"name":"requestId", "type":"long"}
  *   {"name":"status", "type":"enum"}
+ *   {"name":"engineCount", "type":"int"}
+ *   {"name":"engines", [
+ *     {"name":"logicalName", "type":"string"}
+ *     {"name":"engineId", "type":"uuid"}
+ *     {"name":"statCount", "type":"int"}
+ *     {"name":"stats", [
+ *       {"name":"name", "type":"string"}
+ *       {"name":"kind", "type":"enum"}
+ *       {"name":"value", [null, "long", "string"]}
+ *     ]}
+ *   ]}
  *  ]
  * }
  *
@@ -48,19 +98,47 @@ import java.util.UUID;
 /**
  * Result of a command sent to a Twinroom.
  *
+ * The schema version 2 sends the statistic names once in a dictionary and then the values of each engine
+ * and room as a list of name indexes followed by the long values.  The schema version 1 is still decoded
+ * and it is produced for a peer that does not support the version 2 (it does not contain the rooms):
+ * getSerializer() selects the serializer from the peer version.
  */
 public class EngineStatResult extends EngineCommandResult {
     private static final String LOG_TAG = "EngineStatResult";
     private static final boolean DEBUG = false;
 
     private static final UUID SCHEMA_ID = UUID.fromString("51877bff-baf1-4286-8343-d9c8f1fade23");
-    private static final int SCHEMA_VERSION = 1;
+    private static final int SCHEMA_VERSION_2 = 2;
+    private static final int SCHEMA_VERSION_1 = 1;
+
+    // The schema version 2 is supported by the peers which support the EngineStatUpdate.
+    private static final int CONVERSATION_SERVICE_V2_MAJOR_VERSION = 2;
+    private static final int CONVERSATION_SERVICE_V2_MINOR_VERSION = 11;
+
+    private static final EngineStatResultSerializer SERIALIZER_V1 = new EngineStatResultSerializer();
+    private static final EngineStatResultSerializerV2 SERIALIZER_V2 = new EngineStatResultSerializerV2();
+
+    /**
+     * Get the serializer to send the result to a peer: the schema version 2 is used only when the peer supports it.
+     *
+     * @param majorVersion the peer conversation service major version.
+     * @param minorVersion the peer conversation service minor version.
+     * @return the serializer to use.
+     */
+    @NonNull
+    public static EngineCommandResult.EngineCommandResultSerializer getSerializer(int majorVersion, int minorVersion) {
+
+        return SERIALIZER_V2.isSupported(majorVersion, minorVersion) ? SERIALIZER_V2 : SERIALIZER_V1;
+    }
 
+    /**
+     * Serializer for the schema version 1 where each value is sent with its name and a type tag.
+     */
     public static class EngineStatResultSerializer extends EngineCommandResult.EngineCommandResultSerializer {
 
         public EngineStatResultSerializer() {
 
-            super(SCHEMA_ID, SCHEMA_VERSION, EngineStatResult.class);
+            super(SCHEMA_ID, SCHEMA_VERSION_1, EngineStatResult.class);
         }
 
         @Override
@@ -106,23 +184,18 @@ public class EngineStatResult extends EngineCommandResult {
             encoder.writeString(stat.getLogicalName());
             encoder.writeUUID(stat.getEngineId());
 
-            Map<String, Object> stats = stat.getEngineStats();
-            encoder.writeInt(stats.size());
-            for (Map.Entry<String, Object> item : stats.entrySet()) {
-                String name = item.getKey();
-                Object value = item.getValue();
-                if ((value instanceof Long)) {
-                    encoder.writeString(name);
-                    encoder.writeInt(1);
-                    encoder.writeLong((Long) value);
-                } else if ((value instanceof String)) {
-                    encoder.writeString(name);
-                    encoder.writeInt(2);
-                    encoder.writeString((String) value);
-                } else {
-                    encoder.writeString(name);
-                    encoder.writeInt(0);
-                }
+            final StatValues values = stat.getValues();
+            final Map<String, String> strings = values.getStrings();
+            encoder.writeInt(values.size() + strings.size());
+            for (int i = 0; i < values.size(); i++) {
+                encoder.writeString(values.getName(i));
+                encoder.writeInt(1);
+                encoder.writeLong(values.getValue(i));
+            }
+            for (Map.Entry<String, String> item : strings.entrySet()) {
+                encoder.writeString(item.getKey());
+                encoder.writeInt(2);
+                encoder.writeString(item.getValue());
             }
         }
 
@@ -158,6 +231,192 @@ public class EngineStatResult extends EngineCommandResult {
         }
     }
 
+    /**
+     * Serializer for the schema version 2 with the dictionary of statistic names and the room statistics.
+     */
+    public static class EngineStatResultSerializerV2 extends EngineCommandResult.EngineCommandResultSerializer {
+
+        public EngineStatResultSerializerV2() {
+
+            super(SCHEMA_ID, SCHEMA_VERSION_2, EngineStatResult.class);
+        }
+
+        @Override
+        public void serialize(@NonNull SerializerFactory serializerFactory, @NonNull Encoder encoder, @NonNull Object object) throws SerializerException {
+
+            encoder.writeUUID(schemaId);
+            encoder.writeInt(schemaVersion);
+
+            EngineStatResult result = (EngineStatResult) object;
+            serialize(encoder, result);
+            serializeStats(encoder, result.mEngineStats);
+        }
+
+        @Override
+        @NonNull
+        public Object deserialize(@NonNull SerializerFactory serializerFactory, @NonNull Decoder decoder) throws SerializerException {
+
+            EngineCommandResult result = deserialize(decoder);
+            List<EngineStat> list = deserializeStats(decoder);
+
+            return new EngineStatResult(result, list);
+        }
+
+        @Override
+        public boolean isSupported(int majorVersion, int minorVersion) {
+
+            return majorVersion == CONVERSATION_SERVICE_V2_MAJOR_VERSION && minorVersion >= CONVERSATION_SERVICE_V2_MINOR_VERSION;
+        }
+
+        /**
+         * Serialize the list of engine statistics with a dictionary of names followed by the values.
+         *
+         * @param encoder the encoder.
+         * @param stats the engine statistics.
+         * @throws SerializerException when the serialization fails.
+         */
+        static void serializeStats(@NonNull Encoder encoder, @Nullable List<EngineStat> stats) throws SerializerException {
+
+            // Build the dictionary of names used by the engines and rooms.
+            final Map<String, Integer> dictionary = new HashMap<>();
+            final List<String> names = new ArrayList<>();
+            if (stats != null) {
+                for (EngineStat stat : stats) {
+                    addNames(dictionary, names, stat.getValues());
+                    for (RoomStat roomStat : stat.getRoomStats()) {
+                        addNames(dictionary, names, roomStat.getValues());
+                    }
+                }
+            }
+
+            encoder.writeInt(names.size());
+            for (String name : names) {
+                encoder.writeString(name);
+            }
+
+            if (stats == null) {
+                encoder.writeInt(0);
+            } else {
+                encoder.writeInt(stats.size());
+                for (EngineStat stat : stats) {
+                    encoder.writeString(stat.getLogicalName());
+                    encoder.writeUUID(stat.getEngineId());
+                    serializeValues(encoder, dictionary, stat.getValues());
+
+                    final List<RoomStat> rooms = stat.getRoomStats();
+                    encoder.writeInt(rooms.size());
+                    for (RoomStat roomStat : rooms) {
+                        encoder.writeUUID(roomStat.getEngineId());
+                        serializeValues(encoder, dictionary, roomStat.getValues());
+                    }
+                }
+            }
+        }
+
+        @Nullable
+        static List<EngineStat> deserializeStats(@NonNull Decoder decoder) throws SerializerException {
+
+            int count = decoder.readInt();
+            final String[] names = new String[count];
+            for (int i = 0; i < count; i++) {
+                names[i] = decoder.readString();
+            }
+
+            count = decoder.readInt();
+            List<EngineStat> list = null;
+            if (count > 0) {
+                list = new ArrayList<>(count);
+                while (count > 0) {
+                    count--;
+                    String logicalName = decoder.readString();
+                    UUID engineId = decoder.readUUID();
+                    EngineStat stat = new EngineStat(logicalName, engineId);
+                    deserializeValues(decoder, names, stat.getValues());
+
+                    int roomCount = decoder.readInt();
+                    while (roomCount > 0) {
+                        roomCount--;
+                        RoomStat roomStat = new RoomStat(decoder.readUUID());
+                        deserializeValues(decoder, names, roomStat.getValues());
+                        stat.add(roomStat);
+                    }
+                    list.add(stat);
+                }
+            }
+
+            return list;
+        }
+
+        private static void addNames(@NonNull Map<String, Integer> dictionary, @NonNull List<String> names,
+                                     @NonNull StatValues values) {
+
+            for (int i = 0; i < values.size(); i++) {
+                addName(dictionary, names, values.getName(i));
+            }
+            for (String name : values.getStrings().keySet()) {
+                addName(dictionary, names, name);
+            }
+        }
+
+        private static void addName(@NonNull Map<String, Integer> dictionary, @NonNull List<String> names,
+                                    @NonNull String name) {
+
+            if (!dictionary.containsKey(name)) {
+                dictionary.put(name, names.size());
+                names.add(name);
+            }
+        }
+
+        private static void serializeValues(@NonNull Encoder encoder, @NonNull Map<String, Integer> dictionary,
+                                            @NonNull StatValues values) throws SerializerException {
+
+            final int count = values.size();
+            encoder.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                encoder.writeInt(dictionary.get(values.getName(i)));
+            }
+            for (int i = 0; i < count; i++) {
+                encoder.writeLong(values.getValue(i));
+            }
+
+            final Map<String, String> strings = values.getStrings();
+            encoder.writeInt(strings.size());
+            for (Map.Entry<String, String> item : strings.entrySet()) {
+                encoder.writeInt(dictionary.get(item.getKey()));
+                encoder.writeString(item.getValue());
+            }
+        }
+
+        private static void deserializeValues(@NonNull Decoder decoder, @NonNull String[] names,
+                                              @NonNull StatValues values) throws SerializerException {
+
+            int count = decoder.readInt();
+            final int[] indexes = new int[count];
+            for (int i = 0; i < count; i++) {
+                indexes[i] = readNameIndex(decoder, names);
+            }
+            for (int i = 0; i < count; i++) {
+                values.putValue(names[indexes[i]], decoder.readLong());
+            }
+
+            count = decoder.readInt();
+            while (count > 0) {
+                count--;
+                final int index = readNameIndex(decoder, names);
+                values.putValue(names[index], decoder.readString());
+            }
+        }
+
+        private static int readNameIndex(@NonNull Decoder decoder, @NonNull String[] names) throws SerializerException {
+
+            final int index = decoder.readInt();
+            if (index < 0 || index >= names.length) {
+                throw new SerializerException("EngineStatResult invalid name index");
+            }
+            return index;
+        }
+    }
+
     @Nullable
     private final List<EngineStat> mEngineStats;
 
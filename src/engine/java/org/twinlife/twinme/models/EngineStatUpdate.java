@@ -0,0 +1,200 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import android.util.Log;
+
+import org.twinlife.twinlife.Decoder;
+import org.twinlife.twinlife.Encoder;
+import org.twinlife.twinlife.Serializer;
+import org.twinlife.twinlife.SerializerException;
+import org.twinlife.twinlife.SerializerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * <pre>
+ *
+ * Schema version 1
+ *
+ * {
+ *  "type":"record",
+ *  "name":"EngineStatUpdate",
+ *  "namespace":"org.twinlife.twinme.schemas",
+ *  "fields":
+ *  [
+ *   {"name":"schemaId", "type":"uuid"},
+ *   {"name":"schemaVersion", "type":"int"}
+ *   {"name":"subscriptionId", "type":"long"}
+ *   {"name":"sequence", "type":"long"}
+ *   {"name":"timestamp", "type":"long"}
+ *   {"name":"full", "type":"boolean"}
+ *   {"name":"stats", "type":"EngineStatResult.stats"}
+ *   {"name":"removedCount", "type":"int"}
+ *   {"name":"removed", [{"name":"id", "type":"uuid"}]}
+ *  ]
+ * }
+ *
+ * </pre>
+ */
+
+/**
+ * Periodic statistics update sent by the engine for an ENGINE_STAT_SUBSCRIBE subscription.
+ *
+ * The first update of a subscription is full and contains every engine and room.  The next ones only contain
+ * the counters that have changed since the previous update and the engines or rooms that have been removed.
+ * The sequence is incremented by one for each update so that a lost update can be detected.
+ */
+public class EngineStatUpdate {
+    private static final String LOG_TAG = "EngineStatUpdate";
+    private static final boolean DEBUG = false;
+
+    private static final UUID SCHEMA_ID = UUID.fromString("7a0c3e52-4f1d-4b8e-a6c2-91d5e0f3b7a4");
+    private static final int SCHEMA_VERSION = 1;
+
+    private static final int CONVERSATION_SERVICE_MIN_MAJOR_VERSION = 2;
+    private static final int CONVERSATION_SERVICE_MIN_MINOR_VERSION = 11;
+
+    public static class EngineStatUpdateSerializer extends Serializer {
+
+        public EngineStatUpdateSerializer() {
+
+            super(SCHEMA_ID, SCHEMA_VERSION, EngineStatUpdate.class);
+        }
+
+        @Override
+        public void serialize(@NonNull SerializerFactory serializerFactory, @NonNull Encoder encoder, @NonNull Object object) throws SerializerException {
+
+            encoder.writeUUID(schemaId);
+            encoder.writeInt(schemaVersion);
+
+            EngineStatUpdate update = (EngineStatUpdate) object;
+            encoder.writeLong(update.mSubscriptionId);
+            encoder.writeLong(update.mSequence);
+            encoder.writeLong(update.mTimestamp);
+            encoder.writeEnum(update.mFull ? 1 : 0);
+            EngineStatResult.EngineStatResultSerializerV2.serializeStats(encoder, update.mStats);
+
+            encoder.writeInt(update.mRemoved.size());
+            for (UUID id : update.mRemoved) {
+                encoder.writeUUID(id);
+            }
+        }
+
+        @Override
+        @NonNull
+        public Object deserialize(@NonNull SerializerFactory serializerFactory, @NonNull Decoder decoder) throws SerializerException {
+
+            long subscriptionId = decoder.readLong();
+            long sequence = decoder.readLong();
+            long timestamp = decoder.readLong();
+            boolean full = decoder.readEnum() != 0;
+            List<EngineStat> stats = EngineStatResult.EngineStatResultSerializerV2.deserializeStats(decoder);
+
+            int count = decoder.readInt();
+            List<UUID> removed = new ArrayList<>(count);
+            while (count > 0) {
+                count--;
+                removed.add(decoder.readUUID());
+            }
+
+            return new EngineStatUpdate(subscriptionId, sequence, timestamp, full, stats, removed);
+        }
+
+        @Override
+        public boolean isSupported(int majorVersion, int minorVersion) {
+
+            return majorVersion == CONVERSATION_SERVICE_MIN_MAJOR_VERSION && minorVersion >= CONVERSATION_SERVICE_MIN_MINOR_VERSION;
+        }
+    }
+
+    private final long mSubscriptionId;
+    private final long mSequence;
+    private final long mTimestamp;
+    private final boolean mFull;
+    @NonNull
+    private final List<EngineStat> mStats;
+    @NonNull
+    private final List<UUID> mRemoved;
+
+    public EngineStatUpdate(long subscriptionId, long sequence, long timestamp, boolean full,
+                            @Nullable List<EngineStat> stats, @Nullable List<UUID> removed) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "EngineStatUpdate: subscriptionId=" + subscriptionId + " sequence=" + sequence);
+        }
+
+        mSubscriptionId = subscriptionId;
+        mSequence = sequence;
+        mTimestamp = timestamp;
+        mFull = full;
+        mStats = stats == null ? Collections.emptyList() : stats;
+        mRemoved = removed == null ? Collections.emptyList() : removed;
+    }
+
+    public long getSubscriptionId() {
+
+        return mSubscriptionId;
+    }
+
+    public long getSequence() {
+
+        return mSequence;
+    }
+
+    /**
+     * Get the engine time when the update was produced.
+     *
+     * @return the update time in milliseconds.
+     */
+    public long getTimestamp() {
+
+        return mTimestamp;
+    }
+
+    /**
+     * Returns true if the update contains all the engines and rooms and not only the changed counters.
+     *
+     * @return true for a full update.
+     */
+    public boolean isFull() {
+
+        return mFull;
+    }
+
+    @NonNull
+    public List<EngineStat> getStats() {
+
+        return mStats;
+    }
+
+    /**
+     * Get the list of engines and rooms that have been removed since the previous update.
+     *
+     * @return the engine or room ids.
+     */
+    @NonNull
+    public List<UUID> getRemoved() {
+
+        return mRemoved;
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+
+        return "EngineStatUpdate: subscriptionId=" + mSubscriptionId + " sequence=" + mSequence
+                + " full=" + mFull + " engines=" + mStats.size() + " removed=" + mRemoved.size() + "\n";
+    }
+}
@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2021 twinlife SA.
+ *  Copyright (c) 2021-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -11,7 +11,6 @@ package org.twinlife.twinme.models;
 
 import androidx.annotation.NonNull;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -29,12 +28,12 @@ public class RoomStat {
     @NonNull
     private final UUID mEngineId;
     @NonNull
-    private final Map<String, Object> mStats;
+    private final StatValues mStats;
 
     public RoomStat(@NonNull final UUID engineId) {
 
         this.mEngineId = engineId;
-        this.mStats = new HashMap<>();
+        this.mStats = new StatValues();
     }
 
     @NonNull
@@ -43,39 +42,66 @@ public class RoomStat {
         return mEngineId;
     }
 
+    /**
+     * Get a copy of the room statistics with Long and String values.
+     *
+     * @return a new map with the room statistics.
+     */
     @NonNull
     public Map<String, Object> getStats() {
 
-        return mStats;
+        return mStats.toMap();
     }
 
     public Long getLongValue(@NonNull String name) {
 
-        Object value = mStats.get(name);
-        if (!(value instanceof Long)) {
-            return null;
-        }
+        return mStats.getLongValue(name);
+    }
+
+    public long getLong(@NonNull String name, long defaultValue) {
 
-        return (Long) value;
+        return mStats.getLong(name, defaultValue);
     }
 
     public String getStringValue(@NonNull String name) {
 
-        Object value = mStats.get(name);
-        if (!(value instanceof String)) {
-            return null;
-        }
-
-        return (String) value;
+        return mStats.getStringValue(name);
     }
 
     public void putValue(@NonNull String name, long value) {
 
-        mStats.put(name, value);
+        mStats.putValue(name, value);
     }
 
     public void putValue(@NonNull String name, @NonNull String value) {
 
-        mStats.put(name, value);
+        mStats.putValue(name, value);
+    }
+
+    /**
+     * Get the number of long values (used with getValueName() and getValue() to iterate without boxing).
+     *
+     * @return the number of long values.
+     */
+    public int getValueCount() {
+
+        return mStats.size();
+    }
+
+    @NonNull
+    public String getValueName(int index) {
+
+        return mStats.getName(index);
+    }
+
+    public long getValue(int index) {
+
+        return mStats.getValue(index);
+    }
+
+    @NonNull
+    StatValues getValues() {
+
+        return mStats;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,148 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statistic values of an engine or a room.
+ *
+ * The numeric values are stored in a primitive long[] indexed like the names array and the rare
+ * string values are kept in a separate map.  Engines and rooms report a small number of counters
+ * so the lookup by name is a linear scan.
+ */
+final class StatValues {
+    private static final int INITIAL_SIZE = 16;
+
+    @NonNull
+    private String[] mNames;
+    @NonNull
+    private long[] mValues;
+    private int mCount;
+    @Nullable
+    private Map<String, String> mStrings;
+
+    StatValues() {
+
+        mNames = new String[INITIAL_SIZE];
+        mValues = new long[INITIAL_SIZE];
+    }
+
+    int size() {
+
+        return mCount;
+    }
+
+    @NonNull
+    String getName(int index) {
+
+        return mNames[index];
+    }
+
+    long getValue(int index) {
+
+        return mValues[index];
+    }
+
+    int indexOf(@NonNull String name) {
+
+        for (int i = 0; i < mCount; i++) {
+            if (name.equals(mNames[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Nullable
+    Long getLongValue(@NonNull String name) {
+
+        final int index = indexOf(name);
+        return index < 0 ? null : mValues[index];
+    }
+
+    long getLong(@NonNull String name, long defaultValue) {
+
+        final int index = indexOf(name);
+        return index < 0 ? defaultValue : mValues[index];
+    }
+
+    @Nullable
+    String getStringValue(@NonNull String name) {
+
+        return mStrings == null ? null : mStrings.get(name);
+    }
+
+    @NonNull
+    Map<String, String> getStrings() {
+
+        return mStrings == null ? Collections.emptyMap() : mStrings;
+    }
+
+    void putValue(@NonNull String name, long value) {
+
+        if (mStrings != null) {
+            mStrings.remove(name);
+        }
+
+        final int index = indexOf(name);
+        if (index >= 0) {
+            mValues[index] = value;
+            return;
+        }
+
+        if (mCount == mNames.length) {
+            mNames = Arrays.copyOf(mNames, 2 * mCount);
+            mValues = Arrays.copyOf(mValues, 2 * mCount);
+        }
+        mNames[mCount] = name;
+        mValues[mCount] = value;
+        mCount++;
+    }
+
+    void putValue(@NonNull String name, @NonNull String value) {
+
+        final int index = indexOf(name);
+        if (index >= 0) {
+            mCount--;
+            System.arraycopy(mNames, index + 1, mNames, index, mCount - index);
+            System.arraycopy(mValues, index + 1, mValues, index, mCount - index);
+            mNames[mCount] = null;
+        }
+
+        if (mStrings == null) {
+            mStrings = new HashMap<>();
+        }
+        mStrings.put(name, value);
+    }
+
+    /**
+     * Build a map with the long and string values.
+     *
+     * @return a new map with the values.
+     */
+    @NonNull
+    Map<String, Object> toMap() {
+
+        final Map<String, Object> result = new HashMap<>();
+        for (int i = 0; i < mCount; i++) {
+            result.put(mNames[i], mValues[i]);
+        }
+        if (mStrings != null) {
+            result.putAll(mStrings);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.services;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinme.TwinmeContext;
+import org.twinlife.twinme.actions.EngineAction;
+import org.twinlife.twinme.actions.EngineDestroyAction;
+import org.twinlife.twinme.actions.EngineStartAction;
+import org.twinlife.twinme.actions.EngineStopAction;
+import org.twinlife.twinme.models.Contact;
+import org.twinlife.twinme.models.EngineConfig;
+import org.twinlife.twinme.models.EngineInfo;
+import org.twinlife.twinme.models.EngineStat;
+import org.twinlife.twinme.models.RoomStat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Load-driven autoscaling of the Twinroom engines.
+ *
+ * For each engine class, the controller computes the utilisation of the running engines: the sum of a load
+ * counter reported by the EngineStat (or by its RoomStat when the engine does not report it) divided by the
+ * capacity of the running engines.  Hysteresis is applied with a low and a high water mark:
+ * - above the high water mark, a stopped engine is started or a new engine is created,
+ * - below the low water mark, the least loaded engine is stopped if the remaining engines stay below the
+ *   high water mark,
+ * - the stopped engines which exceed the number of idle engines to keep are destroyed.
+ * At most one operation is made per engine class and per evaluation and a cooldown delay is respected after
+ * each operation so that the effect of an operation is measured before the next one.
+ *
+ * In dry-run mode, the decisions are only returned and logged.
+ */
+public class EngineAutoscaler {
+    private static final String LOG_TAG = "EngineAutoscaler";
+    private static final boolean DEBUG = false;
+    private static final boolean INFO = org.twinlife.twinlife.BuildConfig.ENABLE_INFO_LOG;
+
+    public enum Operation {
+        START,
+        STOP,
+        CREATE,
+        DESTROY
+    }
+
+    public static final class Policy {
+        @NonNull
+        public final String engineClass;
+        @NonNull
+        public final String loadName;
+        public final double capacity;
+        public final double lowWater;
+        public final double highWater;
+        public final int minRunning;
+        public final int maxEngines;
+        public final int maxIdle;
+        public final long cooldown;
+
+        /**
+         * Autoscaling policy of an engine class.
+         *
+         * @param engineClass the engine class.
+         * @param loadName the name of the EngineStat/RoomStat counter which gives the engine load.
+         * @param capacity the load that a running engine can handle.
+         * @param lowWater the utilisation below which an engine is stopped (0..1).
+         * @param highWater the utilisation above which an engine is started or created (0..1).
+         * @param minRunning the minimum number of running engines.
+         * @param maxEngines the maximum number of engines (running and stopped).
+         * @param maxIdle the number of stopped engines to keep before destroying them.
+         * @param cooldown the minimum delay between two operations in milliseconds.
+         */
+        public Policy(@NonNull String engineClass, @NonNull String loadName, double capacity,
+                      double lowWater, double highWater, int minRunning, int maxEngines, int maxIdle, long cooldown) {
+
+            this.engineClass = engineClass;
+            this.loadName = loadName;
+            this.capacity = capacity;
+            this.lowWater = lowWater;
+            this.highWater = highWater;
+            this.minRunning = minRunning;
+            this.maxEngines = maxEngines;
+            this.maxIdle = maxIdle;
+            this.cooldown = cooldown;
+        }
+    }
+
+    public static final class Decision {
+        @NonNull
+        public final Operation operation;
+        @NonNull
+        public final String engineClass;
+        @Nullable
+        public final UUID engineId;
+        public final double utilisation;
+
+        Decision(@NonNull Operation operation, @NonNull String engineClass, @Nullable UUID engineId, double utilisation) {
+
+            this.operation = operation;
+            this.engineClass = engineClass;
+            this.engineId = engineId;
+            this.utilisation = utilisation;
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+
+            return operation + " " + engineClass + (engineId == null ? "" : " " + engineId) + " utilisation=" + utilisation;
+        }
+    }
+
+    public interface Handler {
+
+        void execute(@NonNull Decision decision);
+    }
+
+    public interface Creator {
+
+        @Nullable
+        EngineAction<?> create(@NonNull String engineClass);
+    }
+
+    /**
+     * Handler which executes the decisions with the engine actions on a supervisor contact.
+     */
+    public static final class ActionHandler implements Handler {
+        @NonNull
+        private final TwinmeContext mTwinmeContext;
+        @NonNull
+        private final Contact mContact;
+        @NonNull
+        private final Creator mCreator;
+
+        public ActionHandler(@NonNull TwinmeContext twinmeContext, @NonNull Contact contact, @NonNull Creator creator) {
+
+            mTwinmeContext = twinmeContext;
+            mContact = contact;
+            mCreator = creator;
+        }
+
+        @Override
+        public void execute(@NonNull Decision decision) {
+
+            EngineAction<?> action = null;
+            switch (decision.operation) {
+                case START:
+                    if (decision.engineId != null) {
+                        action = EngineStartAction.create(mTwinmeContext, mContact, decision.engineId);
+                    }
+                    break;
+
+                case STOP:
+                    if (decision.engineId != null) {
+                        action = EngineStopAction.create(mTwinmeContext, mContact, decision.engineId);
+                    }
+                    break;
+
+                case DESTROY:
+                    if (decision.engineId != null) {
+                        action = EngineDestroyAction.create(mTwinmeContext, mContact, decision.engineId);
+                    }
+                    break;
+
+                case CREATE:
+                    action = mCreator.create(decision.engineClass);
+                    break;
+            }
+            if (action != null) {
+                action.onError((a, errorCode) -> Log.e(LOG_TAG, "Autoscaling " + decision + " failed: " + errorCode));
+                action.start();
+            }
+        }
+    }
+
+    private final boolean mDryRun;
+    @Nullable
+    private final Handler mHandler;
+    private final Map<String, Policy> mPolicies = new HashMap<>();
+    private final Map<String, Long> mLastOperation = new HashMap<>();
+
+    public EngineAutoscaler(boolean dryRun, @Nullable Handler handler) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "EngineAutoscaler: dryRun=" + dryRun);
+        }
+
+        mDryRun = dryRun || handler == null;
+        mHandler = handler;
+    }
+
+    public boolean isDryRun() {
+
+        return mDryRun;
+    }
+
+    public synchronized void addPolicy(@NonNull Policy policy) {
+
+        mPolicies.put(policy.engineClass, policy);
+    }
+
+    /**
+     * Evaluate the engines and their statistics and execute the operations to keep the utilisation of each
+     * engine class within its band.
+     *
+     * @param engines the engines with their class and status (from EngineListResult).
+     * @param stats the engine statistics (from EngineStatResult or EngineStatAggregator).
+     * @param now the current time.
+     * @return the decisions made.
+     */
+    @NonNull
+    public List<Decision> evaluate(@NonNull List<EngineInfo> engines, @NonNull List<EngineStat> stats, long now) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "evaluate: engines=" + engines.size() + " stats=" + stats.size());
+        }
+
+        final Map<UUID, EngineStat> statMap = new HashMap<>();
+        for (EngineStat stat : stats) {
+            statMap.put(stat.getEngineId(), stat);
+        }
+
+        final List<Decision> decisions = new ArrayList<>();
+        synchronized (this) {
+            for (Policy policy : mPolicies.values()) {
+                final Long last = mLastOperation.get(policy.engineClass);
+                if (last != null && now - last < policy.cooldown) {
+                    continue;
+                }
+
+                final Decision decision = evaluate(policy, engines, statMap);
+                if (decision != null) {
+                    mLastOperation.put(policy.engineClass, now);
+                    decisions.add(decision);
+                }
+            }
+        }
+
+        for (Decision decision : decisions) {
+            if (INFO) {
+                Log.i(LOG_TAG, (mDryRun ? "Dry-run " : "") + decision);
+            }
+            if (!mDryRun && mHandler != null) {
+                mHandler.execute(decision);
+            }
+        }
+        return decisions;
+    }
+
+    /**
+     * Compute the load of an engine from its statistics.
+     *
+     * @param stat the engine statistics or null.
+     * @param loadName the load counter name.
+     * @return the engine load.
+     */
+    static long getLoad(@Nullable EngineStat stat, @NonNull String loadName) {
+
+        if (stat == null) {
+            return 0;
+        }
+
+        final Long value = stat.getLongValue(loadName);
+        if (value != null) {
+            return value;
+        }
+
+        long load = 0;
+        for (RoomStat room : stat.getRoomStats()) {
+            load += room.getLong(loadName, 0);
+        }
+        return load;
+    }
+
+    //
+    // Private methods
+    //
+
+    @Nullable
+    private static Decision evaluate(@NonNull Policy policy, @NonNull List<EngineInfo> engines,
+                                     @NonNull Map<UUID, EngineStat> stats) {
+
+        final List<EngineInfo> running = new ArrayList<>();
+        final List<EngineInfo> stopped = new ArrayList<>();
+        int total = 0;
+        long load = 0;
+        for (EngineInfo engine : engines) {
+            if (!policy.engineClass.equals(engine.getEngineClass())) {
+                continue;
+            }
+            total++;
+            if (engine.getStatus() == EngineConfig.Status.RUNNING) {
+                running.add(engine);
+                load += getLoad(stats.get(engine.getEngineId()), policy.loadName);
+            } else if (engine.getStatus() == EngineConfig.Status.STOPPED) {
+                stopped.add(engine);
+            }
+        }
+
+        final double utilisation = utilisation(load, running.size(), policy.capacity);
+
+        // Scale up: start the oldest stopped engine or create a new one.
+        if (utilisation > policy.highWater || running.size() < policy.minRunning) {
+            final EngineInfo engine = oldest(stopped);
+            if (engine != null) {
+                return new Decision(Operation.START, policy.engineClass, engine.getEngineId(), utilisation);
+            }
+            if (total < policy.maxEngines) {
+                return new Decision(Operation.CREATE, policy.engineClass, null, utilisation);
+            }
+            return null;
+        }
+
+        // Scale down: stop the least loaded engine if the others can handle its load.
+        if (utilisation < policy.lowWater && running.size() > policy.minRunning
+                && utilisation(load, running.size() - 1, policy.capacity) < policy.highWater) {
+            EngineInfo selected = null;
+            long selectedLoad = Long.MAX_VALUE;
+            for (EngineInfo engine : running) {
+                final long engineLoad = getLoad(stats.get(engine.getEngineId()), policy.loadName);
+                if (engineLoad < selectedLoad
+                        || (engineLoad == selectedLoad && selected != null && engine.getLogicalId() > selected.getLogicalId())) {
+                    selected = engine;
+                    selectedLoad = engineLoad;
+                }
+            }
+            if (selected != null) {
+                return new Decision(Operation.STOP, policy.engineClass, selected.getEngineId(), utilisation);
+            }
+        }
+
+        // Release the stopped engines which are not needed.
+        if (stopped.size() > policy.maxIdle) {
+            final EngineInfo engine = oldest(stopped);
+            if (engine != null) {
+                return new Decision(Operation.DESTROY, policy.engineClass, engine.getEngineId(), utilisation);
+            }
+        }
+        return null;
+    }
+
+    private static double utilisation(long load, int running, double capacity) {
+
+        if (running <= 0 || capacity <= 0) {
+            return load > 0 ? Double.POSITIVE_INFINITY : 0.0;
+        }
+        return load / (running * capacity);
+    }
+
+    @Nullable
+    private static EngineInfo oldest(@NonNull List<EngineInfo> engines) {
+
+        EngineInfo result = null;
+        for (EngineInfo engine : engines) {
+            if (result == null || engine.getCreationDate() < result.getCreationDate()
+                    || (engine.getCreationDate() == result.getCreationDate() && engine.getLogicalId() < result.getLogicalId())) {
+                result = engine;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.services;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.BaseService.ErrorCode;
+import org.twinlife.twinme.TwinmeContext;
+import org.twinlife.twinme.TwinmeEngine;
+import org.twinlife.twinme.actions.EngineCreateAction;
+import org.twinlife.twinme.models.Contact;
+import org.twinlife.twinme.models.EngineConfig;
+import org.twinlife.twinme.models.EngineCreateResult;
+import org.twinlife.twinme.models.EngineServerInfoResult;
+import org.twinlife.twinme.models.EngineStatResult;
+import org.twinlife.twinme.models.RoomConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Choose the engine server on which a new Twinroom engine is created.
+ *
+ * The placement keeps a capacity table of the servers built from the EngineServerInfoResult (engine classes,
+ * engine count and slots) and refreshed by the unfiltered EngineStatResult (engine count).  A server is a candidate
+ * when it supports the engine class, has a free slot and its information is not older than the maximum age.
+ * - SPREAD selects the least loaded server to balance the engines on the servers,
+ * - PACK selects the most loaded server which still has a free slot to keep the other servers empty.
+ * The selected server is reserved until the creation completes so that concurrent placements take it into account.
+ */
+public class EnginePlacement {
+    private static final String LOG_TAG = "EnginePlacement";
+    private static final boolean DEBUG = false;
+
+    private static final long DEFAULT_MAX_AGE = 5 * 60 * 1000; // 5 minutes
+
+    public enum Policy {
+        SPREAD,
+        PACK
+    }
+
+    public static final class ServerCapacity {
+        @NonNull
+        private final UUID mServerId;
+        @Nullable
+        private final Contact mContact;
+        @NonNull
+        private List<String> mEngineClasses = Collections.emptyList();
+        private int mEngineCount;
+        private int mEngineSlots;
+        private int mReserved;
+        private long mUpdateTime;
+
+        ServerCapacity(@NonNull UUID serverId, @Nullable Contact contact) {
+
+            mServerId = serverId;
+            mContact = contact;
+        }
+
+        @NonNull
+        public UUID getServerId() {
+
+            return mServerId;
+        }
+
+        @Nullable
+        public Contact getContact() {
+
+            return mContact;
+        }
+
+        @NonNull
+        public List<String> getEngineClasses() {
+
+            return mEngineClasses;
+        }
+
+        public int getEngineCount() {
+
+            return mEngineCount;
+        }
+
+        public int getEngineSlots() {
+
+            return mEngineSlots;
+        }
+
+        /**
+         * Get the number of engines being created on the server.
+         *
+         * @return the number of reserved slots.
+         */
+        public int getReserved() {
+
+            return mReserved;
+        }
+
+        public int getFreeSlots() {
+
+            return mEngineSlots - mEngineCount - mReserved;
+        }
+
+        /**
+         * Get the server load with the reserved slots.
+         *
+         * @return the load between 0 and 1.
+         */
+        public double getLoad() {
+
+            return mEngineSlots <= 0 ? 1.0 : (double) (mEngineCount + mReserved) / (double) mEngineSlots;
+        }
+
+        public long getUpdateTime() {
+
+            return mUpdateTime;
+        }
+
+        boolean supports(@NonNull String engineClass) {
+
+            return mEngineClasses.contains(engineClass);
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+
+            return "ServerCapacity: serverId=" + mServerId + " engines=" + mEngineCount + " reserved=" + mReserved
+                    + " slots=" + mEngineSlots + " classes=" + mEngineClasses;
+        }
+    }
+
+    @NonNull
+    private final Policy mPolicy;
+    private final long mMaxAge;
+    private final Map<UUID, ServerCapacity> mServers = new HashMap<>();
+
+    public EnginePlacement(@NonNull Policy policy) {
+
+        this(policy, DEFAULT_MAX_AGE);
+    }
+
+    public EnginePlacement(@NonNull Policy policy, long maxAge) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "EnginePlacement: policy=" + policy + " maxAge=" + maxAge);
+        }
+
+        mPolicy = policy;
+        mMaxAge = maxAge;
+    }
+
+    @NonNull
+    public Policy getPolicy() {
+
+        return mPolicy;
+    }
+
+    /**
+     * Refresh the capacity table by asking the server information of each supervisor contact.
+     *
+     * @param twinmeEngine the twinme engine.
+     * @param servers the supervisor contacts.
+     * @param timeout the maximum time to wait for each server.
+     * @param complete called when the capacity table is refreshed.
+     */
+    public void refresh(@NonNull TwinmeEngine twinmeEngine, @NonNull List<Contact> servers, long timeout,
+                        @NonNull Runnable complete) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "refresh: servers=" + servers.size());
+        }
+
+        final Map<UUID, Contact> contacts = new HashMap<>();
+        for (Contact server : servers) {
+            contacts.put(server.getId(), server);
+        }
+
+        twinmeEngine.getFleetServerInfo(servers, timeout, (result) -> {
+            for (Map.Entry<UUID, EngineServerInfoResult> item : result.getResults().entrySet()) {
+                if (!result.isCached(item.getKey())) {
+                    updateServerInfo(item.getKey(), contacts.get(item.getKey()), item.getValue());
+                }
+            }
+            complete.run();
+        });
+    }
+
+    /**
+     * Update the capacity of the server from its server information.
+     *
+     * @param serverId the server id (supervisor contact id).
+     * @param contact the supervisor contact or null.
+     * @param info the server information.
+     */
+    public void updateServerInfo(@NonNull UUID serverId, @Nullable Contact contact, @NonNull EngineServerInfoResult info) {
+
+        final List<String> engineClasses = info.getEngineClasses();
+        updateServer(serverId, contact, engineClasses == null ? Collections.emptyList() : engineClasses,
+                info.getEngineCount(), info.getEngineSlots(), System.currentTimeMillis());
+    }
+
+    /**
+     * Update the capacity of the server.
+     *
+     * @param serverId the server id (supervisor contact id).
+     * @param contact the supervisor contact or null.
+     * @param engineClasses the engine classes supported by the server.
+     * @param engineCount the number of engines on the server.
+     * @param engineSlots the maximum number of engines on the server.
+     * @param now the current time.
+     */
+    public synchronized void updateServer(@NonNull UUID serverId, @Nullable Contact contact,
+                                          @NonNull List<String> engineClasses, int engineCount, int engineSlots,
+                                          long now) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "updateServer: serverId=" + serverId + " engineCount=" + engineCount
+                    + " engineSlots=" + engineSlots);
+        }
+
+        ServerCapacity server = mServers.get(serverId);
+        if (server == null || (contact != null && server.mContact == null)) {
+            final ServerCapacity previous = server;
+            server = new ServerCapacity(serverId, contact);
+            if (previous != null) {
+                server.mReserved = previous.mReserved;
+            }
+            mServers.put(serverId, server);
+        }
+        server.mEngineClasses = new ArrayList<>(engineClasses);
+        server.mEngineCount = engineCount;
+        server.mEngineSlots = engineSlots;
+        server.mUpdateTime = now;
+    }
+
+    /**
+     * Update the engine count of a known server from its statistics.  The statistics only give the engine count
+     * when they were requested without filter: a filtered result is ignored.
+     *
+     * @param serverId the server id (supervisor contact id).
+     * @param filter the engine filter used to get the statistics.
+     * @param stats the engine statistics of the server.
+     */
+    public synchronized void updateStats(@NonNull UUID serverId, @NonNull String filter, @NonNull EngineStatResult stats) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "updateStats: serverId=" + serverId + " filter=" + filter);
+        }
+
+        if (!filter.isEmpty()) {
+            return;
+        }
+
+        final ServerCapacity server = mServers.get(serverId);
+        if (server != null && stats.getStats() != null) {
+            server.mEngineCount = stats.getStats().size();
+            server.mUpdateTime = System.currentTimeMillis();
+        }
+    }
+
+    public synchronized void removeServer(@NonNull UUID serverId) {
+
+        mServers.remove(serverId);
+    }
+
+    /**
+     * Get a copy of the capacity table.
+     *
+     * @return the list of servers.
+     */
+    @NonNull
+    public synchronized List<ServerCapacity> getServers() {
+
+        final List<ServerCapacity> result = new ArrayList<>(mServers.size());
+        for (ServerCapacity server : mServers.values()) {
+            final ServerCapacity copy = new ServerCapacity(server.mServerId, server.mContact);
+            copy.mEngineClasses = server.mEngineClasses;
+            copy.mEngineCount = server.mEngineCount;
+            copy.mEngineSlots = server.mEngineSlots;
+            copy.mReserved = server.mReserved;
+            copy.mUpdateTime = server.mUpdateTime;
+            result.add(copy);
+        }
+        return result;
+    }
+
+    /**
+     * Select a server for a new engine of the given class and reserve a slot on it.  The reservation must be
+     * released by calling release() when the creation is finished.
+     *
+     * @param engineClass the engine class.
+     * @param now the current time.
+     * @return the selected server id or null if no server can host the engine.
+     */
+    @Nullable
+    public synchronized UUID reserve(@NonNull String engineClass, long now) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "reserve: engineClass=" + engineClass);
+        }
+
+        ServerCapacity selected = null;
+        for (ServerCapacity server : mServers.values()) {
+            if (server.getFreeSlots() <= 0 || !server.supports(engineClass) || now - server.mUpdateTime > mMaxAge) {
+                continue;
+            }
+            if (selected == null || isBetter(server, selected)) {
+                selected = server;
+            }
+        }
+
+        if (selected == null) {
+            return null;
+        }
+        selected.mReserved++;
+        return selected.mServerId;
+    }
+
+    /**
+     * Release the slot reserved on the server.
+     *
+     * @param serverId the server id returned by reserve().
+     * @param created true if the engine was created on the server.
+     */
+    public synchronized void release(@NonNull UUID serverId, boolean created) {
+
+        final ServerCapacity server = mServers.get(serverId);
+        if (server != null) {
+            if (server.mReserved > 0) {
+                server.mReserved--;
+            }
+            if (created) {
+                server.mEngineCount++;
+            }
+        }
+    }
+
+    /**
+     * Create the Twinroom engine on the server selected by the placement policy.
+     *
+     * @param twinmeContext the twinme context.
+     * @param name the engine name.
+     * @param avatar the engine avatar.
+     * @param engineConfig the engine configuration which gives the engine class.
+     * @param roomConfig the room configuration.
+     * @param consumer called with the error code and the create result.
+     */
+    public void createEngine(@NonNull TwinmeContext twinmeContext, @NonNull String name, @NonNull Bitmap avatar,
+                             @NonNull EngineConfig engineConfig, @NonNull RoomConfig roomConfig,
+                             @NonNull org.twinlife.twinlife.Consumer<EngineCreateResult> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "createEngine: name=" + name + " engineClass=" + engineConfig.getEngineClass());
+        }
+
+        final UUID serverId = reserve(engineConfig.getEngineClass(), System.currentTimeMillis());
+        final Contact contact;
+        synchronized (this) {
+            final ServerCapacity server = serverId == null ? null : mServers.get(serverId);
+            contact = server == null ? null : server.mContact;
+        }
+        if (serverId == null || contact == null) {
+            if (serverId != null) {
+                release(serverId, false);
+            }
+            consumer.onGet(ErrorCode.NO_STORAGE_SPACE, null);
+            return;
+        }
+
+        final EngineCreateAction action = EngineCreateAction.create(twinmeContext, contact, name, avatar, engineConfig, roomConfig);
+        action.onResult((a, result) -> {
+            release(serverId, true);
+            consumer.onGet(ErrorCode.SUCCESS, result);
+        });
+        action.onError((a, errorCode) -> {
+            release(serverId, false);
+            consumer.onGet(errorCode, null);
+        });
+        action.start();
+    }
+
+    //
+    // Private methods
+    //
+
+    private boolean isBetter(@NonNull ServerCapacity server, @NonNull ServerCapacity selected) {
+
+        final double load = server.getLoad();
+        final double selectedLoad = selected.getLoad();
+        if (load != selectedLoad) {
+            return mPolicy == Policy.SPREAD ? load < selectedLoad : load > selectedLoad;
+        }
+
+        final int free = server.getFreeSlots();
+        final int selectedFree = selected.getFreeSlots();
+        if (free != selectedFree) {
+            return mPolicy == Policy.SPREAD ? free > selectedFree : free < selectedFree;
+        }
+
+        // Make the choice deterministic when the servers are equivalent.
+        return server.mServerId.compareTo(selected.mServerId) < 0;
+    }
+}
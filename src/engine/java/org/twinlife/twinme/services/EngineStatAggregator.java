@@ -0,0 +1,400 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.services;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.BaseService.ErrorCode;
+import org.twinlife.twinlife.ConversationService;
+import org.twinlife.twinlife.ConversationService.Conversation;
+import org.twinlife.twinlife.ConversationService.Descriptor;
+import org.twinlife.twinlife.ConversationService.TransientObjectDescriptor;
+import org.twinlife.twinme.TwinmeContext;
+import org.twinlife.twinme.actions.EngineStatSubscribeAction;
+import org.twinlife.twinme.actions.EngineStatUnsubscribeAction;
+import org.twinlife.twinme.models.Contact;
+import org.twinlife.twinme.models.EngineStat;
+import org.twinlife.twinme.models.EngineStatUpdate;
+import org.twinlife.twinme.models.RoomStat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Maintain the current engine and room statistics of a supervisor from the EngineStatUpdate it sends
+ * after an ENGINE_STAT_SUBSCRIBE.
+ *
+ * The first update is full and the next ones only contain the counters that have changed.  The aggregator
+ * applies them on its own EngineStat/RoomStat objects and remembers the counter increments of the last update
+ * to provide rates per second (for example the messages or joins per second of a room).  When an update is
+ * lost (sequence gap), the aggregator subscribes again to get a new full update.
+ */
+public class EngineStatAggregator {
+    private static final String LOG_TAG = "EngineStatAggregator";
+    private static final boolean DEBUG = false;
+
+    public interface Observer {
+
+        void onUpdateStats(@NonNull EngineStatAggregator aggregator, @NonNull EngineStatUpdate update);
+
+        void onError(@NonNull EngineStatAggregator aggregator, @NonNull ErrorCode errorCode);
+    }
+
+    private class ConversationServiceObserver extends ConversationService.DefaultServiceObserver {
+
+        @Override
+        public void onPopDescriptor(long requestId, @NonNull Conversation conversation, @NonNull Descriptor descriptor) {
+
+            // Only the updates sent by the supervisor contact are taken into account.
+            if (!(descriptor instanceof TransientObjectDescriptor) || !mContact.getId().equals(conversation.getContactId())) {
+                return;
+            }
+
+            final Object object = ((TransientObjectDescriptor) descriptor).getObject();
+            if (object instanceof EngineStatUpdate) {
+                EngineStatAggregator.this.onUpdate((EngineStatUpdate) object);
+            }
+        }
+    }
+
+    @NonNull
+    private final TwinmeContext mTwinmeContext;
+    @NonNull
+    private final Contact mContact;
+    @NonNull
+    private final String mFilter;
+    private final long mPeriod;
+    @NonNull
+    private final Observer mObserver;
+    @NonNull
+    private final ConversationServiceObserver mConversationServiceObserver;
+    private final Map<UUID, EngineStat> mEngines = new HashMap<>();
+    private final Map<UUID, RoomStat> mRooms = new HashMap<>();
+    private final Map<UUID, Map<String, Long>> mDeltas = new HashMap<>();
+    private long mSubscriptionId;
+    private long mSequence;
+    private long mTimestamp;
+    private long mDeltaPeriod;
+    private boolean mStarted;
+
+    public EngineStatAggregator(@NonNull TwinmeContext twinmeContext, @NonNull Contact contact,
+                                @NonNull String filter, long period, @NonNull Observer observer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "EngineStatAggregator: contact=" + contact + " filter=" + filter + " period=" + period);
+        }
+
+        mTwinmeContext = twinmeContext;
+        mContact = contact;
+        mFilter = filter;
+        mPeriod = period;
+        mObserver = observer;
+        mConversationServiceObserver = new ConversationServiceObserver();
+    }
+
+    /**
+     * Start the subscription to the engine statistics.
+     */
+    public void start() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "start");
+        }
+
+        synchronized (this) {
+            if (mStarted) {
+                return;
+            }
+            mStarted = true;
+        }
+
+        mTwinmeContext.getConversationService().addServiceObserver(mConversationServiceObserver);
+        subscribe();
+    }
+
+    /**
+     * Stop the subscription.
+     */
+    public void stop() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "stop");
+        }
+
+        final long subscriptionId;
+        synchronized (this) {
+            if (!mStarted) {
+                return;
+            }
+            mStarted = false;
+            subscriptionId = mSubscriptionId;
+            mSubscriptionId = 0;
+        }
+
+        mTwinmeContext.getConversationService().removeServiceObserver(mConversationServiceObserver);
+        if (subscriptionId != 0) {
+            EngineStatUnsubscribeAction.create(mTwinmeContext, mContact, subscriptionId).start();
+        }
+    }
+
+    /**
+     * Get a snapshot of the engine statistics.  The returned objects are copies that are not modified
+     * by the next updates.
+     *
+     * @return the list of engine statistics with their rooms.
+     */
+    @NonNull
+    public synchronized List<EngineStat> getEngineStats() {
+
+        final List<EngineStat> result = new ArrayList<>(mEngines.size());
+        for (EngineStat engine : mEngines.values()) {
+            final EngineStat stat = copy(engine);
+            for (RoomStat room : engine.getRoomStats()) {
+                stat.add(copy(room));
+            }
+            result.add(stat);
+        }
+        return result;
+    }
+
+    /**
+     * Get a snapshot of the room statistics.
+     *
+     * @param roomId the room id.
+     * @return a copy of the room statistics or null.
+     */
+    @Nullable
+    public synchronized RoomStat getRoomStat(@NonNull UUID roomId) {
+
+        final RoomStat room = mRooms.get(roomId);
+        return room == null ? null : copy(room);
+    }
+
+    /**
+     * Get the rate per second of a room counter computed on the last update.
+     *
+     * @param roomId the room id.
+     * @param name the counter name.
+     * @return the counter increment per second or 0.
+     */
+    public double getRoomRate(@NonNull UUID roomId, @NonNull String name) {
+
+        return getRate(roomId, name);
+    }
+
+    /**
+     * Get the rate per second of an engine counter computed on the last update.
+     *
+     * @param engineId the engine id.
+     * @param name the counter name.
+     * @return the counter increment per second or 0.
+     */
+    public double getEngineRate(@NonNull UUID engineId, @NonNull String name) {
+
+        return getRate(engineId, name);
+    }
+
+    //
+    // Private methods
+    //
+
+    private void subscribe() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "subscribe");
+        }
+
+        final EngineStatSubscribeAction action = EngineStatSubscribeAction.create(mTwinmeContext, mContact, mFilter, mPeriod);
+        synchronized (this) {
+            mSubscriptionId = action.getSubscriptionId();
+            mSequence = 0;
+        }
+
+        action.onError((actionError, errorCode) -> onSubscribeError(action.getSubscriptionId(), errorCode));
+        action.start();
+    }
+
+    private void onSubscribeError(long subscriptionId, @NonNull ErrorCode errorCode) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onSubscribeError: subscriptionId=" + subscriptionId + " errorCode=" + errorCode);
+        }
+
+        // The subscription failed: the aggregator is stopped so that start() can be called again.
+        synchronized (this) {
+            if (!mStarted || subscriptionId != mSubscriptionId) {
+                return;
+            }
+            mStarted = false;
+            mSubscriptionId = 0;
+        }
+
+        mTwinmeContext.getConversationService().removeServiceObserver(mConversationServiceObserver);
+        mObserver.onError(this, errorCode);
+    }
+
+    private synchronized double getRate(@NonNull UUID id, @NonNull String name) {
+
+        final Map<String, Long> deltas = mDeltas.get(id);
+        final Long delta = deltas == null ? null : deltas.get(name);
+        if (delta == null || mDeltaPeriod <= 0) {
+            return 0.0;
+        }
+
+        return (delta * 1000.0) / mDeltaPeriod;
+    }
+
+    private void onUpdate(@NonNull EngineStatUpdate update) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onUpdate: update=" + update);
+        }
+
+        final long lostSubscriptionId;
+        synchronized (this) {
+            if (!mStarted || update.getSubscriptionId() != mSubscriptionId) {
+                return;
+            }
+
+            if (!update.isFull() && update.getSequence() != mSequence + 1) {
+                // An update was lost: the counters are no longer consistent.
+                lostSubscriptionId = mSubscriptionId;
+            } else {
+                lostSubscriptionId = 0;
+                apply(update);
+            }
+        }
+
+        if (lostSubscriptionId != 0) {
+            Log.w(LOG_TAG, "Lost engine stat update, subscribing again");
+            EngineStatUnsubscribeAction.create(mTwinmeContext, mContact, lostSubscriptionId).start();
+            subscribe();
+            return;
+        }
+
+        mObserver.onUpdateStats(this, update);
+    }
+
+    private void apply(@NonNull EngineStatUpdate update) {
+
+        if (update.isFull()) {
+            mEngines.clear();
+            mRooms.clear();
+            mDeltaPeriod = 0;
+        } else {
+            mDeltaPeriod = update.getTimestamp() - mTimestamp;
+        }
+        mSequence = update.getSequence();
+        mTimestamp = update.getTimestamp();
+        mDeltas.clear();
+
+        for (EngineStat stat : update.getStats()) {
+            EngineStat engine = mEngines.get(stat.getEngineId());
+            if (engine == null) {
+                engine = new EngineStat(stat.getLogicalName(), stat.getEngineId());
+                mEngines.put(stat.getEngineId(), engine);
+            }
+            final Map<String, Long> engineDeltas = new HashMap<>();
+            for (int i = 0; i < stat.getValueCount(); i++) {
+                final String name = stat.getValueName(i);
+                final long value = stat.getValue(i);
+                final Long previous = engine.getLongValue(name);
+                if (previous != null) {
+                    engineDeltas.put(name, value - previous);
+                }
+                engine.putValue(name, value);
+            }
+            copyStrings(stat.getEngineStats(), engine, null);
+            mDeltas.put(stat.getEngineId(), engineDeltas);
+
+            for (RoomStat roomStat : stat.getRoomStats()) {
+                RoomStat room = mRooms.get(roomStat.getEngineId());
+                if (room == null) {
+                    room = new RoomStat(roomStat.getEngineId());
+                    mRooms.put(roomStat.getEngineId(), room);
+                    engine.add(room);
+                }
+                final Map<String, Long> roomDeltas = new HashMap<>();
+                for (int i = 0; i < roomStat.getValueCount(); i++) {
+                    final String name = roomStat.getValueName(i);
+                    final long value = roomStat.getValue(i);
+                    final Long previous = room.getLongValue(name);
+                    if (previous != null) {
+                        roomDeltas.put(name, value - previous);
+                    }
+                    room.putValue(name, value);
+                }
+                copyStrings(roomStat.getStats(), null, room);
+                mDeltas.put(roomStat.getEngineId(), roomDeltas);
+            }
+        }
+
+        for (UUID id : update.getRemoved()) {
+            final EngineStat removedEngine = mEngines.remove(id);
+            if (removedEngine != null) {
+                // The rooms of the engine are removed with it.
+                for (RoomStat room : removedEngine.getRoomStats()) {
+                    mRooms.remove(room.getEngineId());
+                    mDeltas.remove(room.getEngineId());
+                }
+                mDeltas.remove(id);
+                continue;
+            }
+
+            mDeltas.remove(id);
+            final RoomStat room = mRooms.remove(id);
+            if (room != null) {
+                for (EngineStat engine : mEngines.values()) {
+                    final Iterator<RoomStat> iterator = engine.getRoomStats().iterator();
+                    while (iterator.hasNext()) {
+                        if (iterator.next() == room) {
+                            iterator.remove();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @NonNull
+    private static EngineStat copy(@NonNull EngineStat engine) {
+
+        final EngineStat result = new EngineStat(engine.getLogicalName(), engine.getEngineId());
+        for (int i = 0; i < engine.getValueCount(); i++) {
+            result.putValue(engine.getValueName(i), engine.getValue(i));
+        }
+        copyStrings(engine.getEngineStats(), result, null);
+        return result;
+    }
+
+    @NonNull
+    private static RoomStat copy(@NonNull RoomStat room) {
+
+        final RoomStat result = new RoomStat(room.getEngineId());
+        for (int i = 0; i < room.getValueCount(); i++) {
+            result.putValue(room.getValueName(i), room.getValue(i));
+        }
+        copyStrings(room.getStats(), null, result);
+        return result;
+    }
+
+    private static void copyStrings(@NonNull Map<String, Object> values, @Nullable EngineStat engine,
+                                    @Nullable RoomStat room) {
+
+        for (Map.Entry<String, Object> item : values.entrySet()) {
+            if (item.getValue() instanceof String) {
+                if (engine != null) {
+                    engine.putValue(item.getKey(), (String) item.getValue());
+                } else if (room != null) {
+                    room.putValue(item.getKey(), (String) item.getValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.services;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinme.models.RoomCommandResult;
+import org.twinlife.twinme.models.RoomImageTransfer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Twinroom side of the chunked image transfer, used as a stand-in for the Twinroom engine to test the
+ * RoomImageUpload.
+ *
+ * Each chunk is appended to a temporary file while the SHA-256 is updated so that the image is never held in
+ * memory.  The chunks must be received in order (the conversation keeps the order of the pushed commands) and
+ * the image length is limited.  On COMMIT, the length and the checksum are verified and the listener is given
+ * the image file; the transfer is dropped on any error or on ABORT.
+ */
+public class RoomImageReceiver {
+    private static final String LOG_TAG = "RoomImageReceiver";
+    private static final boolean DEBUG = false;
+
+    public static final long DEFAULT_MAX_IMAGE_SIZE = 8 * 1024 * 1024;
+    public static final int DEFAULT_MAX_TRANSFERS = 4;
+
+    public interface Listener {
+
+        void onImage(@NonNull UUID transferId, @NonNull File imageFile);
+    }
+
+    private static final class Transfer {
+        @NonNull
+        final File file;
+        @NonNull
+        final OutputStream output;
+        @NonNull
+        final MessageDigest digest;
+        final long length;
+        long received;
+
+        Transfer(@NonNull File file, @NonNull OutputStream output, @NonNull MessageDigest digest, long length) {
+
+            this.file = file;
+            this.output = output;
+            this.digest = digest;
+            this.length = length;
+        }
+    }
+
+    @NonNull
+    private final File mDirectory;
+    private final long mMaxImageSize;
+    private final int mMaxTransfers;
+    @NonNull
+    private final Listener mListener;
+    private final Map<UUID, Transfer> mTransfers = new HashMap<>();
+
+    public RoomImageReceiver(@NonNull File directory, long maxImageSize, int maxTransfers, @NonNull Listener listener) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "RoomImageReceiver: directory=" + directory + " maxImageSize=" + maxImageSize);
+        }
+
+        mDirectory = directory;
+        mMaxImageSize = maxImageSize;
+        mMaxTransfers = Math.max(1, maxTransfers);
+        mListener = listener;
+    }
+
+    /**
+     * Handle the image transfer command received from the client.
+     *
+     * @param transfer the command.
+     * @return the result to send back.
+     */
+    @NonNull
+    public RoomCommandResult onTransfer(@NonNull RoomImageTransfer transfer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onTransfer: transfer=" + transfer);
+        }
+
+        final RoomCommandResult.Status status;
+        final File image;
+        synchronized (this) {
+            switch (transfer.getAction()) {
+                case BEGIN:
+                    status = begin(transfer);
+                    image = null;
+                    break;
+
+                case CHUNK:
+                    status = chunk(transfer);
+                    image = null;
+                    break;
+
+                case COMMIT:
+                    image = commit(transfer);
+                    status = image != null ? RoomCommandResult.Status.SUCCESS : RoomCommandResult.Status.BAD_COMMAND;
+                    break;
+
+                case ABORT:
+                default:
+                    drop(transfer.getTransferId());
+                    status = RoomCommandResult.Status.SUCCESS;
+                    image = null;
+                    break;
+            }
+        }
+
+        if (image != null) {
+            mListener.onImage(transfer.getTransferId(), image);
+        }
+        return new RoomCommandResult(transfer.getRequestId(), status, null);
+    }
+
+    /**
+     * Get the number of transfers in progress.
+     *
+     * @return the number of transfers.
+     */
+    public synchronized int getTransferCount() {
+
+        return mTransfers.size();
+    }
+
+    /**
+     * Drop the transfers in progress and delete their temporary files.
+     */
+    public synchronized void close() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "close");
+        }
+
+        for (UUID transferId : mTransfers.keySet().toArray(new UUID[0])) {
+            drop(transferId);
+        }
+    }
+
+    //
+    // Private methods
+    //
+
+    @NonNull
+    private RoomCommandResult.Status begin(@NonNull RoomImageTransfer transfer) {
+
+        final long length = transfer.getOffset();
+        if (length < 0 || length > mMaxImageSize || mTransfers.containsKey(transfer.getTransferId())) {
+            return RoomCommandResult.Status.BAD_COMMAND;
+        }
+        if (mTransfers.size() >= mMaxTransfers) {
+            return RoomCommandResult.Status.ERROR;
+        }
+
+        File file = null;
+        try {
+            file = File.createTempFile("room-image", ".tmp", mDirectory);
+            final Transfer item = new Transfer(file, new FileOutputStream(file), MessageDigest.getInstance("SHA-256"), length);
+            mTransfers.put(transfer.getTransferId(), item);
+            return RoomCommandResult.Status.SUCCESS;
+
+        } catch (IOException | NoSuchAlgorithmException exception) {
+            Log.e(LOG_TAG, "Cannot create image file", exception);
+            if (file != null && !file.delete()) {
+                Log.w(LOG_TAG, "Cannot delete " + file);
+            }
+            return RoomCommandResult.Status.ERROR;
+        }
+    }
+
+    @NonNull
+    private RoomCommandResult.Status chunk(@NonNull RoomImageTransfer transfer) {
+
+        final Transfer item = mTransfers.get(transfer.getTransferId());
+        if (item == null) {
+            return RoomCommandResult.Status.ITEM_NOT_FOUND;
+        }
+
+        final byte[] data = transfer.getData();
+        if (data == null || transfer.getOffset() != item.received || item.received + data.length > item.length) {
+            drop(transfer.getTransferId());
+            return RoomCommandResult.Status.BAD_COMMAND;
+        }
+
+        try {
+            item.output.write(data);
+            item.digest.update(data);
+            item.received += data.length;
+            return RoomCommandResult.Status.SUCCESS;
+
+        } catch (IOException exception) {
+            Log.e(LOG_TAG, "Cannot write image file", exception);
+            drop(transfer.getTransferId());
+            return RoomCommandResult.Status.ERROR;
+        }
+    }
+
+    @Nullable
+    private File commit(@NonNull RoomImageTransfer transfer) {
+
+        final Transfer item = mTransfers.remove(transfer.getTransferId());
+        if (item == null) {
+            return null;
+        }
+
+        close(item);
+        final byte[] checksum = transfer.getData();
+        if (item.received != item.length || checksum == null || !MessageDigest.isEqual(checksum, item.digest.digest())) {
+            Log.w(LOG_TAG, "Image transfer " + transfer.getTransferId() + " rejected: received=" + item.received
+                    + " length=" + item.length);
+            delete(item);
+            return null;
+        }
+        return item.file;
+    }
+
+    private void drop(@NonNull UUID transferId) {
+
+        final Transfer item = mTransfers.remove(transferId);
+        if (item != null) {
+            close(item);
+            delete(item);
+        }
+    }
+
+    private static void close(@NonNull Transfer item) {
+
+        try {
+            item.output.close();
+        } catch (IOException exception) {
+            Log.e(LOG_TAG, "Cannot close image file", exception);
+        }
+    }
+
+    private static void delete(@NonNull Transfer item) {
+
+        if (!item.file.delete()) {
+            Log.w(LOG_TAG, "Cannot delete " + item.file);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.twinlife.twinme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinme.models.EngineCard;
+import org.twinlife.twinme.models.EngineCard.ChannelInvitation;
+import org.twinlife.twinme.models.EngineCard.GroupProvisioning;
+import org.twinlife.twinme.models.SpaceCard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class EngineCardCacheTest {
+
+    // The engine cards notified to the observer, null when the entry is invalidated.
+    private final List<EngineCard> mNotified = new ArrayList<>();
+
+    private static ChannelInvitation newInvitation() {
+
+        return new ChannelInvitation(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), 0);
+    }
+
+    private static EngineCard newEngineCard() {
+
+        final EngineCard engineCard = new EngineCard();
+        engineCard.getGroups().add(new GroupProvisioning(UUID.randomUUID(), UUID.randomUUID(),
+                UUID.randomUUID(), UUID.randomUUID(), 0));
+        engineCard.getInvitations().add(newInvitation());
+        final SpaceCard spaceCard = new SpaceCard("space", UUID.randomUUID());
+        spaceCard.getInvitations().add(UUID.randomUUID());
+        engineCard.getSpaceCards().add(spaceCard);
+        return engineCard;
+    }
+
+    @Test
+    void testSnapshot() {
+
+        final EngineCard engineCard = newEngineCard();
+        final EngineCard snapshot = engineCard.snapshot();
+
+        assertTrue(snapshot.isSnapshot());
+        assertSame(snapshot, snapshot.snapshot());
+        assertEquals(engineCard.getId(), snapshot.getId());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getInvitations().add(newInvitation()));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.updateFrom(engineCard));
+
+        // The changes made on the engine card and its space cards are not visible in the snapshot.
+        engineCard.getInvitations().add(newInvitation());
+        engineCard.getSpaceCards().get(0).getInvitations().add(UUID.randomUUID());
+        assertEquals(1, snapshot.getInvitations().size());
+        assertNotSame(engineCard.getSpaceCards().get(0), snapshot.getSpaceCards().get(0));
+        assertEquals(1, snapshot.getSpaceCards().get(0).getInvitations().size());
+    }
+
+    @Test
+    void testCopy() {
+
+        final EngineCard snapshot = newEngineCard().snapshot();
+        final EngineCard copy = snapshot.copy();
+
+        // The copy of a snapshot can be populated without changing the snapshot.
+        assertFalse(copy.isSnapshot());
+        assertEquals(snapshot.getId(), copy.getId());
+        copy.getInvitations().add(newInvitation());
+        copy.getSpaceCards().get(0).getInvitations().add(UUID.randomUUID());
+        assertEquals(2, copy.getInvitations().size());
+        assertEquals(1, snapshot.getInvitations().size());
+        assertEquals(1, snapshot.getSpaceCards().get(0).getInvitations().size());
+    }
+
+    @Test
+    void testCache() {
+
+        final EngineCardCache cache = new EngineCardCache();
+        cache.addObserver((UUID cardId, EngineCard engineCard) -> mNotified.add(engineCard));
+        final EngineCard engineCard = newEngineCard();
+
+        final EngineCard snapshot = cache.put(engineCard);
+        assertTrue(snapshot.isSnapshot());
+        assertSame(snapshot, cache.get(engineCard.getId()));
+        assertEquals(1, mNotified.size());
+        assertSame(snapshot, mNotified.get(0));
+
+        // Putting the same snapshot again does not notify the observers.
+        assertSame(snapshot, cache.put(snapshot));
+        assertEquals(1, mNotified.size());
+
+        // An updated copy replaces the cached snapshot.
+        final EngineCard copy = snapshot.copy();
+        copy.getInvitations().add(newInvitation());
+        cache.invalidate(copy.getId());
+        final EngineCard updated = cache.put(copy);
+        assertEquals(3, mNotified.size());
+        assertNull(mNotified.get(1));
+        assertSame(updated, cache.get(copy.getId()));
+        assertEquals(2, updated.getInvitations().size());
+        assertEquals(1, snapshot.getInvitations().size());
+
+        cache.invalidate(copy.getId());
+        assertNull(cache.get(copy.getId()));
+        assertEquals(4, mNotified.size());
+
+        // The sign out drops the cards without notification.
+        cache.put(engineCard);
+        cache.clear();
+        assertNull(cache.get(engineCard.getId()));
+        assertEquals(5, mNotified.size());
+    }
+}
@@ -0,0 +1,118 @@
+package org.twinlife.twinme.executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class ProvisioningPlannerTest {
+
+    // The steps launched by the planner, in order.
+    private final List<Integer> mLaunched = new ArrayList<>();
+
+    @Test
+    void testDependencies() {
+
+        final ProvisioningPlanner planner = new ProvisioningPlanner(ProvisioningPlanner.MAX_PARALLEL);
+        final int group1 = planner.addStep(mLaunched::add);
+        final int group2 = planner.addStep(mLaunched::add);
+        final int card1 = planner.addStep(mLaunched::add, group1);
+        final int card2 = planner.addStep(mLaunched::add, group1, group2);
+
+        // Only the steps without dependency are launched.
+        assertFalse(planner.schedule());
+        assertEquals(Arrays.asList(group1, group2), mLaunched);
+
+        planner.complete(group1);
+        assertFalse(planner.schedule());
+        assertEquals(Arrays.asList(group1, group2, card1), mLaunched);
+
+        planner.complete(group2);
+        assertFalse(planner.schedule());
+        assertEquals(Arrays.asList(group1, group2, card1, card2), mLaunched);
+
+        planner.complete(card1);
+        planner.complete(card2);
+        assertTrue(planner.schedule());
+        assertEquals(0, planner.getRunningCount());
+    }
+
+    @Test
+    void testMaxParallel() {
+
+        final ProvisioningPlanner planner = new ProvisioningPlanner(ProvisioningPlanner.MAX_PARALLEL);
+        for (int i = 0; i < ProvisioningPlanner.MAX_PARALLEL + 2; i++) {
+            planner.addStep(mLaunched::add);
+        }
+
+        // At most MAX_PARALLEL steps are running, a completed step lets the next one start.
+        planner.schedule();
+        assertEquals(ProvisioningPlanner.MAX_PARALLEL, mLaunched.size());
+        assertEquals(ProvisioningPlanner.MAX_PARALLEL, planner.getRunningCount());
+        planner.schedule();
+        assertEquals(ProvisioningPlanner.MAX_PARALLEL, mLaunched.size());
+
+        planner.complete(0);
+        planner.schedule();
+        assertEquals(ProvisioningPlanner.MAX_PARALLEL + 1, mLaunched.size());
+        assertEquals(ProvisioningPlanner.MAX_PARALLEL, planner.getRunningCount());
+    }
+
+    @Test
+    void testSynchronousComplete() {
+
+        // A step which completes during its launch lets the next ones start without exceeding the bound.
+        final ProvisioningPlanner planner = new ProvisioningPlanner(1);
+        final ProvisioningPlanner.Step step = (int stepId) -> {
+            mLaunched.add(stepId);
+            planner.complete(stepId);
+            planner.schedule();
+        };
+        planner.addStep(step);
+        planner.addStep(step, 0);
+        planner.addStep(step, 1);
+
+        assertTrue(planner.schedule());
+        assertEquals(Arrays.asList(0, 1, 2), mLaunched);
+    }
+
+    @Test
+    void testRetry() {
+
+        final ProvisioningPlanner planner = new ProvisioningPlanner(ProvisioningPlanner.MAX_PARALLEL);
+        final int group = planner.addStep(mLaunched::add);
+        final int card = planner.addStep(mLaunched::add, group);
+
+        planner.schedule();
+        assertEquals(Collections.singletonList(group), mLaunched);
+
+        // The interrupted step is launched again by the next schedule(), its dependent step still waits.
+        planner.retry(group);
+        assertEquals(0, planner.getRunningCount());
+        assertFalse(planner.schedule());
+        assertEquals(Arrays.asList(group, group), mLaunched);
+
+        // A completed step is not retried.
+        planner.complete(group);
+        planner.retry(group);
+        planner.schedule();
+        assertEquals(Arrays.asList(group, group, card), mLaunched);
+
+        planner.complete(card);
+        assertTrue(planner.isFinished());
+    }
+
+    @Test
+    void testInvalidDependency() {
+
+        final ProvisioningPlanner planner = new ProvisioningPlanner(ProvisioningPlanner.MAX_PARALLEL);
+        assertThrows(IllegalArgumentException.class, () -> planner.addStep(mLaunched::add, 0));
+    }
+}
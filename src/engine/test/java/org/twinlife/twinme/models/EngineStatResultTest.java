@@ -0,0 +1,109 @@
+package org.twinlife.twinme.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinlife.SerializerException;
+import org.twinlife.twinlife.util.BinaryDecoder;
+import org.twinlife.twinlife.util.BinaryEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class EngineStatResultTest {
+
+    private static final UUID ENGINE_ID = UUID.randomUUID();
+    private static final UUID ROOM_ID = UUID.randomUUID();
+
+    private static EngineStatResult newResult() {
+
+        final EngineStat stat = new EngineStat("engine-1", ENGINE_ID);
+        stat.putValue("memberCount", 12);
+        stat.putValue("messageCount", 3000000000L);
+        stat.putValue("status", "running");
+
+        final RoomStat roomStat = new RoomStat(ROOM_ID);
+        roomStat.putValue("memberCount", 5);
+        stat.add(roomStat);
+
+        final List<EngineStat> stats = new ArrayList<>();
+        stats.add(stat);
+        return new EngineStatResult(EngineCommand.stats(42, "*"), EngineCommandResult.Status.SUCCESS, stats);
+    }
+
+    private static EngineStatResult roundTrip(EngineCommandResult.EngineCommandResultSerializer serializer,
+                                              EngineStatResult result) throws SerializerException {
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.serialize(null, new BinaryEncoder(outputStream), result);
+
+        final BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(serializer.schemaId, decoder.readUUID());
+        assertEquals(serializer.schemaVersion, decoder.readInt());
+        return (EngineStatResult) serializer.deserialize(null, decoder);
+    }
+
+    @Test
+    void testRoundTripV2() throws SerializerException {
+
+        final EngineStatResult result = roundTrip(new EngineStatResult.EngineStatResultSerializerV2(), newResult());
+
+        assertEquals(42, result.getRequestId());
+        assertEquals(EngineCommandResult.Status.SUCCESS, result.getStatus());
+        assertNotNull(result.getStats());
+        assertEquals(1, result.getStats().size());
+
+        final EngineStat stat = result.getStats().get(0);
+        assertEquals("engine-1", stat.getLogicalName());
+        assertEquals(ENGINE_ID, stat.getEngineId());
+        assertEquals(12, stat.getLong("memberCount", 0));
+        assertEquals(3000000000L, stat.getLong("messageCount", 0));
+        assertEquals("running", stat.getStringValue("status"));
+
+        // The room statistics are only transmitted by the schema version 2.
+        assertEquals(1, stat.getRoomStats().size());
+        assertEquals(ROOM_ID, stat.getRoomStats().get(0).getEngineId());
+        assertEquals(5, stat.getRoomStats().get(0).getLong("memberCount", 0));
+    }
+
+    @Test
+    void testRoundTripV1() throws SerializerException {
+
+        final EngineStatResult result = roundTrip(new EngineStatResult.EngineStatResultSerializer(), newResult());
+
+        assertEquals(42, result.getRequestId());
+        assertNotNull(result.getStats());
+        final EngineStat stat = result.getStats().get(0);
+        assertEquals(ENGINE_ID, stat.getEngineId());
+        assertEquals(12, stat.getLong("memberCount", 0));
+        assertEquals(3000000000L, stat.getLong("messageCount", 0));
+        assertEquals("running", stat.getStringValue("status"));
+        assertTrue(stat.getRoomStats().isEmpty());
+    }
+
+    @Test
+    void testEmpty() throws SerializerException {
+
+        final EngineStatResult empty = new EngineStatResult(EngineCommand.stats(7, "*"),
+                EngineCommandResult.Status.SUCCESS, null);
+
+        assertNull(roundTrip(new EngineStatResult.EngineStatResultSerializerV2(), empty).getStats());
+        assertNull(roundTrip(new EngineStatResult.EngineStatResultSerializer(), empty).getStats());
+    }
+
+    @Test
+    void testSerializerVersion() {
+
+        assertEquals(1, new EngineStatResult.EngineStatResultSerializer().schemaVersion);
+        assertEquals(1, EngineStatResult.getSerializer(2, 10).schemaVersion);
+        assertEquals(2, EngineStatResult.getSerializer(2, 11).schemaVersion);
+        assertSame(EngineStatResult.getSerializer(2, 12), EngineStatResult.getSerializer(2, 11));
+    }
+}
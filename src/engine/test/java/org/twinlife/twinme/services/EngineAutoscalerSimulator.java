@@ -0,0 +1,208 @@
+package org.twinlife.twinme.services;
+
+import androidx.annotation.NonNull;
+
+import org.twinlife.twinme.models.EngineConfig;
+import org.twinlife.twinme.models.EngineInfo;
+import org.twinlife.twinme.models.EngineStat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic simulation of the engine autoscaling for one engine class.
+ *
+ * The load of each step is given by a load profile and shared between the running engines with a random
+ * noise obtained from the seed.  The decisions of the EngineAutoscaler are applied on the fake engines and take
+ * effect on the next step.  The report gives the number of operations and the number of steps where the
+ * utilisation was outside of the policy band so that several policies can be compared offline.
+ */
+final class EngineAutoscalerSimulator {
+
+    private static final long STEP_DURATION = 10000; // ms
+
+    public interface LoadProfile {
+
+        long getLoad(int step);
+    }
+
+    private static final class FakeEngine {
+        final int logicalId;
+        @NonNull
+        final UUID engineId;
+        final long creationDate;
+        @NonNull
+        EngineConfig.Status status;
+
+        FakeEngine(int logicalId, long creationDate) {
+
+            this.logicalId = logicalId;
+            this.engineId = new UUID(0, logicalId);
+            this.creationDate = creationDate;
+            this.status = EngineConfig.Status.STOPPED;
+        }
+    }
+
+    public static final class Report {
+        public final int[] operations = new int[EngineAutoscaler.Operation.values().length];
+        public int stepsAboveBand;
+        public int stepsBelowBand;
+        public int maxRunning;
+        public double maxUtilisation;
+
+        public int getCount(@NonNull EngineAutoscaler.Operation operation) {
+
+            return operations[operation.ordinal()];
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+
+            final StringBuilder sb = new StringBuilder();
+            for (EngineAutoscaler.Operation operation : EngineAutoscaler.Operation.values()) {
+                sb.append(operation).append('=').append(operations[operation.ordinal()]).append(' ');
+            }
+            sb.append("above=").append(stepsAboveBand).append(" below=").append(stepsBelowBand);
+            sb.append(" maxRunning=").append(maxRunning).append(" maxUtilisation=").append(maxUtilisation);
+            return sb.toString();
+        }
+    }
+
+    @NonNull
+    private final EngineAutoscaler.Policy mPolicy;
+    @NonNull
+    private final Random mRandom;
+    private final double mNoise;
+    private final List<FakeEngine> mEngines = new ArrayList<>();
+    private final List<EngineAutoscaler.Decision> mPending = new ArrayList<>();
+    @NonNull
+    private final EngineAutoscaler mAutoscaler;
+    private long mNow;
+    private int mNextId;
+
+    /**
+     * Create the simulator.
+     *
+     * @param policy the autoscaling policy to simulate.
+     * @param seed the random seed.
+     * @param noise the relative noise applied on the load of each engine (0..1).
+     * @param running the number of engines running at the beginning.
+     */
+    public EngineAutoscalerSimulator(@NonNull EngineAutoscaler.Policy policy, long seed, double noise, int running) {
+
+        mPolicy = policy;
+        mRandom = new Random(seed);
+        mNoise = noise;
+        mAutoscaler = new EngineAutoscaler(false, mPending::add);
+        mAutoscaler.addPolicy(policy);
+        for (int i = 0; i < running; i++) {
+            final FakeEngine engine = new FakeEngine(++mNextId, 0);
+            engine.status = EngineConfig.Status.RUNNING;
+            mEngines.add(engine);
+        }
+    }
+
+    /**
+     * Run the simulation.
+     *
+     * @param steps the number of steps.
+     * @param profile the load profile of the engine class.
+     * @return the simulation report.
+     */
+    @NonNull
+    public Report run(int steps, @NonNull LoadProfile profile) {
+
+        final Report report = new Report();
+        for (int step = 0; step < steps; step++) {
+            mNow += STEP_DURATION;
+            apply(report);
+
+            final List<FakeEngine> running = new ArrayList<>();
+            final List<EngineInfo> infos = new ArrayList<>();
+            for (FakeEngine engine : mEngines) {
+                final EngineConfig config = new EngineConfig(engine.status, mPolicy.engineClass, 0, 0, 0);
+                infos.add(new EngineInfo(engine.logicalId, "engine-" + engine.logicalId, engine.engineId, config,
+                        engine.creationDate));
+                if (engine.status == EngineConfig.Status.RUNNING) {
+                    running.add(engine);
+                }
+            }
+
+            final long load = profile.getLoad(step);
+            final List<EngineStat> stats = new ArrayList<>();
+            long total = 0;
+            for (FakeEngine engine : running) {
+                final double share = (double) load / running.size();
+                final long engineLoad = Math.max(0, Math.round(share * (1.0 + mNoise * (2 * mRandom.nextDouble() - 1))));
+                final EngineStat stat = new EngineStat("engine-" + engine.logicalId, engine.engineId);
+                stat.putValue(mPolicy.loadName, engineLoad);
+                stats.add(stat);
+                total += engineLoad;
+            }
+
+            final double utilisation = running.isEmpty() ? (total > 0 ? Double.POSITIVE_INFINITY : 0.0)
+                    : total / (running.size() * mPolicy.capacity);
+            if (utilisation > mPolicy.highWater) {
+                report.stepsAboveBand++;
+            } else if (utilisation < mPolicy.lowWater && running.size() > mPolicy.minRunning) {
+                report.stepsBelowBand++;
+            }
+            report.maxRunning = Math.max(report.maxRunning, running.size());
+            if (!Double.isInfinite(utilisation)) {
+                report.maxUtilisation = Math.max(report.maxUtilisation, utilisation);
+            }
+
+            mAutoscaler.evaluate(infos, stats, mNow);
+        }
+        return report;
+    }
+
+    //
+    // Private methods
+    //
+
+    private void apply(@NonNull Report report) {
+
+        for (EngineAutoscaler.Decision decision : mPending) {
+            report.operations[decision.operation.ordinal()]++;
+            switch (decision.operation) {
+                case CREATE:
+                    final FakeEngine engine = new FakeEngine(++mNextId, mNow);
+                    engine.status = EngineConfig.Status.RUNNING;
+                    mEngines.add(engine);
+                    break;
+
+                case START:
+                    setStatus(decision.engineId, EngineConfig.Status.RUNNING);
+                    break;
+
+                case STOP:
+                    setStatus(decision.engineId, EngineConfig.Status.STOPPED);
+                    break;
+
+                case DESTROY:
+                    for (int i = 0; i < mEngines.size(); i++) {
+                        if (mEngines.get(i).engineId.equals(decision.engineId)) {
+                            mEngines.remove(i);
+                            break;
+                        }
+                    }
+                    break;
+            }
+        }
+        mPending.clear();
+    }
+
+    private void setStatus(UUID engineId, @NonNull EngineConfig.Status status) {
+
+        for (FakeEngine engine : mEngines) {
+            if (engine.engineId.equals(engineId)) {
+                engine.status = status;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.twinlife.twinme.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinme.models.EngineConfig;
+import org.twinlife.twinme.models.EngineInfo;
+import org.twinlife.twinme.models.EngineStat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class EngineAutoscalerTest {
+
+    private static final String LOAD = "members";
+
+    // Capacity 10, band 0.3..0.8, at least 1 running engine, at most 4 engines, 1 idle engine, 1s cooldown.
+    private static final EngineAutoscaler.Policy POLICY = new EngineAutoscaler.Policy("room", LOAD, 10,
+            0.3, 0.8, 1, 4, 1, 1000);
+
+    private final List<EngineInfo> mEngines = new ArrayList<>();
+    private final List<EngineStat> mStats = new ArrayList<>();
+
+    private UUID addEngine(int logicalId, EngineConfig.Status status, long creationDate, long load) {
+
+        final UUID engineId = new UUID(0, logicalId);
+        final EngineConfig config = new EngineConfig(status, POLICY.engineClass, 0, 0, 0);
+        mEngines.add(new EngineInfo(logicalId, "engine-" + logicalId, engineId, config, creationDate));
+        if (status == EngineConfig.Status.RUNNING) {
+            final EngineStat stat = new EngineStat("engine-" + logicalId, engineId);
+            stat.putValue(LOAD, load);
+            mStats.add(stat);
+        }
+        return engineId;
+    }
+
+    private EngineAutoscaler.Decision evaluate(EngineAutoscaler.Policy policy, long now) {
+
+        final EngineAutoscaler autoscaler = new EngineAutoscaler(true, null);
+        autoscaler.addPolicy(policy);
+        final List<EngineAutoscaler.Decision> decisions = autoscaler.evaluate(mEngines, mStats, now);
+        assertTrue(decisions.size() <= 1);
+        return decisions.isEmpty() ? null : decisions.get(0);
+    }
+
+    @Test
+    void testScaleUp() {
+
+        addEngine(1, EngineConfig.Status.RUNNING, 100, 9);
+        addEngine(2, EngineConfig.Status.RUNNING, 100, 9);
+
+        // Above the high water mark without stopped engine: a new engine is created.
+        EngineAutoscaler.Decision decision = evaluate(POLICY, 1000);
+        assertEquals(EngineAutoscaler.Operation.CREATE, decision.operation);
+        assertNull(decision.engineId);
+        assertEquals(0.9, decision.utilisation, 0.0001);
+
+        // The oldest stopped engine is started instead.
+        addEngine(3, EngineConfig.Status.STOPPED, 300, 0);
+        final UUID oldest = addEngine(4, EngineConfig.Status.STOPPED, 200, 0);
+        decision = evaluate(POLICY, 1000);
+        assertEquals(EngineAutoscaler.Operation.START, decision.operation);
+        assertEquals(oldest, decision.engineId);
+
+        // No engine can be started or created when the maximum is reached.
+        mEngines.clear();
+        mStats.clear();
+        for (int i = 1; i <= POLICY.maxEngines; i++) {
+            addEngine(i, EngineConfig.Status.RUNNING, 100, 10);
+        }
+        assertNull(evaluate(POLICY, 1000));
+    }
+
+    @Test
+    void testScaleDown() {
+
+        addEngine(1, EngineConfig.Status.RUNNING, 100, 1);
+        addEngine(2, EngineConfig.Status.RUNNING, 100, 0);
+        final UUID last = addEngine(3, EngineConfig.Status.RUNNING, 100, 0);
+
+        // Below the low water mark: the least loaded engine with the highest logical id is stopped.
+        final EngineAutoscaler.Decision decision = evaluate(POLICY, 1000);
+        assertEquals(EngineAutoscaler.Operation.STOP, decision.operation);
+        assertEquals(last, decision.engineId);
+
+        // The minimum number of running engines is kept.
+        mEngines.clear();
+        mStats.clear();
+        addEngine(1, EngineConfig.Status.RUNNING, 100, 0);
+        assertNull(evaluate(POLICY, 1000));
+    }
+
+    @Test
+    void testHysteresis() {
+
+        // Within the band: nothing is changed.
+        addEngine(1, EngineConfig.Status.RUNNING, 100, 5);
+        addEngine(2, EngineConfig.Status.RUNNING, 100, 5);
+        assertNull(evaluate(POLICY, 1000));
+
+        // Below the low water mark but the remaining engine would be above the high water mark.
+        final EngineAutoscaler.Policy policy = new EngineAutoscaler.Policy("room", LOAD, 10,
+                0.45, 0.8, 1, 4, 1, 1000);
+        mEngines.clear();
+        mStats.clear();
+        addEngine(1, EngineConfig.Status.RUNNING, 100, 4);
+        addEngine(2, EngineConfig.Status.RUNNING, 100, 4);
+        assertNull(evaluate(policy, 1000));
+    }
+
+    @Test
+    void testCooldown() {
+
+        addEngine(1, EngineConfig.Status.RUNNING, 100, 10);
+        final EngineAutoscaler autoscaler = new EngineAutoscaler(true, null);
+        autoscaler.addPolicy(POLICY);
+
+        assertEquals(1, autoscaler.evaluate(mEngines, mStats, 10000).size());
+        assertEquals(0, autoscaler.evaluate(mEngines, mStats, 10000 + POLICY.cooldown - 1).size());
+        assertEquals(1, autoscaler.evaluate(mEngines, mStats, 10000 + POLICY.cooldown).size());
+    }
+
+    @Test
+    void testDestroy() {
+
+        addEngine(1, EngineConfig.Status.RUNNING, 100, 5);
+        addEngine(2, EngineConfig.Status.STOPPED, 300, 0);
+        final UUID oldest = addEngine(3, EngineConfig.Status.STOPPED, 200, 0);
+
+        // More stopped engines than maxIdle: the oldest one is destroyed.
+        final EngineAutoscaler.Decision decision = evaluate(POLICY, 1000);
+        assertEquals(EngineAutoscaler.Operation.DESTROY, decision.operation);
+        assertEquals(oldest, decision.engineId);
+
+        mEngines.remove(2);
+        assertNull(evaluate(POLICY, 1000));
+    }
+
+    @Test
+    void testSimulator() {
+
+        final EngineAutoscaler.Policy policy = new EngineAutoscaler.Policy("room", LOAD, 20,
+                0.3, 0.8, 1, 4, 1, 10000);
+        final EngineAutoscalerSimulator simulator = new EngineAutoscalerSimulator(policy, 7, 0.0, 1);
+
+        // A load peak: the engines are created, stopped after the peak and the idle ones destroyed.
+        final EngineAutoscalerSimulator.Report report = simulator.run(80, step -> step >= 10 && step < 30 ? 60 : 5);
+        assertEquals(3, report.getCount(EngineAutoscaler.Operation.CREATE));
+        assertEquals(3, report.getCount(EngineAutoscaler.Operation.STOP));
+        assertEquals(2, report.getCount(EngineAutoscaler.Operation.DESTROY));
+        assertEquals(0, report.getCount(EngineAutoscaler.Operation.START));
+        assertEquals(4, report.maxRunning);
+    }
+}
@@ -0,0 +1,243 @@
+package org.twinlife.twinme.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinlife.SerializerException;
+import org.twinlife.twinlife.SerializerFactory;
+import org.twinlife.twinme.models.EngineBatchCommand;
+import org.twinlife.twinme.models.EngineBatchResult;
+import org.twinlife.twinme.models.EngineCommand;
+import org.twinlife.twinme.models.EngineCommandResult;
+import org.twinlife.twinme.models.EngineConfig;
+import org.twinlife.twinme.models.EngineListResult;
+import org.twinlife.twinme.models.EngineServerInfoResult;
+import org.twinlife.twinme.models.EngineStatResult;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+class EngineLoadTest {
+
+    private static final long POLL_PERIOD = 10; // ms
+    private static final long TIMEOUT = 1000; // ms
+
+    private static final class Report {
+        int sent;
+        int completed;
+        int errors;
+        int timeouts;
+        long duration; // ms
+        double throughput; // commands per second
+        double p50; // ms
+        double p99;
+        double max;
+
+        @Override
+        public String toString() {
+
+            return "sent=" + sent + " completed=" + completed + " errors=" + errors + " timeouts=" + timeouts
+                    + " duration=" + duration + "ms throughput=" + String.format("%.1f", throughput)
+                    + "/s p50=" + String.format("%.3f", p50) + " p99=" + String.format("%.3f", p99)
+                    + " max=" + String.format("%.3f", max) + "ms";
+        }
+    }
+
+    private EngineSupervisorStub mSupervisor;
+
+    @BeforeEach
+    void setUp() {
+
+        final SerializerFactory serializerFactory = (SerializerFactory) Proxy.newProxyInstance(
+                SerializerFactory.class.getClassLoader(), new Class<?>[] { SerializerFactory.class },
+                (proxy, method, args) -> null);
+        mSupervisor = new EngineSupervisorStub(serializerFactory, 42, 10, "room");
+        mSupervisor.addEngine("room-1", "room", EngineConfig.Status.RUNNING);
+        mSupervisor.addEngine("room-2", "room", EngineConfig.Status.STOPPED);
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        mSupervisor.close();
+    }
+
+    private static EngineCommand newCommand(long requestId, int index) {
+
+        final String name = index % 2 == 0 ? "room-1" : "room-2";
+        switch (index % 5) {
+            case 0:
+                return EngineCommand.list(requestId, "");
+
+            case 1:
+                return EngineCommand.stats(requestId, "");
+
+            case 2:
+                return EngineCommand.serverInformation(requestId);
+
+            case 3:
+                return EngineCommand.start(requestId, name);
+
+            default:
+                return EngineCommand.stop(requestId, name);
+        }
+    }
+
+    private EngineCommandResult send(Object command) throws SerializerException, InterruptedException {
+
+        final BlockingQueue<EngineCommandResult> results = new ArrayBlockingQueue<>(1);
+        mSupervisor.send(command, results::add);
+        return results.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    private Report run(int count, int window) throws SerializerException, InterruptedException {
+
+        final Semaphore semaphore = new Semaphore(window);
+        final Map<Long, Long> pending = new ConcurrentHashMap<>();
+        final AtomicLongArray latencies = new AtomicLongArray(count);
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final Report report = new Report();
+
+        final EngineSupervisorStub.Receiver receiver = (EngineCommandResult result) -> {
+            final Long sendTime = pending.remove(result.getRequestId());
+            if (sendTime != null) {
+                latencies.set((int) result.getRequestId() - 1, System.nanoTime() - sendTime);
+                completed.incrementAndGet();
+                if (result.getStatus() != EngineCommandResult.Status.SUCCESS) {
+                    errors.incrementAndGet();
+                }
+                semaphore.release();
+            }
+        };
+
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            while (!semaphore.tryAcquire(POLL_PERIOD, TimeUnit.MILLISECONDS)) {
+                report.timeouts += expire(pending, semaphore);
+            }
+            final long requestId = i + 1;
+            pending.put(requestId, System.nanoTime());
+            mSupervisor.send(newCommand(requestId, i), receiver);
+            report.sent++;
+        }
+        while (!pending.isEmpty()) {
+            Thread.sleep(POLL_PERIOD);
+            report.timeouts += expire(pending, semaphore);
+        }
+        final long endTime = System.nanoTime();
+
+        report.completed = completed.get();
+        report.errors = errors.get();
+        report.duration = TimeUnit.NANOSECONDS.toMillis(endTime - startTime);
+        report.throughput = report.completed * 1e9 / Math.max(1, endTime - startTime);
+
+        // Only the commands which received a result have a latency.
+        final long[] values = new long[count];
+        int pos = 0;
+        for (int i = 0; i < count; i++) {
+            if (latencies.get(i) > 0) {
+                values[pos++] = latencies.get(i);
+            }
+        }
+        Arrays.sort(values, 0, pos);
+        report.p50 = percentile(values, pos, 0.50);
+        report.p99 = percentile(values, pos, 0.99);
+        report.max = pos == 0 ? 0 : values[pos - 1] / 1e6;
+        return report;
+    }
+
+    private static double percentile(long[] values, int count, double ratio) {
+
+        if (count == 0) {
+            return 0;
+        }
+        final int index = Math.min(count - 1, (int) Math.ceil(ratio * count) - 1);
+        return values[Math.max(0, index)] / 1e6;
+    }
+
+    private static int expire(Map<Long, Long> pending, Semaphore semaphore) {
+
+        final long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(TIMEOUT);
+        int expired = 0;
+        final Iterator<Map.Entry<Long, Long>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Long, Long> item = iterator.next();
+            if (item.getValue() <= deadline && pending.remove(item.getKey(), item.getValue())) {
+                expired++;
+                semaphore.release();
+            }
+        }
+        return expired;
+    }
+
+    @Test
+    void testResults() throws SerializerException, InterruptedException {
+
+        final EngineCommandResult list = send(EngineCommand.list(1, ""));
+        assertInstanceOf(EngineListResult.class, list);
+        assertEquals(2, ((EngineListResult) list).getEngines().size());
+
+        final EngineCommandResult stats = send(EngineCommand.stats(2, ""));
+        assertInstanceOf(EngineStatResult.class, stats);
+        assertEquals(2, stats.getRequestId());
+
+        final EngineCommandResult info = send(EngineCommand.serverInformation(3));
+        assertInstanceOf(EngineServerInfoResult.class, info);
+        assertEquals(2, ((EngineServerInfoResult) info).getEngineCount());
+        assertEquals(10, ((EngineServerInfoResult) info).getEngineSlots());
+
+        final EngineCommandResult batch = send(new EngineBatchCommand(4,
+                Arrays.asList(EngineCommand.start(5, "room-2"), EngineCommand.stats(6, ""))));
+        assertInstanceOf(EngineBatchResult.class, batch);
+        assertEquals(2, ((EngineBatchResult) batch).getResults().size());
+        assertInstanceOf(EngineStatResult.class, ((EngineBatchResult) batch).getResults().get(1));
+    }
+
+    @Test
+    void testLoad() throws SerializerException, InterruptedException {
+
+        mSupervisor.setLatency(0, 2);
+
+        final Report report = run(1000, 16);
+        System.out.println("EngineLoadTest.testLoad: " + report);
+        assertEquals(1000, report.sent);
+        assertEquals(1000, report.completed);
+        assertEquals(0, report.timeouts);
+        assertEquals(1000, mSupervisor.getCounters().commands);
+        assertTrue(report.throughput > 0);
+        assertTrue(report.p50 > 0 && report.p50 <= report.p99 && report.p99 <= report.max);
+    }
+
+    @Test
+    void testFailures() throws SerializerException, InterruptedException {
+
+        mSupervisor.setFailures(0.1, 0.05);
+
+        final Report report = run(500, 16);
+        System.out.println("EngineLoadTest.testFailures: " + report);
+        final EngineSupervisorStub.Counters counters = mSupervisor.getCounters();
+        assertNotNull(counters);
+
+        // Every dropped command is detected as a timeout and every injected error is received.
+        assertEquals(500, report.completed + report.timeouts);
+        assertEquals(counters.dropped, report.timeouts);
+        assertTrue(counters.dropped > 0);
+        assertTrue(counters.errors > 0);
+        assertTrue(report.errors >= counters.errors);
+    }
+}
@@ -0,0 +1,155 @@
+package org.twinlife.twinme.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinme.models.EngineCommand;
+import org.twinlife.twinme.models.EngineCommandResult;
+import org.twinlife.twinme.models.EngineStat;
+import org.twinlife.twinme.models.EngineStatResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+class EnginePlacementTest {
+
+    private static final List<String> CLASSES = Collections.singletonList("room");
+    private static final UUID SERVER1 = new UUID(0, 1);
+    private static final UUID SERVER2 = new UUID(0, 2);
+    private static final UUID SERVER3 = new UUID(0, 3);
+
+    private static EnginePlacement newPlacement(EnginePlacement.Policy policy) {
+
+        final EnginePlacement placement = new EnginePlacement(policy, 1000);
+        placement.updateServer(SERVER1, null, CLASSES, 2, 10, 0);
+        placement.updateServer(SERVER2, null, CLASSES, 5, 10, 0);
+        placement.updateServer(SERVER3, null, Collections.singletonList("bot"), 0, 10, 0);
+        return placement;
+    }
+
+    private static EngineStatResult newStats(int count) {
+
+        final List<EngineStat> stats = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            stats.add(new EngineStat("engine-" + i, UUID.randomUUID()));
+        }
+        return new EngineStatResult(EngineCommand.stats(1, ""), EngineCommandResult.Status.SUCCESS, stats);
+    }
+
+    private static int getEngineCount(EnginePlacement placement, UUID serverId) {
+
+        for (EnginePlacement.ServerCapacity server : placement.getServers()) {
+            if (server.getServerId().equals(serverId)) {
+                return server.getEngineCount();
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    void testSpread() {
+
+        final EnginePlacement placement = newPlacement(EnginePlacement.Policy.SPREAD);
+
+        // The reservations are taken into account until the least loaded server reaches the load of the other one.
+        for (int i = 0; i < 3; i++) {
+            assertEquals(SERVER1, placement.reserve("room", 10));
+        }
+        assertEquals(SERVER1, placement.reserve("room", 10));
+        assertEquals(SERVER2, placement.reserve("room", 10));
+        assertEquals(SERVER3, placement.reserve("bot", 10));
+        assertNull(placement.reserve("unknown", 10));
+    }
+
+    @Test
+    void testPack() {
+
+        final EnginePlacement placement = newPlacement(EnginePlacement.Policy.PACK);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(SERVER2, placement.reserve("room", 10));
+            placement.release(SERVER2, true);
+        }
+
+        // The most loaded server is full: the next one is used.
+        assertEquals(SERVER1, placement.reserve("room", 10));
+        assertEquals(10, getEngineCount(placement, SERVER2));
+    }
+
+    @Test
+    void testMaxAge() {
+
+        final EnginePlacement placement = newPlacement(EnginePlacement.Policy.SPREAD);
+
+        // The server information is too old.
+        assertNull(placement.reserve("room", 2000));
+
+        placement.updateServer(SERVER2, null, CLASSES, 5, 10, 2000);
+        assertEquals(SERVER2, placement.reserve("room", 2000));
+    }
+
+    @Test
+    void testUpdateStats() {
+
+        final EnginePlacement placement = newPlacement(EnginePlacement.Policy.SPREAD);
+
+        // A filtered result only contains some engines: the engine count is not changed.
+        placement.updateStats(SERVER1, "room", newStats(1));
+        assertEquals(2, getEngineCount(placement, SERVER1));
+
+        placement.updateStats(SERVER1, "", newStats(7));
+        assertEquals(7, getEngineCount(placement, SERVER1));
+    }
+
+    @Test
+    void testSimulation() {
+
+        // Create and destroy engines on servers that report their engine count periodically.
+        final Random random = new Random(42);
+        for (EnginePlacement.Policy policy : EnginePlacement.Policy.values()) {
+            final EnginePlacement placement = new EnginePlacement(policy, Long.MAX_VALUE);
+            final Map<UUID, Integer> engines = new HashMap<>();
+            final List<UUID> servers = Arrays.asList(SERVER1, SERVER2, SERVER3);
+            for (UUID serverId : servers) {
+                engines.put(serverId, 0);
+                placement.updateServer(serverId, null, CLASSES, 0, 20, 0);
+            }
+
+            int placed = 0;
+            for (int step = 0; step < 500; step++) {
+                if (step % 10 == 0) {
+                    for (UUID serverId : servers) {
+                        placement.updateServer(serverId, null, CLASSES, engines.get(serverId), 20, step);
+                    }
+                }
+                if (random.nextDouble() < 0.3) {
+                    final UUID serverId = servers.get(random.nextInt(servers.size()));
+                    engines.put(serverId, Math.max(0, engines.get(serverId) - 1));
+                    continue;
+                }
+
+                final UUID serverId = placement.reserve("room", step);
+                if (serverId != null) {
+                    // The placement never selects a full server.
+                    assertTrue(engines.get(serverId) < 20);
+                    engines.put(serverId, engines.get(serverId) + 1);
+                    placement.release(serverId, true);
+                    placed++;
+                }
+            }
+
+            assertTrue(placed > 0);
+            for (EnginePlacement.ServerCapacity server : placement.getServers()) {
+                assertEquals(0, server.getReserved());
+            }
+        }
+    }
+}
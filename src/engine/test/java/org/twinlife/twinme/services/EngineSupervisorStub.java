@@ -0,0 +1,467 @@
+package org.twinlife.twinme.services;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.Serializer;
+import org.twinlife.twinlife.SerializerException;
+import org.twinlife.twinlife.SerializerFactory;
+import org.twinlife.twinlife.util.BinaryDecoder;
+import org.twinlife.twinlife.util.BinaryEncoder;
+import org.twinlife.twinme.models.EngineBatchCommand;
+import org.twinlife.twinme.models.EngineBatchResult;
+import org.twinlife.twinme.models.EngineCommand;
+import org.twinlife.twinme.models.EngineCommandResult;
+import org.twinlife.twinme.models.EngineCommandResult.Status;
+import org.twinlife.twinme.models.EngineConfig;
+import org.twinlife.twinme.models.EngineCreateResult;
+import org.twinlife.twinme.models.EngineInfo;
+import org.twinlife.twinme.models.EngineListResult;
+import org.twinlife.twinme.models.EngineServerInfoResult;
+import org.twinlife.twinme.models.EngineStat;
+import org.twinlife.twinme.models.EngineStatResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for a Twinroom supervisor.
+ *
+ * The stub manages fake engines in memory and answers the EngineCommand and EngineBatchCommand
+ * (create, start, stop, destroy, configure, status, list, stat and server information).  The commands and the
+ * results go through a loopback link which encodes and decodes them with the real serializers, like the
+ * transient objects exchanged through the conversation service, so that the serializers and the command
+ * handling can be tested without a supervisor.  The link adds a random latency and can inject failures:
+ * - an ERROR result returned instead of executing the command,
+ * - a dropped command for which no result is sent (the client must detect the timeout).
+ *
+ * The supervisor is single threaded: commands are executed and results are delivered one at a time from the
+ * stub thread.  The stub must be closed to stop its thread.
+ */
+final class EngineSupervisorStub {
+    private static final String LOG_TAG = "EngineSupervisorStub";
+    private static final boolean DEBUG = false;
+
+    private static final EngineCommand.EngineCommandSerializer COMMAND_SERIALIZER = new EngineCommand.EngineCommandSerializer();
+    private static final EngineBatchCommand.EngineBatchCommandSerializer BATCH_SERIALIZER = new EngineBatchCommand.EngineBatchCommandSerializer();
+    private static final EngineCommandResult.EngineCommandResultSerializer[] RESULT_SERIALIZERS = {
+            new EngineCommandResult.EngineCommandResultSerializer(),
+            new EngineCreateResult.EngineCreateResultSerializer(),
+            new EngineListResult.EngineListResultSerializer(),
+            new EngineStatResult.EngineStatResultSerializerV2(),
+            new EngineServerInfoResult.EngineServerInfoResultSerializer(),
+            new EngineBatchResult.EngineBatchResultSerializer(),
+            new EngineStatResult.EngineStatResultSerializer()
+    };
+
+    public interface Receiver {
+
+        void onResult(@NonNull EngineCommandResult result);
+    }
+
+    public static final class Counters {
+        public final long commands;
+        public final long errors;
+        public final long dropped;
+        public final long bytesSent;
+        public final long bytesReceived;
+
+        Counters(long commands, long errors, long dropped, long bytesSent, long bytesReceived) {
+
+            this.commands = commands;
+            this.errors = errors;
+            this.dropped = dropped;
+            this.bytesSent = bytesSent;
+            this.bytesReceived = bytesReceived;
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+
+            return "commands=" + commands + " errors=" + errors + " dropped=" + dropped
+                    + " bytesSent=" + bytesSent + " bytesReceived=" + bytesReceived;
+        }
+    }
+
+    @NonNull
+    private final SerializerFactory mSerializerFactory;
+    @NonNull
+    private final ScheduledExecutorService mExecutor;
+    @NonNull
+    private final Random mRandom;
+    @NonNull
+    private final List<String> mEngineClasses;
+    private final int mEngineSlots;
+    private final Map<UUID, EngineInfo> mEngines = new LinkedHashMap<>();
+    private final AtomicLong mCommands = new AtomicLong();
+    private final AtomicLong mErrors = new AtomicLong();
+    private final AtomicLong mDropped = new AtomicLong();
+    private final AtomicLong mBytesSent = new AtomicLong();
+    private final AtomicLong mBytesReceived = new AtomicLong();
+    private final AtomicInteger mNextLogicalId = new AtomicInteger();
+    private long mMinLatency;
+    private long mMaxLatency;
+    private double mErrorRate;
+    private double mDropRate;
+
+    /**
+     * Create the supervisor stub.
+     *
+     * @param serializerFactory the serializer factory given to the serializers.
+     * @param seed the random seed for the latency and the failure injection.
+     * @param engineSlots the maximum number of engines.
+     * @param engineClasses the engine classes supported by the supervisor.
+     */
+    public EngineSupervisorStub(@NonNull SerializerFactory serializerFactory, long seed, int engineSlots,
+                                @NonNull String... engineClasses) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "EngineSupervisorStub: seed=" + seed + " engineSlots=" + engineSlots);
+        }
+
+        mSerializerFactory = serializerFactory;
+        mRandom = new Random(seed);
+        mEngineSlots = engineSlots;
+        mEngineClasses = Collections.unmodifiableList(Arrays.asList(engineClasses));
+        mExecutor = new ScheduledThreadPoolExecutor(1, (Runnable runnable) -> {
+            final Thread thread = new Thread(runnable, "EngineSupervisorStub");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Set the one-way latency of the loopback link: each message is delayed by a random value in the range.
+     *
+     * @param minLatency the minimum latency in milliseconds.
+     * @param maxLatency the maximum latency in milliseconds.
+     */
+    public synchronized void setLatency(long minLatency, long maxLatency) {
+
+        mMinLatency = Math.max(0, minLatency);
+        mMaxLatency = Math.max(mMinLatency, maxLatency);
+    }
+
+    /**
+     * Set the failure injection rates.
+     *
+     * @param errorRate the probability to answer a command with the ERROR status (0..1).
+     * @param dropRate the probability to drop a command without answering (0..1).
+     */
+    public synchronized void setFailures(double errorRate, double dropRate) {
+
+        mErrorRate = errorRate;
+        mDropRate = dropRate;
+    }
+
+    /**
+     * Add a fake engine as if it was created before.
+     *
+     * @param logicalName the engine logical name.
+     * @param engineClass the engine class.
+     * @param status the engine status.
+     * @return the engine id.
+     */
+    @NonNull
+    public UUID addEngine(@NonNull String logicalName, @NonNull String engineClass, @NonNull EngineConfig.Status status) {
+
+        final EngineInfo engine = new EngineInfo(mNextLogicalId.incrementAndGet(), logicalName, UUID.randomUUID(),
+                new EngineConfig(status, engineClass, 0, 0, 0), System.currentTimeMillis());
+        mExecutor.execute(() -> mEngines.put(engine.getEngineId(), engine));
+        return engine.getEngineId();
+    }
+
+    /**
+     * Send the EngineCommand or EngineBatchCommand to the supervisor through the loopback link.  The receiver is
+     * called from the stub thread with the decoded result unless the command is dropped.
+     *
+     * @param command the command to send.
+     * @param receiver the receiver of the result.
+     * @throws SerializerException when the command cannot be serialized.
+     */
+    public void send(@NonNull Object command, @NonNull Receiver receiver) throws SerializerException {
+
+        final byte[] data;
+        if (command instanceof EngineBatchCommand) {
+            data = encode(BATCH_SERIALIZER, command);
+        } else if (command instanceof EngineCommand) {
+            data = encode(COMMAND_SERIALIZER, command);
+        } else {
+            throw new SerializerException("Not an engine command");
+        }
+        mBytesSent.addAndGet(data.length);
+
+        mExecutor.schedule(() -> onReceive(data, receiver), nextLatency(), TimeUnit.MILLISECONDS);
+    }
+
+    @NonNull
+    public Counters getCounters() {
+
+        return new Counters(mCommands.get(), mErrors.get(), mDropped.get(), mBytesSent.get(), mBytesReceived.get());
+    }
+
+    public void close() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "close");
+        }
+
+        mExecutor.shutdownNow();
+    }
+
+    //
+    // Private methods
+    //
+
+    private void onReceive(@NonNull byte[] data, @NonNull Receiver receiver) {
+
+        final Object command;
+        try {
+            final BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(data));
+            final UUID schemaId = decoder.readUUID();
+            final int schemaVersion = decoder.readInt();
+            if (BATCH_SERIALIZER.schemaId.equals(schemaId) && BATCH_SERIALIZER.schemaVersion == schemaVersion) {
+                command = BATCH_SERIALIZER.deserialize(mSerializerFactory, decoder);
+            } else if (COMMAND_SERIALIZER.schemaId.equals(schemaId) && COMMAND_SERIALIZER.schemaVersion == schemaVersion) {
+                command = COMMAND_SERIALIZER.deserialize(mSerializerFactory, decoder);
+            } else {
+                Log.e(LOG_TAG, "Command schema " + schemaId + "." + schemaVersion + " not recognized");
+                return;
+            }
+        } catch (Exception exception) {
+            Log.e(LOG_TAG, "Cannot decode command", exception);
+            return;
+        }
+
+        mCommands.incrementAndGet();
+        final boolean drop;
+        final boolean error;
+        synchronized (this) {
+            drop = mRandom.nextDouble() < mDropRate;
+            error = !drop && mRandom.nextDouble() < mErrorRate;
+        }
+        if (drop) {
+            mDropped.incrementAndGet();
+            return;
+        }
+
+        final EngineCommandResult result;
+        if (command instanceof EngineBatchCommand) {
+            final EngineBatchCommand batch = (EngineBatchCommand) command;
+            final List<EngineCommandResult> results = new ArrayList<>(batch.getCommands().size());
+            for (EngineCommand item : batch.getCommands()) {
+                results.add(error ? new EngineCommandResult(item, Status.ERROR) : execute(item));
+            }
+            result = new EngineBatchResult(batch, results);
+        } else {
+            result = error ? new EngineCommandResult((EngineCommand) command, Status.ERROR) : execute((EngineCommand) command);
+        }
+        if (error) {
+            mErrors.incrementAndGet();
+        }
+
+        final byte[] response;
+        try {
+            response = encode(getSerializer(result), result);
+        } catch (SerializerException exception) {
+            Log.e(LOG_TAG, "Cannot encode result", exception);
+            return;
+        }
+        mBytesReceived.addAndGet(response.length);
+
+        mExecutor.schedule(() -> onResponse(response, receiver), nextLatency(), TimeUnit.MILLISECONDS);
+    }
+
+    private void onResponse(@NonNull byte[] data, @NonNull Receiver receiver) {
+
+        final EngineCommandResult result;
+        try {
+            final BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(data));
+            final UUID schemaId = decoder.readUUID();
+            final int schemaVersion = decoder.readInt();
+            final EngineCommandResult.EngineCommandResultSerializer serializer = findSerializer(schemaId, schemaVersion);
+            if (serializer == null) {
+                Log.e(LOG_TAG, "Result schema " + schemaId + "." + schemaVersion + " not recognized");
+                return;
+            }
+            result = (EngineCommandResult) serializer.deserialize(mSerializerFactory, decoder);
+        } catch (Exception exception) {
+            Log.e(LOG_TAG, "Cannot decode result", exception);
+            return;
+        }
+
+        receiver.onResult(result);
+    }
+
+    @NonNull
+    private EngineCommandResult execute(@NonNull EngineCommand command) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "execute: command=" + command);
+        }
+
+        switch (command.getAction()) {
+            case ENGINE_CREATE: {
+                final EngineConfig config = command.getConfig();
+                if (config == null || command.getText() == null) {
+                    return new EngineCreateResult(command, Status.BAD_COMMAND);
+                }
+                if (!mEngineClasses.contains(config.getEngineClass())) {
+                    return new EngineCreateResult(command, Status.UNKNOWN_ENGINE_CLASS);
+                }
+                if (mEngines.size() >= mEngineSlots) {
+                    return new EngineCreateResult(command, Status.NO_SPACE);
+                }
+                final EngineInfo engine = new EngineInfo(mNextLogicalId.incrementAndGet(), command.getText(), UUID.randomUUID(),
+                        new EngineConfig(config, EngineConfig.Status.RUNNING), System.currentTimeMillis(),
+                        command.getRoomConfig(), 0);
+                mEngines.put(engine.getEngineId(), engine);
+                return new EngineCreateResult(command, engine);
+            }
+
+            case ENGINE_START:
+            case ENGINE_STOP:
+            case ENGINE_STATUS:
+            case ENGINE_CONFIGURE:
+            case ENGINE_DESTROY: {
+                final EngineInfo engine = findEngine(command);
+                if (engine == null) {
+                    return new EngineCommandResult(command, Status.ITEM_NOT_FOUND);
+                }
+                switch (command.getAction()) {
+                    case ENGINE_START:
+                        mEngines.put(engine.getEngineId(), new EngineInfo(engine, EngineConfig.Status.RUNNING));
+                        break;
+
+                    case ENGINE_STOP:
+                        mEngines.put(engine.getEngineId(), new EngineInfo(engine, EngineConfig.Status.STOPPED));
+                        break;
+
+                    case ENGINE_CONFIGURE:
+                        if (command.getConfig() == null) {
+                            return new EngineCommandResult(command, Status.BAD_COMMAND);
+                        }
+                        mEngines.put(engine.getEngineId(), new EngineInfo(engine.getLogicalId(), engine.getLogicalName(),
+                                engine.getEngineId(), command.getConfig(), engine.getCreationDate(),
+                                engine.getRoomConfig(), engine.getMemberCount()));
+                        break;
+
+                    case ENGINE_DESTROY:
+                        mEngines.remove(engine.getEngineId());
+                        break;
+
+                    default:
+                        break;
+                }
+                return new EngineCommandResult(command, Status.SUCCESS);
+            }
+
+            case ENGINE_LIST: {
+                final List<EngineInfo> engines = new ArrayList<>();
+                for (EngineInfo engine : mEngines.values()) {
+                    if (matches(engine, command.getText())) {
+                        engines.add(engine);
+                    }
+                }
+                return new EngineListResult(command, Status.SUCCESS, engines);
+            }
+
+            case ENGINE_STAT: {
+                final List<EngineStat> stats = new ArrayList<>();
+                for (EngineInfo engine : mEngines.values()) {
+                    if (matches(engine, command.getText()) && engine.getStatus() == EngineConfig.Status.RUNNING) {
+                        final EngineStat stat = new EngineStat(engine.getLogicalName(), engine.getEngineId());
+                        stat.putValue("members", engine.getMemberCount());
+                        stat.putValue("commands", mCommands.get());
+                        stats.add(stat);
+                    }
+                }
+                return new EngineStatResult(command, Status.SUCCESS, stats);
+            }
+
+            case ENGINE_SERVER_INFO:
+                return new EngineServerInfoResult(command, Status.SUCCESS, "engine-supervisor-stub", "1.0",
+                        null, null, mEngineClasses, "localhost", "127.0.0.1", mEngines.size(), mEngineSlots);
+
+            default:
+                return new EngineCommandResult(command, Status.BAD_COMMAND);
+        }
+    }
+
+    @Nullable
+    private EngineInfo findEngine(@NonNull EngineCommand command) {
+
+        if (command.getEngineId() != null) {
+            return mEngines.get(command.getEngineId());
+        }
+        for (EngineInfo engine : mEngines.values()) {
+            if (engine.getLogicalName().equals(command.getText())) {
+                return engine;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(@NonNull EngineInfo engine, @Nullable String filter) {
+
+        return filter == null || filter.isEmpty() || engine.getLogicalName().contains(filter)
+                || filter.equals(engine.getEngineClass());
+    }
+
+    private synchronized long nextLatency() {
+
+        if (mMaxLatency <= mMinLatency) {
+            return mMinLatency;
+        }
+        return mMinLatency + (long) (mRandom.nextDouble() * (mMaxLatency - mMinLatency));
+    }
+
+    @NonNull
+    private byte[] encode(@NonNull Serializer serializer, @NonNull Object object) throws SerializerException {
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.serialize(mSerializerFactory, new BinaryEncoder(outputStream), object);
+        return outputStream.toByteArray();
+    }
+
+    @NonNull
+    private static Serializer getSerializer(@NonNull EngineCommandResult result) {
+
+        if (result instanceof EngineBatchResult) {
+            return RESULT_SERIALIZERS[5];
+        } else if (result instanceof EngineCreateResult) {
+            return RESULT_SERIALIZERS[1];
+        } else if (result instanceof EngineListResult) {
+            return RESULT_SERIALIZERS[2];
+        } else if (result instanceof EngineStatResult) {
+            return RESULT_SERIALIZERS[3];
+        } else if (result instanceof EngineServerInfoResult) {
+            return RESULT_SERIALIZERS[4];
+        } else {
+            return RESULT_SERIALIZERS[0];
+        }
+    }
+
+    @Nullable
+    private static EngineCommandResult.EngineCommandResultSerializer findSerializer(@NonNull UUID schemaId, int schemaVersion) {
+
+        for (EngineCommandResult.EngineCommandResultSerializer serializer : RESULT_SERIALIZERS) {
+            if (serializer.schemaId.equals(schemaId) && serializer.schemaVersion == schemaVersion) {
+                return serializer;
+            }
+        }
+        return null;
+    }
+}
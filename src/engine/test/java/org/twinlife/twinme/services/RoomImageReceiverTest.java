@@ -0,0 +1,161 @@
+package org.twinlife.twinme.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinme.models.RoomCommandResult.Status;
+import org.twinlife.twinme.models.RoomImageTransfer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+class RoomImageReceiverTest {
+
+    private static final long MAX_IMAGE_SIZE = 1024 * 1024;
+    private static final int CHUNK_SIZE = 32768;
+
+    private File mDirectory;
+    private RoomImageReceiver mReceiver;
+    private File mImage;
+    private long mRequestId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+
+        mDirectory = Files.createTempDirectory("room-image").toFile();
+        mReceiver = new RoomImageReceiver(mDirectory, MAX_IMAGE_SIZE, 2, (UUID transferId, File imageFile) -> mImage = imageFile);
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        mReceiver.close();
+        final File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        mDirectory.delete();
+    }
+
+    private static byte[] newImage(int length) {
+
+        final byte[] image = new byte[length];
+        new Random(length).nextBytes(image);
+        return image;
+    }
+
+    private static byte[] sha256(byte[] data) throws NoSuchAlgorithmException {
+
+        return MessageDigest.getInstance("SHA-256").digest(data);
+    }
+
+    private Status begin(UUID transferId, long length) {
+
+        return mReceiver.onTransfer(RoomImageTransfer.begin(++mRequestId, transferId, length)).getStatus();
+    }
+
+    private Status chunk(UUID transferId, long offset, byte[] data) {
+
+        return mReceiver.onTransfer(RoomImageTransfer.chunk(++mRequestId, transferId, offset, data)).getStatus();
+    }
+
+    private Status commit(UUID transferId, byte[] checksum) {
+
+        return mReceiver.onTransfer(RoomImageTransfer.commit(++mRequestId, transferId, checksum)).getStatus();
+    }
+
+    @Test
+    void testUpload() throws IOException, NoSuchAlgorithmException {
+
+        final byte[] image = newImage(100000);
+        final UUID transferId = UUID.randomUUID();
+
+        assertEquals(Status.SUCCESS, begin(transferId, image.length));
+        for (int offset = 0; offset < image.length; offset += CHUNK_SIZE) {
+            final byte[] data = Arrays.copyOfRange(image, offset, Math.min(image.length, offset + CHUNK_SIZE));
+            assertEquals(Status.SUCCESS, chunk(transferId, offset, data));
+        }
+        assertNull(mImage);
+        assertEquals(Status.SUCCESS, commit(transferId, sha256(image)));
+
+        // The listener gets the file with the image content.
+        assertNotNull(mImage);
+        assertArrayEquals(image, Files.readAllBytes(mImage.toPath()));
+        assertEquals(0, mReceiver.getTransferCount());
+    }
+
+    @Test
+    void testChecksumMismatch() throws NoSuchAlgorithmException {
+
+        final byte[] image = newImage(1000);
+        final UUID transferId = UUID.randomUUID();
+
+        assertEquals(Status.SUCCESS, begin(transferId, image.length));
+        assertEquals(Status.SUCCESS, chunk(transferId, 0, image));
+        image[10]++;
+        assertEquals(Status.BAD_COMMAND, commit(transferId, sha256(image)));
+
+        // The image is rejected and its temporary file deleted.
+        assertNull(mImage);
+        assertEquals(0, mReceiver.getTransferCount());
+        assertEquals(0, mDirectory.list().length);
+    }
+
+    @Test
+    void testOutOfOrderChunk() {
+
+        final byte[] image = newImage(1000);
+        final UUID transferId = UUID.randomUUID();
+
+        assertEquals(Status.SUCCESS, begin(transferId, image.length));
+        assertEquals(Status.SUCCESS, chunk(transferId, 0, Arrays.copyOfRange(image, 0, 500)));
+
+        // A chunk which does not follow the previous one drops the transfer.
+        assertEquals(Status.BAD_COMMAND, chunk(transferId, 600, Arrays.copyOfRange(image, 600, 1000)));
+        assertEquals(0, mReceiver.getTransferCount());
+        assertEquals(0, mDirectory.list().length);
+        assertEquals(Status.ITEM_NOT_FOUND, chunk(transferId, 500, Arrays.copyOfRange(image, 500, 1000)));
+    }
+
+    @Test
+    void testOverSize() {
+
+        // The image length is checked by BEGIN and by each chunk.
+        assertEquals(Status.BAD_COMMAND, begin(UUID.randomUUID(), MAX_IMAGE_SIZE + 1));
+        assertEquals(Status.BAD_COMMAND, begin(UUID.randomUUID(), -1));
+        assertEquals(0, mReceiver.getTransferCount());
+
+        final UUID transferId = UUID.randomUUID();
+        assertEquals(Status.SUCCESS, begin(transferId, 10));
+        assertEquals(Status.BAD_COMMAND, chunk(transferId, 0, new byte[11]));
+        assertEquals(0, mReceiver.getTransferCount());
+    }
+
+    @Test
+    void testMaxTransfers() {
+
+        final UUID transferId = UUID.randomUUID();
+        assertEquals(Status.SUCCESS, begin(transferId, 10));
+        assertEquals(Status.BAD_COMMAND, begin(transferId, 10));
+        assertEquals(Status.SUCCESS, begin(UUID.randomUUID(), 10));
+        assertEquals(Status.ERROR, begin(UUID.randomUUID(), 10));
+        assertEquals(2, mReceiver.getTransferCount());
+
+        mReceiver.close();
+        assertEquals(0, mReceiver.getTransferCount());
+        assertEquals(0, mDirectory.list().length);
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.ConversationService.Conversation;
+import org.twinlife.twinlife.ConversationService.Descriptor;
+import org.twinlife.twinlife.RepositoryObject;
+import org.twinlife.twinlife.RepositoryService.StatType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detect the burst of descriptors received after a reconnection and collect them.
+ *
+ * After start(), the descriptors are counted and when more than `threshold` of them are received within
+ * the probe delay, the catch-up mode is entered: the following descriptors are not processed one by one but
+ * they are collected with their statistics.  The messages of a conversation are aggregated in one item which
+ * keeps the last message and their count, so that its originator gets a single notification.  The invitation,
+ * twincode and clear descriptors are all kept, and only the last descriptor of the other types is kept.  The
+ * catch-up mode ends when no descriptor is received for the quiet delay, or after the maximum duration, and
+ * the collected batch is then processed at once.
+ */
+final class CatchUpBuffer {
+    private static final String LOG_TAG = "CatchUpBuffer";
+    private static final boolean DEBUG = false;
+
+    static final class Stat {
+        @NonNull
+        final RepositoryObject object;
+        @NonNull
+        final StatType kind;
+        int count;
+
+        Stat(@NonNull RepositoryObject object, @NonNull StatType kind) {
+
+            this.object = object;
+            this.kind = kind;
+        }
+    }
+
+    static final class Item {
+        @NonNull
+        final Conversation conversation;
+        @NonNull
+        final Descriptor descriptor;
+        // Number of descriptors aggregated in the item.
+        final int count;
+
+        Item(@NonNull Conversation conversation, @NonNull Descriptor descriptor, int count) {
+
+            this.conversation = conversation;
+            this.descriptor = descriptor;
+            this.count = count;
+        }
+    }
+
+    static final class Batch {
+        // Number of descriptors received during the catch-up.
+        final int count;
+        final long startTime;
+        @NonNull
+        final List<Stat> stats;
+        // Descriptors to notify, the most recent one is the last one.
+        @NonNull
+        final List<Item> descriptors;
+
+        Batch(int count, long startTime, @NonNull List<Stat> stats, @NonNull List<Item> descriptors) {
+
+            this.count = count;
+            this.startTime = startTime;
+            this.stats = stats;
+            this.descriptors = descriptors;
+        }
+    }
+
+    private final int mThreshold;
+    private final long mProbeDelay;
+    private final long mQuietDelay;
+    private final long mMaxDuration;
+    private long mProbeStart;
+    private int mProbeCount;
+    private boolean mActive;
+    private long mStartTime;
+    private long mLastTime;
+    private int mCount;
+    private final Map<String, Stat> mStats = new HashMap<>();
+    private final LinkedHashMap<String, Item> mDescriptors = new LinkedHashMap<>();
+
+    CatchUpBuffer(int threshold, long probeDelay, long quietDelay, long maxDuration) {
+
+        mThreshold = threshold;
+        mProbeDelay = probeDelay;
+        mQuietDelay = quietDelay;
+        mMaxDuration = maxDuration;
+    }
+
+    /**
+     * Start counting the descriptors received after a reconnection.
+     *
+     * @param now the current time.
+     */
+    synchronized void start(long now) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "start");
+        }
+
+        if (!mActive) {
+            mProbeStart = now;
+            mProbeCount = 0;
+        }
+    }
+
+    /**
+     * Record a received descriptor and collect it when the catch-up mode is active.
+     *
+     * @param now the current time.
+     * @param conversation the conversation.
+     * @param descriptor the received descriptor.
+     * @param kind the statistic to increment or null.
+     * @return true if the descriptor is collected and must not be processed now.
+     */
+    synchronized boolean record(long now, @NonNull Conversation conversation, @NonNull Descriptor descriptor,
+                                @Nullable StatType kind) {
+
+        if (!mActive) {
+            if (mProbeStart == 0 || now - mProbeStart > mProbeDelay) {
+                mProbeStart = 0;
+                return false;
+            }
+            mProbeCount++;
+            if (mProbeCount <= mThreshold) {
+                return false;
+            }
+
+            if (DEBUG) {
+                Log.d(LOG_TAG, "entering catch-up mode after " + mProbeCount + " descriptors");
+            }
+            mActive = true;
+            mProbeStart = 0;
+            mStartTime = now;
+        }
+
+        mLastTime = now;
+        mCount++;
+        if (kind != null) {
+            final RepositoryObject subject = conversation.getSubject();
+            final String key = subject.getId() + "/" + kind;
+            Stat stat = mStats.get(key);
+            if (stat == null) {
+                stat = new Stat(subject, kind);
+                mStats.put(key, stat);
+            }
+            stat.count++;
+        }
+
+        // Keep the descriptors ordered by their reception.
+        final String key = getKey(conversation, descriptor);
+        final Item previous = mDescriptors.remove(key);
+        mDescriptors.put(key, new Item(conversation, descriptor, previous == null ? 1 : previous.count + 1));
+        return true;
+    }
+
+    /**
+     * Get the delay to wait before the end of the catch-up.
+     *
+     * @param now the current time.
+     * @return the delay or 0 if no descriptor was received during the quiet delay or the catch-up is too long.
+     */
+    synchronized long getRemainingDelay(long now) {
+
+        final long delay = Math.min(mLastTime + mQuietDelay, mStartTime + mMaxDuration) - now;
+        return delay > 0 ? delay : 0;
+    }
+
+    /**
+     * Leave the catch-up mode and get the collected descriptors.
+     *
+     * @return the collected batch or null if the catch-up mode was not active.
+     */
+    @Nullable
+    synchronized Batch finish() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "finish: count=" + mCount);
+        }
+
+        if (!mActive) {
+            return null;
+        }
+
+        final Batch batch = new Batch(mCount, mStartTime, new ArrayList<>(mStats.values()),
+                new ArrayList<>(mDescriptors.values()));
+        mActive = false;
+        mCount = 0;
+        mStats.clear();
+        mDescriptors.clear();
+        return batch;
+    }
+
+    //
+    // Private methods
+    //
+
+    @NonNull
+    private static String getKey(@NonNull Conversation conversation, @NonNull Descriptor descriptor) {
+
+        switch (descriptor.getType()) {
+            case INVITATION_DESCRIPTOR:
+            case TWINCODE_DESCRIPTOR:
+            case CLEAR_DESCRIPTOR:
+                // Each of them has its own notification: they are never replaced by a later descriptor.
+                return descriptor.getDescriptorId().toString();
+
+            case OBJECT_DESCRIPTOR:
+            case IMAGE_DESCRIPTOR:
+            case AUDIO_DESCRIPTOR:
+            case VIDEO_DESCRIPTOR:
+            case NAMED_FILE_DESCRIPTOR:
+            case GEOLOCATION_DESCRIPTOR:
+                // The messages of the group members are aggregated with the messages of the group.
+                return conversation.getId().toString();
+
+            default:
+                return conversation.getId() + "/" + descriptor.getType();
+        }
+    }
+}
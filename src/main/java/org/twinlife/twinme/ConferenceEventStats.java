@@ -0,0 +1,43 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Metrics of the conference events recorded by the ConferenceOrchestrator.
+ */
+public final class ConferenceEventStats {
+    // Number of calls saved, merged with a pending call, failed and waiting to be saved.
+    public final long count;
+    public final long merged;
+    public final long failed;
+    public final int pending;
+    // Delay between the reception of the event and the call update.
+    public final long totalLatency;
+    public final long maxLatency;
+
+    ConferenceEventStats(long count, long merged, long failed, int pending, long totalLatency, long maxLatency) {
+
+        this.count = count;
+        this.merged = merged;
+        this.failed = failed;
+        this.pending = pending;
+        this.totalLatency = totalLatency;
+        this.maxLatency = maxLatency;
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+
+        return "count=" + count + " merged=" + merged + " failed=" + failed + " pending=" + pending
+                + " totalLatency=" + totalLatency + " maxLatency=" + maxLatency;
+    }
+}
@@ -12,16 +12,23 @@ package org.twinlife.twinme;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.twinlife.twinlife.BaseService.AttributeNameValue;
 import org.twinlife.twinlife.BaseService.ErrorCode;
 import org.twinlife.twinlife.ConversationService;
+import org.twinlife.twinlife.JobService;
 import org.twinlife.twinlife.TwincodeInboundService;
 import org.twinlife.twinlife.TwincodeInvocation;
 import org.twinlife.twinlife.TwincodeOutbound;
 import org.twinlife.twinme.models.CallReceiver;
 import org.twinlife.twinme.models.ConferenceProtocol;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -35,7 +42,42 @@ final class ConferenceOrchestrator implements TwincodeInboundService.InvocationL
     private static final String LOG_TAG = "ConferenceOrchestrator";
     private static final boolean DEBUG = false;
 
+    // Delay to collect the conference events before saving the calls.
+    private static final long RECORD_DELAY = 1000; // ms
+
+    // Delay and number of attempts to save a call before acknowledging its invocations with the error.
+    private static final long RETRY_DELAY = 10000; // ms
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final class PendingCall {
+        @NonNull
+        final CallReceiver conference;
+        final long startDate;
+        final long receiveTime;
+        long stopDate;
+        int attempts;
+        // The invocations acknowledged when the call is saved.
+        @NonNull
+        final List<UUID> invocationIds = new ArrayList<>();
+
+        PendingCall(@NonNull CallReceiver conference, long startDate, long stopDate, long receiveTime) {
+
+            this.conference = conference;
+            this.startDate = startDate;
+            this.stopDate = stopDate;
+            this.receiveTime = receiveTime;
+        }
+    }
+
     private final TwinmeContextImpl mTwinmeContext;
+    private final Map<String, PendingCall> mPendingCalls = new LinkedHashMap<>();
+    @Nullable
+    private JobService.Job mRecordJob;
+    private long mCount;
+    private long mMerged;
+    private long mFailed;
+    private long mTotalLatency;
+    private long mMaxLatency;
 
     ConferenceOrchestrator(@NonNull TwinmeContextImpl twinmeContext, @NonNull ExecutorService twinlifeExecutor) {
         mTwinmeContext = twinmeContext;
@@ -52,7 +94,37 @@ final class ConferenceOrchestrator implements TwincodeInboundService.InvocationL
         twincodeInboundService.addListener(ConferenceProtocol.ACTION_STOP, this);
     }
 
+    /**
+     * Get the number of recorded conference events and the delay between their reception and the call update.
+     *
+     * @return the conference event metrics.
+     */
+    @NonNull
+    synchronized ConferenceEventStats getStats() {
+
+        return new ConferenceEventStats(mCount, mMerged, mFailed, mPendingCalls.size(), mTotalLatency, mMaxLatency);
+    }
+
+    /**
+     * The user signed out: drop the calls not saved yet.  Their invocations are not acknowledged and
+     * the server will deliver them again.
+     */
+    void onSignOut() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onSignOut");
+        }
+
+        synchronized (this) {
+            if (mRecordJob != null) {
+                mRecordJob.cancel();
+                mRecordJob = null;
+            }
+            mPendingCalls.clear();
+        }
+    }
+
     @Override
+    @Nullable
     public ErrorCode onInvokeTwincode(@NonNull TwincodeInvocation invocation) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onInvokeTwincode: invocation=" + invocation);
@@ -71,7 +143,6 @@ final class ConferenceOrchestrator implements TwincodeInboundService.InvocationL
             return ErrorCode.SUCCESS;
         }
 
-        final ConversationService conversationService = mTwinmeContext.getConversationService();
         final long date = AttributeNameValue.getLongAttribute(invocation.attributes, ConferenceProtocol.PARAM_DATE, 0);
         ErrorCode errorCode;
         switch (invocation.action) {
@@ -80,19 +151,16 @@ final class ConferenceOrchestrator implements TwincodeInboundService.InvocationL
                 errorCode = ErrorCode.SUCCESS;
                 break;
 
+            // The invocation is acknowledged when the call is saved by the record job.
             case ConferenceProtocol.ACTION_START:
-                errorCode = conversationService.saveCall(conference, date, 0);
-                if (errorCode == ErrorCode.SUCCESS) {
-                    mTwinmeContext.getNotificationCenter().onConferenceEvent(conference, ConferenceEvent.START, date);
-                }
+                recordCall(invocation.invocationId, conference, date, 0);
+                errorCode = null;
                 break;
 
             case ConferenceProtocol.ACTION_STOP:
                 final long startDate = AttributeNameValue.getLongAttribute(invocation.attributes, ConferenceProtocol.PARAM_START, 0);
-                errorCode = conversationService.saveCall(conference, startDate, date);
-                if (errorCode == ErrorCode.SUCCESS) {
-                    mTwinmeContext.getNotificationCenter().onConferenceEvent(conference, ConferenceEvent.STOP, date);
-                }
+                recordCall(invocation.invocationId, conference, startDate, date);
+                errorCode = null;
                 break;
 
             default:
@@ -102,4 +170,123 @@ final class ConferenceOrchestrator implements TwincodeInboundService.InvocationL
 
         return errorCode;
     }
+
+    //
+    // Private methods
+    //
+
+    /**
+     * Queue the call to save: the calls are saved by the record job and the invocation is acknowledged
+     * once its call is saved.  A stop which is received before the start of the same call is saved is
+     * merged with it.
+     */
+    private void recordCall(@NonNull UUID invocationId, @NonNull CallReceiver conference, long startDate, long stopDate) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "recordCall: invocationId=" + invocationId + " conference=" + conference
+                    + " startDate=" + startDate + " stopDate=" + stopDate);
+        }
+
+        final String key = getKey(conference, startDate);
+        synchronized (this) {
+            PendingCall pending = mPendingCalls.get(key);
+            if (pending != null) {
+                if (stopDate != 0) {
+                    pending.stopDate = stopDate;
+                }
+                mMerged++;
+            } else {
+                pending = new PendingCall(conference, startDate, stopDate, System.currentTimeMillis());
+                mPendingCalls.put(key, pending);
+            }
+            pending.invocationIds.add(invocationId);
+
+            if (mRecordJob == null) {
+                mRecordJob = mTwinmeContext.getJobService().scheduleIn("Conference", this::recordJob,
+                        RECORD_DELAY, JobService.Priority.MESSAGE);
+            }
+        }
+    }
+
+    private void recordJob() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "recordJob");
+        }
+
+        final List<PendingCall> calls;
+        synchronized (this) {
+            mRecordJob = null;
+            calls = new ArrayList<>(mPendingCalls.values());
+            mPendingCalls.clear();
+        }
+
+        final ConversationService conversationService = mTwinmeContext.getConversationService();
+        final NotificationCenter notificationCenter = mTwinmeContext.getNotificationCenter();
+        for (PendingCall call : calls) {
+            final ErrorCode errorCode = conversationService.saveCall(call.conference, call.startDate, call.stopDate);
+            call.attempts++;
+            if (errorCode != ErrorCode.SUCCESS) {
+                Log.w(LOG_TAG, "Cannot save conference call: " + errorCode + " attempt " + call.attempts);
+
+                if (call.attempts < MAX_ATTEMPTS) {
+                    retryCall(call);
+                    continue;
+                }
+            }
+
+            final long latency = System.currentTimeMillis() - call.receiveTime;
+            synchronized (this) {
+                mCount++;
+                mTotalLatency += latency;
+                if (latency > mMaxLatency) {
+                    mMaxLatency = latency;
+                }
+                if (errorCode != ErrorCode.SUCCESS) {
+                    mFailed++;
+                }
+            }
+
+            for (UUID invocationId : call.invocationIds) {
+                mTwinmeContext.acknowledgeInvocation(invocationId, errorCode);
+            }
+            if (errorCode != ErrorCode.SUCCESS) {
+                continue;
+            }
+            if (call.stopDate != 0) {
+                notificationCenter.onConferenceEvent(call.conference, ConferenceEvent.STOP, call.stopDate);
+            } else {
+                notificationCenter.onConferenceEvent(call.conference, ConferenceEvent.START, call.startDate);
+            }
+        }
+    }
+
+    /**
+     * Queue again the call that was not saved, with the events received for it in the meantime.
+     */
+    private void retryCall(@NonNull PendingCall call) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "retryCall: conference=" + call.conference + " startDate=" + call.startDate);
+        }
+
+        final String key = getKey(call.conference, call.startDate);
+        synchronized (this) {
+            final PendingCall pending = mPendingCalls.put(key, call);
+            if (pending != null) {
+                if (pending.stopDate != 0) {
+                    call.stopDate = pending.stopDate;
+                }
+                call.invocationIds.addAll(pending.invocationIds);
+            }
+
+            if (mRecordJob == null) {
+                mRecordJob = mTwinmeContext.getJobService().scheduleIn("Conference", this::recordJob,
+                        RETRY_DELAY, JobService.Priority.MESSAGE);
+            }
+        }
+    }
+
+    @NonNull
+    private static String getKey(@NonNull CallReceiver conference, long startDate) {
+
+        return conference.getId() + "/" + startDate;
+    }
 }
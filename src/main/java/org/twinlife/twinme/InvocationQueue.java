@@ -0,0 +1,332 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded work queue for the twincode invocations handled by the RelationOrchestrator.
+ *
+ * Invocations are queued by priority and at most `maxRunning` of them are processed at the same time: an
+ * invocation is running from its start until it is acknowledged.  A pending invocation with the same key as
+ * an invocation already queued is merged with it: it is not processed and it is acknowledged with the result
+ * of the first one.  When the queue is full, the lowest priority invocations are rejected: they are not
+ * acknowledged and the server will deliver them again.  A running invocation which is not acknowledged after
+ * the stale delay releases its slot: the owner must call releaseStale() periodically while invocations are running.
+ */
+public final class InvocationQueue {
+    private static final String LOG_TAG = "InvocationQueue";
+    private static final boolean DEBUG = false;
+    private static final boolean INFO = org.twinlife.twinlife.BuildConfig.ENABLE_INFO_LOG;
+
+    public enum Priority {
+        // pair::invite, pair::bind, pair::unbind: creation and removal of relations.
+        PAIR,
+
+        // Group registration and subscription.
+        GROUP,
+
+        // pair::refresh: update of the peer twincode.
+        REFRESH
+    }
+
+    public static final class Stats {
+        public final long count;
+        public final long coalesced;
+        public final long rejected;
+        public final int depth;
+        public final int maxDepth;
+        public final int running;
+        public final long totalWaitTime;
+        public final long maxWaitTime;
+        public final long totalProcessingTime;
+        public final long maxProcessingTime;
+
+        Stats(long count, long coalesced, long rejected, int depth, int maxDepth, int running,
+              long totalWaitTime, long maxWaitTime, long totalProcessingTime, long maxProcessingTime) {
+
+            this.count = count;
+            this.coalesced = coalesced;
+            this.rejected = rejected;
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+            this.running = running;
+            this.totalWaitTime = totalWaitTime;
+            this.maxWaitTime = maxWaitTime;
+            this.totalProcessingTime = totalProcessingTime;
+            this.maxProcessingTime = maxProcessingTime;
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+
+            return "count=" + count + " coalesced=" + coalesced + " rejected=" + rejected + " depth=" + depth
+                    + " maxDepth=" + maxDepth + " running=" + running + " totalWait=" + totalWaitTime
+                    + " maxWait=" + maxWaitTime + " totalProcessing=" + totalProcessingTime
+                    + " maxProcessing=" + maxProcessingTime;
+        }
+    }
+
+    private static final class Item {
+        @NonNull
+        final UUID invocationId;
+        @Nullable
+        final String key;
+        @NonNull
+        final Runnable start;
+        final long queueTime;
+        long startTime;
+        @Nullable
+        List<UUID> coalesced;
+
+        Item(@NonNull UUID invocationId, @Nullable String key, @NonNull Runnable start, long queueTime) {
+
+            this.invocationId = invocationId;
+            this.key = key;
+            this.start = start;
+            this.queueTime = queueTime;
+        }
+    }
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final int mMaxRunning;
+    private final int mMaxDepth;
+    private final long mStaleDelay;
+    private final ArrayDeque<Item>[] mQueues;
+    private final Map<String, Item> mPendingKeys = new HashMap<>();
+    private final Map<UUID, Item> mRunning = new HashMap<>();
+    private int mDepth;
+    private long mCount;
+    private long mCoalesced;
+    private long mRejected;
+    private int mMaxDepthReached;
+    private long mTotalWaitTime;
+    private long mMaxWaitTime;
+    private long mTotalProcessingTime;
+    private long mMaxProcessingTime;
+
+    @SuppressWarnings("unchecked")
+    InvocationQueue(int maxRunning, int maxDepth, long staleDelay) {
+
+        mMaxRunning = Math.max(1, maxRunning);
+        mMaxDepth = Math.max(1, maxDepth);
+        mStaleDelay = staleDelay;
+        mQueues = new ArrayDeque[PRIORITIES.length];
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            mQueues[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Queue the invocation and start it when a slot is available.
+     *
+     * @param invocationId the invocation id.
+     * @param priority the invocation priority.
+     * @param key the key to merge the invocation with a pending one or null.
+     * @param start the operation that starts the processing of the invocation.
+     * @return false if the queue is full and the invocation is rejected.
+     */
+    boolean submit(@NonNull UUID invocationId, @NonNull Priority priority, @Nullable String key, @NonNull Runnable start) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "submit: invocationId=" + invocationId + " priority=" + priority + " key=" + key);
+        }
+
+        synchronized (this) {
+            if (key != null) {
+                final Item pending = mPendingKeys.get(key);
+                if (pending != null) {
+                    if (pending.coalesced == null) {
+                        pending.coalesced = new ArrayList<>();
+                    }
+                    pending.coalesced.add(invocationId);
+                    mCoalesced++;
+                    return true;
+                }
+            }
+
+            // Only the refresh can be lost: the invocation will be delivered again by the server.
+            if (mDepth >= mMaxDepth && priority == Priority.REFRESH) {
+                mRejected++;
+                if (INFO) {
+                    Log.i(LOG_TAG, "Invocation queue full, rejecting " + invocationId);
+                }
+                return false;
+            }
+
+            final Item item = new Item(invocationId, key, start, System.currentTimeMillis());
+            mQueues[priority.ordinal()].add(item);
+            if (key != null) {
+                mPendingKeys.put(key, item);
+            }
+            mCount++;
+            mDepth++;
+            if (mDepth > mMaxDepthReached) {
+                mMaxDepthReached = mDepth;
+            }
+        }
+
+        dispatch();
+        return true;
+    }
+
+    /**
+     * The invocation is acknowledged: release its slot and start the next invocations.
+     *
+     * @param invocationId the invocation id.
+     * @return the invocations merged with it that must be acknowledged with the same result or null.
+     */
+    @Nullable
+    List<UUID> complete(@NonNull UUID invocationId) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "complete: invocationId=" + invocationId);
+        }
+
+        final Item item;
+        synchronized (this) {
+            item = mRunning.remove(invocationId);
+            if (item == null) {
+                return null;
+            }
+            final long processingTime = System.currentTimeMillis() - item.startTime;
+            mTotalProcessingTime += processingTime;
+            if (processingTime > mMaxProcessingTime) {
+                mMaxProcessingTime = processingTime;
+            }
+        }
+
+        dispatch();
+        return item.coalesced;
+    }
+
+    /**
+     * Release the slots of the running invocations which are not acknowledged after the stale delay
+     * and start the next invocations.
+     */
+    void releaseStale() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "releaseStale");
+        }
+
+        synchronized (this) {
+            releaseStale(System.currentTimeMillis());
+        }
+
+        dispatch();
+    }
+
+    /**
+     * Check if some invocations are running and must be checked by releaseStale().
+     *
+     * @return true if some invocations are running.
+     */
+    synchronized boolean isRunning() {
+
+        return !mRunning.isEmpty();
+    }
+
+    /**
+     * Drop the pending and running invocations.  The metrics are kept.
+     */
+    synchronized void clear() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "clear");
+        }
+
+        for (ArrayDeque<Item> queue : mQueues) {
+            queue.clear();
+        }
+        mPendingKeys.clear();
+        mRunning.clear();
+        mDepth = 0;
+    }
+
+    /**
+     * Get the queue depth and processing time metrics.
+     *
+     * @return the queue metrics.
+     */
+    @NonNull
+    public synchronized Stats getStats() {
+
+        return new Stats(mCount, mCoalesced, mRejected, mDepth, mMaxDepthReached, mRunning.size(),
+                mTotalWaitTime, mMaxWaitTime, mTotalProcessingTime, mMaxProcessingTime);
+    }
+
+    //
+    // Private methods
+    //
+
+    private void dispatch() {
+
+        final List<Runnable> toStart = new ArrayList<>();
+        synchronized (this) {
+            final long now = System.currentTimeMillis();
+            if (mRunning.size() >= mMaxRunning) {
+                releaseStale(now);
+            }
+
+            while (mRunning.size() < mMaxRunning && mDepth > 0) {
+                Item item = null;
+                for (Priority priority : PRIORITIES) {
+                    item = mQueues[priority.ordinal()].poll();
+                    if (item != null) {
+                        break;
+                    }
+                }
+                if (item == null) {
+                    break;
+                }
+
+                mDepth--;
+                if (item.key != null) {
+                    mPendingKeys.remove(item.key);
+                }
+                item.startTime = now;
+                final long waitTime = now - item.queueTime;
+                mTotalWaitTime += waitTime;
+                if (waitTime > mMaxWaitTime) {
+                    mMaxWaitTime = waitTime;
+                }
+                mRunning.put(item.invocationId, item);
+                toStart.add(item.start);
+            }
+        }
+
+        for (Runnable start : toStart) {
+            start.run();
+        }
+    }
+
+    private void releaseStale(long now) {
+
+        final Iterator<Item> iterator = mRunning.values().iterator();
+        while (iterator.hasNext()) {
+            final Item item = iterator.next();
+            if (now - item.startTime > mStaleDelay) {
+                if (INFO) {
+                    Log.i(LOG_TAG, "Invocation " + item.invocationId + " not acknowledged, releasing its slot");
+                }
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * Priority lanes on top of the twinlife executor.
+ *
+ * Each task is queued in its lane and a drain operation is posted on the twinlife executor.  When a drain
+ * operation runs, it executes the oldest task of the highest priority lane which is not empty.  The twinlife
+ * executor keeps its single thread and its FIFO order for the drain operations but a realtime task submitted
+ * after a long list of background tasks is executed by the first drain operation that runs.  To bound the
+ * starvation of the lower lanes, a task which has waited more than the aging delay is executed first.
+ *
+ * The tasks of a lane are executed in order: the operations that must keep their order (for example on the
+ * same conversation) must be submitted to the same lane.
+ */
+public final class LaneExecutor implements Executor {
+    private static final String LOG_TAG = "LaneExecutor";
+    private static final boolean DEBUG = false;
+    private static final boolean INFO = org.twinlife.twinlife.BuildConfig.ENABLE_INFO_LOG;
+
+    // Report tasks that waited more than this delay in their lane.
+    private static final long SLOW_WAIT_DELAY = 1000; // ms
+
+    // A task which waited more than this delay runs before the tasks of the higher lanes.
+    private static final long AGING_DELAY = 1000; // ms
+
+    public enum Lane {
+        // Incoming calls, peer connections and messages pushed to the peers.
+        REALTIME,
+
+        // Operations started by the user and the observer results they are waiting for.
+        INTERACTIVE,
+
+        // Observer fan-out, statistics and bulk operations.
+        BACKGROUND
+    }
+
+    public static final class Stats {
+        public final long count;
+        public final int depth;
+        public final int maxDepth;
+        public final long totalWaitTime;
+        public final long maxWaitTime;
+
+        Stats(long count, int depth, int maxDepth, long totalWaitTime, long maxWaitTime) {
+
+            this.count = count;
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+            this.totalWaitTime = totalWaitTime;
+            this.maxWaitTime = maxWaitTime;
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+
+            return "count=" + count + " depth=" + depth + " maxDepth=" + maxDepth
+                    + " totalWait=" + totalWaitTime + " maxWait=" + maxWaitTime;
+        }
+    }
+
+    private static final class Task {
+        @NonNull
+        final Runnable runnable;
+        final long queueTime;
+
+        Task(@NonNull Runnable runnable, long queueTime) {
+
+            this.runnable = runnable;
+            this.queueTime = queueTime;
+        }
+    }
+
+    private static final Lane[] LANES = Lane.values();
+
+    @NonNull
+    private final Executor mExecutor;
+    private final long mAgingDelay;
+    private final ArrayDeque<Task>[] mQueues;
+    private final long[] mCount = new long[LANES.length];
+    private final int[] mMaxDepth = new int[LANES.length];
+    private final long[] mTotalWaitTime = new long[LANES.length];
+    private final long[] mMaxWaitTime = new long[LANES.length];
+
+    LaneExecutor(@NonNull Executor executor) {
+
+        this(executor, AGING_DELAY);
+    }
+
+    @SuppressWarnings("unchecked")
+    LaneExecutor(@NonNull Executor executor, long agingDelay) {
+
+        mExecutor = executor;
+        mAgingDelay = agingDelay;
+        mQueues = new ArrayDeque[LANES.length];
+        for (int i = 0; i < LANES.length; i++) {
+            mQueues[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Execute the task in the interactive lane.
+     *
+     * @param runnable the task to execute.
+     */
+    @Override
+    public void execute(@NonNull Runnable runnable) {
+
+        execute(Lane.INTERACTIVE, runnable);
+    }
+
+    /**
+     * Execute the task in the given lane.
+     *
+     * @param lane the lane.
+     * @param runnable the task to execute.
+     */
+    public void execute(@NonNull Lane lane, @NonNull Runnable runnable) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "execute: lane=" + lane);
+        }
+
+        final int index = lane.ordinal();
+        synchronized (this) {
+            final ArrayDeque<Task> queue = mQueues[index];
+            queue.add(new Task(runnable, System.currentTimeMillis()));
+            mCount[index]++;
+            if (queue.size() > mMaxDepth[index]) {
+                mMaxDepth[index] = queue.size();
+            }
+        }
+        mExecutor.execute(this::runNext);
+    }
+
+    /**
+     * Get an executor that submits its tasks to the given lane.
+     *
+     * @param lane the lane.
+     * @return the executor for the lane.
+     */
+    @NonNull
+    public Executor lane(@NonNull Lane lane) {
+
+        return (Runnable runnable) -> execute(lane, runnable);
+    }
+
+    /**
+     * Get the queue depth and wait time metrics of the lane.
+     *
+     * @param lane the lane.
+     * @return the lane metrics.
+     */
+    @NonNull
+    public synchronized Stats getStats(@NonNull Lane lane) {
+
+        final int index = lane.ordinal();
+        return new Stats(mCount[index], mQueues[index].size(), mMaxDepth[index], mTotalWaitTime[index], mMaxWaitTime[index]);
+    }
+
+    //
+    // Private methods
+    //
+
+    private void runNext() {
+
+        final Task task;
+        final Lane lane;
+        final long waitTime;
+        synchronized (this) {
+            final long now = System.currentTimeMillis();
+
+            // Take the oldest task that waited too long, or else the first task of the highest lane.
+            Lane first = null;
+            Lane aged = null;
+            long agedTime = 0;
+            for (Lane l : LANES) {
+                final Task head = mQueues[l.ordinal()].peek();
+                if (head == null) {
+                    continue;
+                }
+                if (first == null) {
+                    first = l;
+                }
+                if (now - head.queueTime > mAgingDelay && (aged == null || head.queueTime < agedTime)) {
+                    aged = l;
+                    agedTime = head.queueTime;
+                }
+            }
+            if (first == null) {
+                return;
+            }
+
+            lane = aged != null ? aged : first;
+            task = mQueues[lane.ordinal()].poll();
+            waitTime = now - task.queueTime;
+            mTotalWaitTime[lane.ordinal()] += waitTime;
+            if (waitTime > mMaxWaitTime[lane.ordinal()]) {
+                mMaxWaitTime[lane.ordinal()] = waitTime;
+            }
+        }
+
+        if (INFO && waitTime > SLOW_WAIT_DELAY) {
+            Log.i(LOG_TAG, "Task waited " + waitTime + " ms in lane " + lane);
+        }
+        task.runnable.run();
+    }
+}
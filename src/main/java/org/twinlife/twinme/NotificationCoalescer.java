@@ -0,0 +1,179 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.Notification;
+import org.twinlife.twinlife.NotificationService.NotificationType;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Merge the message notifications of the same originator and type that are created within a time window.
+ * The invitations and the conversation reset are never merged: each of them has its own notification.
+ *
+ * The first notification is created in the database and it is remembered with a count.  The next ones that
+ * arrive within the window after the previous one, while it is not acknowledged, only increment its count:
+ * no database row is inserted and the pending notification stats are not recomputed.  The counts are only
+ * kept in memory and they are lost when the application restarts.
+ */
+final class NotificationCoalescer {
+    private static final String LOG_TAG = "NotificationCoalescer";
+    private static final boolean DEBUG = false;
+
+    private static final class Entry {
+        @NonNull
+        final Notification notification;
+        int count;
+        long lastTime;
+
+        Entry(@NonNull Notification notification, int count, long lastTime) {
+
+            this.notification = notification;
+            this.count = count;
+            this.lastTime = lastTime;
+        }
+    }
+
+    private final long mWindow;
+    private final Map<String, Entry> mEntries = new HashMap<>();
+    private final Map<UUID, Entry> mNotifications = new HashMap<>();
+    private long mMergedCount;
+
+    NotificationCoalescer(long window) {
+
+        mWindow = window;
+    }
+
+    /**
+     * Merge a new notification with the pending notification of the originator.
+     *
+     * @param originatorId the originator id.
+     * @param type the notification type.
+     * @param count the number of messages of the new notification.
+     * @param now the current time.
+     * @return the pending notification or null if a new notification must be created.
+     */
+    @Nullable
+    synchronized Notification merge(@NonNull UUID originatorId, @NonNull NotificationType type, int count, long now) {
+
+        if (!isMessage(type)) {
+            return null;
+        }
+
+        final Entry entry = mEntries.get(getKey(originatorId, type));
+        if (entry == null || entry.notification.isAcknowledged() || now - entry.lastTime > mWindow) {
+            return null;
+        }
+
+        if (DEBUG) {
+            Log.d(LOG_TAG, "merge: originatorId=" + originatorId + " type=" + type + " count=" + entry.count);
+        }
+        entry.count += count;
+        entry.lastTime = now;
+        mMergedCount += count;
+        return entry.notification;
+    }
+
+    /**
+     * Remember the notification created for the originator.
+     *
+     * @param originatorId the originator id.
+     * @param notification the new notification.
+     * @param count the number of messages represented by the notification.
+     * @param now the current time.
+     */
+    synchronized void put(@NonNull UUID originatorId, @NonNull Notification notification, int count, long now) {
+
+        if (!isMessage(notification.getNotificationType())) {
+            return;
+        }
+
+        // Forget the notifications whose window has expired.
+        final Iterator<Entry> iterator = mEntries.values().iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (now - entry.lastTime > mWindow) {
+                iterator.remove();
+                mNotifications.remove(entry.notification.getId());
+            }
+        }
+
+        final Entry entry = new Entry(notification, count, now);
+        mMergedCount += count - 1;
+        final Entry previous = mEntries.put(getKey(originatorId, notification.getNotificationType()), entry);
+        if (previous != null) {
+            mNotifications.remove(previous.notification.getId());
+        }
+        mNotifications.put(notification.getId(), entry);
+    }
+
+    /**
+     * Forget the notification when it is acknowledged or deleted.
+     *
+     * @param notification the notification.
+     */
+    synchronized void remove(@NonNull Notification notification) {
+
+        final Entry entry = mNotifications.remove(notification.getId());
+        if (entry != null) {
+            mEntries.values().remove(entry);
+        }
+    }
+
+    /**
+     * Get the number of messages represented by the notification.
+     *
+     * @param notification the notification.
+     * @return the number of merged notifications, 1 when the notification was not merged.
+     */
+    synchronized int getCount(@NonNull Notification notification) {
+
+        final Entry entry = mNotifications.get(notification.getId());
+        return entry == null ? 1 : entry.count;
+    }
+
+    synchronized long getMergedCount() {
+
+        return mMergedCount;
+    }
+
+    //
+    // Private methods
+    //
+
+    private static boolean isMessage(@NonNull NotificationType type) {
+
+        switch (type) {
+            case NEW_TEXT_MESSAGE:
+            case NEW_IMAGE_MESSAGE:
+            case NEW_AUDIO_MESSAGE:
+            case NEW_VIDEO_MESSAGE:
+            case NEW_FILE_MESSAGE:
+            case NEW_GEOLOCATION:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    @NonNull
+    private static String getKey(@NonNull UUID originatorId, @NonNull NotificationType type) {
+
+        return originatorId + "/" + type;
+    }
+}
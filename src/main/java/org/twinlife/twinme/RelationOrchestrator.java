@@ -19,9 +19,9 @@ import androidx.annotation.Nullable;
 import org.twinlife.twinlife.AssertPoint;
 import org.twinlife.twinlife.BaseService;
 import org.twinlife.twinlife.ExportedImageId;
-import org.twinlife.twinlife.Filter;
 import org.twinlife.twinlife.ImageId;
 import org.twinlife.twinlife.ImageService;
+import org.twinlife.twinlife.JobService;
 import org.twinlife.twinlife.RepositoryObject;
 import org.twinlife.twinlife.RepositoryService;
 import org.twinlife.twinlife.Twincode;
@@ -30,6 +30,7 @@ import org.twinlife.twinlife.TwincodeInvocation;
 import org.twinlife.twinlife.TwincodeOutbound;
 import org.twinlife.twinlife.TwincodeOutboundService;
 import org.twinlife.twinlife.conversation.GroupProtocol;
+import org.twinlife.twinlife.util.Utils;
 import org.twinlife.twinme.executors.BindAccountMigrationExecutor;
 import org.twinlife.twinme.executors.BindContactExecutor;
 import org.twinlife.twinme.executors.CreateContactPhase2Executor;
@@ -54,7 +55,11 @@ import org.twinlife.twinme.models.PairUnbindInvocation;
 import org.twinlife.twinme.models.Profile;
 import org.twinlife.twinme.models.Space;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 
@@ -73,13 +78,70 @@ final class RelationOrchestrator implements TwincodeInboundService.InvocationLis
     private static final String LOG_TAG = "RelationOrchestrator";
     private static final boolean DEBUG = false;
 
+    // Number of invocations processed at the same time and number of pending invocations.
+    private static final int MAX_RUNNING_INVOCATIONS = 4;
+    private static final int MAX_PENDING_INVOCATIONS = 256;
+
+    // A running invocation which is not acknowledged after this delay releases its slot.
+    private static final long STALE_INVOCATION_DELAY = 60000; // ms
+
+    // Delay to collect the refreshes of the peer twincodes before updating the contacts and groups.
+    private static final long REFRESH_DEBOUNCE_DELAY = 500; // ms
+
+    private static final class PendingRefresh {
+        @NonNull
+        TwincodeOutbound twincodeOutbound;
+        @NonNull
+        final List<BaseService.AttributeNameValue> previousAttributes;
+
+        PendingRefresh(@NonNull TwincodeOutbound twincodeOutbound, @NonNull List<BaseService.AttributeNameValue> previousAttributes) {
+
+            this.twincodeOutbound = twincodeOutbound;
+            this.previousAttributes = previousAttributes;
+        }
+    }
+
     private final TwinmeContextImpl mTwinmeContext;
     private final ExecutorService mTwinlifeExecutor;
+    private final InvocationQueue mInvocationQueue;
+    private final Map<UUID, PendingRefresh> mPendingRefresh = new HashMap<>();
+    @Nullable
+    private JobService.Job mRefreshJob;
+    @Nullable
+    private JobService.Job mStaleJob;
 
     RelationOrchestrator(@NonNull TwinmeContextImpl twinmeContext, @NonNull ExecutorService twinlifeExecutor) {
 
         mTwinmeContext = twinmeContext;
         mTwinlifeExecutor = twinlifeExecutor;
+        mInvocationQueue = new InvocationQueue(MAX_RUNNING_INVOCATIONS, MAX_PENDING_INVOCATIONS, STALE_INVOCATION_DELAY);
+    }
+
+    @NonNull
+    InvocationQueue.Stats getInvocationStats() {
+
+        return mInvocationQueue.getStats();
+    }
+
+    /**
+     * The invocation was acknowledged: acknowledge the invocations that were merged with it and start
+     * the next pending invocations.
+     *
+     * @param invocationId the invocation id.
+     * @param errorCode the invocation result.
+     */
+    void onAcknowledgeInvocation(@NonNull UUID invocationId, @NonNull BaseService.ErrorCode errorCode) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onAcknowledgeInvocation: invocationId=" + invocationId + " errorCode=" + errorCode);
+        }
+
+        final List<UUID> coalesced = mInvocationQueue.complete(invocationId);
+        if (coalesced != null) {
+            final TwincodeInboundService twincodeInboundService = mTwinmeContext.getTwincodeInboundService();
+            for (UUID id : coalesced) {
+                twincodeInboundService.acknowledgeInvocation(id, errorCode);
+            }
+        }
     }
 
     void onTwinlifeReady() {
@@ -103,6 +165,29 @@ final class RelationOrchestrator implements TwincodeInboundService.InvocationLis
         repositoryService.addServiceObserver(this);
     }
 
+    /**
+     * The user signed out: drop the pending invocations and refreshes.  The invocations that are not
+     * acknowledged will be delivered again by the server.
+     */
+    void onSignOut() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onSignOut");
+        }
+
+        synchronized (this) {
+            if (mStaleJob != null) {
+                mStaleJob.cancel();
+                mStaleJob = null;
+            }
+            if (mRefreshJob != null) {
+                mRefreshJob.cancel();
+                mRefreshJob = null;
+            }
+            mPendingRefresh.clear();
+        }
+        mInvocationQueue.clear();
+    }
+
     @Override
     public void onInvalidObject(@NonNull RepositoryObject object) {
         if (DEBUG) {
@@ -137,6 +222,42 @@ final class RelationOrchestrator implements TwincodeInboundService.InvocationLis
             Log.d(LOG_TAG, "ConversationSynchronizeInvocation.onInvokeTwincode: invocation=" + invocation);
         }
 
+        // The invocation is processed when a slot is available; if the queue is full, it is not acknowledged
+        // and the server will deliver it again.
+        mInvocationQueue.submit(invocation.invocationId, getPriority(invocation), getCoalesceKey(invocation),
+                () -> startInvocation(invocation));
+        scheduleStaleJob();
+        return null;
+    }
+
+    @Override
+    public void onRefreshTwincode(@NonNull TwincodeOutbound twincodeOutbound,
+                                  @NonNull List<BaseService.AttributeNameValue> previousAttributes) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "TwincodeOutboundServiceObserver.onRefreshTwincode: twincodeOutbound=" + twincodeOutbound);
+        }
+
+        // Wait for the other refreshes of the burst: the changes are computed against the attributes
+        // before the first refresh and the objects are updated once.
+        synchronized (this) {
+            final PendingRefresh refresh = mPendingRefresh.get(twincodeOutbound.getId());
+            if (refresh != null) {
+                refresh.twincodeOutbound = twincodeOutbound;
+            } else {
+                mPendingRefresh.put(twincodeOutbound.getId(), new PendingRefresh(twincodeOutbound, previousAttributes));
+            }
+            if (mRefreshJob == null) {
+                mRefreshJob = mTwinmeContext.getJobService().scheduleIn("Refresh twincodes", this::refreshJob,
+                        REFRESH_DEBOUNCE_DELAY, JobService.Priority.MESSAGE);
+            }
+        }
+    }
+
+    private void startInvocation(@NonNull TwincodeInvocation invocation) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "startInvocation: invocation=" + invocation);
+        }
+
         final ProcessInvocationExecutor processInvocationExecutor = new ProcessInvocationExecutor(mTwinmeContext, invocation,
                 (BaseService.ErrorCode errorCode, Invocation newInvocation) -> {
                     if (errorCode != BaseService.ErrorCode.SUCCESS || newInvocation == null) {
@@ -146,17 +267,40 @@ final class RelationOrchestrator implements TwincodeInboundService.InvocationLis
                     onProcessInvocation(newInvocation);
                 });
         mTwinlifeExecutor.execute(processInvocationExecutor::start);
-        return null;
     }
 
-    @Override
-    public void onRefreshTwincode(@NonNull TwincodeOutbound twincodeOutbound,
-                                  @NonNull List<BaseService.AttributeNameValue> previousAttributes) {
-        if (DEBUG) {
-            Log.d(LOG_TAG, "TwincodeOutboundServiceObserver.onRefreshTwincode: twincodeOutbound=" + twincodeOutbound);
+    @NonNull
+    private static InvocationQueue.Priority getPriority(@NonNull TwincodeInvocation invocation) {
+
+        if (PairProtocol.ACTION_PAIR_REFRESH.equals(invocation.action)) {
+            return InvocationQueue.Priority.REFRESH;
+        } else if (GroupProtocol.ACTION_GROUP_REGISTERED.equals(invocation.action)
+                || GroupProtocol.ACTION_GROUP_SUBSCRIBE.equals(invocation.action)) {
+            return InvocationQueue.Priority.GROUP;
+        } else {
+            return InvocationQueue.Priority.PAIR;
         }
+    }
 
-        onRefreshTwincodeOutbound(twincodeOutbound, previousAttributes);
+    /**
+     * Get the key to merge the pair::refresh invocations: a single refresh of the subject is necessary, but for
+     * a group, the refreshed twincode of a member is given by the invocation attribute.
+     *
+     * @param invocation the invocation.
+     * @return the key or null if the invocation must not be merged.
+     */
+    @Nullable
+    private static String getCoalesceKey(@NonNull TwincodeInvocation invocation) {
+
+        if (!PairProtocol.ACTION_PAIR_REFRESH.equals(invocation.action)) {
+            return null;
+        }
+
+        UUID twincodeOutboundId = null;
+        if (invocation.attributes != null) {
+            twincodeOutboundId = BaseService.AttributeNameValue.getUUIDAttribute(invocation.attributes, PairProtocol.PARAM_TWINCODE_OUTBOUND_ID);
+        }
+        return invocation.subject.getId() + "/" + twincodeOutboundId;
     }
 
     private void onProcessInvocation(@NonNull Invocation invocation) {
@@ -254,6 +398,8 @@ final class RelationOrchestrator implements TwincodeInboundService.InvocationLis
                 mTwinmeContext.acknowledgeInvocation(invocation.getId(), BaseService.ErrorCode.BAD_REQUEST);
             }
         } else {
+            // These invocations are not acknowledged: release their slot.
+            mInvocationQueue.complete(invocation.getId());
             if (receiver instanceof Profile) {
                 mTwinmeContext.onUpdateProfile(BaseService.DEFAULT_REQUEST_ID, (Profile) receiver);
             } else if (receiver instanceof Contact) {
@@ -302,8 +448,92 @@ final class RelationOrchestrator implements TwincodeInboundService.InvocationLis
         mTwinlifeExecutor.execute(refreshObjectExecutor::start);
     }
 
-    private void onRefreshTwincodeOutbound(@NonNull TwincodeOutbound twincodeOutbound,
-                                           @NonNull List<BaseService.AttributeNameValue> previousAttributes) {
+    private void scheduleStaleJob() {
+
+        synchronized (this) {
+            if (mStaleJob == null && mInvocationQueue.isRunning()) {
+                mStaleJob = mTwinmeContext.getJobService().scheduleIn("Stale invocations", this::staleJob,
+                        STALE_INVOCATION_DELAY, JobService.Priority.MESSAGE);
+            }
+        }
+    }
+
+    private void staleJob() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "staleJob");
+        }
+
+        synchronized (this) {
+            mStaleJob = null;
+        }
+
+        // Release the slots of the invocations which are not acknowledged and check again while some are running.
+        mInvocationQueue.releaseStale();
+        scheduleStaleJob();
+    }
+
+    private void refreshJob() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "refreshJob");
+        }
+
+        final List<PendingRefresh> refreshList;
+        synchronized (this) {
+            mRefreshJob = null;
+            refreshList = new ArrayList<>(mPendingRefresh.values());
+            mPendingRefresh.clear();
+        }
+
+        final List<UUID> changedTwincodes = new ArrayList<>();
+        for (PendingRefresh refresh : refreshList) {
+            if (onRefreshTwincodeOutbound(refresh.twincodeOutbound, refresh.previousAttributes)) {
+                changedTwincodes.add(refresh.twincodeOutbound.getId());
+            }
+        }
+        if (changedTwincodes.isEmpty()) {
+            return;
+        }
+
+        // Look for the contacts and groups of every changed twincode and notify each of them once.
+        final Map<UUID, RepositoryObject> updatedObjects = new LinkedHashMap<>();
+        final int[] remaining = { changedTwincodes.size() };
+        for (UUID twincodeId : changedTwincodes) {
+            mTwinmeContext.findByTwincode(twincodeId, (BaseService.ErrorCode errorCode, List<RepositoryObject> objects) -> {
+                final List<RepositoryObject> notifyList;
+                synchronized (updatedObjects) {
+                    if (objects != null) {
+                        for (RepositoryObject object : objects) {
+                            if (object instanceof Contact || object instanceof Group) {
+                                updatedObjects.put(object.getId(), object);
+                            }
+                        }
+                    }
+                    remaining[0]--;
+                    notifyList = remaining[0] == 0 ? new ArrayList<>(updatedObjects.values()) : null;
+                }
+
+                if (notifyList != null) {
+                    for (RepositoryObject object : notifyList) {
+                        if (object instanceof Contact) {
+                            mTwinmeContext.onUpdateContact(BaseService.DEFAULT_REQUEST_ID, (Contact) object);
+                        } else {
+                            mTwinmeContext.onUpdateGroup(BaseService.DEFAULT_REQUEST_ID, (Group) object);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Compare the refreshed twincode with its previous attributes and get the new avatar when it has changed.
+     *
+     * @param twincodeOutbound the refreshed twincode.
+     * @param previousAttributes the twincode attributes before the first refresh of the burst.
+     * @return true if a visible attribute of the twincode has changed.
+     */
+    private boolean onRefreshTwincodeOutbound(@NonNull TwincodeOutbound twincodeOutbound,
+                                              @NonNull List<BaseService.AttributeNameValue> previousAttributes) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onRefreshTwincodeOutbound: twincodeOutbound=" + twincodeOutbound);
         }
@@ -315,22 +545,9 @@ final class RelationOrchestrator implements TwincodeInboundService.InvocationLis
             oldAvatarId = (ExportedImageId) oldAvatarAttribute.value;
         }
 
-        Filter<RepositoryObject> filter = new Filter<>(null);
-        filter.withTwincode(twincodeOutbound);
-        mTwinmeContext.findContacts(filter, (List<Contact> contacts) -> {
-            for (Contact contact : contacts) {
-                mTwinmeContext.onUpdateContact(BaseService.DEFAULT_REQUEST_ID, contact);
-            }
-        });
-
-        mTwinmeContext.findGroups(filter, (List<Group> groups) -> {
-            for (Group group : groups) {
-                mTwinmeContext.onUpdateGroup(BaseService.DEFAULT_REQUEST_ID, group);
-            }
-        });
-
         // Detect a change of the avatar to cleanup our database and get the new image.
-        if ((oldAvatarId == null && newAvatarId != null) || (oldAvatarId != null && !oldAvatarId.equals(newAvatarId))) {
+        final boolean avatarChanged = (oldAvatarId == null && newAvatarId != null) || (oldAvatarId != null && !oldAvatarId.equals(newAvatarId));
+        if (avatarChanged) {
             ImageService imageService = mTwinmeContext.getImageService();
             if (oldAvatarId != null) {
                 imageService.evictImage(oldAvatarId);
@@ -339,6 +556,19 @@ final class RelationOrchestrator implements TwincodeInboundService.InvocationLis
                 imageService.getImage(newAvatarId, ImageService.Kind.THUMBNAIL);
             }
         }
+
+        return avatarChanged
+                || isChanged(previousAttributes, Twincode.NAME, twincodeOutbound.getName())
+                || isChanged(previousAttributes, Twincode.DESCRIPTION, twincodeOutbound.getDescription())
+                || isChanged(previousAttributes, Twincode.CAPABILITIES, twincodeOutbound.getCapabilities());
+    }
+
+    private static boolean isChanged(@NonNull List<BaseService.AttributeNameValue> previousAttributes,
+                                     @NonNull String name, @Nullable String value) {
+
+        final BaseService.AttributeNameValue attribute = BaseService.AttributeNameValue.getAttribute(previousAttributes, name);
+        final Object previousValue = attribute == null ? null : attribute.value;
+        return !Utils.equals(previousValue, value);
     }
 
     private void bindAccountMigration(@NonNull PairInviteInvocation invocation, @NonNull AccountMigration accountMigration) {
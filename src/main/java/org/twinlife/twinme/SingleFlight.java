@@ -0,0 +1,203 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.BaseService.ErrorCode;
+import org.twinlife.twinlife.Consumer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Merge concurrent fetches of the same object into a single underlying fetch.
+ *
+ * The first caller for a (kind, id) key starts the fetch, the callers that arrive while it is in progress are
+ * queued and all of them receive the same result.  The key is released when the fetch completes so that the
+ * next request reads the object again.  A fetch which has not completed after the timeout is no longer
+ * joined: the next request starts a new fetch and the queued callers receive its result.
+ */
+final class SingleFlight {
+    private static final String LOG_TAG = "SingleFlight";
+    private static final boolean DEBUG = false;
+
+    static final int CONTACT = 1;
+    static final int GROUP = 2;
+    static final int INVITATION = 3;
+    static final int CALL_RECEIVER = 4;
+    static final int ACCOUNT_MIGRATION = 5;
+    static final int GROUP_MEMBER = 6;
+
+    interface Fetcher<T> {
+        void fetch(@NonNull Consumer<T> complete);
+    }
+
+    private static final class Key {
+        final int kind;
+        @NonNull
+        final UUID id;
+        @Nullable
+        final UUID subId;
+
+        Key(int kind, @NonNull UUID id, @Nullable UUID subId) {
+
+            this.kind = kind;
+            this.id = id;
+            this.subId = subId;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+
+            if (!(object instanceof Key)) {
+                return false;
+            }
+
+            final Key key = (Key) object;
+            return kind == key.kind && id.equals(key.id) && (subId == null ? key.subId == null : subId.equals(key.subId));
+        }
+
+        @Override
+        public int hashCode() {
+
+            int result = kind;
+            result = 31 * result + id.hashCode();
+            result = 31 * result + (subId == null ? 0 : subId.hashCode());
+            return result;
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+
+            return "Key[" + kind + " " + id + (subId == null ? "" : " " + subId) + "]";
+        }
+    }
+
+    private static final class Pending {
+        final long startTime;
+        @NonNull
+        final List<Consumer<?>> consumers;
+
+        Pending(long startTime, @NonNull List<Consumer<?>> consumers) {
+
+            this.startTime = startTime;
+            this.consumers = consumers;
+        }
+    }
+
+    private final long mTimeout;
+    private final Map<Key, Pending> mPending = new HashMap<>();
+    private long mRequestCount;
+    private long mMergedCount;
+
+    SingleFlight(long timeout) {
+
+        mTimeout = timeout;
+    }
+
+    /**
+     * Fetch the object identified by the kind and id(s) or wait for the fetch already in progress.
+     *
+     * @param kind the object kind.
+     * @param id the object id.
+     * @param subId an optional second id when the object is identified by two ids.
+     * @param consumer the consumer called with the result.
+     * @param fetcher the fetch operation started when there is no fetch in progress.
+     */
+    <T> void execute(int kind, @NonNull UUID id, @Nullable UUID subId, @NonNull Consumer<T> consumer,
+                     @NonNull Fetcher<T> fetcher) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "execute: kind=" + kind + " id=" + id + " subId=" + subId);
+        }
+
+        final Key key = new Key(kind, id, subId);
+        final Pending pending;
+        synchronized (this) {
+            mRequestCount++;
+            final long now = System.currentTimeMillis();
+            final Pending previous = mPending.get(key);
+            if (previous != null && now - previous.startTime < mTimeout) {
+                mMergedCount++;
+                previous.consumers.add(consumer);
+                return;
+            }
+
+            // The previous fetch is lost: its callers wait for the new one.
+            final List<Consumer<?>> list = previous == null ? new ArrayList<>(1) : previous.consumers;
+            list.add(consumer);
+            pending = new Pending(now, list);
+            mPending.put(key, pending);
+        }
+
+        fetcher.fetch((ErrorCode errorCode, T object) -> onComplete(key, pending, errorCode, object));
+    }
+
+    /**
+     * Get the number of fetch requests.
+     *
+     * @return the number of requests.
+     */
+    synchronized long getRequestCount() {
+
+        return mRequestCount;
+    }
+
+    /**
+     * Get the number of fetch requests that were merged with a fetch in progress.
+     *
+     * @return the number of merged requests.
+     */
+    synchronized long getMergedCount() {
+
+        return mMergedCount;
+    }
+
+    /**
+     * Forget the fetches in progress: their callers are not called.
+     */
+    synchronized void clear() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "clear");
+        }
+
+        mPending.clear();
+    }
+
+    //
+    // Private methods
+    //
+
+    @SuppressWarnings("unchecked")
+    private <T> void onComplete(@NonNull Key key, @NonNull Pending pending, @NonNull ErrorCode errorCode,
+                                @Nullable T object) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onComplete: key=" + key + " errorCode=" + errorCode);
+        }
+
+        // Ignore the result of a fetch that was replaced after its timeout or dropped by clear().
+        synchronized (this) {
+            if (mPending.get(key) != pending) {
+                return;
+            }
+            mPending.remove(key);
+        }
+
+        for (Consumer<?> consumer : pending.consumers) {
+            ((Consumer<T>) consumer).onGet(errorCode, object);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.BaseService.ErrorCode;
+import org.twinlife.twinlife.Consumer;
+import org.twinlife.twinlife.Filter;
+import org.twinlife.twinlife.RepositoryObject;
+import org.twinlife.twinlife.RepositoryObjectFactory;
+import org.twinlife.twinlife.RepositoryService;
+import org.twinlife.twinlife.TwincodeOutbound;
+import org.twinlife.twinlife.TwinlifeContext;
+import org.twinlife.twinme.models.CallReceiverFactory;
+import org.twinlife.twinme.models.ContactFactory;
+import org.twinlife.twinme.models.GroupFactory;
+import org.twinlife.twinme.models.InvitationFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory index of the invitations, contacts, groups and call receivers by their twincode outbound
+ * and peer twincode outbound ids.
+ *
+ * The index is populated on the first lookup by loading the objects once from the repository and it is then
+ * maintained by the TwinmeContextImpl create/update/delete callbacks.  Lookups that arrive while the index is
+ * loaded are queued and answered when the load completes.  When the load fails, the queued lookups receive the
+ * error and the load is started again by the next lookup.
+ */
+final class TwincodeIndex {
+    private static final String LOG_TAG = "TwincodeIndex";
+    private static final boolean DEBUG = false;
+    private static final boolean INFO = org.twinlife.twinlife.BuildConfig.ENABLE_INFO_LOG;
+
+    private static final RepositoryObjectFactory<?>[] FACTORIES = {
+            InvitationFactory.INSTANCE,
+            ContactFactory.INSTANCE,
+            GroupFactory.INSTANCE,
+            CallReceiverFactory.INSTANCE
+    };
+
+    private static final class PendingLookup {
+        @NonNull
+        final UUID twincodeId;
+        @NonNull
+        final Consumer<List<RepositoryObject>> consumer;
+
+        PendingLookup(@NonNull UUID twincodeId, @NonNull Consumer<List<RepositoryObject>> consumer) {
+
+            this.twincodeId = twincodeId;
+            this.consumer = consumer;
+        }
+    }
+
+    private final TwinlifeContext mTwinlifeContext;
+    private final Map<UUID, List<RepositoryObject>> mObjects = new HashMap<>();
+    private final Map<UUID, UUID[]> mKeys = new HashMap<>();
+    @Nullable
+    private List<PendingLookup> mPendingLookups;
+    private boolean mLoaded;
+    private int mLoadCount;
+    @NonNull
+    private ErrorCode mLoadError = ErrorCode.SUCCESS;
+    // Incremented by clear() so that the results of a load started before are discarded.
+    private int mGeneration;
+
+    TwincodeIndex(@NonNull TwinlifeContext twinlifeContext) {
+
+        mTwinlifeContext = twinlifeContext;
+    }
+
+    /**
+     * Add or update the object in the index.
+     *
+     * @param object the invitation, contact, group or call receiver.
+     */
+    void put(@NonNull RepositoryObject object) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "put: object=" + object);
+        }
+
+        final TwincodeOutbound twincodeOutbound = object.getTwincodeOutbound();
+        final TwincodeOutbound peerTwincodeOutbound = object.getPeerTwincodeOutbound();
+        final UUID[] keys = {
+                twincodeOutbound == null ? null : twincodeOutbound.getId(),
+                peerTwincodeOutbound == null ? null : peerTwincodeOutbound.getId()
+        };
+
+        synchronized (this) {
+            removeKeys(object.getId());
+            for (UUID key : keys) {
+                if (key != null) {
+                    List<RepositoryObject> list = mObjects.get(key);
+                    if (list == null) {
+                        list = new ArrayList<>(1);
+                        mObjects.put(key, list);
+                    }
+                    list.add(object);
+                }
+            }
+            mKeys.put(object.getId(), keys);
+        }
+    }
+
+    /**
+     * Remove the object from the index.
+     *
+     * @param objectId the object id.
+     */
+    synchronized void remove(@NonNull UUID objectId) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "remove: objectId=" + objectId);
+        }
+
+        removeKeys(objectId);
+    }
+
+    void clear() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "clear");
+        }
+
+        final List<PendingLookup> pendingLookups;
+        synchronized (this) {
+            mObjects.clear();
+            mKeys.clear();
+            mLoaded = false;
+            mLoadCount = 0;
+            mLoadError = ErrorCode.SUCCESS;
+            mGeneration++;
+            pendingLookups = mPendingLookups;
+            mPendingLookups = null;
+        }
+
+        // The lookups waiting for the load that is abandoned find nothing.
+        if (pendingLookups != null) {
+            for (PendingLookup pendingLookup : pendingLookups) {
+                pendingLookup.consumer.onGet(ErrorCode.SUCCESS, new ArrayList<>());
+            }
+        }
+    }
+
+    /**
+     * Find the objects which are using the twincode either as their twincode outbound or as their peer
+     * twincode outbound.  The consumer is called from the twinlife executor or from the caller's thread
+     * when the index is already loaded.
+     *
+     * @param twincodeId the twincode outbound id.
+     * @param consumer the consumer called with the list of objects.
+     */
+    void find(@NonNull UUID twincodeId, @NonNull Consumer<List<RepositoryObject>> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "find: twincodeId=" + twincodeId);
+        }
+
+        final List<RepositoryObject> result;
+        final boolean load;
+        final int generation;
+        synchronized (this) {
+            generation = mGeneration;
+            if (!mLoaded) {
+                load = mPendingLookups == null;
+                if (load) {
+                    mPendingLookups = new ArrayList<>();
+                    mLoadCount = FACTORIES.length;
+                    mLoadError = ErrorCode.SUCCESS;
+                }
+                mPendingLookups.add(new PendingLookup(twincodeId, consumer));
+                result = null;
+            } else {
+                load = false;
+                result = lookup(twincodeId);
+            }
+        }
+
+        if (result != null) {
+            consumer.onGet(ErrorCode.SUCCESS, result);
+
+        } else if (load) {
+            final RepositoryService repositoryService = mTwinlifeContext.getRepositoryService();
+            for (RepositoryObjectFactory<?> factory : FACTORIES) {
+                repositoryService.listObjects(factory, new Filter<>(null),
+                        (ErrorCode errorCode, List<RepositoryObject> list) -> onListObjects(generation, errorCode, list));
+            }
+        }
+    }
+
+    //
+    // Private methods
+    //
+
+    private void onListObjects(int generation, @NonNull ErrorCode errorCode, @Nullable List<RepositoryObject> list) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onListObjects: generation=" + generation + " errorCode=" + errorCode + " list=" + list);
+        }
+
+        final List<PendingLookup> pendingLookups;
+        final List<List<RepositoryObject>> results;
+        final ErrorCode loadError;
+        synchronized (this) {
+            // The index was cleared while this load was running: drop its result.
+            if (generation != mGeneration) {
+                return;
+            }
+
+            if (errorCode != ErrorCode.SUCCESS || list == null) {
+                mLoadError = errorCode != ErrorCode.SUCCESS ? errorCode : ErrorCode.ITEM_NOT_FOUND;
+            } else {
+                for (RepositoryObject object : list) {
+                    put(object);
+                }
+            }
+
+            mLoadCount--;
+            if (mLoadCount > 0 || mPendingLookups == null) {
+                return;
+            }
+
+            // The index is not loaded when a factory failed: drop the partial content, the next lookup
+            // starts a new load which reads every object again.
+            loadError = mLoadError;
+            mLoaded = loadError == ErrorCode.SUCCESS;
+            if (!mLoaded) {
+                mObjects.clear();
+                mKeys.clear();
+            }
+            pendingLookups = mPendingLookups;
+            mPendingLookups = null;
+            results = new ArrayList<>(pendingLookups.size());
+            for (PendingLookup pendingLookup : pendingLookups) {
+                results.add(mLoaded ? lookup(pendingLookup.twincodeId) : null);
+            }
+        }
+
+        if (loadError != ErrorCode.SUCCESS && INFO) {
+            Log.i(LOG_TAG, "Cannot load the twincode index: " + loadError);
+        }
+        for (int i = 0; i < pendingLookups.size(); i++) {
+            pendingLookups.get(i).consumer.onGet(loadError, results.get(i));
+        }
+    }
+
+    @NonNull
+    private List<RepositoryObject> lookup(@NonNull UUID twincodeId) {
+
+        final List<RepositoryObject> list = mObjects.get(twincodeId);
+        if (list == null) {
+
+            return new ArrayList<>();
+        }
+
+        // Check the twincodes again in case an object was changed without notifying the TwinmeContextImpl.
+        final List<RepositoryObject> result = new ArrayList<>(list.size());
+        for (RepositoryObject object : list) {
+            final TwincodeOutbound twincodeOutbound = object.getTwincodeOutbound();
+            final TwincodeOutbound peerTwincodeOutbound = object.getPeerTwincodeOutbound();
+            if ((twincodeOutbound != null && twincodeId.equals(twincodeOutbound.getId()))
+                    || (peerTwincodeOutbound != null && twincodeId.equals(peerTwincodeOutbound.getId()))) {
+                result.add(object);
+            }
+        }
+        return result;
+    }
+
+    private void removeKeys(@NonNull UUID objectId) {
+
+        final UUID[] keys = mKeys.remove(objectId);
+        if (keys == null) {
+            return;
+        }
+
+        for (UUID key : keys) {
+            final List<RepositoryObject> list = key == null ? null : mObjects.get(key);
+            if (list != null) {
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    if (objectId.equals(list.get(i).getId())) {
+                        list.remove(i);
+                    }
+                }
+                if (list.isEmpty()) {
+                    mObjects.remove(key);
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2014-2024 twinlife SA.
+ *  Copyright (c) 2014-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -126,8 +126,12 @@ public interface TwinmeContext extends TwinlifeContext {
 
         void onAddNotification(@NonNull Notification notification);
 
+        void onUpdateNotification(@NonNull Notification notification, int count);
+
         void onAcknowledgeNotification(long requestId, @NonNull Notification notification);
 
+        void onAcknowledgeNotifications(long requestId, @NonNull List<Notification> notifications);
+
         void onDeleteNotification(long requestId, @NonNull UUID notificationId);
 
         void onUpdatePendingNotifications(long requestId, boolean hasPendingNotifications);
@@ -239,10 +243,22 @@ public interface TwinmeContext extends TwinlifeContext {
         public void onAddNotification(@NonNull Notification notification) {
         }
 
+        @Override
+        public void onUpdateNotification(@NonNull Notification notification, int count) {
+        }
+
         @Override
         public void onAcknowledgeNotification(long requestId, @NonNull Notification notification) {
         }
 
+        @Override
+        public void onAcknowledgeNotifications(long requestId, @NonNull List<Notification> notifications) {
+
+            for (Notification notification : notifications) {
+                onAcknowledgeNotification(requestId, notification);
+            }
+        }
+
         @Override
         public void onDeleteNotification(long requestId, @NonNull UUID notificationId) {
         }
@@ -560,6 +576,18 @@ public interface TwinmeContext extends TwinlifeContext {
 
     void roomListMembers(long requestId, @NonNull Contact contact, @NonNull String filter);
 
+    /**
+     * Get one page of the Twinroom members.  The Twinroom answers with a paged RoomCommandResult whose
+     * getNextCursor() must be given to get the next page.
+     *
+     * @param requestId the request id.
+     * @param contact the Twinroom contact.
+     * @param filter the member filter.
+     * @param cursor the cursor returned by the previous page or 0 for the first page.
+     * @param pageSize the maximum number of members in the page.
+     */
+    void roomListMembers(long requestId, @NonNull Contact contact, @NonNull String filter, long cursor, int pageSize);
+
     //
     // Account migration management
     //
@@ -616,6 +644,26 @@ public interface TwinmeContext extends TwinlifeContext {
 
     void acknowledgeNotification(long requestId, @NonNull Notification notification);
 
+    /**
+     * Acknowledge a list of notifications with a single onAcknowledgeNotifications() observer event and
+     * a single refresh of the notification stats.
+     *
+     * @param requestId the request id.
+     * @param notifications the notifications to acknowledge.
+     */
+    void acknowledgeNotifications(long requestId, @NonNull List<Notification> notifications);
+
+    /**
+     * Get the number of messages represented by a notification.  The message notifications of the same originator
+     * and type created within a short window are merged in the first one until it is acknowledged, and the
+     * observers are told by onUpdateNotification().  The count is only kept in memory: it is not persisted
+     * and it is lost when the application restarts.
+     *
+     * @param notification the notification.
+     * @return the number of messages merged in the notification, 1 when it was not merged.
+     */
+    int getNotificationCount(@NonNull Notification notification);
+
     void deleteNotification(long requestId, @NonNull Notification notification);
 
     void getSpaceNotificationStats(@NonNull ConsumerWithError<NotificationService.NotificationStat> consumer);
@@ -13,6 +13,7 @@ package org.twinlife.twinme;
 
 import android.graphics.Bitmap;
 import android.net.Uri;
+import android.util.Base64;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -55,9 +56,11 @@ import org.twinlife.twinlife.TwinlifeContext;
 import org.twinlife.twinlife.TwinlifeContextImpl;
 import org.twinlife.twinlife.TwinlifeImpl;
 import org.twinlife.twinlife.util.BinaryDecoder;
+import org.twinlife.twinlife.util.BinaryEncoder;
 import org.twinlife.twinlife.util.EventMonitor;
 import org.twinlife.twinlife.util.Logger;
 import org.twinlife.twinlife.util.Utils;
+import org.twinlife.twinme.LaneExecutor.Lane;
 import org.twinlife.twinme.actions.TwinmeAction;
 import org.twinlife.twinme.executors.BindAccountMigrationExecutor;
 import org.twinlife.twinme.executors.ChangeCallReceiverTwincodeExecutor;
@@ -119,16 +122,20 @@ import org.twinlife.twinme.models.RoomConfig;
 import org.twinlife.twinme.models.Space;
 import org.twinlife.twinme.models.SpaceSettings;
 import org.twinlife.twinme.models.SpaceSettingsFactory;
+import org.twinlife.twinme.models.SpacesSnapshot;
 import org.twinlife.twinme.util.LocationReport;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
@@ -144,6 +151,15 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
     private static final boolean DELETE_CONTACT_ON_UNBIND_CONTACT = BuildConfig.DELETE_CONTACT_ON_UNBIND_CONTACT;
     private static final int NOTIFICATION_REFRESH_DELAY = 1000; // 1 second
+    private static final long NOTIFICATION_COALESCE_WINDOW = 60000; // 1 minute
+    private static final long FETCH_TIMEOUT = 30000; // 30 seconds
+
+    // Catch-up mode entered when more than CATCHUP_THRESHOLD descriptors are received within CATCHUP_PROBE_DELAY
+    // after the reconnection and left when no descriptor is received for CATCHUP_QUIET_DELAY.
+    private static final int CATCHUP_THRESHOLD = 20;
+    private static final long CATCHUP_PROBE_DELAY = 10000; // ms
+    private static final long CATCHUP_QUIET_DELAY = 2000; // ms
+    private static final long CATCHUP_MAX_DURATION = 60000; // ms
     public static final boolean GET_REMOTE_OBJECTS = false;
 
     private static final String AES_MODE = "AES/CBC/PKCS7Padding";
@@ -227,7 +243,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
                 Log.d(LOG_TAG, "TwincodeOutboundServiceObserver.onIncomingPeerConnection: peerConnectionId=" + peerConnectionId + " peerId=" + peerId);
             }
 
-            TwinmeContextImpl.this.onIncomingPeerConnection(peerConnectionId, peerId, offer);
+            mLanes.execute(Lane.REALTIME, () -> TwinmeContextImpl.this.onIncomingPeerConnection(peerConnectionId, peerId, offer));
         }
     }
 
@@ -270,17 +286,33 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
     private final PeerConnectionServiceObserver mPeerConnectionServiceObserver;
     private final NotificationServiceObserver mNotificationServiceObserver;
     private final RelationOrchestrator mRelationOrchestrator;
+    private final TwincodeIndex mTwincodeIndex;
+    private final SingleFlight mSingleFlight = new SingleFlight(FETCH_TIMEOUT);
+    private final LaneExecutor mLanes;
     private final ConferenceOrchestrator mConferenceOrchestrator;
     private final boolean mEnableSpaces;
     private final TreeSet<TwinmeAction> mPendingActions;
     private TwinmeAction mFirstAction;
     private JobService.Job mActionTimeoutJob;
     private JobService.Job mNotificationRefreshJob;
+    @Nullable
+    private JobService.Job mSaveLocationJob;
+    private final NotificationCoalescer mNotificationCoalescer = new NotificationCoalescer(NOTIFICATION_COALESCE_WINDOW);
+    private final CatchUpBuffer mCatchUp = new CatchUpBuffer(CATCHUP_THRESHOLD, CATCHUP_PROBE_DELAY,
+            CATCHUP_QUIET_DELAY, CATCHUP_MAX_DURATION);
+    @Nullable
+    private JobService.Job mCatchUpJob;
     private NotificationStat mVisibleNotificationStat;
     private long mReportRequestId = BaseService.DEFAULT_REQUEST_ID;
+    private final long mStartTime;
+    @Nullable
+    private volatile SpacesSnapshot mSnapshot;
+    @Nullable
+    private String mSavedSnapshot;
 
     private static final ConfigIdentifier DEFAULT_SPACE_ID = new ConfigIdentifier("spaces", "defaultSpaceId", "D7E5E971-2813-4418-AD23-D9DE2E1D085F");
     private static final ConfigIdentifier DEFAULT_SETTINGS_ID = new ConfigIdentifier("spaces", "defaultSettingId", "f80f7791-15a7-4944-b743-99a84eba6fba");
+    private static final ConfigIdentifier SPACES_SNAPSHOT = new ConfigIdentifier("spaces", "snapshot", "5c0f2a4e-8b7d-4f3a-9e61-3d2b7c9a1f08");
 
     public TwinmeContextImpl(@NonNull TwinmeApplication twinmeApplication,
                              @NonNull TwinmeConfiguration twinmeConfiguration,
@@ -295,6 +327,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "TwinmeContextImpl: twinmeApplication=" + twinmeApplication + " twinmeConfiguration=" + twinmeConfiguration);
         }
 
+        mStartTime = System.currentTimeMillis();
         mTwinmeApplication = twinmeApplication;
         mEnableSpaces = twinmeConfiguration.enableSpaces;
 
@@ -304,6 +337,8 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         mPeerConnectionServiceObserver = new PeerConnectionServiceObserver();
         mNotificationServiceObserver = new NotificationServiceObserver();
         mRelationOrchestrator = new RelationOrchestrator(this, mTwinlifeExecutor);
+        mTwincodeIndex = new TwincodeIndex(this);
+        mLanes = new LaneExecutor(mTwinlifeExecutor);
         mConferenceOrchestrator = new ConferenceOrchestrator(this, mTwinlifeExecutor);
 
         mPendingActions = new TreeSet<>();
@@ -312,6 +347,16 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         ConfigurationService.Configuration spaceConfiguration = configurationService.getConfiguration(DEFAULT_SPACE_ID);
         mDefaultSpaceId = Utils.UUIDFromString(spaceConfiguration.getStringConfig(DEFAULT_SPACE_ID, null));
         mDefaultSettingsId = Utils.UUIDFromString(spaceConfiguration.getStringConfig(DEFAULT_SETTINGS_ID, null));
+
+        // Read the spaces snapshot so that the current space, the default space and the default settings
+        // are known before the GetSpacesExecutor has loaded every space and profile (they are validated later).
+        mSavedSnapshot = spaceConfiguration.getStringConfig(SPACES_SNAPSHOT, null);
+        mSnapshot = readSpacesSnapshot(mSavedSnapshot);
+        if (mSnapshot != null) {
+            mDefaultSpaceSettings = mSnapshot.getDefaultSettings();
+            mHasSpaces = mSnapshot.hasSpaces();
+            mHasProfiles = mSnapshot.hasProfiles();
+        }
     }
 
     @Override
@@ -484,7 +529,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "getProfiles: requestId=" + requestId);
         }
 
-        mTwinlifeExecutor.execute(() -> {
+        mLanes.execute(() -> {
             final RepositoryService repositoryService = getRepositoryService();
 
             final Filter<RepositoryObject> filter = createSpaceFilter();
@@ -523,7 +568,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
         CreateProfileExecutor createProfileExecutor = new CreateProfileExecutor(this, requestId, name, avatar, avatarFile,
                 description, capabilities, DEFAULT_TIMEOUT);
-        mTwinlifeExecutor.execute(createProfileExecutor::start);
+        mLanes.execute(createProfileExecutor::start);
     }
 
     @Override
@@ -535,7 +580,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         CreateProfileExecutor createProfileExecutor = new CreateProfileExecutor(this, requestId, name, avatar, avatarFile, description, capabilities, space);
-        mTwinlifeExecutor.execute(createProfileExecutor::start);
+        mLanes.execute(createProfileExecutor::start);
     }
 
     public void onCreateProfile(long requestId, @NonNull Profile profile) {
@@ -548,7 +593,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onCreateProfile(requestId, profile));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onCreateProfile(requestId, profile));
             }
         }
     }
@@ -565,7 +610,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
         UpdateProfileExecutor updateProfileExecutor = new UpdateProfileExecutor(this, requestId, profile, updateMode,
                 identityName, identityAvatar, identityAvatarFile, description, capabilities);
-        mTwinlifeExecutor.execute(updateProfileExecutor::start);
+        mLanes.execute(updateProfileExecutor::start);
     }
 
     public void onUpdateProfile(long requestId, @NonNull Profile profile) {
@@ -578,7 +623,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onUpdateProfile(requestId, profile));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onUpdateProfile(requestId, profile));
             }
         }
     }
@@ -591,7 +636,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
         ChangeProfileTwincodeExecutor updateProfileExecutor = new ChangeProfileTwincodeExecutor(this,
                 profile, consumer);
-        mTwinlifeExecutor.execute(updateProfileExecutor::start);
+        mLanes.execute(updateProfileExecutor::start);
     }
 
     @Override
@@ -601,7 +646,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         DeleteProfileExecutor deleteProfileExecutor = new DeleteProfileExecutor(this, requestId, profile, DEFAULT_TIMEOUT);
-        mTwinlifeExecutor.execute(deleteProfileExecutor::start);
+        mLanes.execute(deleteProfileExecutor::start);
     }
 
     public void onDeleteProfile(long requestId, @NonNull UUID profileId) {
@@ -614,7 +659,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onDeleteProfile(requestId, profileId));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onDeleteProfile(requestId, profileId));
             }
         }
     }
@@ -626,7 +671,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         DeleteAccountExecutor deleteAccountExecutor = new DeleteAccountExecutor(this, requestId);
-        mTwinlifeExecutor.execute(deleteAccountExecutor::start);
+        mLanes.execute(deleteAccountExecutor::start);
     }
 
     public void onDeleteAccount(long requestId) {
@@ -640,7 +685,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onDeleteAccount(requestId));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onDeleteAccount(requestId));
             }
         }
     }
@@ -699,8 +744,9 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "getContact: contactId=" + contactId);
         }
 
-        mTwinlifeExecutor.execute(() -> getRepositoryService().getObject(contactId, ContactFactory.INSTANCE,
-                (ErrorCode errorCode, RepositoryObject object) -> consumer.onGet(errorCode, (Contact) object)));
+        mSingleFlight.execute(SingleFlight.CONTACT, contactId, null, consumer, complete
+                -> mLanes.execute(() -> getRepositoryService().getObject(contactId, ContactFactory.INSTANCE,
+                (ErrorCode errorCode, RepositoryObject object) -> complete.onGet(errorCode, (Contact) object))));
     }
 
     @Override
@@ -709,7 +755,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "findContacts: filter=" + filter + " consumer=" + consumer);
         }
 
-        mTwinlifeExecutor.execute(() -> getRepositoryService().listObjects(ContactFactory.INSTANCE, filter, (ErrorCode errorCode, List<RepositoryObject> list) -> {
+        mLanes.execute(() -> getRepositoryService().listObjects(ContactFactory.INSTANCE, filter, (ErrorCode errorCode, List<RepositoryObject> list) -> {
             final List<Contact> result = new ArrayList<>(list != null ? list.size() : 0);
 
             if (list != null) {
@@ -735,7 +781,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
         CreateContactPhase1Executor createContactPhase1Executor = new CreateContactPhase1Executor(this, requestId, peerTwincodeOutbound,
                 space, profile, contactGroupMember);
-        mTwinlifeExecutor.execute(createContactPhase1Executor::start);
+        mLanes.execute(createContactPhase1Executor::start);
     }
 
     @Override
@@ -751,7 +797,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
         CreateContactPhase1Executor createContactPhase1Executor = new CreateContactPhase1Executor(this, requestId, peerTwincodeOutbound,
                 space, identityName, avatarId, null);
-        mTwinlifeExecutor.execute(createContactPhase1Executor::start);
+        mLanes.execute(createContactPhase1Executor::start);
     }
 
     public void onCreateContact(long requestId, @NonNull Contact contact) {
@@ -759,12 +805,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onCreateContact: requestId=" + requestId + " contact=" + contact);
         }
 
+        mTwincodeIndex.put(contact);
+
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onCreateContact(requestId, contact));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onCreateContact(requestId, contact));
             }
         }
     }
@@ -778,7 +826,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
         UpdateContactAndIdentityExecutor updateContactAndIdentityExecutor = new UpdateContactAndIdentityExecutor(this, requestId,
                 contact, contactName, description);
-        mTwinlifeExecutor.execute(updateContactAndIdentityExecutor::start);
+        mLanes.execute(updateContactAndIdentityExecutor::start);
     }
 
     @Override
@@ -793,7 +841,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
         UpdateContactAndIdentityExecutor updateContactAndIdentityExecutor = new UpdateContactAndIdentityExecutor(this, requestId,
                 contact, identityName, identityAvatar, identityAvatarFile, description, capabilities, privateCapabilities);
-        mTwinlifeExecutor.execute(updateContactAndIdentityExecutor::start);
+        mLanes.execute(updateContactAndIdentityExecutor::start);
     }
 
     @Override
@@ -808,7 +856,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
         UpdateContactAndIdentityExecutor updateContactAndIdentityExecutor = new UpdateContactAndIdentityExecutor(this, requestId,
                 contact, identityName, identityAvatarId, description, capabilities, privateCapabilities, DEFAULT_TIMEOUT);
-        mTwinlifeExecutor.execute(updateContactAndIdentityExecutor::start);
+        mLanes.execute(updateContactAndIdentityExecutor::start);
     }
 
     @Override
@@ -820,10 +868,10 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         if (DELETE_CONTACT_ON_UNBIND_CONTACT) {
             DeleteContactExecutor deleteContactExecutor = new DeleteContactExecutor(this, requestId, contact,
                     invocationId, 0);
-            mTwinlifeExecutor.execute(deleteContactExecutor::start);
+            mLanes.execute(deleteContactExecutor::start);
         } else {
             UnbindContactExecutor unbindContactExecutor = new UnbindContactExecutor(this, requestId, invocationId, contact);
-            mTwinlifeExecutor.execute(unbindContactExecutor::start);
+            mLanes.execute(unbindContactExecutor::start);
         }
     }
 
@@ -835,7 +883,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         VerifyContactExecutor verifyContactExecutor = new VerifyContactExecutor(this, twincodeURI, trustMethod, complete);
-        mTwinlifeExecutor.execute(verifyContactExecutor::start);
+        mLanes.execute(verifyContactExecutor::start);
     }
 
     public void onUpdateContact(long requestId, @NonNull Contact contact) {
@@ -843,12 +891,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onUpdateContact: requestId=" + requestId + " contact=" + contact);
         }
 
+        mTwincodeIndex.put(contact);
+
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onUpdateContact(requestId, contact));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onUpdateContact(requestId, contact));
             }
         }
     }
@@ -863,7 +913,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onMoveToSpace(requestId, contact, oldSpace));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onMoveToSpace(requestId, contact, oldSpace));
             }
         }
     }
@@ -875,7 +925,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         DeleteContactExecutor deleteContactExecutor = new DeleteContactExecutor(this, requestId, contact, null, DEFAULT_TIMEOUT);
-        mTwinlifeExecutor.execute(deleteContactExecutor::start);
+        mLanes.execute(deleteContactExecutor::start);
     }
 
     public void onDeleteContact(long requestId, @NonNull UUID contactId) {
@@ -883,6 +933,8 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onDeleteContact: requestId=" + requestId + " contactId=" + contactId);
         }
 
+        mTwincodeIndex.remove(contactId);
+
         scheduleRefreshNotifications();
 
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
@@ -890,7 +942,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onDeleteContact(requestId, contactId));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onDeleteContact(requestId, contactId));
             }
         }
     }
@@ -924,7 +976,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
                 CallReceiverFactory.INSTANCE,
                 GroupFactory.INSTANCE
         };
-        mTwinlifeExecutor.execute(() -> {
+        mLanes.execute(() -> {
             RepositoryService.FindResult result = getRepositoryService().findObject(
                     false,
                     originatorId,
@@ -945,7 +997,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             return;
         }
         CreateInvitationExecutor createInvitationExecutor = new CreateInvitationExecutor(this, requestId, space, contactGroupMember);
-        mTwinlifeExecutor.execute(createInvitationExecutor::start);
+        mLanes.execute(createInvitationExecutor::start);
     }
 
     @Override
@@ -960,7 +1012,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             return;
         }
         CreateInvitationExecutor createInvitationExecutor = new CreateInvitationExecutor(this, requestId, space, group, permissions);
-        mTwinlifeExecutor.execute(createInvitationExecutor::start);
+        mLanes.execute(createInvitationExecutor::start);
     }
 
     @Override
@@ -975,7 +1027,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             return;
         }
         CreateInvitationExecutor createInvitationExecutor = new CreateInvitationExecutor(this, requestId, space, contact, sendTo);
-        mTwinlifeExecutor.execute(createInvitationExecutor::start);
+        mLanes.execute(createInvitationExecutor::start);
     }
 
     public void onCreateInvitation(long requestId, @NonNull Invitation invitation) {
@@ -983,12 +1035,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onCreateInvitation: requestId=" + requestId + " invitation=" + invitation);
         }
 
+        mTwincodeIndex.put(invitation);
+
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onCreateInvitation(requestId, invitation));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onCreateInvitation(requestId, invitation));
             }
         }
     }
@@ -999,7 +1053,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "updateInvitation: invitation=" + invitation + " consumer=" + consumer);
         }
 
-        mTwinlifeExecutor.execute(() -> getRepositoryService().updateObject(invitation, (status, updatedInvitation) -> {
+        mLanes.execute(() -> getRepositoryService().updateObject(invitation, (status, updatedInvitation) -> {
             if (status != ErrorCode.SUCCESS || updatedInvitation == null) {
                 consumer.onGet(status, null);
             }
@@ -1014,8 +1068,9 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "getInvitation: invitationId=" + invitationId);
         }
 
-        mTwinlifeExecutor.execute(() -> getRepositoryService().getObject(invitationId, InvitationFactory.INSTANCE,
-                (ErrorCode errorCode, RepositoryObject object) -> consumer.onGet(errorCode, (Invitation) object)));
+        mSingleFlight.execute(SingleFlight.INVITATION, invitationId, null, consumer, complete
+                -> mLanes.execute(() -> getRepositoryService().getObject(invitationId, InvitationFactory.INSTANCE,
+                (ErrorCode errorCode, RepositoryObject object) -> complete.onGet(errorCode, (Invitation) object))));
     }
 
     @Override
@@ -1024,7 +1079,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "findInvitations: filter=" + filter + " consumer=" + consumer);
         }
 
-        mTwinlifeExecutor.execute(() -> getRepositoryService().listObjects(InvitationFactory.INSTANCE, filter, (ErrorCode errorCode, List<RepositoryObject> list) -> {
+        mLanes.execute(() -> getRepositoryService().listObjects(InvitationFactory.INSTANCE, filter, (ErrorCode errorCode, List<RepositoryObject> list) -> {
             final List<Invitation> result = new ArrayList<>(list != null ? list.size() : 0);
 
             if (list != null) {
@@ -1043,7 +1098,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         DeleteInvitationExecutor deleteInvitationExecutor = new DeleteInvitationExecutor(this, requestId, invitation, DEFAULT_TIMEOUT);
-        mTwinlifeExecutor.execute(deleteInvitationExecutor::start);
+        mLanes.execute(deleteInvitationExecutor::start);
     }
 
     public void onDeleteInvitation(long requestId, @NonNull UUID invitationId) {
@@ -1051,12 +1106,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onDeleteInvitation: requestId=" + requestId + " invitationId=" + invitationId);
         }
 
+        mTwincodeIndex.remove(invitationId);
+
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onDeleteInvitation(requestId, invitationId));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onDeleteInvitation(requestId, invitationId));
             }
         }
     }
@@ -1066,22 +1123,34 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "deleteInvitation: twincodeDescriptor=" + twincodeDescriptor);
         }
 
-        Filter<RepositoryObject> filter = new Filter<RepositoryObject>(null) {
-            @Override
-            public boolean accept(@NonNull RepositoryObject object) {
-                if (!(object instanceof Invitation)) {
-                    return false;
-                }
+        // The invitation is no longer valid because its descriptor is deleted.
+        final UUID twincodeId = twincodeDescriptor.getTwincodeId();
+        findByTwincode(twincodeId, (ErrorCode errorCode, List<RepositoryObject> objects) -> {
+            if (errorCode != ErrorCode.SUCCESS || objects == null) {
+                return;
+            }
 
-                final Invitation invitation = (Invitation) object;
-                return twincodeDescriptor.getTwincodeId().equals(invitation.getTwincodeOutboundId());
+            for (RepositoryObject object : objects) {
+                if (object instanceof Invitation && twincodeId.equals(((Invitation) object).getTwincodeOutboundId())) {
+                    deleteInvitation(BaseService.DEFAULT_REQUEST_ID, (Invitation) object);
+                }
             }
-        };
+        });
+    }
 
-        // Kludge: trigger a findInvitations to check a matching invitation and deleted it because its descriptor is deleted.
-        findInvitations(filter,
-                (List<Invitation> invitations) -> {
-                });
+    /**
+     * Find the invitations, contacts, groups and call receivers which are using the given twincode
+     * as their twincode outbound or peer twincode outbound.
+     *
+     * @param twincodeId the twincode outbound id.
+     * @param consumer the consumer called with the list of objects or the error when the index cannot be loaded.
+     */
+    void findByTwincode(@NonNull UUID twincodeId, @NonNull org.twinlife.twinlife.Consumer<List<RepositoryObject>> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "findByTwincode: twincodeId=" + twincodeId);
+        }
+
+        mLanes.execute(() -> mTwincodeIndex.find(twincodeId, consumer));
     }
 
     @Override
@@ -1091,7 +1160,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         CreateInvitationCodeExecutor executor = new CreateInvitationCodeExecutor(this, requestId, validityPeriod);
-        mTwinlifeExecutor.execute(executor::start);
+        mLanes.execute(executor::start);
     }
 
     public void onCreateInvitationWithCode(long requestId, @NonNull Invitation invitation) {
@@ -1099,12 +1168,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onCreateInvitationCode: requestId=" + requestId + " invitation=" + invitation);
         }
 
+        mTwincodeIndex.put(invitation);
+
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onCreateInvitationWithCode(requestId, invitation));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onCreateInvitationWithCode(requestId, invitation));
             }
         }
     }
@@ -1116,7 +1187,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         GetInvitationCodeExecutor executor = new GetInvitationCodeExecutor(this, requestId, code);
-        mTwinlifeExecutor.execute(executor::start);
+        mLanes.execute(executor::start);
     }
 
     public void onGetInvitationCode(long requestId, @NonNull TwincodeOutbound twincodeOutbound, @Nullable String publicKey) {
@@ -1129,7 +1200,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onGetInvitationCode(requestId, twincodeOutbound, publicKey));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onGetInvitationCode(requestId, twincodeOutbound, publicKey));
             }
         }
     }
@@ -1141,7 +1212,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         UpdateScoresExecutor updateScoresExecutor = new UpdateScoresExecutor(this, requestId, updateScore);
-        mTwinlifeExecutor.execute(updateScoresExecutor::start);
+        mLanes.execute(updateScoresExecutor::start);
     }
 
     public void onUpdateScores(long requestId, @NonNull List<RepositoryObject> contacts, @NonNull List<RepositoryObject> groups) {
@@ -1178,7 +1249,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onUpdateStats(requestId, updatedContacts, updatedGroups));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onUpdateStats(requestId, updatedContacts, updatedGroups));
             }
         } */
     }
@@ -1193,7 +1264,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "findGroups: filter=" + filter + " consumer=" + consumer);
         }
 
-        mTwinlifeExecutor.execute(() -> getRepositoryService().listObjects(GroupFactory.INSTANCE, filter, (ErrorCode errorCode, List<RepositoryObject> list) -> {
+        mLanes.execute(() -> getRepositoryService().listObjects(GroupFactory.INSTANCE, filter, (ErrorCode errorCode, List<RepositoryObject> list) -> {
             final List<Group> result = new ArrayList<>(list != null ? list.size() : 0);
 
             if (list != null) {
@@ -1211,7 +1282,9 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "getGroup: groupId=" + groupId);
         }
 
-        mTwinlifeExecutor.execute(() -> getRepositoryService().getObject(groupId, GroupFactory.INSTANCE, (ErrorCode errorCode, RepositoryObject object) -> consumer.onGet(errorCode, (Group) object)));
+        mSingleFlight.execute(SingleFlight.GROUP, groupId, null, consumer, complete
+                -> mLanes.execute(() -> getRepositoryService().getObject(groupId, GroupFactory.INSTANCE,
+                (ErrorCode errorCode, RepositoryObject object) -> complete.onGet(errorCode, (Group) object))));
     }
 
     public void onUpdateGroup(long requestId, @NonNull Group group) {
@@ -1219,12 +1292,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onUpdateGroup: requestId=" + requestId + " group=" + group);
         }
 
+        mTwincodeIndex.put(group);
+
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onUpdateGroup(requestId, group));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onUpdateGroup(requestId, group));
             }
         }
     }
@@ -1239,7 +1314,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onMoveToSpace(requestId, group, oldSpace));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onMoveToSpace(requestId, group, oldSpace));
             }
         }
     }
@@ -1250,6 +1325,15 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "getGroupMember: group=" + group + " groupMemberTwincodeId=" + groupMemberTwincodeId);
         }
 
+        getGroupMember(group, groupMemberTwincodeId, Lane.INTERACTIVE, consumer);
+    }
+
+    private void getGroupMember(@NonNull Originator group, @NonNull UUID groupMemberTwincodeId, @NonNull Lane lane,
+                                @NonNull ConsumerWithError<GroupMember> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "getGroupMember: group=" + group + " groupMemberTwincodeId=" + groupMemberTwincodeId + " lane=" + lane);
+        }
+
         GroupMember member;
         synchronized (mGroupMembers) {
             member = mGroupMembers.get(groupMemberTwincodeId);
@@ -1263,11 +1347,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
         if (member != null) {
             final GroupMember lMember = member;
-            mTwinlifeExecutor.execute(() -> consumer.onGet(ErrorCode.SUCCESS, lMember));
+            mLanes.execute(lane, () -> consumer.onGet(ErrorCode.SUCCESS, lMember));
 
         } else {
-            GetGroupMemberExecutor getGroupMemberExecutor = new GetGroupMemberExecutor(this, group, groupMemberTwincodeId, consumer);
-            mTwinlifeExecutor.execute(getGroupMemberExecutor::start);
+            mSingleFlight.execute(SingleFlight.GROUP_MEMBER, group.getId(), groupMemberTwincodeId, consumer,
+                    complete -> {
+                GetGroupMemberExecutor getGroupMemberExecutor = new GetGroupMemberExecutor(this, group, groupMemberTwincodeId, complete);
+                mLanes.execute(lane, getGroupMemberExecutor::start);
+            });
         }
     }
 
@@ -1318,7 +1405,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
         final ListMembersExecutor getGroupMemberExecutor = new ListMembersExecutor(this, group,
                 filter, null, consumer);
-        mTwinlifeExecutor.execute(getGroupMemberExecutor::start);
+        mLanes.execute(getGroupMemberExecutor::start);
     }
 
     public void listMembers(@NonNull Originator subject, @NonNull List<UUID> memberTwincodeList,
@@ -1329,7 +1416,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
         final ListMembersExecutor getGroupMemberExecutor = new ListMembersExecutor(this, subject,
                 null, memberTwincodeList, consumer);
-        mTwinlifeExecutor.execute(getGroupMemberExecutor::start);
+        mLanes.execute(getGroupMemberExecutor::start);
     }
 
     @Override
@@ -1345,7 +1432,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
         CreateGroupExecutor createGroupExecutor = new CreateGroupExecutor(this, requestId, space,
                 name, description, avatar, avatarFile);
-        mTwinlifeExecutor.execute(createGroupExecutor::start);
+        mLanes.execute(createGroupExecutor::start);
     }
 
     @Override
@@ -1360,7 +1447,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             return;
         }
         CreateGroupExecutor createGroupExecutor = new CreateGroupExecutor(this, requestId, space, invitation);
-        mTwinlifeExecutor.execute(createGroupExecutor::start);
+        mLanes.execute(createGroupExecutor::start);
     }
 
     public void onCreateGroup(long requestId, @NonNull Group group, @NonNull GroupConversation conversation) {
@@ -1368,12 +1455,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onCreateGroup: requestId=" + requestId + " group=" + group);
         }
 
+        mTwincodeIndex.put(group);
+
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onCreateGroup(requestId, group, conversation));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onCreateGroup(requestId, group, conversation));
             }
         }
     }
@@ -1385,7 +1474,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         UpdateGroupExecutor updateGroupExecutor = new UpdateGroupExecutor(this, requestId, group, name, description, avatar, avatarFile, null, null, null, capabilities);
-        mTwinlifeExecutor.execute(updateGroupExecutor::start);
+        mLanes.execute(updateGroupExecutor::start);
     }
 
     @Override
@@ -1396,7 +1485,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         UpdateGroupExecutor updateGroupExecutor = new UpdateGroupExecutor(this, requestId, group, null, null, null, null, name, avatar, avatarFile, null);
-        mTwinlifeExecutor.execute(updateGroupExecutor::start);
+        mLanes.execute(updateGroupExecutor::start);
     }
 
     @Override
@@ -1406,7 +1495,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         DeleteGroupExecutor deleteGroupExecutor = new DeleteGroupExecutor(this, requestId, group, DEFAULT_TIMEOUT);
-        mTwinlifeExecutor.execute(deleteGroupExecutor::start);
+        mLanes.execute(deleteGroupExecutor::start);
     }
 
     public void onDeleteGroup(long requestId, @NonNull UUID groupId) {
@@ -1414,6 +1503,8 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onDeleteGroup: requestId=" + requestId + " groupId=" + groupId);
         }
 
+        mTwincodeIndex.remove(groupId);
+
         scheduleRefreshNotifications();
 
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
@@ -1421,7 +1512,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onDeleteGroup(requestId, groupId));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onDeleteGroup(requestId, groupId));
             }
         }
     }
@@ -1438,6 +1529,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
         // TBD check result of asynchronous operation
         getTwincodeInboundService().acknowledgeInvocation(invocationId, errorCode);
+        mRelationOrchestrator.onAcknowledgeInvocation(invocationId, errorCode);
     }
 
     //
@@ -1496,13 +1588,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         mTwinmeApplication.setDefaultProfile(mCurrentProfile);
+        mLanes.execute(Lane.BACKGROUND, this::saveSpacesSnapshot);
 
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onSetCurrentSpace(requestId, space));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onSetCurrentSpace(requestId, space));
             }
         }
     }
@@ -1543,10 +1636,11 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
                     spaceConfiguration.setStringConfig(DEFAULT_SETTINGS_ID, saveId.toString());
                     spaceConfiguration.save();
                 }
+                saveSpacesSnapshot();
             }
             consumer.onGet(errorCode, settings);
         });
-        mTwinlifeExecutor.execute(updateSettingsExecutor::start);
+        mLanes.execute(updateSettingsExecutor::start);
     }
 
     @Override
@@ -1608,7 +1702,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         DeleteLevelExecutor deleteLevelExecutor = new DeleteLevelExecutor(this, requestId, name);
-        mTwinlifeExecutor.execute(deleteLevelExecutor::start);
+        mLanes.execute(deleteLevelExecutor::start);
     }
 
     public void onDeleteLevel(long requestId, @NonNull String name) {
@@ -1621,7 +1715,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onDeleteLevel(requestId));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onDeleteLevel(requestId));
             }
         }
     }
@@ -1689,7 +1783,10 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
         if (space != null) {
             consumer.onGet(ErrorCode.SUCCESS, space);
-        } else {
+            return;
+        }
+
+        final Runnable findCurrentSpace = () -> {
             // Filter to get only the default space.
             Predicate<Space> filter = this::isDefaultSpace;
 
@@ -1704,27 +1801,165 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
                     consumer.onGet(ErrorCode.ITEM_NOT_FOUND, null);
                 }
             });
-        }
+        };
+
+        // Use the snapshot to load only the last current space when the spaces are not yet loaded.
+        final SpacesSnapshot snapshot = mSnapshot;
+        final UUID snapshotSpaceId = snapshot == null ? null : snapshot.getCurrentSpaceId();
+        getSnapshotSpace(snapshotSpaceId, findCurrentSpace, (ErrorCode errorCode, Space lSpace) -> {
+            if (mCurrentSpace == null) {
+                setCurrentSpace(BaseService.DEFAULT_REQUEST_ID, lSpace);
+            }
+            consumer.onGet(ErrorCode.SUCCESS, lSpace);
+        });
     }
 
     @Override
     public void getDefaultSpace(@NonNull ConsumerWithError<Space> consumer) {
 
-        // Filter to get only the default space.
-        Predicate<Space> filter = this::isDefaultSpace;
+        final Runnable findDefaultSpace = () -> {
+            // Filter to get only the default space.
+            Predicate<Space> filter = this::isDefaultSpace;
 
-        findSpaces(filter, (ErrorCode errorCode, List<Space> spaces) -> {
-            if (spaces == null || spaces.isEmpty()) {
-                consumer.onGet(ErrorCode.ITEM_NOT_FOUND, null);
-            } else {
-                if (mCurrentSpace == null) {
-                    setCurrentSpace(0, spaces.get(0));
+            findSpaces(filter, (ErrorCode errorCode, List<Space> spaces) -> {
+                if (spaces == null || spaces.isEmpty()) {
+                    consumer.onGet(ErrorCode.ITEM_NOT_FOUND, null);
+                } else {
+                    if (mCurrentSpace == null) {
+                        setCurrentSpace(0, spaces.get(0));
+                    }
+                    mLanes.execute(() -> consumer.onGet(ErrorCode.SUCCESS, spaces.get(0)));
                 }
-                mTwinlifeExecutor.execute(() -> consumer.onGet(ErrorCode.SUCCESS, spaces.get(0)));
+            });
+        };
+
+        // Use the snapshot to load only the default space when the spaces are not yet loaded.
+        getSnapshotSpace(getDefaultSpaceId(), findDefaultSpace, (ErrorCode errorCode, Space space) -> {
+            if (mCurrentSpace == null) {
+                setCurrentSpace(0, space);
             }
+            consumer.onGet(ErrorCode.SUCCESS, space);
         });
     }
 
+    /**
+     * Use the spaces snapshot to load a single space with its profile while the GetSpacesExecutor has not
+     * finished to load every space.  The space and profile are loaded from the database (which validates
+     * the snapshot) and the full load is then started in the background.  If the snapshot cannot be used,
+     * the fallback is executed.
+     *
+     * @param spaceId the space to load.
+     * @param fallback the operation to execute when the snapshot does not know the space.
+     * @param consumer the consumer called with the space loaded from the snapshot.
+     */
+    private void getSnapshotSpace(@Nullable UUID spaceId, @NonNull Runnable fallback,
+                                  @NonNull ConsumerWithError<Space> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "getSnapshotSpace: spaceId=" + spaceId);
+        }
+
+        final SpacesSnapshot snapshot = mSnapshot;
+        final SpacesSnapshot.SpaceEntry entry = snapshot == null || mGetSpacesDone ? null : snapshot.getSpace(spaceId);
+        // The snapshot never records a secret space: it is always loaded from the database.
+        final UUID profileId = entry == null ? null : entry.profileId;
+        if (profileId == null) {
+            fallback.run();
+            return;
+        }
+
+        // Loading the profile also loads its space and the space settings (they are the profile owners).
+        mLanes.execute(() -> getRepositoryService().getObject(profileId, ProfileFactory.INSTANCE,
+                (ErrorCode errorCode, RepositoryObject object) -> {
+            final Space space = object instanceof Profile ? ((Profile) object).getSpace() : null;
+            if (errorCode != ErrorCode.SUCCESS || space == null || !entry.spaceId.equals(space.getId())) {
+                // The snapshot is obsolete: ignore it and wait for the spaces to be loaded.
+                mSnapshot = null;
+                fallback.run();
+                return;
+            }
+
+            // The space is not added to mSpaces: it is only known once the GetSpacesExecutor has loaded
+            // and linked every space and onGetSpaces() is called.
+            final Space lSpace;
+            synchronized (mSpaces) {
+                final Space loadedSpace = mSpaces.get(space.getId());
+                lSpace = loadedSpace == null ? space : loadedSpace;
+            }
+            consumer.onGet(ErrorCode.SUCCESS, lSpace);
+
+            // Now load every space to validate the snapshot.
+            findSpaces((Space lFilterSpace) -> false, (ErrorCode lErrorCode, List<Space> spaces) -> {
+            });
+        }));
+    }
+
+    @Nullable
+    private static SpacesSnapshot readSpacesSnapshot(@Nullable String content) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "readSpacesSnapshot");
+        }
+
+        if (content == null) {
+
+            return null;
+        }
+
+        try {
+            final ByteArrayInputStream inputStream = new ByteArrayInputStream(Base64.decode(content, Base64.NO_WRAP));
+            return SpacesSnapshot.deserialize(new BinaryDecoder(inputStream));
+
+        } catch (Exception exception) {
+            Log.e(LOG_TAG, "readSpacesSnapshot: invalid snapshot", exception);
+            return null;
+        }
+    }
+
+    /**
+     * Save the snapshot of the spaces and default settings when it has changed.
+     * The snapshot is only saved once the spaces have been loaded from the database.
+     */
+    private void saveSpacesSnapshot() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "saveSpacesSnapshot");
+        }
+
+        if (!mGetSpacesDone) {
+            return;
+        }
+
+        final SpacesSnapshot snapshot;
+        final SpaceSettings defaultSettings;
+        synchronized (this) {
+            defaultSettings = mDefaultSpaceSettings;
+        }
+        synchronized (mSpaces) {
+            snapshot = new SpacesSnapshot(mDefaultSpaceId, mCurrentSpace, defaultSettings, mSpaces.values());
+        }
+
+        final String content;
+        try {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            snapshot.serialize(new BinaryEncoder(outputStream));
+            content = Base64.encodeToString(outputStream.toByteArray(), Base64.NO_WRAP);
+
+        } catch (Exception exception) {
+            Log.e(LOG_TAG, "saveSpacesSnapshot: cannot serialize", exception);
+            return;
+        }
+
+        synchronized (this) {
+            if (content.equals(mSavedSnapshot)) {
+                return;
+            }
+            mSavedSnapshot = content;
+        }
+
+        final ConfigurationService configurationService = mTwinlifeImpl.getConfigurationService();
+        final ConfigurationService.Configuration spaceConfiguration = configurationService.getConfiguration(DEFAULT_SPACE_ID);
+        spaceConfiguration.setStringConfig(SPACES_SNAPSHOT, content);
+        spaceConfiguration.save();
+    }
+
     @Override
     public void createSpace(long requestId, @NonNull SpaceSettings settings,
                             @Nullable Bitmap spaceAvatar, @Nullable File spaceAvatarFile) {
@@ -1733,7 +1968,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         CreateSpaceExecutor createSpaceExecutor = new CreateSpaceExecutor(this, requestId, settings, spaceAvatar, spaceAvatarFile, null, false);
-        mTwinlifeExecutor.execute(createSpaceExecutor::start);
+        mLanes.execute(createSpaceExecutor::start);
     }
 
     @Override
@@ -1744,7 +1979,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         CreateSpaceExecutor createSpaceExecutor = new CreateSpaceExecutor(this, requestId, settings, spaceAvatar, spaceAvatarFile, name, avatar, avatarFile, false);
-        mTwinlifeExecutor.execute(createSpaceExecutor::start);
+        mLanes.execute(createSpaceExecutor::start);
     }
 
     public void createSpace(long requestId, @NonNull SpaceSettings spaceSettings, @Nullable Profile profile) {
@@ -1753,7 +1988,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         CreateSpaceExecutor createSpaceExecutor = new CreateSpaceExecutor(this, requestId, spaceSettings, null, null, profile, false);
-        mTwinlifeExecutor.execute(createSpaceExecutor::start);
+        mLanes.execute(createSpaceExecutor::start);
     }
 
     public void createDefaultSpace(long requestId, @NonNull SpaceSettings spaceSettings, @NonNull Profile profile) {
@@ -1762,7 +1997,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         CreateSpaceExecutor createSpaceExecutor = new CreateSpaceExecutor(this, requestId, spaceSettings, null, null, profile, true);
-        mTwinlifeExecutor.execute(createSpaceExecutor::start);
+        mLanes.execute(createSpaceExecutor::start);
     }
 
     public void onCreateSpace(long requestId, @NonNull Space space) {
@@ -1771,13 +2006,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         Space lSpace = putSpace(space);
+        mLanes.execute(Lane.BACKGROUND, this::saveSpacesSnapshot);
 
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onCreateSpace(requestId, lSpace));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onCreateSpace(requestId, lSpace));
             }
         }
     }
@@ -1795,12 +2031,12 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
                 TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
                 if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                     TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                    mTwinlifeExecutor.execute(() -> twinmeContextObserver.onError(requestId, ErrorCode.BAD_REQUEST, space.getId().toString()));
+                    mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onError(requestId, ErrorCode.BAD_REQUEST, space.getId().toString()));
                 }
             }
         } else {
             DeleteSpaceExecutor deleteSpaceExecutor = new DeleteSpaceExecutor(this, requestId, space);
-            mTwinlifeExecutor.execute(deleteSpaceExecutor::start);
+            mLanes.execute(deleteSpaceExecutor::start);
         }
     }
 
@@ -1810,13 +2046,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         removeSpace(spaceId);
+        mLanes.execute(Lane.BACKGROUND, this::saveSpacesSnapshot);
 
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onDeleteSpace(requestId, spaceId));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onDeleteSpace(requestId, spaceId));
             }
         }
     }
@@ -1856,7 +2093,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         if (mGetSpacesDone || (!mHasSpaces && !mHasProfiles && !GET_REMOTE_OBJECTS)) {
-            mTwinlifeExecutor.execute(() -> resolveFindSpaces(predicate, consumer));
+            mLanes.execute(() -> resolveFindSpaces(predicate, consumer));
         } else {
             Executor getSpacesExecutor;
             boolean created;
@@ -1872,7 +2109,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             }
             getSpacesExecutor.execute(() -> resolveFindSpaces(predicate, consumer));
             if (created) {
-                mTwinlifeExecutor.execute(getSpacesExecutor::start);
+                mLanes.execute(getSpacesExecutor::start);
             }
         }
     }
@@ -1887,17 +2124,38 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         Space setDefaultSpace = null;
+        Profile loadedProfile = null;
         synchronized (mSpaces) {
             // Make sure we know a current space.
             if (mCurrentSpace == null && mDefaultSpaceId != null && !spaces.isEmpty()) {
                 setDefaultSpace = spaces.get(0);
+
+            } else if (mCurrentSpace != null) {
+                // The current space was taken from the snapshot and observers were already notified:
+                // use the instance we have loaded without setting the current space a second time.
+                final Space loadedSpace = mSpaces.get(mCurrentSpace.getId());
+                if (loadedSpace != null && loadedSpace != mCurrentSpace) {
+                    mCurrentSpace = loadedSpace;
+                    mCurrentProfile = loadedSpace.getProfile();
+                    loadedProfile = mCurrentProfile;
+                }
             }
         }
         if (setDefaultSpace != null) {
             setDefaultSpace(setDefaultSpace);
             setCurrentSpace(BaseService.DEFAULT_REQUEST_ID, setDefaultSpace);
+        } else if (loadedProfile != null) {
+            mTwinmeApplication.setDefaultProfile(loadedProfile);
         }
         mGetSpacesDone = true;
+        mSnapshot = null;
+        saveSpacesSnapshot();
+
+        // Startup trace: time from the context creation to the first usable space list.
+        EventMonitor.event("Spaces ready", mStartTime);
+        if (INFO) {
+            Log.i(LOG_TAG, "Spaces ready in " + (System.currentTimeMillis() - mStartTime) + " ms");
+        }
 
         // Cleanup the executor.
         synchronized (mExecutors) {
@@ -1928,7 +2186,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         UpdateContactAndIdentityExecutor updateGroupExecutor = new UpdateContactAndIdentityExecutor(this, requestId, contact, space);
-        mTwinlifeExecutor.execute(updateGroupExecutor::start);
+        mLanes.execute(updateGroupExecutor::start);
     }
 
     @Override
@@ -1938,7 +2196,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         UpdateGroupExecutor updateGroupExecutor = new UpdateGroupExecutor(this, requestId, group, space);
-        mTwinlifeExecutor.execute(updateGroupExecutor::start);
+        mLanes.execute(updateGroupExecutor::start);
     }
 
     @Override
@@ -1949,7 +2207,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         UpdateSpaceExecutor updateSpaceExecutor = new UpdateSpaceExecutor(this, requestId, space, settings, spaceAvatar, spaceAvatarFile, null);
-        mTwinlifeExecutor.execute(updateSpaceExecutor::start);
+        mLanes.execute(updateSpaceExecutor::start);
     }
 
     @Override
@@ -1959,7 +2217,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         UpdateSpaceExecutor updateSpaceExecutor = new UpdateSpaceExecutor(this, requestId, space, null, null, null, profile);
-        mTwinlifeExecutor.execute(updateSpaceExecutor::start);
+        mLanes.execute(updateSpaceExecutor::start);
     }
 
     public void onUpdateSpace(long requestId, @NonNull Space space) {
@@ -1980,13 +2238,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         if (updatedProfile != null) {
             mTwinmeApplication.setDefaultProfile(updatedProfile);
         }
+        mLanes.execute(Lane.BACKGROUND, this::saveSpacesSnapshot);
 
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onUpdateSpace(requestId, lSpace));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onUpdateSpace(requestId, lSpace));
             }
         }
     }
@@ -2036,7 +2295,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         // Execute the listConversations() query from the twinlife thread to avoid blocking the UI thread!
-        mTwinlifeExecutor.execute(() -> {
+        mLanes.execute(() -> {
             List<Conversation> list = mTwinlifeImpl.getConversationService().listConversations(filter);
             consumer.accept(list);
         });
@@ -2050,7 +2309,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         // Execute the listConversations() query from the twinlife thread to avoid blocking the UI thread!
-        mTwinlifeExecutor.execute(() -> {
+        mLanes.execute(() -> {
             Map<Conversation, Descriptor> result = mTwinlifeImpl.getConversationService().getLastConversationDescriptors(filter, callsMode);
             consumer.accept(result);
         });
@@ -2065,9 +2324,10 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         mActiveConversationId.set(conversation.getId());
 
         // Update the pending notification from the twinlife thread to avoid blocking the main UI thread.
-        mTwinlifeExecutor.execute(() -> {
+        mLanes.execute(() -> {
             RepositoryObject subject = conversation.getSubject();
             List<org.twinlife.twinlife.Notification> notifications = getNotificationService().getPendingNotifications(subject);
+            List<org.twinlife.twinlife.Notification> acknowledgeList = new ArrayList<>();
             for (org.twinlife.twinlife.Notification notification : notifications) {
                 NotificationType type = notification.getNotificationType();
                 if (!notification.isAcknowledged() && (type == NotificationType.NEW_TEXT_MESSAGE
@@ -2083,9 +2343,12 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
                         || type == NotificationType.NEW_GROUP_JOINED
                         || type == NotificationType.RESET_CONVERSATION
                         || type == NotificationType.UPDATED_ANNOTATION)) {
-                    acknowledgeNotification(BaseService.DEFAULT_REQUEST_ID, notification);
+                    acknowledgeList.add(notification);
                 }
             }
+            if (!acknowledgeList.isEmpty()) {
+                acknowledgeNotifications(BaseService.DEFAULT_REQUEST_ID, acknowledgeList);
+            }
         });
 
         mNotificationCenter.onSetActiveConversation(conversation);
@@ -2109,7 +2372,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "markDescriptorRead: requestId=" + requestId + " descriptorId=" + descriptorId);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().markDescriptorRead(requestId, descriptorId));
+        mLanes.execute(() -> getConversationService().markDescriptorRead(requestId, descriptorId));
     }
 
     @Override
@@ -2118,7 +2381,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "markDescriptorDeleted: requestId=" + requestId + " descriptorId=" + descriptorId);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().markDescriptorDeleted(requestId, descriptorId));
+        mLanes.execute(() -> getConversationService().markDescriptorDeleted(requestId, descriptorId));
     }
 
     @Override
@@ -2127,7 +2390,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "deleteDescriptor: requestId=" + requestId + " descriptorId=" + descriptorId);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().deleteDescriptor(requestId, descriptorId));
+        mLanes.execute(() -> getConversationService().deleteDescriptor(requestId, descriptorId));
     }
 
     @Override
@@ -2137,7 +2400,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "forwardDescriptor: requestId=" + requestId + " conversation=" + conversation);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().forwardDescriptor(requestId, conversation, sendTo, descriptorId, copyAllowed, expireTimeout));
+        mLanes.execute(() -> getConversationService().forwardDescriptor(requestId, conversation, sendTo, descriptorId, copyAllowed, expireTimeout));
     }
 
     @Override
@@ -2147,7 +2410,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "pushMessage: requestId=" + requestId + " conversation=" + conversation);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().pushMessage(requestId, conversation, sendTo, replyTo, message, copyAllowed, expiration));
+        mLanes.execute(Lane.REALTIME, () -> getConversationService().pushMessage(requestId, conversation, sendTo, replyTo, message, copyAllowed, expiration));
     }
 
     @Override
@@ -2156,7 +2419,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "pushTransientObject: requestId=" + requestId + " conversation=" + conversation);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().pushTransientObject(requestId, conversation, object));
+        mLanes.execute(Lane.REALTIME, () -> getConversationService().pushTransientObject(requestId, conversation, object));
     }
 
     @Override
@@ -2167,7 +2430,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "pushGeolocation: requestId=" + requestId + " conversation=" + conversation);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().pushGeolocation(requestId, conversation, sendTo, replyTo, longitude, latitude,
+        mLanes.execute(Lane.REALTIME, () -> getConversationService().pushGeolocation(requestId, conversation, sendTo, replyTo, longitude, latitude,
                 altitude, mapLongitudeDelta, mapLatitudeDelta, localMapPath, expiration));
     }
 
@@ -2179,7 +2442,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "updateGeolocation: requestId=" + requestId + " conversation=" + conversation);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().updateGeolocation(requestId, conversation, descriptorId, longitude, latitude,
+        mLanes.execute(() -> getConversationService().updateGeolocation(requestId, conversation, descriptorId, longitude, latitude,
                 altitude, mapLongitudeDelta, mapLatitudeDelta, localMapPath));
     }
 
@@ -2190,7 +2453,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "saveGeolocationMap: requestId=" + requestId + " conversation=" + conversation);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().saveGeolocationMap(requestId, conversation, descriptorId, localMapPath));
+        mLanes.execute(() -> getConversationService().saveGeolocationMap(requestId, conversation, descriptorId, localMapPath));
     }
 
     @Override
@@ -2200,7 +2463,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "pushTwincode: requestId=" + requestId + " conversation=" + conversation);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().pushTwincode(requestId, conversation, sendTo, replyTo,
+        mLanes.execute(Lane.REALTIME, () -> getConversationService().pushTwincode(requestId, conversation, sendTo, replyTo,
                 twincodeId, schemaId, publicKey, copyAllowed, expiration));
     }
 
@@ -2210,7 +2473,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "withdrawInviteGroup: requestId=" + requestId + " descriptor=" + descriptor);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().withdrawInviteGroup(requestId, descriptor));
+        mLanes.execute(() -> getConversationService().withdrawInviteGroup(requestId, descriptor));
     }
 
     @Override
@@ -2219,7 +2482,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "deleteAnnotation: descriptorId=" + descriptorId + " type=" + type);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().deleteAnnotation(descriptorId, type));
+        mLanes.execute(() -> getConversationService().deleteAnnotation(descriptorId, type));
     }
 
     @Override
@@ -2229,7 +2492,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "toggleAnnotation: descriptorId=" + descriptorId + " type=" + type + " value=" + value);
         }
 
-        mTwinlifeExecutor.execute(() -> getConversationService().toggleAnnotation(descriptorId, type, value));
+        mLanes.execute(() -> getConversationService().toggleAnnotation(descriptorId, type, value));
     }
 
     @Override
@@ -2239,7 +2502,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "listAnnotations: descriptorId=" + descriptorId);
         }
 
-        mTwinlifeExecutor.execute(() -> {
+        mLanes.execute(() -> {
             final Map<TwincodeOutbound, List<DescriptorAnnotation>> annotations = getConversationService().listAnnotations(descriptorId);
             consumer.onGet(annotations == null ? ErrorCode.ITEM_NOT_FOUND : ErrorCode.SUCCESS, annotations);
         });
@@ -2251,7 +2514,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "getDescriptor: descriptorId=" + descriptorId);
         }
 
-        mTwinlifeExecutor.execute(() -> {
+        mLanes.execute(() -> {
             final Descriptor descriptor = getConversationService().getDescriptor(descriptorId);
             consumer.onGet(descriptor == null ? ErrorCode.ITEM_NOT_FOUND : ErrorCode.SUCCESS, descriptor);
         });
@@ -2398,6 +2661,16 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         roomCommand(requestId, contact, command);
     }
 
+    @Override
+    public void roomListMembers(long requestId, @NonNull Contact contact, @NonNull String filter, long cursor, int pageSize) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "roomListMembers: contact=" + contact + " filter=" + filter + " cursor=" + cursor + " pageSize=" + pageSize);
+        }
+
+        RoomCommand command = new RoomCommand(requestId, RoomCommand.Action.ROOM_LIST_MEMBERS, filter, cursor, pageSize);
+        roomCommand(requestId, contact, command);
+    }
+
     private void roomCommand(long requestId, @NonNull Contact contact, @NonNull RoomCommand command) {
         if (DEBUG) {
             Log.d(LOG_TAG, "roomCommand: contact=" + contact + " command=" + command);
@@ -2437,8 +2710,11 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "getDeviceMigration deviceMigrationId=" + deviceMigrationId);
         }
 
-        GetAccountMigrationExecutor getAccountMigrationExecutor = new GetAccountMigrationExecutor(this, deviceMigrationId, consumer);
-        mTwinlifeExecutor.execute(getAccountMigrationExecutor::start);
+        mSingleFlight.execute(SingleFlight.ACCOUNT_MIGRATION, deviceMigrationId, null, consumer,
+                complete -> {
+            GetAccountMigrationExecutor getAccountMigrationExecutor = new GetAccountMigrationExecutor(this, deviceMigrationId, complete);
+            mLanes.execute(getAccountMigrationExecutor::start);
+        });
     }
 
     @Override
@@ -2448,7 +2724,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         CreateAccountMigrationExecutor createAccountMigrationExecutor = new CreateAccountMigrationExecutor(this, consumer);
-        mTwinlifeExecutor.execute(createAccountMigrationExecutor::start);
+        mLanes.execute(createAccountMigrationExecutor::start);
     }
 
     @Override
@@ -2459,7 +2735,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         BindAccountMigrationExecutor bindAccountMigrationExecutor = new BindAccountMigrationExecutor(this, accountMigration, peerTwincodeOutbound, consumer);
-        mTwinlifeExecutor.execute(bindAccountMigrationExecutor::start);
+        mLanes.execute(bindAccountMigrationExecutor::start);
     }
 
     @Override
@@ -2469,7 +2745,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         DeleteAccountMigrationExecutor deleteAccountMigrationExecutor = new DeleteAccountMigrationExecutor(this, accountMigration, consumer);
-        mTwinlifeExecutor.execute(deleteAccountMigrationExecutor::start);
+        mLanes.execute(deleteAccountMigrationExecutor::start);
     }
 
     public void onUpdateAccountMigration(long requestId, @NonNull AccountMigration accountMigration) {
@@ -2482,7 +2758,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onUpdateAccountMigration(requestId, accountMigration));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onUpdateAccountMigration(requestId, accountMigration));
             }
         }
     }
@@ -2497,7 +2773,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onDeleteAccountMigration(requestId, accountMigrationId));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onDeleteAccountMigration(requestId, accountMigrationId));
             }
         }
     }
@@ -2515,7 +2791,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         CreateCallReceiverExecutor executor = new CreateCallReceiverExecutor(this, requestId, space, name, description, avatar, avatarFile, capabilities, consumer);
-        mTwinlifeExecutor.execute(executor::start);
+        mLanes.execute(executor::start);
     }
 
     public void onCreateCallReceiver(long requestId, CallReceiver callReceiver, @NonNull Consumer<CallReceiver> consumer) {
@@ -2523,6 +2799,10 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onCreateCallReceiver: requestId=" + requestId + " callReceiver=" + callReceiver);
         }
 
+        if (callReceiver != null) {
+            mTwincodeIndex.put(callReceiver);
+        }
+
         consumer.accept(callReceiver);
 
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
@@ -2530,7 +2810,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onCreateCallReceiver(requestId, callReceiver));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onCreateCallReceiver(requestId, callReceiver));
             }
         }
     }
@@ -2542,13 +2822,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "getCallReceiver: callReceiverId=" + callReceiverId);
         }
 
-        mTwinlifeExecutor.execute(() -> getRepositoryService().getObject(callReceiverId, CallReceiverFactory.INSTANCE, (ErrorCode errorCode, RepositoryObject object) -> {
+        mSingleFlight.execute(SingleFlight.CALL_RECEIVER, callReceiverId, null, consumer, complete
+                -> mLanes.execute(() -> getRepositoryService().getObject(callReceiverId, CallReceiverFactory.INSTANCE, (ErrorCode errorCode, RepositoryObject object) -> {
             if (object instanceof CallReceiver) {
-                consumer.onGet(ErrorCode.SUCCESS, (CallReceiver) object);
+                complete.onGet(ErrorCode.SUCCESS, (CallReceiver) object);
             } else {
-                consumer.onGet(errorCode, null);
+                complete.onGet(errorCode, null);
             }
-        }));
+        })));
     }
 
     @Override
@@ -2557,7 +2838,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "findCallReceivers: filter=" + filter + " consumer=" + consumer);
         }
 
-        mTwinlifeExecutor.execute(() -> getRepositoryService().listObjects(CallReceiverFactory.INSTANCE, filter, (ErrorCode errorCode, List<RepositoryObject> list) -> {
+        mLanes.execute(() -> getRepositoryService().listObjects(CallReceiverFactory.INSTANCE, filter, (ErrorCode errorCode, List<RepositoryObject> list) -> {
             final List<CallReceiver> result = new ArrayList<>(list != null ? list.size() : 0);
 
             if (list != null) {
@@ -2581,7 +2862,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         DeleteCallReceiverExecutor executor = new DeleteCallReceiverExecutor(this, requestId, callReceiver, consumer);
-        mTwinlifeExecutor.execute(executor::start);
+        mLanes.execute(executor::start);
     }
 
     public void onDeleteCallReceiver(long requestId, @NonNull UUID callReceiverId) {
@@ -2589,12 +2870,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onDeleteCallReceiver: requestId=" + requestId + " callReceiverId=" + callReceiverId);
         }
 
+        mTwincodeIndex.remove(callReceiverId);
+
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onDeleteCallReceiver(requestId, callReceiverId));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onDeleteCallReceiver(requestId, callReceiverId));
             }
         }
     }
@@ -2609,7 +2892,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         final UpdateCallReceiverExecutor executor = new UpdateCallReceiverExecutor(this, requestId, callReceiver, name, description, avatar, avatarFile, capabilities);
-        mTwinlifeExecutor.execute(executor::start);
+        mLanes.execute(executor::start);
     }
 
     @Override
@@ -2621,7 +2904,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         final UpdateOrganizerExecutor executor = new UpdateOrganizerExecutor(this, requestId, callReceiver, identityName, identityDescription, identityAvatar, identityAvatarFile);
-        mTwinlifeExecutor.execute(executor::start);
+        mLanes.execute(executor::start);
     }
 
     public void onUpdateCallReceiver(long requestId, @NonNull CallReceiver callReceiver) {
@@ -2629,12 +2912,14 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onUpdateCallReceiver: requestId=" + requestId + " callReceiver=" + callReceiver);
         }
 
+        mTwincodeIndex.put(callReceiver);
+
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
         while (iterator.hasNext()) {
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onUpdateCallReceiver(requestId, callReceiver));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onUpdateCallReceiver(requestId, callReceiver));
             }
         }
     }
@@ -2651,7 +2936,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         ChangeCallReceiverTwincodeExecutor executor = new ChangeCallReceiverTwincodeExecutor(this, requestId, callReceiver, consumer);
-        mTwinlifeExecutor.execute(executor::start);
+        mLanes.execute(executor::start);
     }
 
     public void onChangeCallReceiverTwincode(long requestId, @NonNull CallReceiver callReceiver) {
@@ -2664,7 +2949,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onChangeCallReceiverTwincode(requestId, callReceiver));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onChangeCallReceiverTwincode(requestId, callReceiver));
             }
         }
     }
@@ -2686,7 +2971,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
     @Override
     public void getNotification(@NonNull UUID notificationId, @NonNull ConsumerWithError<Notification> consumer) {
 
-        mTwinlifeExecutor.execute(() -> {
+        mLanes.execute(() -> {
             Notification notification = getNotificationService().getNotification(notificationId);
             if (notification != null) {
                 consumer.onGet(ErrorCode.SUCCESS, notification);
@@ -2703,7 +2988,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
                     " maxDescriptors=" + maxDescriptors + " consumer=" + consumer);
         }
 
-        mTwinlifeExecutor.execute(() -> {
+        mLanes.execute(() -> {
             List<Notification> notifications = getNotificationService().listNotifications(filter, maxDescriptors);
             consumer.accept(notifications);
         });
@@ -2737,7 +3022,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
                 TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
                 if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                     TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                    mTwinlifeExecutor.execute(() -> twinmeContextObserver.onAddNotification(notification));
+                    mLanes.execute(Lane.BACKGROUND, () -> twinmeContextObserver.onAddNotification(notification));
                 }
             }
             scheduleRefreshNotifications();
@@ -2753,7 +3038,55 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
 
         UpdateNotificationExecutor updateNotificationExecutor = new UpdateNotificationExecutor(this, requestId, notification);
-        mTwinlifeExecutor.execute(updateNotificationExecutor::start);
+        mLanes.execute(updateNotificationExecutor::start);
+    }
+
+    @Override
+    public void acknowledgeNotifications(long requestId, @NonNull List<Notification> notifications) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "acknowledgeNotifications: requestId=" + requestId + " count=" + notifications.size());
+        }
+
+        UpdateNotificationExecutor updateNotificationExecutor = new UpdateNotificationExecutor(this, requestId, notifications);
+        mLanes.execute(updateNotificationExecutor::start);
+    }
+
+    @Override
+    public int getNotificationCount(@NonNull Notification notification) {
+
+        return mNotificationCoalescer.getCount(notification);
+    }
+
+    /**
+     * Get the number of notifications that were merged with a pending notification instead of being created.
+     *
+     * @return the number of merged notifications.
+     */
+    public long getMergedNotificationCount() {
+
+        return mNotificationCoalescer.getMergedCount();
+    }
+
+    public void onUpdateNotifications(long requestId, @NonNull List<Notification> notifications) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onUpdateNotifications: requestId=" + requestId + " count=" + notifications.size());
+        }
+
+        for (Notification notification : notifications) {
+            mNotificationCoalescer.remove(notification);
+            mNotificationCenter.onAcknowledgeNotification(notification);
+        }
+
+        Iterator<TwinlifeContext.Observer> iterator = observersIterator();
+        while (iterator.hasNext()) {
+            TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
+            if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
+                TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onAcknowledgeNotifications(requestId, notifications));
+            }
+        }
+
+        scheduleRefreshNotifications();
     }
 
     public void onUpdateNotification(long requestId, @NonNull Notification notification) {
@@ -2761,6 +3094,8 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onUpdateNotification: requestId=" + requestId + " notification=" + notification);
         }
 
+        mNotificationCoalescer.remove(notification);
+
         mNotificationCenter.onAcknowledgeNotification(notification);
 
         Iterator<TwinlifeContext.Observer> iterator = observersIterator();
@@ -2768,7 +3103,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
             if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                 TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                mTwinlifeExecutor.execute(() -> twinmeContextObserver.onAcknowledgeNotification(requestId, notification));
+                mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onAcknowledgeNotification(requestId, notification));
             }
         }
 
@@ -2781,7 +3116,8 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "deleteNotification: requestId=" + requestId + " notificationId=" + notification);
         }
 
-        mTwinlifeExecutor.execute(() -> {
+        mNotificationCoalescer.remove(notification);
+        mLanes.execute(() -> {
             getNotificationService().deleteNotification(notification);
 
             // Acknowledge the notification to cancel the system notification if any.
@@ -2795,7 +3131,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
                 TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
                 if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                     TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                    mTwinlifeExecutor.execute(() -> twinmeContextObserver.onDeleteNotification(requestId, notification.getId()));
+                    mLanes.execute(getResultLane(requestId), () -> twinmeContextObserver.onDeleteNotification(requestId, notification.getId()));
                 }
             }
 
@@ -2809,7 +3145,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "getSpaceNotificationStats");
         }
 
-        mTwinlifeExecutor.execute(() -> {
+        mLanes.execute(() -> {
             final Map<UUID, NotificationStat> stats = getNotificationService().getNotificationStats();
 
             long pendingCount = 0;
@@ -2834,7 +3170,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "getNotificationStats");
         }
 
-        mTwinlifeExecutor.execute(() -> {
+        mLanes.execute(() -> {
             final Map<UUID, NotificationStat> stats = getNotificationService().getNotificationStats();
             final Map<Space, NotificationStat> result = new HashMap<>();
             synchronized (mSpaces) {
@@ -2866,6 +3202,33 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
         }
     }
 
+    private void scheduleSaveLocation() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "scheduleSaveLocation");
+        }
+
+        synchronized (this) {
+            if (mSaveLocationJob != null) {
+                return;
+            }
+
+            mSaveLocationJob = getJobService().scheduleIn("Location", this::saveLocationJob,
+                    LocationReport.SAVE_INTERVAL, JobService.Priority.REPORT);
+        }
+    }
+
+    private void saveLocationJob() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "saveLocationJob");
+        }
+
+        synchronized (this) {
+            mSaveLocationJob = null;
+        }
+
+        LocationReport.flush(mTwinlifeImpl);
+    }
+
     private void notificationJob() {
         if (DEBUG) {
             Log.d(LOG_TAG, "notificationJob");
@@ -2918,7 +3281,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
                 TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
                 if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
                     TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
-                    mTwinlifeExecutor.execute(() -> twinmeContextObserver.onUpdatePendingNotifications(BaseService.DEFAULT_REQUEST_ID, hasPendingNotifications));
+                    mLanes.execute(Lane.BACKGROUND, () -> twinmeContextObserver.onUpdatePendingNotifications(BaseService.DEFAULT_REQUEST_ID, hasPendingNotifications));
                 }
             }
 
@@ -3003,7 +3366,62 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
         ReportStatsExecutor reportStatsExecutor = new ReportStatsExecutor(this, requestId, mTwinlifeImpl);
 
-        mTwinlifeExecutor.execute(reportStatsExecutor::start);
+        mLanes.execute(Lane.BACKGROUND, reportStatsExecutor::start);
+    }
+
+    /**
+     * Get the number of getContact, getGroup, getInvitation, getCallReceiver, getAccountMigration
+     * and getGroupMember requests that had to fetch the object.
+     *
+     * @return the number of object fetch requests.
+     */
+    public long getFetchRequestCount() {
+
+        return mSingleFlight.getRequestCount();
+    }
+
+    /**
+     * Get the number of object fetch requests that were merged with the same fetch in progress.
+     *
+     * @return the number of merged fetch requests.
+     */
+    public long getMergedFetchCount() {
+
+        return mSingleFlight.getMergedCount();
+    }
+
+    /**
+     * Get the queue depth and wait time metrics of a lane of the twinlife executor.
+     *
+     * @param lane the lane.
+     * @return the lane metrics.
+     */
+    @NonNull
+    public LaneExecutor.Stats getLaneStats(@NonNull Lane lane) {
+
+        return mLanes.getStats(lane);
+    }
+
+    /**
+     * Get the queue depth and processing time metrics of the twincode invocations.
+     *
+     * @return the invocation queue metrics.
+     */
+    @NonNull
+    public InvocationQueue.Stats getInvocationStats() {
+
+        return mRelationOrchestrator.getInvocationStats();
+    }
+
+    /**
+     * Get the number of recorded conference events and their recording latency.
+     *
+     * @return the conference event metrics.
+     */
+    @NonNull
+    public ConferenceEventStats getConferenceEventStats() {
+
+        return mConferenceOrchestrator.getStats();
     }
 
     public void onReportStats(long requestId, long nextDelay) {
@@ -3217,6 +3635,9 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
         getTwincodeInboundService().triggerPendingInvocations(this::onTriggerPendingInvocations);
 
+        // Detect the burst of messages received while we were offline.
+        mCatchUp.start(System.currentTimeMillis());
+
         // Setup the job to send the report periodically.
         ReportStatsExecutor r = new ReportStatsExecutor(this, BaseService.DEFAULT_REQUEST_ID, mTwinlifeImpl);
         long delay = r.getNextDelay();
@@ -3237,6 +3658,16 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onSignOut");
         }
 
+        // Save the last location before the configuration is cleared and forget it.
+        synchronized (this) {
+            if (mSaveLocationJob != null) {
+                mSaveLocationJob.cancel();
+                mSaveLocationJob = null;
+            }
+        }
+        LocationReport.flush(mTwinlifeImpl);
+        LocationReport.reset();
+
         super.onSignOut();
 
         ConfigurationService configurationService = getConfigurationService();
@@ -3253,6 +3684,13 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             mActionTimeoutJob.cancel();
             mActionTimeoutJob = null;
         }
+        synchronized (mCatchUp) {
+            if (mCatchUpJob != null) {
+                mCatchUpJob.cancel();
+                mCatchUpJob = null;
+            }
+            mCatchUp.finish();
+        }
 
         mCurrentProfile = null;
 
@@ -3260,12 +3698,30 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             mSpaces.clear();
         }
         mGetSpacesDone = false;
+        mTwincodeIndex.clear();
+        mSingleFlight.clear();
+        mRelationOrchestrator.onSignOut();
+        mConferenceOrchestrator.onSignOut();
+        mSnapshot = null;
+        synchronized (this) {
+            mSavedSnapshot = null;
+        }
     }
 
     //
     // Private Methods
     //
 
+    /**
+     * Get the lane to notify the observers about the result of an operation: the result of a request
+     * started by the user is waited for, the other updates are a background fan-out.
+     */
+    @NonNull
+    private static Lane getResultLane(long requestId) {
+
+        return requestId == BaseService.DEFAULT_REQUEST_ID ? Lane.BACKGROUND : Lane.INTERACTIVE;
+    }
+
     private Space putSpace(@NonNull Space space) {
         if (DEBUG) {
             Log.d(LOG_TAG, "putContact: space=" + space);
@@ -3397,6 +3853,7 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             getGroupMember(
                     (Group) result.object,
                     callingUserTwincodeId,
+                    Lane.REALTIME,
                     (ErrorCode errorCode, GroupMember groupMember) ->
                             onIncomingPeerConnection(result.errorCode, groupMember, callingUserTwincodeId, peerConnectionId, offer)
             );
@@ -3569,8 +4026,8 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
 
             case GEOLOCATION_DESCRIPTOR:
                 incrementStat(conversation.getSubject(), StatType.NB_GEOLOCATION_SENT);
-                if (ENABLE_REPORT_LOCATION) {
-                    LocationReport.recordGeolocation(mTwinlifeImpl, (ConversationService.GeolocationDescriptor) descriptor);
+                if (ENABLE_REPORT_LOCATION && LocationReport.recordGeolocation(mTwinlifeImpl, (ConversationService.GeolocationDescriptor) descriptor)) {
+                    scheduleSaveLocation();
                 }
                 break;
 
@@ -3593,58 +4050,137 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
             Log.d(LOG_TAG, "onPopDescriptor: conversation=" + conversation + " descriptor=" + descriptor);
         }
 
+        if (descriptor instanceof ConversationService.CallDescriptor) {
+            ConversationService.CallDescriptor callDescriptor = (ConversationService.CallDescriptor) descriptor;
+
+            incrementStat(conversation.getSubject(),
+                    callDescriptor.isVideo() ? StatType.NB_VIDEO_CALL_RECEIVED : StatType.NB_AUDIO_CALL_RECEIVED);
+
+            // When an incoming audio/video call is received, we don't need to proceed since it is handled specifically.
+            return;
+        }
+
+        final StatType kind = getReceivedStatType(descriptor);
+
+        // During the catch-up after a reconnection, the descriptor is handled with the others at the end.
+        if (mCatchUp.record(System.currentTimeMillis(), conversation, descriptor, kind)) {
+            synchronized (mCatchUp) {
+                if (mCatchUpJob == null) {
+                    mCatchUpJob = getJobService().scheduleIn("Catch-up", this::catchUpJob,
+                            CATCHUP_QUIET_DELAY, JobService.Priority.MESSAGE);
+                }
+            }
+            return;
+        }
+
+        if (kind != null) {
+            incrementStat(conversation.getSubject(), kind);
+        }
+        notifyPopDescriptor(conversation, descriptor, 1);
+    }
+
+    /**
+     * Notify the received descriptor.
+     *
+     * @param conversation the conversation.
+     * @param descriptor the last received descriptor.
+     * @param count the number of messages represented by the descriptor.
+     */
+    private void notifyPopDescriptor(@NonNull Conversation conversation, @NonNull Descriptor descriptor, int count) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "notifyPopDescriptor: conversation=" + conversation + " descriptor=" + descriptor
+                    + " count=" + count);
+        }
+
+        if (conversation.isConversation(mActiveConversationId.get())) {
+
+            return;
+        }
+
+        if (conversation.isGroup() || !descriptor.getTwincodeOutboundId().equals(conversation.getPeerTwincodeOutboundId())) {
+            getGroupMember((Originator) conversation.getSubject(), descriptor.getTwincodeOutboundId(),
+                    (ErrorCode status, GroupMember groupMember) -> onPopDescriptor(status, groupMember, conversation, descriptor, count));
+        } else {
+            onPopDescriptor(ErrorCode.SUCCESS, conversation.getSubject(), conversation, descriptor, count);
+        }
+    }
+
+    @Nullable
+    private static StatType getReceivedStatType(@NonNull Descriptor descriptor) {
+
         switch (descriptor.getType()) {
             case OBJECT_DESCRIPTOR:
-                incrementStat(conversation.getSubject(), StatType.NB_MESSAGE_RECEIVED);
-                break;
+                return StatType.NB_MESSAGE_RECEIVED;
 
             case FILE_DESCRIPTOR:
             case NAMED_FILE_DESCRIPTOR:
-                incrementStat(conversation.getSubject(), StatType.NB_FILE_RECEIVED);
-                break;
+                return StatType.NB_FILE_RECEIVED;
 
             case IMAGE_DESCRIPTOR:
-                incrementStat(conversation.getSubject(), StatType.NB_IMAGE_RECEIVED);
-                break;
+                return StatType.NB_IMAGE_RECEIVED;
 
             case VIDEO_DESCRIPTOR:
-                incrementStat(conversation.getSubject(), StatType.NB_VIDEO_RECEIVED);
-                break;
+                return StatType.NB_VIDEO_RECEIVED;
 
             case AUDIO_DESCRIPTOR:
-                incrementStat(conversation.getSubject(), StatType.NB_AUDIO_RECEIVED);
-                break;
+                return StatType.NB_AUDIO_RECEIVED;
 
             case GEOLOCATION_DESCRIPTOR:
-                incrementStat(conversation.getSubject(), StatType.NB_GEOLOCATION_RECEIVED);
-                break;
+                return StatType.NB_GEOLOCATION_RECEIVED;
 
             case TWINCODE_DESCRIPTOR:
-                incrementStat(conversation.getSubject(), StatType.NB_TWINCODE_RECEIVED);
-                break;
+                return StatType.NB_TWINCODE_RECEIVED;
 
-            case CALL_DESCRIPTOR: {
-                ConversationService.CallDescriptor callDescriptor = (ConversationService.CallDescriptor) descriptor;
+            default:
+                return null;
+        }
+    }
 
-                incrementStat(conversation.getSubject(),
-                        callDescriptor.isVideo() ? StatType.NB_VIDEO_CALL_RECEIVED : StatType.NB_AUDIO_CALL_RECEIVED);
+    /**
+     * End of the catch-up after a reconnection: update the statistics, refresh the shortcuts and notify
+     * the descriptors kept by the catch-up buffer.
+     */
+    private void catchUpJob() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "catchUpJob");
+        }
 
-                // When an incoming audio/video call is received, we don't need to proceed since it is handled specifically.
+        final long now = System.currentTimeMillis();
+        final CatchUpBuffer.Batch batch;
+        synchronized (mCatchUp) {
+            final long delay = mCatchUp.getRemainingDelay(now);
+            if (delay > 0) {
+                mCatchUpJob = getJobService().scheduleIn("Catch-up", this::catchUpJob, delay, JobService.Priority.MESSAGE);
                 return;
             }
-
+            mCatchUpJob = null;
+            batch = mCatchUp.finish();
+        }
+        if (batch == null) {
+            return;
         }
 
-        if (conversation.isConversation(mActiveConversationId.get())) {
+        final RepositoryService repositoryService = getRepositoryService();
+        for (CatchUpBuffer.Stat stat : batch.stats) {
+            for (int i = 0; i < stat.count; i++) {
+                repositoryService.incrementStat(stat.object, stat.kind);
+            }
+        }
 
-            return;
+        final Set<UUID> conversations = new HashSet<>();
+        for (CatchUpBuffer.Item item : batch.descriptors) {
+            final RepositoryObject subject = item.conversation.getSubject();
+            if (conversations.add(item.conversation.getId()) && subject instanceof Originator
+                    && allowShortcutForOriginator((Originator) subject)) {
+                mNotificationCenter.pushDynamicShortcut((Originator) subject, true);
+            }
+            notifyPopDescriptor(item.conversation, item.descriptor, item.count);
         }
 
-        if (conversation.isGroup() || !descriptor.getTwincodeOutboundId().equals(conversation.getPeerTwincodeOutboundId())) {
-            getGroupMember((Originator) conversation.getSubject(), descriptor.getTwincodeOutboundId(),
-                    (ErrorCode status, GroupMember groupMember) -> onPopDescriptor(status, groupMember, conversation, descriptor));
-        } else {
-            onPopDescriptor(ErrorCode.SUCCESS, conversation.getSubject(), conversation, descriptor);
+        if (INFO) {
+            Log.i(LOG_TAG, "Catch-up of " + batch.count + " descriptors in " + conversations.size()
+                    + " conversations, " + batch.descriptors.size() + " notified, " + batch.stats.size() + " stats, "
+                    + (now - batch.startTime) + " ms");
         }
     }
 
@@ -3669,7 +4205,8 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
                 !originator.getIdentityCapabilities().hasDiscreet();
     }
 
-    private void onPopDescriptor(@NonNull ErrorCode status, @Nullable RepositoryObject receiver, @NonNull Conversation conversation, @NonNull Descriptor descriptor) {
+    private void onPopDescriptor(@NonNull ErrorCode status, @Nullable RepositoryObject receiver, @NonNull Conversation conversation,
+                                 @NonNull Descriptor descriptor, int count) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onPopDescriptor: status=" + status + " receiver=" + receiver
                     + " conversation=" + conversation + " descriptor=" + descriptor);
@@ -3732,11 +4269,41 @@ public class TwinmeContextImpl extends TwinlifeContextImpl implements TwinmeCont
                     break;
             }
             if (notificationType != null) {
-                createNotification(notificationType, 0 /* Notification.NO_NOTIFICATION_ID,*/, originator, descriptor.getDescriptorId(), null);
+                createCoalescedNotification(notificationType, originator, descriptor.getDescriptorId(), count);
             }
         }
     }
 
+    private void createCoalescedNotification(@NonNull NotificationType notificationType, @NonNull Originator originator,
+                                             @NonNull DescriptorId descriptorId, int count) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "createCoalescedNotification: notificationType=" + notificationType + " originator=" + originator
+                    + " count=" + count);
+        }
+
+        // The notification of a group member is associated with the group: merge the messages of the group.
+        final Originator subject = originator instanceof GroupMember ? ((GroupMember) originator).getGroup() : originator;
+        final long now = System.currentTimeMillis();
+        final Notification pending = mNotificationCoalescer.merge(subject.getId(), notificationType, count, now);
+        if (pending != null) {
+            final int total = mNotificationCoalescer.getCount(pending);
+            Iterator<TwinlifeContext.Observer> iterator = observersIterator();
+            while (iterator.hasNext()) {
+                TwinlifeContext.Observer twinlifeContextObserver = iterator.next();
+                if (twinlifeContextObserver instanceof TwinmeContext.Observer) {
+                    TwinmeContext.Observer twinmeContextObserver = (TwinmeContext.Observer) twinlifeContextObserver;
+                    mLanes.execute(Lane.BACKGROUND, () -> twinmeContextObserver.onUpdateNotification(pending, total));
+                }
+            }
+            return;
+        }
+
+        final Notification notification = createNotification(notificationType, 0 /* Notification.NO_NOTIFICATION_ID,*/, subject, descriptorId, null);
+        if (notification != null) {
+            mNotificationCoalescer.put(subject.getId(), notification, count, now);
+        }
+    }
+
     private void onUpdateDescriptor(@NonNull Conversation conversation, @NonNull Descriptor descriptor, @NonNull UpdateType updateType) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onUpdateDescriptor: conversation=" + conversation + " descriptor=" + descriptor + " updateType=" + updateType);
@@ -0,0 +1,360 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.actions;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.BaseService.ErrorCode;
+import org.twinlife.twinlife.Consumer;
+import org.twinlife.twinlife.ConversationService;
+import org.twinlife.twinlife.ConversationService.Conversation;
+import org.twinlife.twinlife.ConversationService.Descriptor;
+import org.twinlife.twinlife.ConversationService.TransientObjectDescriptor;
+import org.twinlife.twinlife.JobService;
+import org.twinlife.twinme.TwinmeContext;
+import org.twinlife.twinme.models.Contact;
+import org.twinlife.twinme.models.RoomCommandResult;
+import org.twinlife.twinme.models.RoomImageTransfer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Upload the Twinroom image by chunks with the RoomImageTransfer commands.
+ *
+ * The image file is read by chunks of `chunkSize` bytes and at most `window` chunks are in flight so that
+ * the memory used by the upload is bounded whatever the image size, and the conversation can send other
+ * messages between the chunks.  The SHA-256 is computed while the file is read and it is sent by the COMMIT.
+ * When a chunk fails, the transfer is aborted.  A Twinroom which does not support the chunked transfer reports
+ * FEATURE_NOT_SUPPORTED_BY_PEER and the caller can use roomSetImage() instead.
+ */
+public class RoomImageUpload {
+    private static final String LOG_TAG = "RoomImageUpload";
+    private static final boolean DEBUG = false;
+
+    private static final long ROOM_TIMEOUT = 20000;
+
+    public static final int DEFAULT_CHUNK_SIZE = 32 * 1024;
+    public static final int DEFAULT_WINDOW = 4;
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_BEGIN = 1;
+    private static final int STATE_CHUNKS = 2;
+    private static final int STATE_COMMIT = 3;
+    private static final int STATE_DONE = 4;
+
+    private class ConversationServiceObserver extends ConversationService.DefaultServiceObserver {
+
+        @Override
+        public void onPopDescriptor(long requestId, @NonNull Conversation conversation, @NonNull Descriptor descriptor) {
+
+            if (!(descriptor instanceof TransientObjectDescriptor)) {
+                return;
+            }
+
+            final Object object = ((TransientObjectDescriptor) descriptor).getObject();
+            if (object instanceof RoomCommandResult) {
+                final RoomCommandResult result = (RoomCommandResult) object;
+                RoomImageUpload.this.onResult(result.getRequestId(), RoomModerationPipeline.toErrorCode(result.getStatus()));
+            }
+        }
+
+        @Override
+        public void onError(long requestId, ErrorCode errorCode, @Nullable String errorParameter) {
+
+            RoomImageUpload.this.onResult(requestId, errorCode);
+        }
+    }
+
+    @NonNull
+    private final TwinmeContext mTwinmeContext;
+    @NonNull
+    private final Contact mContact;
+    @NonNull
+    private final File mImageFile;
+    private final int mChunkSize;
+    private final int mWindow;
+    @NonNull
+    private final Consumer<UUID> mConsumer;
+    @NonNull
+    private final UUID mTransferId;
+    @NonNull
+    private final ConversationServiceObserver mConversationServiceObserver;
+    private final Set<Long> mInFlight = new HashSet<>();
+    private int mState = STATE_INIT;
+    private long mLength;
+    private long mOffset;
+    @Nullable
+    private InputStream mInput;
+    @Nullable
+    private MessageDigest mDigest;
+    @Nullable
+    private Conversation mConversation;
+    @Nullable
+    private JobService.Job mTimeoutJob;
+
+    public RoomImageUpload(@NonNull TwinmeContext twinmeContext, @NonNull Contact contact, @NonNull File imageFile,
+                           int chunkSize, int window, @NonNull Consumer<UUID> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "RoomImageUpload: contact=" + contact + " imageFile=" + imageFile
+                    + " chunkSize=" + chunkSize + " window=" + window);
+        }
+
+        mTwinmeContext = twinmeContext;
+        mContact = contact;
+        mImageFile = imageFile;
+        mChunkSize = Math.max(1024, chunkSize);
+        mWindow = Math.max(1, window);
+        mConsumer = consumer;
+        mTransferId = UUID.randomUUID();
+        mConversationServiceObserver = new ConversationServiceObserver();
+    }
+
+    /**
+     * Start the upload: the consumer is called with the transfer id when the Twinroom has accepted the image.
+     */
+    public void start() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "start");
+        }
+
+        final RoomImageTransfer begin;
+        ErrorCode errorCode = ErrorCode.SUCCESS;
+        synchronized (this) {
+            if (mState != STATE_INIT) {
+                return;
+            }
+
+            if (!mContact.isTwinroom() || !mContact.hasPeer()) {
+                errorCode = ErrorCode.BAD_REQUEST;
+            } else {
+                mConversation = mTwinmeContext.getConversationService().getOrCreateConversation(mContact);
+                if (mConversation == null) {
+                    errorCode = ErrorCode.ITEM_NOT_FOUND;
+                } else {
+                    try {
+                        mDigest = MessageDigest.getInstance("SHA-256");
+                        mInput = new FileInputStream(mImageFile);
+                        mLength = mImageFile.length();
+                    } catch (IOException | NoSuchAlgorithmException exception) {
+                        Log.e(LOG_TAG, "Cannot read image file", exception);
+                        errorCode = ErrorCode.LIBRARY_ERROR;
+                    }
+                }
+            }
+            if (errorCode == ErrorCode.SUCCESS) {
+                mState = STATE_BEGIN;
+                begin = RoomImageTransfer.begin(mTwinmeContext.newRequestId(), mTransferId, mLength);
+                mInFlight.add(begin.getRequestId());
+            } else {
+                begin = null;
+            }
+        }
+
+        if (begin == null) {
+            finish(errorCode);
+            return;
+        }
+
+        mTwinmeContext.getConversationService().addServiceObserver(mConversationServiceObserver);
+        send(Collections.singletonList(begin));
+    }
+
+    /**
+     * Cancel the upload: the Twinroom is asked to drop the transfer and the consumer is called with EXPIRED.
+     */
+    public void cancel() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "cancel");
+        }
+
+        abort(ErrorCode.EXPIRED);
+    }
+
+    //
+    // Private methods
+    //
+
+    private void onResult(long requestId, @NonNull ErrorCode errorCode) {
+
+        final List<RoomImageTransfer> toSend;
+        final ErrorCode failure;
+        synchronized (this) {
+            if (!mInFlight.remove(requestId)) {
+                return;
+            }
+            if (DEBUG) {
+                Log.d(LOG_TAG, "onResult: requestId=" + requestId + " errorCode=" + errorCode + " state=" + mState);
+            }
+            if (errorCode != ErrorCode.SUCCESS) {
+                failure = errorCode;
+                toSend = null;
+            } else if (mState == STATE_COMMIT) {
+                failure = null;
+                toSend = null;
+            } else {
+                mState = STATE_CHUNKS;
+                toSend = nextCommands();
+                failure = toSend == null ? ErrorCode.LIBRARY_ERROR : null;
+            }
+        }
+
+        if (failure != null) {
+            // A BEGIN failure means the Twinroom has not created the transfer and abort() does not send the ABORT.
+            abort(failure);
+        } else if (toSend == null) {
+            finish(ErrorCode.SUCCESS);
+        } else if (!toSend.isEmpty()) {
+            send(toSend);
+        }
+    }
+
+    /**
+     * Read the next chunks while the window is not full and the COMMIT when every chunk is acknowledged.
+     *
+     * @return the commands to send, or null when the image file cannot be read.
+     */
+    @Nullable
+    private List<RoomImageTransfer> nextCommands() {
+
+        final List<RoomImageTransfer> result = new ArrayList<>();
+        final InputStream input = mInput;
+        final MessageDigest digest = mDigest;
+        if (input == null || digest == null) {
+            return result;
+        }
+
+        try {
+            while (mInFlight.size() < mWindow && mOffset < mLength) {
+                final int size = (int) Math.min(mChunkSize, mLength - mOffset);
+                final byte[] data = new byte[size];
+                int pos = 0;
+                while (pos < size) {
+                    final int count = input.read(data, pos, size - pos);
+                    if (count < 0) {
+                        throw new IOException("Image file truncated");
+                    }
+                    pos += count;
+                }
+                digest.update(data);
+                final RoomImageTransfer chunk = RoomImageTransfer.chunk(mTwinmeContext.newRequestId(), mTransferId, mOffset, data);
+                mOffset += size;
+                mInFlight.add(chunk.getRequestId());
+                result.add(chunk);
+            }
+        } catch (IOException exception) {
+            Log.e(LOG_TAG, "Cannot read image file", exception);
+            return null;
+        }
+
+        if (mOffset >= mLength && mInFlight.isEmpty()) {
+            closeInput();
+            final RoomImageTransfer commit = RoomImageTransfer.commit(mTwinmeContext.newRequestId(), mTransferId, digest.digest());
+            mInFlight.add(commit.getRequestId());
+            mState = STATE_COMMIT;
+            result.add(commit);
+        }
+        return result;
+    }
+
+    private void send(@NonNull List<RoomImageTransfer> commands) {
+
+        final Conversation conversation;
+        synchronized (this) {
+            conversation = mConversation;
+            if (conversation == null || mState == STATE_DONE) {
+                return;
+            }
+            if (mTimeoutJob != null) {
+                mTimeoutJob.cancel();
+            }
+            mTimeoutJob = mTwinmeContext.getJobService().scheduleIn("RoomImageUpload", this::onTimeout,
+                    ROOM_TIMEOUT, JobService.Priority.MESSAGE);
+        }
+
+        final ConversationService conversationService = mTwinmeContext.getConversationService();
+        for (RoomImageTransfer command : commands) {
+            conversationService.pushCommand(command.getRequestId(), conversation, command);
+        }
+    }
+
+    private void onTimeout() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onTimeout");
+        }
+
+        synchronized (this) {
+            mTimeoutJob = null;
+        }
+        abort(ErrorCode.TIMEOUT_ERROR);
+    }
+
+    private void abort(@NonNull ErrorCode errorCode) {
+
+        final Conversation conversation;
+        final boolean sendAbort;
+        synchronized (this) {
+            if (mState == STATE_DONE) {
+                return;
+            }
+            sendAbort = mState != STATE_INIT && mState != STATE_BEGIN;
+            conversation = mConversation;
+            mState = STATE_DONE;
+            mInFlight.clear();
+        }
+
+        if (sendAbort && conversation != null) {
+            final RoomImageTransfer abort = RoomImageTransfer.abort(mTwinmeContext.newRequestId(), mTransferId);
+            mTwinmeContext.getConversationService().pushCommand(abort.getRequestId(), conversation, abort);
+        }
+        finish(errorCode);
+    }
+
+    private void finish(@NonNull ErrorCode errorCode) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "finish: errorCode=" + errorCode);
+        }
+
+        synchronized (this) {
+            mState = STATE_DONE;
+            if (mTimeoutJob != null) {
+                mTimeoutJob.cancel();
+                mTimeoutJob = null;
+            }
+            closeInput();
+        }
+
+        mTwinmeContext.getConversationService().removeServiceObserver(mConversationServiceObserver);
+        mConsumer.onGet(errorCode, errorCode == ErrorCode.SUCCESS ? mTransferId : null);
+    }
+
+    private void closeInput() {
+
+        if (mInput != null) {
+            try {
+                mInput.close();
+            } catch (IOException exception) {
+                Log.e(LOG_TAG, "Cannot close image file", exception);
+            }
+            mInput = null;
+        }
+    }
+}
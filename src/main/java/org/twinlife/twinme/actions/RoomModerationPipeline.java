@@ -0,0 +1,493 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.actions;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.BaseService.ErrorCode;
+import org.twinlife.twinlife.Consumer;
+import org.twinlife.twinlife.ConversationService;
+import org.twinlife.twinlife.ConversationService.Conversation;
+import org.twinlife.twinlife.ConversationService.Descriptor;
+import org.twinlife.twinlife.ConversationService.TransientObjectDescriptor;
+import org.twinlife.twinlife.JobService;
+import org.twinlife.twinme.TwinmeContext;
+import org.twinlife.twinme.models.Contact;
+import org.twinlife.twinme.models.RoomCommand;
+import org.twinlife.twinme.models.RoomCommandResult;
+import org.twinlife.twinme.models.RoomMemberList;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bulk moderation of the Twinroom members.
+ *
+ * A ROOM_SET_ROLES on a large member list is split in commands of at most `chunkSize` members and the
+ * ROOM_DELETE_MEMBER and ROOM_SIGNAL_MEMBER commands are created for each member.  The commands are sent
+ * like the EnginePipeline with up to `window` commands in flight and the RoomCommandResult are matched with
+ * the request ids.  When every command of an operation is answered, the consumer receives a Report with the
+ * members that were updated and the members that failed with their error: a failed chunk does not stop the
+ * other chunks.
+ */
+public class RoomModerationPipeline {
+    private static final String LOG_TAG = "RoomModerationPipeline";
+    private static final boolean DEBUG = false;
+    private static final boolean INFO = org.twinlife.twinlife.BuildConfig.ENABLE_INFO_LOG;
+
+    private static final long ROOM_TIMEOUT = 20000;
+
+    public static final int DEFAULT_CHUNK_SIZE = 100;
+    public static final int DEFAULT_WINDOW = 4;
+
+    public static final class Report {
+        private final int mTotal;
+        @NonNull
+        private final RoomMemberList mSucceeded;
+        @NonNull
+        private final Map<UUID, ErrorCode> mFailures;
+
+        Report(int total) {
+
+            mTotal = total;
+            mSucceeded = new RoomMemberList(total);
+            mFailures = new LinkedHashMap<>();
+        }
+
+        public int getTotal() {
+
+            return mTotal;
+        }
+
+        @NonNull
+        public RoomMemberList getSucceeded() {
+
+            return mSucceeded;
+        }
+
+        @NonNull
+        public Map<UUID, ErrorCode> getFailures() {
+
+            return Collections.unmodifiableMap(mFailures);
+        }
+
+        public boolean isComplete() {
+
+            return mFailures.isEmpty();
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+
+            return "Report: total=" + mTotal + " succeeded=" + mSucceeded.size() + " failed=" + mFailures.size();
+        }
+    }
+
+    private static final class Operation {
+        @NonNull
+        final Report report;
+        @NonNull
+        final Consumer<Report> consumer;
+        int remaining;
+        @Nullable
+        ErrorCode firstError;
+
+        Operation(int total, int commandCount, @NonNull Consumer<Report> consumer) {
+
+            this.report = new Report(total);
+            this.consumer = consumer;
+            this.remaining = commandCount;
+        }
+    }
+
+    private static final class Pending {
+        @NonNull
+        final Operation operation;
+        @NonNull
+        final RoomCommand command;
+        @NonNull
+        final List<UUID> members;
+        long deadline;
+
+        Pending(@NonNull Operation operation, @NonNull RoomCommand command, @NonNull List<UUID> members) {
+
+            this.operation = operation;
+            this.command = command;
+            this.members = members;
+        }
+    }
+
+    private class ConversationServiceObserver extends ConversationService.DefaultServiceObserver {
+
+        @Override
+        public void onPopDescriptor(long requestId, @NonNull Conversation conversation, @NonNull Descriptor descriptor) {
+
+            if (!(descriptor instanceof TransientObjectDescriptor)) {
+                return;
+            }
+
+            final Object object = ((TransientObjectDescriptor) descriptor).getObject();
+            if (object instanceof RoomCommandResult) {
+                RoomModerationPipeline.this.onResult(conversation, (RoomCommandResult) object);
+            }
+        }
+
+        @Override
+        public void onError(long requestId, ErrorCode errorCode, @Nullable String errorParameter) {
+
+            RoomModerationPipeline.this.onError(requestId, errorCode);
+        }
+    }
+
+    @NonNull
+    private final TwinmeContext mTwinmeContext;
+    @NonNull
+    private final Contact mContact;
+    private final int mChunkSize;
+    private final int mWindow;
+    private final long mTimeout;
+    @NonNull
+    private final ConversationServiceObserver mConversationServiceObserver;
+    private final ArrayDeque<Pending> mWaiting = new ArrayDeque<>();
+    private final Map<Long, Pending> mInFlight = new HashMap<>();
+    @Nullable
+    private Conversation mConversation;
+    @Nullable
+    private JobService.Job mTimeoutJob;
+    private boolean mClosed;
+
+    public RoomModerationPipeline(@NonNull TwinmeContext twinmeContext, @NonNull Contact contact, int chunkSize, int window) {
+
+        this(twinmeContext, contact, chunkSize, window, ROOM_TIMEOUT);
+    }
+
+    RoomModerationPipeline(@NonNull TwinmeContext twinmeContext, @NonNull Contact contact, int chunkSize, int window,
+                           long timeout) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "RoomModerationPipeline: contact=" + contact + " chunkSize=" + chunkSize + " window=" + window
+                    + " timeout=" + timeout);
+        }
+
+        mTwinmeContext = twinmeContext;
+        mContact = contact;
+        mChunkSize = Math.max(1, chunkSize);
+        mWindow = Math.max(1, window);
+        mTimeout = timeout;
+        mConversationServiceObserver = new ConversationServiceObserver();
+        twinmeContext.getConversationService().addServiceObserver(mConversationServiceObserver);
+    }
+
+    /**
+     * Set the role of the members with ROOM_SET_ROLES commands of at most `chunkSize` members.
+     *
+     * @param role the role to set.
+     * @param members the members.
+     * @param consumer the consumer called with SUCCESS or the first error and the report.
+     */
+    public void setRoles(@NonNull String role, @NonNull List<UUID> members, @NonNull Consumer<Report> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "setRoles: role=" + role + " members=" + members.size());
+        }
+
+        final int count = (members.size() + mChunkSize - 1) / mChunkSize;
+        final Operation operation = new Operation(members.size(), count, consumer);
+        final List<Pending> list = new ArrayList<>(count);
+        for (int start = 0; start < members.size(); start += mChunkSize) {
+            final List<UUID> chunk = new ArrayList<>(members.subList(start, Math.min(members.size(), start + mChunkSize)));
+            final RoomCommand command = new RoomCommand(mTwinmeContext.newRequestId(), RoomCommand.Action.ROOM_SET_ROLES, role, chunk);
+            list.add(new Pending(operation, command, chunk));
+        }
+        submit(operation, list);
+    }
+
+    /**
+     * Remove the members from the Twinroom with one ROOM_DELETE_MEMBER command per member.
+     *
+     * @param members the members to remove.
+     * @param consumer the consumer called with SUCCESS or the first error and the report.
+     */
+    public void deleteMembers(@NonNull List<UUID> members, @NonNull Consumer<Report> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "deleteMembers: members=" + members.size());
+        }
+
+        submitEach(RoomCommand.Action.ROOM_DELETE_MEMBER, members, consumer);
+    }
+
+    /**
+     * Signal the members to the Twinroom administrators with one ROOM_SIGNAL_MEMBER command per member.
+     *
+     * @param members the members to signal.
+     * @param consumer the consumer called with SUCCESS or the first error and the report.
+     */
+    public void signalMembers(@NonNull List<UUID> members, @NonNull Consumer<Report> consumer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "signalMembers: members=" + members.size());
+        }
+
+        submitEach(RoomCommand.Action.ROOM_SIGNAL_MEMBER, members, consumer);
+    }
+
+    /**
+     * Get the number of commands sent and waiting for their result.
+     *
+     * @return the number of commands in flight.
+     */
+    public synchronized int getInFlightCount() {
+
+        return mInFlight.size();
+    }
+
+    /**
+     * Close the pipeline: the commands not yet answered are reported with the EXPIRED error.
+     */
+    public void close() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "close");
+        }
+
+        final List<Pending> pending;
+        synchronized (this) {
+            if (mClosed) {
+                return;
+            }
+            mClosed = true;
+            pending = new ArrayList<>(mInFlight.values());
+            pending.addAll(mWaiting);
+            mInFlight.clear();
+            mWaiting.clear();
+            if (mTimeoutJob != null) {
+                mTimeoutJob.cancel();
+                mTimeoutJob = null;
+            }
+        }
+
+        mTwinmeContext.getConversationService().removeServiceObserver(mConversationServiceObserver);
+        for (Pending item : pending) {
+            complete(item, ErrorCode.EXPIRED);
+        }
+    }
+
+    /**
+     * Get the error code that corresponds to the room command status.
+     *
+     * @param status the room command status.
+     * @return the error code.
+     */
+    @NonNull
+    public static ErrorCode toErrorCode(@NonNull RoomCommandResult.Status status) {
+
+        switch (status) {
+            case SUCCESS:
+                return ErrorCode.SUCCESS;
+
+            case ITEM_NOT_FOUND:
+                return ErrorCode.ITEM_NOT_FOUND;
+
+            case BAD_COMMAND:
+                return ErrorCode.BAD_REQUEST;
+
+            case PERMISSION_DENIED:
+                return ErrorCode.NO_PERMISSION;
+
+            case ERROR:
+            default:
+                return ErrorCode.SERVER_ERROR;
+        }
+    }
+
+    //
+    // Private methods
+    //
+
+    private void submitEach(@NonNull RoomCommand.Action action, @NonNull List<UUID> members, @NonNull Consumer<Report> consumer) {
+
+        final Operation operation = new Operation(members.size(), members.size(), consumer);
+        final List<Pending> list = new ArrayList<>(members.size());
+        for (UUID member : members) {
+            final RoomCommand command = new RoomCommand(mTwinmeContext.newRequestId(), action, member);
+            list.add(new Pending(operation, command, Collections.singletonList(member)));
+        }
+        submit(operation, list);
+    }
+
+    private void submit(@NonNull Operation operation, @NonNull List<Pending> list) {
+
+        if (list.isEmpty()) {
+            operation.consumer.onGet(ErrorCode.SUCCESS, operation.report);
+            return;
+        }
+
+        final boolean closed;
+        synchronized (this) {
+            closed = mClosed;
+            if (!closed) {
+                mWaiting.addAll(list);
+            }
+        }
+
+        if (closed) {
+            for (Pending pending : list) {
+                complete(pending, ErrorCode.EXPIRED);
+            }
+            return;
+        }
+        sendNext();
+    }
+
+    private void sendNext() {
+
+        final List<Pending> toSend = new ArrayList<>();
+        final Conversation conversation;
+        synchronized (this) {
+            if (mConversation == null && !mClosed) {
+                mConversation = mTwinmeContext.getConversationService().getOrCreateConversation(mContact);
+            }
+            conversation = mConversation;
+            if (conversation != null) {
+                final long deadline = System.currentTimeMillis() + mTimeout;
+                while (mInFlight.size() < mWindow && !mWaiting.isEmpty()) {
+                    final Pending pending = mWaiting.poll();
+                    pending.deadline = deadline;
+                    mInFlight.put(pending.command.getRequestId(), pending);
+                    toSend.add(pending);
+                }
+                if (!toSend.isEmpty() && mTimeoutJob == null) {
+                    mTimeoutJob = mTwinmeContext.getJobService().scheduleIn("RoomModerationPipeline", this::onTimeout,
+                            mTimeout, JobService.Priority.MESSAGE);
+                }
+            } else {
+                toSend.addAll(mWaiting);
+                mWaiting.clear();
+            }
+        }
+
+        if (conversation == null) {
+            for (Pending pending : toSend) {
+                complete(pending, ErrorCode.ITEM_NOT_FOUND);
+            }
+            return;
+        }
+
+        final ConversationService conversationService = mTwinmeContext.getConversationService();
+        for (Pending pending : toSend) {
+            conversationService.pushCommand(pending.command.getRequestId(), conversation, pending.command);
+        }
+    }
+
+    private void onResult(@NonNull Conversation conversation, @NonNull RoomCommandResult result) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onResult: result=" + result);
+        }
+
+        final Pending pending;
+        synchronized (this) {
+            if (mConversation == null || !mConversation.getId().equals(conversation.getId())) {
+                return;
+            }
+            pending = mInFlight.remove(result.getRequestId());
+        }
+        if (pending == null) {
+            return;
+        }
+
+        complete(pending, toErrorCode(result.getStatus()));
+        sendNext();
+    }
+
+    private void onError(long requestId, @NonNull ErrorCode errorCode) {
+
+        final Pending pending;
+        synchronized (this) {
+            pending = mInFlight.remove(requestId);
+        }
+        if (pending == null) {
+            return;
+        }
+
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onError: requestId=" + requestId + " errorCode=" + errorCode);
+        }
+        complete(pending, errorCode);
+        sendNext();
+    }
+
+    private void onTimeout() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onTimeout");
+        }
+
+        final List<Pending> expired = new ArrayList<>();
+        synchronized (this) {
+            mTimeoutJob = null;
+            final long now = System.currentTimeMillis();
+            long nextDeadline = Long.MAX_VALUE;
+            final Iterator<Pending> iterator = mInFlight.values().iterator();
+            while (iterator.hasNext()) {
+                final Pending pending = iterator.next();
+                if (pending.deadline <= now) {
+                    expired.add(pending);
+                    iterator.remove();
+                } else if (pending.deadline < nextDeadline) {
+                    nextDeadline = pending.deadline;
+                }
+            }
+            if (!mClosed && nextDeadline != Long.MAX_VALUE) {
+                mTimeoutJob = mTwinmeContext.getJobService().scheduleIn("RoomModerationPipeline", this::onTimeout,
+                        nextDeadline - now, JobService.Priority.MESSAGE);
+            }
+        }
+
+        for (Pending pending : expired) {
+            complete(pending, ErrorCode.TIMEOUT_ERROR);
+        }
+        if (!expired.isEmpty()) {
+            sendNext();
+        }
+    }
+
+    private void complete(@NonNull Pending pending, @NonNull ErrorCode errorCode) {
+
+        final Operation operation = pending.operation;
+        final boolean finished;
+        synchronized (operation) {
+            if (errorCode == ErrorCode.SUCCESS) {
+                for (UUID member : pending.members) {
+                    operation.report.mSucceeded.add(member);
+                }
+            } else {
+                if (operation.firstError == null) {
+                    operation.firstError = errorCode;
+                }
+                for (UUID member : pending.members) {
+                    operation.report.mFailures.put(member, errorCode);
+                }
+            }
+            operation.remaining--;
+            finished = operation.remaining == 0;
+        }
+
+        if (finished) {
+            if (INFO && operation.firstError != null) {
+                Log.i(LOG_TAG, "Room moderation partial failure: " + operation.report);
+            }
+            operation.consumer.onGet(operation.firstError == null ? ErrorCode.SUCCESS : operation.firstError, operation.report);
+        }
+    }
+}
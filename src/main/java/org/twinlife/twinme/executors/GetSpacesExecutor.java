@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2019-2024 twinlife SA.
+ *  Copyright (c) 2019-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -15,6 +15,7 @@ import android.util.Log;
 
 import org.twinlife.twinlife.BaseService.ErrorCode;
 import org.twinlife.twinlife.RepositoryObject;
+import org.twinlife.twinlife.util.EventMonitor;
 import org.twinlife.twinme.TwinmeContextImpl;
 import org.twinlife.twinme.models.ContactFactory;
 import org.twinlife.twinme.models.GroupFactory;
@@ -36,7 +37,7 @@ import java.util.UUID;
 // All observers are running in the SingleThreadExecutor provided by the twinlife library
 // All observers are reachable (not eligible for garbage collection) between start() and stop() calls
 //
-// version: 1.3
+// version: 1.4
 //
 
 public class GetSpacesExecutor extends Executor {
@@ -51,6 +52,7 @@ public class GetSpacesExecutor extends Executor {
     private static final int GET_PROFILES_DONE = 1 << 5;
     private static final int CREATE_SPACE = 1 << 6;
     private static final int CREATE_SPACE_DONE = 1 << 7;
+    private static final int JOIN_PROFILES = 1 << 8;
     private static final int UPDATE_PROFILE = 1 << 9;
     private static final int UPDATE_PROFILE_DONE = 1 << 10;
 
@@ -72,6 +74,8 @@ public class GetSpacesExecutor extends Executor {
     private Space mDefaultSpace;
     private final List<Space> mSpaces = new ArrayList<>();
     private final List<Profile> mProfiles = new ArrayList<>();
+    @Nullable
+    private List<RepositoryObject> mLoadedProfiles;
     private final TwinmeContextObserver mTwinmeContextObserver;
     private final boolean mEnableSpaces;
     @Nullable
@@ -130,7 +134,8 @@ public class GetSpacesExecutor extends Executor {
         }
 
         //
-        // Step 1: load the space settings first.
+        // Step 1: load the space settings: the space factory resolves the space settings from the
+        // database service cache and they must be loaded before the spaces.
         //
         if ((mState & GET_SPACE_SETTINGS) == 0) {
             mState |= GET_SPACE_SETTINGS;
@@ -146,7 +151,7 @@ public class GetSpacesExecutor extends Executor {
         }
 
         //
-        // Step 2: get the list of spaces.
+        // Step 2: load the spaces.
         //
         if ((mState & GET_SPACES) == 0) {
             mState |= GET_SPACES;
@@ -162,7 +167,8 @@ public class GetSpacesExecutor extends Executor {
         }
 
         //
-        // Step 3: get the list of profiles.
+        // Step 2b: load the profiles: the profile factory resolves the owner space from the database service
+        // cache and the spaces must be loaded before.  The profiles are linked to their spaces in memory.
         //
         if ((mState & GET_PROFILES) == 0) {
             mState |= GET_PROFILES;
@@ -178,7 +184,17 @@ public class GetSpacesExecutor extends Executor {
         }
 
         //
-        // Step 5: create the default space.
+        // Step 3: link the profiles to their spaces.
+        //
+        if ((mState & JOIN_PROFILES) == 0) {
+            mState |= JOIN_PROFILES;
+
+            EventMonitor.event("getSpaces load", mStartTime);
+            joinProfiles();
+        }
+
+        //
+        // Step 4: create the default space.
         //
         if (mDefaultSpace == null && !mProfiles.isEmpty()) {
 
@@ -203,7 +219,7 @@ public class GetSpacesExecutor extends Executor {
         }
 
         //
-        // Step 6: check that each profile has a space.
+        // Step 5: check that each profile has a space.
         //
         if (!mProfiles.isEmpty()) {
 
@@ -229,7 +245,7 @@ public class GetSpacesExecutor extends Executor {
         }
 
         //
-        // Step 3: get the list of profiles.
+        // Step 6: save the profiles that were moved to another space.
         //
         if (mUpdatedProfiles != null) {
             if ((mState & UPDATE_PROFILE) == 0) {
@@ -277,10 +293,25 @@ public class GetSpacesExecutor extends Executor {
         }
         mState |= GET_PROFILES_DONE;
 
+        // The profiles are linked to the spaces in the next step (see joinProfiles()).
+        mLoadedProfiles = objects;
+        onOperation();
+    }
+
+    private void joinProfiles() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "joinProfiles");
+        }
+
+        if (mLoadedProfiles == null) {
+
+            return;
+        }
+
         // Profiles have been associated with spaces but there could remain some orphaned profiles.
         // For twinme, it was possible to use several profiles per space.
         final Map<UUID, Profile> profiles = new HashMap<>();
-        for (RepositoryObject object : objects) {
+        for (RepositoryObject object : mLoadedProfiles) {
             Profile profile = (Profile) object;
             profiles.put(profile.getId(), profile);
             if (profile.getSpace() == null) {
@@ -305,6 +336,7 @@ public class GetSpacesExecutor extends Executor {
                 mTwinmeContextImpl.assertEqual(ExecutorAssertPoint.INVALID_SUBJECT, profile, profile.getSpace().getProfile());
             }
         }
+        mLoadedProfiles = null;
 
         if (!mProfiles.isEmpty() && !mEnableSpaces && mDefaultSpace != null) {
             for (int i = mProfiles.size() - 1; i >= 0; i--) {
@@ -327,7 +359,6 @@ public class GetSpacesExecutor extends Executor {
         if (!profiles.isEmpty() && mSpaces.size() > 1) {
             checkProfiles(profiles);
         }
-        onOperation();
     }
 
     private void checkProfiles(@NonNull Map<UUID, Profile> profiles) {
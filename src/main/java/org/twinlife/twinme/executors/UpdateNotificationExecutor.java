@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2017-2023 twinlife SA.
+ *  Copyright (c) 2017-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -15,11 +15,14 @@ import android.util.Log;
 import org.twinlife.twinlife.Notification;
 import org.twinlife.twinme.TwinmeContextImpl;
 
+import java.util.Collections;
+import java.util.List;
+
 //
 // All observers are running in the SingleThreadExecutor provided by the twinlife library
 // All observers are reachable (not eligible for garbage collection) between start() and stop() calls
 //
-// version: 1.2
+// version: 1.3
 //
 
 public class UpdateNotificationExecutor extends AbstractTwinmeExecutor {
@@ -27,7 +30,8 @@ public class UpdateNotificationExecutor extends AbstractTwinmeExecutor {
     private static final boolean DEBUG = false;
 
     @NonNull
-    private final Notification mNotification;
+    private final List<Notification> mNotifications;
+    private final boolean mBatch;
 
     public UpdateNotificationExecutor(@NonNull TwinmeContextImpl twinmeContextImpl, long requestId, @NonNull Notification notification) {
         super(twinmeContextImpl, requestId, LOG_TAG);
@@ -35,7 +39,18 @@ public class UpdateNotificationExecutor extends AbstractTwinmeExecutor {
             Log.d(LOG_TAG, "UpdateNotificationExecutor: twinmeContextImpl=" + twinmeContextImpl + " requestId=" + requestId + " notification=" + notification);
         }
 
-        mNotification = notification;
+        mNotifications = Collections.singletonList(notification);
+        mBatch = false;
+    }
+
+    public UpdateNotificationExecutor(@NonNull TwinmeContextImpl twinmeContextImpl, long requestId, @NonNull List<Notification> notifications) {
+        super(twinmeContextImpl, requestId, LOG_TAG);
+        if (DEBUG) {
+            Log.d(LOG_TAG, "UpdateNotificationExecutor: twinmeContextImpl=" + twinmeContextImpl + " requestId=" + requestId + " notifications=" + notifications.size());
+        }
+
+        mNotifications = notifications;
+        mBatch = true;
     }
 
     //
@@ -53,19 +68,25 @@ public class UpdateNotificationExecutor extends AbstractTwinmeExecutor {
         }
 
         //
-        // Step 1: update the notification (the update is done immediately, no need for any observer).
+        // Step 1: update the notifications (the update is done immediately, no need for any observer).
         //
 
-        if (DEBUG) {
-            Log.d(LOG_TAG, "NotificationService.acknowledgeNotification: notification=" + mNotification);
+        for (Notification notification : mNotifications) {
+            if (DEBUG) {
+                Log.d(LOG_TAG, "NotificationService.acknowledgeNotification: notification=" + notification);
+            }
+            mTwinmeContextImpl.getNotificationService().acknowledgeNotification(notification);
         }
-        mTwinmeContextImpl.getNotificationService().acknowledgeNotification(mNotification);
 
         //
         // Last Step
         //
 
-        mTwinmeContextImpl.onUpdateNotification(mRequestId, mNotification);
+        if (mBatch) {
+            mTwinmeContextImpl.onUpdateNotifications(mRequestId, mNotifications);
+        } else {
+            mTwinmeContextImpl.onUpdateNotification(mRequestId, mNotifications.get(0));
+        }
 
         stop();
     }
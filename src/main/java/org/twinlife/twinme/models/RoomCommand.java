@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2020-2023 twinlife SA.
+ *  Copyright (c) 2020-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -29,6 +29,30 @@ import java.util.UUID;
 /*
  * <pre>
  *
+ * Schema version 2
+ *
+ * {
+ *  "type":"record",
+ *  "name":"RoomCommand",
+ *  "namespace":"org.twinlife.twinme.schemas",
+ *  "fields":
+ *  [
+ *   {"name":"schemaId", "type":"uuid"},
+ *   {"name":"schemaVersion", "type":"int"}
+ *   {"name":"requestId", "type":"long"}
+ *   {"name":"action", "type":"enum"}
+ *   {"name":"text", [null, "type":"string"]}
+ *   {"name":"image", [null, "type":"bitmap"]}
+ *   {"name":"descriptorId", [null, {
+ *     {"name":"id", "type":"uuid"},
+ *     {"name":"sequenceId", "type":"int""}
+ *   },
+ *   {"name":"twincodeOutboundId", [null, "type":"UUID"]}
+ *   {"name":"cursor", "type":"long"}
+ *   {"name":"pageSize", "type":"int"}
+ *  ]
+ * }
+ *
  * Schema version 1
  *
  * {
@@ -57,13 +81,18 @@ import java.util.UUID;
 /**
  * Command sent to a Twinroom.
  *
+ * The schema version 2 adds the cursor and page size of a paged ROOM_LIST_MEMBERS.  It is used only for a
+ * paged command: the other commands are still sent with the schema version 1 so that a Twinroom which does
+ * not know the version 2 is not affected.  RoomCommandSerializer handles the schema version 1 and
+ * RoomCommandSerializerV2 the schema version 2.
  */
 public class RoomCommand {
     private static final String LOG_TAG = "RoomCommand";
     private static final boolean DEBUG = false;
 
     private static final UUID SCHEMA_ID = UUID.fromString("110cb974-1abc-4928-a6e6-dccdca0f3ab4");
-    private static final int SCHEMA_VERSION = 1;
+    private static final int SCHEMA_VERSION_2 = 2;
+    private static final int SCHEMA_VERSION_1 = 1;
 
     private static final int CONVERSATION_SERVICE_MIN_MAJOR_VERSION = 2;
     private static final int CONVERSATION_SERVICE_MIN_MINOR_VERSION = 11;
@@ -72,7 +101,7 @@ public class RoomCommand {
 
         public RoomCommandSerializer() {
 
-            super(SCHEMA_ID, SCHEMA_VERSION, RoomCommand.class);
+            super(SCHEMA_ID, SCHEMA_VERSION_1, RoomCommand.class);
         }
 
         @Override
@@ -81,235 +110,294 @@ public class RoomCommand {
             encoder.writeUUID(schemaId);
             encoder.writeInt(schemaVersion);
 
+            serializeCommand(encoder, (RoomCommand) object);
+        }
+
+        @Override
+        @NonNull
+        public Object deserialize(@NonNull SerializerFactory serializerFactory, @NonNull Decoder decoder) throws SerializerException {
+
+            return deserializeCommand(decoder);
+        }
+
+        @Override
+        public boolean isSupported(int majorVersion, int minorVersion) {
+
+            return majorVersion == CONVERSATION_SERVICE_MIN_MAJOR_VERSION && minorVersion >= CONVERSATION_SERVICE_MIN_MINOR_VERSION;
+        }
+    }
+
+    /**
+     * Serializer for the schema version 2: a paged ROOM_LIST_MEMBERS is written with its cursor and page size,
+     * the other commands are written with the schema version 1 layout.
+     */
+    public static class RoomCommandSerializerV2 extends Serializer {
+
+        public RoomCommandSerializerV2() {
+
+            super(SCHEMA_ID, SCHEMA_VERSION_2, RoomCommand.class);
+        }
+
+        @Override
+        public void serialize(@NonNull SerializerFactory serializerFactory, @NonNull Encoder encoder, @NonNull Object object) throws SerializerException {
+
             RoomCommand command = (RoomCommand) object;
-            encoder.writeLong(command.mRequestId);
-            switch (command.mAction) {
-                case ROOM_SET_NAME:
-                    encoder.writeEnum(0);
-                    break;
-
-                case ROOM_SET_IMAGE:
-                    encoder.writeEnum(1);
-                    break;
-
-                case ROOM_SET_WELCOME:
-                    encoder.writeEnum(2);
-                    break;
-
-                case ROOM_DELETE_MESSAGE:
-                    encoder.writeEnum(3);
-                    break;
-
-                case ROOM_FORWARD_MESSAGE:
-                    encoder.writeEnum(4);
-                    break;
-
-                case ROOM_BLOCK_SENDER:
-                    encoder.writeEnum(5);
-                    break;
-
-                case ROOM_DELETE_MEMBER:
-                    encoder.writeEnum(6);
-                    break;
-
-                case ROOM_SET_ADMINISTRATOR:
-                    encoder.writeEnum(7);
-                    break;
-
-                case ROOM_SET_CONFIG:
-                    encoder.writeEnum(8);
-                    break;
-
-                case ROOM_LIST_MEMBERS:
-                    encoder.writeEnum(9);
-                    break;
-
-                case ROOM_SET_ROLES:
-                    encoder.writeEnum(10);
-                    break;
-
-                case ROOM_RENEW_TWINCODE:
-                    encoder.writeEnum(12);
-                    break;
-
-                case ROOM_GET_CONFIG:
-                    encoder.writeEnum(13);
-                    break;
-
-                case ROOM_SIGNAL_MEMBER:
-                    encoder.writeEnum(14);
-                    break;
+            encoder.writeUUID(schemaId);
+            if (!command.isPaged()) {
+                encoder.writeInt(SCHEMA_VERSION_1);
+                serializeCommand(encoder, command);
+                return;
             }
-            if (command.mText == null) {
-                encoder.writeEnum(0);
-            } else {
-                encoder.writeEnum(1);
-                encoder.writeString(command.mText);
+
+            encoder.writeInt(schemaVersion);
+            serializeCommand(encoder, command);
+            encoder.writeLong(command.mCursor);
+            encoder.writeInt(command.mPageSize);
+        }
+
+        @Override
+        @NonNull
+        public Object deserialize(@NonNull SerializerFactory serializerFactory, @NonNull Decoder decoder) throws SerializerException {
+
+            RoomCommand command = deserializeCommand(decoder);
+            long cursor = decoder.readLong();
+            int pageSize = decoder.readInt();
+            if (pageSize <= 0) {
+                throw new SerializerException("RoomCommand invalid page size");
             }
-            if (command.mMessageId == null) {
+
+            return new RoomCommand(command, cursor, pageSize);
+        }
+
+        @Override
+        public boolean isSupported(int majorVersion, int minorVersion) {
+
+            return majorVersion == CONVERSATION_SERVICE_MIN_MAJOR_VERSION && minorVersion >= CONVERSATION_SERVICE_MIN_MINOR_VERSION;
+        }
+    }
+
+    private static void serializeCommand(@NonNull Encoder encoder, @NonNull RoomCommand command) throws SerializerException {
+
+        encoder.writeLong(command.mRequestId);
+        switch (command.mAction) {
+            case ROOM_SET_NAME:
                 encoder.writeEnum(0);
-            } else {
+                break;
+
+            case ROOM_SET_IMAGE:
                 encoder.writeEnum(1);
-                encoder.writeUUID(command.mMessageId.twincodeOutboundId);
-                encoder.writeLong(command.mMessageId.sequenceId);
-            }
-            if (command.mRawImage == null) {
-                encoder.writeEnum(0);
+                break;
+
+            case ROOM_SET_WELCOME:
+                encoder.writeEnum(2);
+                break;
+
+            case ROOM_DELETE_MESSAGE:
+                encoder.writeEnum(3);
+                break;
+
+            case ROOM_FORWARD_MESSAGE:
+                encoder.writeEnum(4);
+                break;
+
+            case ROOM_BLOCK_SENDER:
+                encoder.writeEnum(5);
+                break;
+
+            case ROOM_DELETE_MEMBER:
+                encoder.writeEnum(6);
+                break;
+
+            case ROOM_SET_ADMINISTRATOR:
+                encoder.writeEnum(7);
+                break;
+
+            case ROOM_SET_CONFIG:
+                encoder.writeEnum(8);
+                break;
+
+            case ROOM_LIST_MEMBERS:
+                encoder.writeEnum(9);
+                break;
+
+            case ROOM_SET_ROLES:
+                encoder.writeEnum(10);
+                break;
+
+            case ROOM_RENEW_TWINCODE:
+                encoder.writeEnum(12);
+                break;
+
+            case ROOM_GET_CONFIG:
+                encoder.writeEnum(13);
+                break;
+
+            case ROOM_SIGNAL_MEMBER:
+                encoder.writeEnum(14);
+                break;
+        }
+        if (command.mText == null) {
+            encoder.writeEnum(0);
+        } else {
+            encoder.writeEnum(1);
+            encoder.writeString(command.mText);
+        }
+        if (command.mMessageId == null) {
+            encoder.writeEnum(0);
+        } else {
+            encoder.writeEnum(1);
+            encoder.writeUUID(command.mMessageId.twincodeOutboundId);
+            encoder.writeLong(command.mMessageId.sequenceId);
+        }
+        if (command.mRawImage == null) {
+            encoder.writeEnum(0);
+        } else {
+            encoder.writeEnum(1);
+            encoder.writeData(command.mRawImage);
+        }
+        if (command.mTwincodeOutboundId == null) {
+            encoder.writeEnum(0);
+        } else {
+            encoder.writeEnum(1);
+            encoder.writeUUID(command.mTwincodeOutboundId);
+        }
+        if (command.mAction == Action.ROOM_SET_ROLES) {
+            if (command.mList == null) {
+                encoder.writeLong(0);
             } else {
-                encoder.writeEnum(1);
-                encoder.writeData(command.mRawImage);
+                encoder.writeLong(command.mList.size());
+                for (UUID member : command.mList) {
+                    encoder.writeUUID(member);
+                }
             }
-            if (command.mTwincodeOutboundId == null) {
+        }
+        if (command.mAction == Action.ROOM_SET_CONFIG) {
+            if (command.mConfig == null) {
                 encoder.writeEnum(0);
             } else {
                 encoder.writeEnum(1);
-                encoder.writeUUID(command.mTwincodeOutboundId);
-            }
-            if (command.mAction == Action.ROOM_SET_ROLES) {
-                if (command.mList == null) {
-                    encoder.writeLong(0);
-                } else {
-                    encoder.writeLong(command.mList.size());
-                    for (UUID member : command.mList) {
-                        encoder.writeUUID(member);
-                    }
-                }
-            }
-            if (command.mAction == Action.ROOM_SET_CONFIG) {
-                if (command.mConfig == null) {
-                    encoder.writeEnum(0);
-                } else {
-                    encoder.writeEnum(1);
-                    RoomConfig.Serializer.serialize(encoder, command.mConfig);
-                }
+                RoomConfig.Serializer.serialize(encoder, command.mConfig);
             }
         }
+    }
 
-        @Override
-        @NonNull
-        public Object deserialize(@NonNull SerializerFactory serializerFactory, @NonNull Decoder decoder) throws SerializerException {
+    @NonNull
+    private static RoomCommand deserializeCommand(@NonNull Decoder decoder) throws SerializerException {
 
-            Action action;
-            long requestId = decoder.readLong();
-            switch (decoder.readEnum()) {
-                case 0:
-                    action = Action.ROOM_SET_NAME;
-                    break;
+        Action action;
+        long requestId = decoder.readLong();
+        switch (decoder.readEnum()) {
+            case 0:
+                action = Action.ROOM_SET_NAME;
+                break;
 
-                case 1:
-                    action = Action.ROOM_SET_IMAGE;
-                    break;
+            case 1:
+                action = Action.ROOM_SET_IMAGE;
+                break;
 
-                case 2:
-                    action = Action.ROOM_SET_WELCOME;
-                    break;
+            case 2:
+                action = Action.ROOM_SET_WELCOME;
+                break;
 
-                case 3:
-                    action = Action.ROOM_DELETE_MESSAGE;
-                    break;
+            case 3:
+                action = Action.ROOM_DELETE_MESSAGE;
+                break;
 
-                case 4:
-                    action = Action.ROOM_FORWARD_MESSAGE;
-                    break;
+            case 4:
+                action = Action.ROOM_FORWARD_MESSAGE;
+                break;
 
-                case 5:
-                    action = Action.ROOM_BLOCK_SENDER;
-                    break;
+            case 5:
+                action = Action.ROOM_BLOCK_SENDER;
+                break;
 
-                case 6:
-                    action = Action.ROOM_DELETE_MEMBER;
-                    break;
+            case 6:
+                action = Action.ROOM_DELETE_MEMBER;
+                break;
 
-                case 7:
-                    action = Action.ROOM_SET_ADMINISTRATOR;
-                    break;
+            case 7:
+                action = Action.ROOM_SET_ADMINISTRATOR;
+                break;
 
-                case 8:
-                    action = Action.ROOM_SET_CONFIG;
-                    break;
+            case 8:
+                action = Action.ROOM_SET_CONFIG;
+                break;
 
-                case 9:
-                    action = Action.ROOM_LIST_MEMBERS;
-                    break;
+            case 9:
+                action = Action.ROOM_LIST_MEMBERS;
+                break;
 
-                case 10:
-                    action = Action.ROOM_SET_ROLES;
-                    break;
+            case 10:
+                action = Action.ROOM_SET_ROLES;
+                break;
 
-                case 12:
-                    action = Action.ROOM_RENEW_TWINCODE;
-                    break;
+            case 12:
+                action = Action.ROOM_RENEW_TWINCODE;
+                break;
 
-                case 13:
-                    action = Action.ROOM_GET_CONFIG;
-                    break;
+            case 13:
+                action = Action.ROOM_GET_CONFIG;
+                break;
 
-                case 14:
-                    action = Action.ROOM_SIGNAL_MEMBER;
-                    break;
+            case 14:
+                action = Action.ROOM_SIGNAL_MEMBER;
+                break;
 
-                default:
-                    throw new SerializerException("RoomCommand action not recognized");
-            }
+            default:
+                throw new SerializerException("RoomCommand action not recognized");
+        }
 
-            String text;
-            if (decoder.readEnum() == 1) {
-                text = decoder.readString();
-            } else {
-                text = null;
-            }
-            DescriptorId descriptorId;
-            if (decoder.readEnum() == 1) {
-                UUID twincodeOutboundId = decoder.readUUID();
-                long sequenceId = decoder.readLong();
-                descriptorId = new DescriptorId(0, twincodeOutboundId, sequenceId);
-            } else {
-                descriptorId = null;
-            }
+        String text;
+        if (decoder.readEnum() == 1) {
+            text = decoder.readString();
+        } else {
+            text = null;
+        }
+        DescriptorId descriptorId;
+        if (decoder.readEnum() == 1) {
+            UUID twincodeOutboundId = decoder.readUUID();
+            long sequenceId = decoder.readLong();
+            descriptorId = new DescriptorId(0, twincodeOutboundId, sequenceId);
+        } else {
+            descriptorId = null;
+        }
 
-            // Note: the image is deserialized and returned as raw bytes because the Twinroom engine
-            // must access the image raw content.
-            byte[] image;
-            if (decoder.readEnum() == 1) {
-                ByteBuffer data = decoder.readBytes(null);
-                image = data.array();
-            } else {
-                image = null;
-            }
-            UUID twincodeOutboundId;
-            if (decoder.readEnum() == 1) {
-                twincodeOutboundId = decoder.readUUID();
-            } else {
-                twincodeOutboundId = null;
-            }
+        // Note: the image is deserialized and returned as raw bytes because the Twinroom engine
+        // must access the image raw content.
+        byte[] image;
+        if (decoder.readEnum() == 1) {
+            ByteBuffer data = decoder.readBytes(null);
+            image = data.array();
+        } else {
+            image = null;
+        }
+        UUID twincodeOutboundId;
+        if (decoder.readEnum() == 1) {
+            twincodeOutboundId = decoder.readUUID();
+        } else {
+            twincodeOutboundId = null;
+        }
 
-            // Get the list of members only for the ROOM_SET_ROLES command.
-            List<UUID> list = null;
-            if (action == Action.ROOM_SET_ROLES) {
-                long count = decoder.readLong();
-
-                if (count > 0) {
-                    list = new ArrayList<>();
-                    while (count > 0) {
-                        count--;
-                        list.add(decoder.readUUID());
-                    }
-                }
-            }
-            RoomConfig config = null;
-            if (action == Action.ROOM_SET_CONFIG) {
-                if (decoder.readEnum() != 0) {
-                    config = RoomConfig.Serializer.deserialize(decoder);
+        // Get the list of members only for the ROOM_SET_ROLES command.
+        List<UUID> list = null;
+        if (action == Action.ROOM_SET_ROLES) {
+            long count = decoder.readLong();
+
+            if (count > 0) {
+                list = new ArrayList<>();
+                while (count > 0) {
+                    count--;
+                    list.add(decoder.readUUID());
                 }
             }
-            return new RoomCommand(requestId, action, text, image, descriptorId, twincodeOutboundId, list, config);
         }
-
-        @Override
-        public boolean isSupported(int majorVersion, int minorVersion) {
-
-            return majorVersion == CONVERSATION_SERVICE_MIN_MAJOR_VERSION && minorVersion >= CONVERSATION_SERVICE_MIN_MINOR_VERSION;
+        RoomConfig config = null;
+        if (action == Action.ROOM_SET_CONFIG) {
+            if (decoder.readEnum() != 0) {
+                config = RoomConfig.Serializer.deserialize(decoder);
+            }
         }
+        return new RoomCommand(requestId, action, text, image, descriptorId, twincodeOutboundId, list, config);
     }
 
     private final long mRequestId;
@@ -327,6 +415,8 @@ public class RoomCommand {
     private final List<UUID> mList;
     @Nullable
     private final RoomConfig mConfig;
+    private final long mCursor;
+    private final int mPageSize;
 
     public enum Action {
         ROOM_SET_NAME,
@@ -369,6 +459,8 @@ public class RoomCommand {
         mTwincodeOutboundId = null;
         mList = null;
         mConfig = null;
+        mCursor = 0;
+        mPageSize = 0;
     }
 
     public RoomCommand(long requestId, @NonNull Action action, @NonNull String text) {
@@ -385,6 +477,8 @@ public class RoomCommand {
         mTwincodeOutboundId = null;
         mList = null;
         mConfig = null;
+        mCursor = 0;
+        mPageSize = 0;
     }
 
     public RoomCommand(long requestId, @NonNull Action action, @NonNull RoomConfig config) {
@@ -401,6 +495,8 @@ public class RoomCommand {
         mTwincodeOutboundId = null;
         mList = null;
         mConfig = config;
+        mCursor = 0;
+        mPageSize = 0;
     }
 
     public RoomCommand(long requestId, @NonNull Action action, @NonNull UUID twincodeOutboundId) {
@@ -417,6 +513,8 @@ public class RoomCommand {
         mTwincodeOutboundId = twincodeOutboundId;
         mList = null;
         mConfig = null;
+        mCursor = 0;
+        mPageSize = 0;
     }
 
     public RoomCommand(long requestId, @NonNull Action action, @NonNull DescriptorId messageId) {
@@ -433,6 +531,8 @@ public class RoomCommand {
         mTwincodeOutboundId = null;
         mList = null;
         mConfig = null;
+        mCursor = 0;
+        mPageSize = 0;
     }
 
     public RoomCommand(long requestId, @NonNull Action action, @NonNull byte[] rawImage) {
@@ -449,6 +549,8 @@ public class RoomCommand {
         mTwincodeOutboundId = null;
         mList = null;
         mConfig = null;
+        mCursor = 0;
+        mPageSize = 0;
     }
 
     public RoomCommand(long requestId, @NonNull Action action, @NonNull String text, @NonNull List<UUID> members) {
@@ -465,6 +567,49 @@ public class RoomCommand {
         mTwincodeOutboundId = null;
         mList = members;
         mConfig = null;
+        mCursor = 0;
+        mPageSize = 0;
+    }
+
+    /**
+     * Create a paged ROOM_LIST_MEMBERS command.
+     *
+     * @param requestId the request id.
+     * @param action the ROOM_LIST_MEMBERS action.
+     * @param filter the member filter (LIST_ALL, LIST_ROLE_ADMINISTRATOR, ...).
+     * @param cursor the cursor returned by the previous page or 0 for the first page.
+     * @param pageSize the maximum number of members to return.
+     */
+    public RoomCommand(long requestId, @NonNull Action action, @NonNull String filter, long cursor, int pageSize) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "RoomCommand: requestId=" + requestId + " action=" + action
+                    + " filter=" + filter + " cursor=" + cursor + " pageSize=" + pageSize);
+        }
+
+        mRequestId = requestId;
+        mAction = action;
+        mText = filter;
+        mRawImage = null;
+        mMessageId = null;
+        mTwincodeOutboundId = null;
+        mList = null;
+        mConfig = null;
+        mCursor = cursor;
+        mPageSize = Math.max(1, pageSize);
+    }
+
+    private RoomCommand(@NonNull RoomCommand command, long cursor, int pageSize) {
+
+        mRequestId = command.mRequestId;
+        mAction = command.mAction;
+        mText = command.mText;
+        mRawImage = command.mRawImage;
+        mMessageId = command.mMessageId;
+        mTwincodeOutboundId = command.mTwincodeOutboundId;
+        mList = command.mList;
+        mConfig = command.mConfig;
+        mCursor = cursor;
+        mPageSize = pageSize;
     }
 
     private RoomCommand(long requestId, @NonNull Action action, @Nullable String text,
@@ -484,6 +629,8 @@ public class RoomCommand {
         mTwincodeOutboundId = twincodeOutboundId;
         mList = list;
         mConfig = roomConfig;
+        mCursor = 0;
+        mPageSize = 0;
     }
 
     public long getRequestId() {
@@ -533,6 +680,27 @@ public class RoomCommand {
         return mConfig;
     }
 
+    /**
+     * Check if this is a paged ROOM_LIST_MEMBERS command.  A Twinroom must answer a paged command with at
+     * most getPageSize() members and the cursor of the next page.
+     *
+     * @return true if the command is paged.
+     */
+    public boolean isPaged() {
+
+        return mPageSize > 0;
+    }
+
+    public long getCursor() {
+
+        return mCursor;
+    }
+
+    public int getPageSize() {
+
+        return mPageSize;
+    }
+
     @Override
     @NonNull
     public String toString() {
@@ -540,6 +708,7 @@ public class RoomCommand {
         return "RoomCommand: requestId=" + mRequestId + " action=" + mAction + "\n"
                 + (BuildConfig.ENABLE_DUMP ? " text=" + mText : "") + "\n"
                 + " messageId=" + mMessageId + "\n"
-                + " twincodeOutboundId=" + mTwincodeOutboundId + "\n";
+                + " twincodeOutboundId=" + mTwincodeOutboundId + "\n"
+                + (isPaged() ? " cursor=" + mCursor + " pageSize=" + mPageSize + "\n" : "");
     }
 }
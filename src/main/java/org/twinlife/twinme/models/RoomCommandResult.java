@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2020 twinlife SA.
+ *  Copyright (c) 2020-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -19,13 +19,33 @@ import org.twinlife.twinlife.Serializer;
 import org.twinlife.twinlife.SerializerException;
 import org.twinlife.twinlife.SerializerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 /*
  * <pre>
  *
+ * Schema version 2
+ *
+ * {
+ *  "type":"record",
+ *  "name":"RoomCommand",
+ *  "namespace":"org.twinlife.twinme.schemas",
+ *  "fields":
+ *  [
+ *   {"name":"schemaId", "type":"uuid"},
+ *   {"name":"schemaVersion", "type":"int"}
+ *   {"name":"requestId", "type":"long"}
+ *   {"name":"status", "type":"enum"}
+ *   {"name":"memberCount", "type":"int"}
+ *   {"name":"members", [
+ *     {"name":"mostSignificantBits", "type":"long"}
+ *     {"name":"leastSignificantBits", "type":"long"}
+ *   ]}
+ *   {"name":"nextCursor", "type":"long"}
+ *  ]
+ * }
+ *
  * Schema version 1
  *
  * {
@@ -47,13 +67,18 @@ import java.util.UUID;
 /**
  * Result of a command sent to a Twinroom.
  *
+ * The schema version 2 is the answer to a paged ROOM_LIST_MEMBERS: it gives one page of members and the
+ * cursor to get the next page (0 when this is the last page).  The members are decoded in a RoomMemberList
+ * which keeps the member ids as packed long pairs.  The other results are still sent with the schema version 1.
+ * RoomResultSerializer handles the schema version 1 and RoomResultSerializerV2 the schema version 2.
  */
 public class RoomCommandResult {
     private static final String LOG_TAG = "RoomResult";
     private static final boolean DEBUG = false;
 
     private static final UUID SCHEMA_ID = UUID.fromString("c1124181-8360-49a0-8180-0f4802d1dc04");
-    private static final int SCHEMA_VERSION = 1;
+    private static final int SCHEMA_VERSION_2 = 2;
+    private static final int SCHEMA_VERSION_1 = 1;
 
     private static final int CONVERSATION_SERVICE_MIN_MAJOR_VERSION = 2;
     private static final int CONVERSATION_SERVICE_MIN_MINOR_VERSION = 10;
@@ -62,7 +87,7 @@ public class RoomCommandResult {
 
         public RoomResultSerializer() {
 
-            super(SCHEMA_ID, SCHEMA_VERSION, RoomCommandResult.class);
+            super(SCHEMA_ID, SCHEMA_VERSION_1, RoomCommandResult.class);
         }
 
         @Override
@@ -72,80 +97,94 @@ public class RoomCommandResult {
             encoder.writeInt(schemaVersion);
 
             RoomCommandResult result = (RoomCommandResult) object;
-            encoder.writeLong(result.mRequestId);
-            switch (result.mStatus) {
-                case SUCCESS:
-                    encoder.writeEnum(0);
-                    break;
-
-                case ERROR:
-                    encoder.writeEnum(1);
-                    break;
-
-                case BAD_COMMAND:
-                    encoder.writeEnum(2);
-                    break;
-
-                case PERMISSION_DENIED:
-                    encoder.writeEnum(3);
-                    break;
-
-                case ITEM_NOT_FOUND:
-                    encoder.writeEnum(4);
-                    break;
+            serializeResult(encoder, result);
+            serializeMembersV1(encoder, result.mMembers);
+        }
+
+        @Override
+        @NonNull
+        public Object deserialize(@NonNull SerializerFactory serializerFactory, @NonNull Decoder decoder) throws SerializerException {
+
+            long requestId = decoder.readLong();
+            Status status = deserializeStatus(decoder);
+
+            int count = decoder.readInt();
+            RoomMemberList members = null;
+            if (count > 0) {
+                members = new RoomMemberList(count);
+                while (--count >= 0) {
+                    members.add(decoder.readUUID());
+                }
             }
 
+            return new RoomCommandResult(requestId, status, members, 0, false);
+        }
+
+        @Override
+        public boolean isSupported(int majorVersion, int minorVersion) {
+
+            return majorVersion == CONVERSATION_SERVICE_MIN_MAJOR_VERSION && minorVersion >= CONVERSATION_SERVICE_MIN_MINOR_VERSION;
+        }
+    }
+
+    /**
+     * Serializer for the schema version 2: a page of members is written as packed long pairs with the next
+     * cursor, the other results are written with the schema version 1 layout.
+     */
+    public static class RoomResultSerializerV2 extends Serializer {
+
+        public RoomResultSerializerV2() {
+
+            super(SCHEMA_ID, SCHEMA_VERSION_2, RoomCommandResult.class);
+        }
+
+        @Override
+        public void serialize(@NonNull SerializerFactory serializerFactory, @NonNull Encoder encoder, @NonNull Object object) throws SerializerException {
+
+            RoomCommandResult result = (RoomCommandResult) object;
+            encoder.writeUUID(schemaId);
+            if (!result.mPaged) {
+                encoder.writeInt(SCHEMA_VERSION_1);
+                serializeResult(encoder, result);
+                serializeMembersV1(encoder, result.mMembers);
+                return;
+            }
+
+            encoder.writeInt(schemaVersion);
+            serializeResult(encoder, result);
             if (result.mMembers == null) {
                 encoder.writeInt(0);
             } else {
-                encoder.writeInt(result.mMembers.size());
-                for (UUID memberId : result.mMembers) {
-                    encoder.writeUUID(memberId);
+                final RoomMemberList members = result.mMembers;
+                encoder.writeInt(members.size());
+                for (int i = 0; i < members.size(); i++) {
+                    encoder.writeLong(members.getMostSignificantBits(i));
+                    encoder.writeLong(members.getLeastSignificantBits(i));
                 }
             }
+            encoder.writeLong(result.mNextCursor);
         }
 
         @Override
         @NonNull
         public Object deserialize(@NonNull SerializerFactory serializerFactory, @NonNull Decoder decoder) throws SerializerException {
 
-            Status status;
             long requestId = decoder.readLong();
-            switch (decoder.readEnum()) {
-                case 0:
-                    status = Status.SUCCESS;
-                    break;
-
-                case 1:
-                    status = Status.ERROR;
-                    break;
-
-                case 2:
-                    status = Status.BAD_COMMAND;
-                    break;
-
-                case 3:
-                    status = Status.PERMISSION_DENIED;
-                    break;
-
-                case 4:
-                    status = Status.ITEM_NOT_FOUND;
-                    break;
-
-                default:
-                    throw new SerializerException("RoomCommand action not recognized");
-            }
+            Status status = deserializeStatus(decoder);
 
             int count = decoder.readInt();
-            List<UUID> members = null;
-            if (count > 0) {
-                members = new ArrayList<>();
-                while (--count >= 0) {
-                    members.add(decoder.readUUID());
-                }
+            if (count < 0) {
+                throw new SerializerException("RoomCommandResult invalid member count");
+            }
+            RoomMemberList members = new RoomMemberList(count);
+            while (--count >= 0) {
+                long mostSignificantBits = decoder.readLong();
+                long leastSignificantBits = decoder.readLong();
+                members.add(mostSignificantBits, leastSignificantBits);
             }
+            long nextCursor = decoder.readLong();
 
-            return new RoomCommandResult(requestId, status, members);
+            return new RoomCommandResult(requestId, status, members, nextCursor, true);
         }
 
         @Override
@@ -155,11 +194,75 @@ public class RoomCommandResult {
         }
     }
 
+    private static void serializeResult(@NonNull Encoder encoder, @NonNull RoomCommandResult result) throws SerializerException {
+
+        encoder.writeLong(result.mRequestId);
+        switch (result.mStatus) {
+            case SUCCESS:
+                encoder.writeEnum(0);
+                break;
+
+            case ERROR:
+                encoder.writeEnum(1);
+                break;
+
+            case BAD_COMMAND:
+                encoder.writeEnum(2);
+                break;
+
+            case PERMISSION_DENIED:
+                encoder.writeEnum(3);
+                break;
+
+            case ITEM_NOT_FOUND:
+                encoder.writeEnum(4);
+                break;
+        }
+    }
+
+    private static void serializeMembersV1(@NonNull Encoder encoder, @Nullable RoomMemberList members) throws SerializerException {
+
+        if (members == null) {
+            encoder.writeInt(0);
+        } else {
+            encoder.writeInt(members.size());
+            for (int i = 0; i < members.size(); i++) {
+                encoder.writeUUID(members.get(i));
+            }
+        }
+    }
+
+    @NonNull
+    private static Status deserializeStatus(@NonNull Decoder decoder) throws SerializerException {
+
+        switch (decoder.readEnum()) {
+            case 0:
+                return Status.SUCCESS;
+
+            case 1:
+                return Status.ERROR;
+
+            case 2:
+                return Status.BAD_COMMAND;
+
+            case 3:
+                return Status.PERMISSION_DENIED;
+
+            case 4:
+                return Status.ITEM_NOT_FOUND;
+
+            default:
+                throw new SerializerException("RoomCommand action not recognized");
+        }
+    }
+
     private final long mRequestId;
     @NonNull
     private final Status mStatus;
     @Nullable
-    private final List<UUID> mMembers;
+    private final RoomMemberList mMembers;
+    private final long mNextCursor;
+    private final boolean mPaged;
 
     public enum Status {
         SUCCESS,
@@ -177,6 +280,8 @@ public class RoomCommandResult {
         mRequestId = command.getRequestId();
         mStatus = status;
         mMembers = null;
+        mNextCursor = 0;
+        mPaged = command.isPaged();
     }
 
     public RoomCommandResult(@NonNull RoomCommand command, @NonNull List<UUID> members) {
@@ -184,9 +289,30 @@ public class RoomCommandResult {
             Log.d(LOG_TAG, "RoomCommandResult: command=" + command + " members=" + members);
         }
 
+        mRequestId = command.getRequestId();
+        mStatus = Status.SUCCESS;
+        mMembers = new RoomMemberList(members);
+        mNextCursor = 0;
+        mPaged = command.isPaged();
+    }
+
+    /**
+     * Create the result of a paged ROOM_LIST_MEMBERS command.
+     *
+     * @param command the paged command.
+     * @param members the members of the page.
+     * @param nextCursor the cursor of the next page or 0 if this is the last page.
+     */
+    public RoomCommandResult(@NonNull RoomCommand command, @NonNull RoomMemberList members, long nextCursor) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "RoomCommandResult: command=" + command + " members=" + members + " nextCursor=" + nextCursor);
+        }
+
         mRequestId = command.getRequestId();
         mStatus = Status.SUCCESS;
         mMembers = members;
+        mNextCursor = nextCursor;
+        mPaged = command.isPaged();
     }
 
     public RoomCommandResult(long requestId, @NonNull Status status, @Nullable List<UUID> members) {
@@ -194,9 +320,24 @@ public class RoomCommandResult {
             Log.d(LOG_TAG, "RoomResult: requestId=" + requestId + " status=" + status);
         }
 
+        mRequestId = requestId;
+        mStatus = status;
+        mMembers = members == null ? null : new RoomMemberList(members);
+        mNextCursor = 0;
+        mPaged = false;
+    }
+
+    private RoomCommandResult(long requestId, @NonNull Status status, @Nullable RoomMemberList members,
+                              long nextCursor, boolean paged) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "RoomResult: requestId=" + requestId + " status=" + status + " nextCursor=" + nextCursor);
+        }
+
         mRequestId = requestId;
         mStatus = status;
         mMembers = members;
+        mNextCursor = nextCursor;
+        mPaged = paged;
     }
 
     public long getRequestId() {
@@ -213,9 +354,35 @@ public class RoomCommandResult {
     @Nullable
     public List<UUID> getMembers() {
 
+        return mMembers == null ? null : mMembers.toList();
+    }
+
+    /**
+     * Get the members in their compact form (no UUID object is created).
+     *
+     * @return the members or null.
+     */
+    @Nullable
+    public RoomMemberList getMemberList() {
+
         return mMembers;
     }
 
+    /**
+     * Get the cursor to send in the next paged ROOM_LIST_MEMBERS command.
+     *
+     * @return the cursor of the next page or 0 when there is no other page.
+     */
+    public long getNextCursor() {
+
+        return mNextCursor;
+    }
+
+    public boolean isPaged() {
+
+        return mPaged;
+    }
+
     @Override
     @NonNull
     public String toString() {
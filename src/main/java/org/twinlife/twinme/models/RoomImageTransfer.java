@@ -0,0 +1,255 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import android.util.Log;
+
+import org.twinlife.twinlife.Decoder;
+import org.twinlife.twinlife.Encoder;
+import org.twinlife.twinlife.Serializer;
+import org.twinlife.twinlife.SerializerException;
+import org.twinlife.twinlife.SerializerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/*
+ * <pre>
+ *
+ * Schema version 1
+ *
+ * {
+ *  "type":"record",
+ *  "name":"RoomImageTransfer",
+ *  "namespace":"org.twinlife.twinme.schemas",
+ *  "fields":
+ *  [
+ *   {"name":"schemaId", "type":"uuid"},
+ *   {"name":"schemaVersion", "type":"int"}
+ *   {"name":"requestId", "type":"long"}
+ *   {"name":"action", "type":"enum"}
+ *   {"name":"transferId", "type":"uuid"}
+ *   {"name":"offset", "type":"long"}
+ *   {"name":"data", [null, "type":"bytes"]}
+ *  ]
+ * }
+ *
+ * </pre>
+ */
+
+/**
+ * Chunked transfer of the Twinroom image.
+ *
+ * The image is sent by a BEGIN with the image length in `offset`, a sequence of CHUNK with the offset and the
+ * data of each chunk and a COMMIT with the SHA-256 of the image in `data`.  The Twinroom answers each of them
+ * with a RoomCommandResult and it sets the room image only when the COMMIT checksum and length are correct.
+ * An ABORT drops the transfer.
+ */
+public class RoomImageTransfer {
+    private static final String LOG_TAG = "RoomImageTransfer";
+    private static final boolean DEBUG = false;
+
+    private static final UUID SCHEMA_ID = UUID.fromString("5b0f1c0e-8f7a-4d2b-9a51-3c2e6d7f0b84");
+    private static final int SCHEMA_VERSION = 1;
+
+    private static final int CONVERSATION_SERVICE_MIN_MAJOR_VERSION = 2;
+    private static final int CONVERSATION_SERVICE_MIN_MINOR_VERSION = 11;
+
+    public static class RoomImageTransferSerializer extends Serializer {
+
+        public RoomImageTransferSerializer() {
+
+            super(SCHEMA_ID, SCHEMA_VERSION, RoomImageTransfer.class);
+        }
+
+        @Override
+        public void serialize(@NonNull SerializerFactory serializerFactory, @NonNull Encoder encoder, @NonNull Object object) throws SerializerException {
+
+            encoder.writeUUID(schemaId);
+            encoder.writeInt(schemaVersion);
+
+            RoomImageTransfer transfer = (RoomImageTransfer) object;
+            encoder.writeLong(transfer.mRequestId);
+            switch (transfer.mAction) {
+                case BEGIN:
+                    encoder.writeEnum(0);
+                    break;
+
+                case CHUNK:
+                    encoder.writeEnum(1);
+                    break;
+
+                case COMMIT:
+                    encoder.writeEnum(2);
+                    break;
+
+                case ABORT:
+                    encoder.writeEnum(3);
+                    break;
+            }
+            encoder.writeUUID(transfer.mTransferId);
+            encoder.writeLong(transfer.mOffset);
+            if (transfer.mData == null) {
+                encoder.writeEnum(0);
+            } else {
+                encoder.writeEnum(1);
+                encoder.writeData(transfer.mData);
+            }
+        }
+
+        @Override
+        @NonNull
+        public Object deserialize(@NonNull SerializerFactory serializerFactory, @NonNull Decoder decoder) throws SerializerException {
+
+            Action action;
+            long requestId = decoder.readLong();
+            switch (decoder.readEnum()) {
+                case 0:
+                    action = Action.BEGIN;
+                    break;
+
+                case 1:
+                    action = Action.CHUNK;
+                    break;
+
+                case 2:
+                    action = Action.COMMIT;
+                    break;
+
+                case 3:
+                    action = Action.ABORT;
+                    break;
+
+                default:
+                    throw new SerializerException("RoomImageTransfer action not recognized");
+            }
+
+            UUID transferId = decoder.readUUID();
+            long offset = decoder.readLong();
+            byte[] data;
+            if (decoder.readEnum() == 1) {
+                ByteBuffer buffer = decoder.readBytes(null);
+                data = buffer.array();
+            } else {
+                data = null;
+            }
+
+            return new RoomImageTransfer(requestId, action, transferId, offset, data);
+        }
+
+        @Override
+        public boolean isSupported(int majorVersion, int minorVersion) {
+
+            return majorVersion == CONVERSATION_SERVICE_MIN_MAJOR_VERSION && minorVersion >= CONVERSATION_SERVICE_MIN_MINOR_VERSION;
+        }
+    }
+
+    public enum Action {
+        BEGIN,
+        CHUNK,
+        COMMIT,
+        ABORT
+    }
+
+    private final long mRequestId;
+    @NonNull
+    private final Action mAction;
+    @NonNull
+    private final UUID mTransferId;
+    private final long mOffset;
+    @Nullable
+    private final byte[] mData;
+
+    @NonNull
+    public static RoomImageTransfer begin(long requestId, @NonNull UUID transferId, long length) {
+
+        return new RoomImageTransfer(requestId, Action.BEGIN, transferId, length, null);
+    }
+
+    @NonNull
+    public static RoomImageTransfer chunk(long requestId, @NonNull UUID transferId, long offset, @NonNull byte[] data) {
+
+        return new RoomImageTransfer(requestId, Action.CHUNK, transferId, offset, data);
+    }
+
+    @NonNull
+    public static RoomImageTransfer commit(long requestId, @NonNull UUID transferId, @NonNull byte[] checksum) {
+
+        return new RoomImageTransfer(requestId, Action.COMMIT, transferId, 0, checksum);
+    }
+
+    @NonNull
+    public static RoomImageTransfer abort(long requestId, @NonNull UUID transferId) {
+
+        return new RoomImageTransfer(requestId, Action.ABORT, transferId, 0, null);
+    }
+
+    private RoomImageTransfer(long requestId, @NonNull Action action, @NonNull UUID transferId, long offset,
+                              @Nullable byte[] data) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "RoomImageTransfer: requestId=" + requestId + " action=" + action
+                    + " transferId=" + transferId + " offset=" + offset);
+        }
+
+        mRequestId = requestId;
+        mAction = action;
+        mTransferId = transferId;
+        mOffset = offset;
+        mData = data;
+    }
+
+    public long getRequestId() {
+
+        return mRequestId;
+    }
+
+    @NonNull
+    public Action getAction() {
+
+        return mAction;
+    }
+
+    @NonNull
+    public UUID getTransferId() {
+
+        return mTransferId;
+    }
+
+    /**
+     * Get the offset of the CHUNK data or the image length for the BEGIN.
+     *
+     * @return the offset or length.
+     */
+    public long getOffset() {
+
+        return mOffset;
+    }
+
+    /**
+     * Get the CHUNK data or the SHA-256 checksum for the COMMIT.
+     *
+     * @return the data or null.
+     */
+    @Nullable
+    public byte[] getData() {
+
+        return mData;
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+
+        return "RoomImageTransfer: requestId=" + mRequestId + " action=" + mAction + " transferId=" + mTransferId
+                + " offset=" + mOffset + " length=" + (mData == null ? 0 : mData.length) + "\n";
+    }
+}
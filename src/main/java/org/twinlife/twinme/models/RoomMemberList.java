@@ -0,0 +1,169 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact list of Twinroom member twincodes.
+ *
+ * The member ids are stored as packed (most significant bits, least significant bits) long pairs in a single
+ * array instead of a list of UUID objects: a page of 1000 members uses 16Kb and the UUID is created only when
+ * the caller needs it.
+ */
+public final class RoomMemberList {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    @NonNull
+    private long[] mIds;
+    private int mCount;
+
+    public RoomMemberList() {
+
+        mIds = new long[2 * INITIAL_CAPACITY];
+        mCount = 0;
+    }
+
+    public RoomMemberList(int capacity) {
+
+        mIds = new long[2 * Math.max(1, capacity)];
+        mCount = 0;
+    }
+
+    public RoomMemberList(@NonNull List<UUID> members) {
+
+        this(members.size());
+
+        for (UUID member : members) {
+            add(member);
+        }
+    }
+
+    public int size() {
+
+        return mCount;
+    }
+
+    public boolean isEmpty() {
+
+        return mCount == 0;
+    }
+
+    @NonNull
+    public UUID get(int index) {
+
+        checkIndex(index);
+        return new UUID(mIds[2 * index], mIds[2 * index + 1]);
+    }
+
+    public long getMostSignificantBits(int index) {
+
+        checkIndex(index);
+        return mIds[2 * index];
+    }
+
+    public long getLeastSignificantBits(int index) {
+
+        checkIndex(index);
+        return mIds[2 * index + 1];
+    }
+
+    public int indexOf(@Nullable UUID member) {
+
+        if (member == null) {
+            return -1;
+        }
+
+        final long msb = member.getMostSignificantBits();
+        final long lsb = member.getLeastSignificantBits();
+        for (int i = 0; i < mCount; i++) {
+            if (mIds[2 * i] == msb && mIds[2 * i + 1] == lsb) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(@Nullable UUID member) {
+
+        return indexOf(member) >= 0;
+    }
+
+    public void add(@NonNull UUID member) {
+
+        add(member.getMostSignificantBits(), member.getLeastSignificantBits());
+    }
+
+    public void add(long mostSignificantBits, long leastSignificantBits) {
+
+        ensureCapacity(mCount + 1);
+        mIds[2 * mCount] = mostSignificantBits;
+        mIds[2 * mCount + 1] = leastSignificantBits;
+        mCount++;
+    }
+
+    public void addAll(@NonNull RoomMemberList members) {
+
+        ensureCapacity(mCount + members.mCount);
+        System.arraycopy(members.mIds, 0, mIds, 2 * mCount, 2 * members.mCount);
+        mCount += members.mCount;
+    }
+
+    public void clear() {
+
+        mCount = 0;
+    }
+
+    /**
+     * Get the members as a list of UUID (for the callers that still use the List<UUID> API).
+     *
+     * @return a new list with the member twincodes.
+     */
+    @NonNull
+    public List<UUID> toList() {
+
+        final List<UUID> result = new ArrayList<>(mCount);
+        for (int i = 0; i < mCount; i++) {
+            result.add(new UUID(mIds[2 * i], mIds[2 * i + 1]));
+        }
+        return result;
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+
+        return "RoomMemberList: count=" + mCount;
+    }
+
+    //
+    // Private methods
+    //
+
+    private void checkIndex(int index) {
+
+        if (index < 0 || index >= mCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + mCount);
+        }
+    }
+
+    private void ensureCapacity(int count) {
+
+        if (2 * count > mIds.length) {
+            mIds = Arrays.copyOf(mIds, Math.max(2 * count, 2 * mIds.length));
+        }
+    }
+}
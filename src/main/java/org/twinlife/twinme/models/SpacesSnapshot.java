@@ -0,0 +1,297 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.Decoder;
+import org.twinlife.twinlife.Encoder;
+import org.twinlife.twinlife.SerializerException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/*
+ * <pre>
+ *
+ * Schema version 2
+ *
+ * {
+ *  "type":"record",
+ *  "name":"SpacesSnapshot",
+ *  "namespace":"org.twinlife.twinme.schemas",
+ *  "fields":
+ *  [
+ *   {"name":"schemaId", "type":"uuid"},
+ *   {"name":"schemaVersion", "type":"int"}
+ *   {"name":"defaultSpaceId", [null, "type":"uuid"]}
+ *   {"name":"currentSpaceId", [null, "type":"uuid"]}
+ *   {"name":"hasProfiles", "type":"boolean"}
+ *   {"name":"settingsName", "type":"string"}
+ *   {"name":"settingsFlags", "type":"int"}
+ *   {"name":"settingsStyle", [null, "type":"string"]}
+ *   {"name":"propertyCount", "type":"int"}
+ *   {"name":"properties", [
+ *     {"name":"name", "type":"string"}
+ *     {"name":"value", "type":"string"}
+ *   ]}
+ *   {"name":"spaceCount", "type":"int"}
+ *   {"name":"spaces", [
+ *     {"name":"spaceId", "type":"uuid"}
+ *     {"name":"profileId", [null, "type":"uuid"]}
+ *   ]}
+ *  ]
+ * }
+ *
+ * </pre>
+ */
+
+/**
+ * Compact snapshot of the space/profile graph and of the default space settings.
+ *
+ * The snapshot is saved each time the spaces are changed and it is read when the TwinmeContext is created
+ * so that the current space, the default space and the default settings are known before the
+ * GetSpacesExecutor has loaded every space and profile from the database.  The snapshot is only a hint:
+ * the objects it refers to are loaded and checked against the database before being used.  The snapshot is
+ * saved in clear in the configuration: the secret spaces and their profiles are never recorded and a secret
+ * space is always loaded from the database.
+ */
+public class SpacesSnapshot {
+
+    public static final UUID SCHEMA_ID = UUID.fromString("0b1c5e1e-a3f4-4e5e-9a2c-7d7a3b8e61f2");
+    public static final int SCHEMA_VERSION = 2;
+
+    private static final int FLAG_SECRET = 0x01;
+    private static final int FLAG_MESSAGE_COPY_ALLOWED = 0x02;
+    private static final int FLAG_FILE_COPY_ALLOWED = 0x04;
+
+    public static final class SpaceEntry {
+        @NonNull
+        public final UUID spaceId;
+        @Nullable
+        public final UUID profileId;
+
+        SpaceEntry(@NonNull UUID spaceId, @Nullable UUID profileId) {
+
+            this.spaceId = spaceId;
+            this.profileId = profileId;
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+
+            return "SpaceEntry[" + spaceId + " profileId=" + profileId + "]";
+        }
+    }
+
+    @Nullable
+    private final UUID mDefaultSpaceId;
+    @Nullable
+    private final UUID mCurrentSpaceId;
+    private final boolean mHasProfiles;
+    @NonNull
+    private final SpaceSettings mDefaultSettings;
+    @NonNull
+    private final Map<UUID, SpaceEntry> mSpaces;
+
+    /**
+     * Build the snapshot from the spaces known by the TwinmeContext.
+     *
+     * @param defaultSpaceId the default space id.
+     * @param currentSpace the current space.
+     * @param defaultSettings the default space settings.
+     * @param spaces the list of spaces.
+     */
+    public SpacesSnapshot(@Nullable UUID defaultSpaceId, @Nullable Space currentSpace,
+                          @NonNull SpaceSettings defaultSettings, @NonNull Collection<Space> spaces) {
+
+        mDefaultSpaceId = defaultSpaceId;
+        // The snapshot is saved in clear: a secret current space is replaced by the default space.
+        mCurrentSpaceId = currentSpace == null || currentSpace.isSecret() ? defaultSpaceId : currentSpace.getId();
+        mDefaultSettings = new SpaceSettings(defaultSettings);
+        mSpaces = new HashMap<>();
+
+        // The secret spaces are not recorded but their profiles are counted: hasProfiles only tells that
+        // the account has at least one profile.
+        boolean hasProfiles = false;
+        for (Space space : spaces) {
+            final UUID profileId = space.getProfileId();
+            hasProfiles |= profileId != null;
+            if (!space.isSecret()) {
+                mSpaces.put(space.getId(), new SpaceEntry(space.getId(), profileId));
+            }
+        }
+        mHasProfiles = hasProfiles;
+    }
+
+    private SpacesSnapshot(@Nullable UUID defaultSpaceId, @Nullable UUID currentSpaceId, boolean hasProfiles,
+                           @NonNull SpaceSettings defaultSettings, @NonNull Map<UUID, SpaceEntry> spaces) {
+
+        mDefaultSpaceId = defaultSpaceId;
+        mCurrentSpaceId = currentSpaceId;
+        mHasProfiles = hasProfiles;
+        mDefaultSettings = defaultSettings;
+        mSpaces = spaces;
+    }
+
+    @Nullable
+    public UUID getDefaultSpaceId() {
+
+        return mDefaultSpaceId;
+    }
+
+    @Nullable
+    public UUID getCurrentSpaceId() {
+
+        return mCurrentSpaceId;
+    }
+
+    public boolean hasSpaces() {
+
+        return !mSpaces.isEmpty();
+    }
+
+    public boolean hasProfiles() {
+
+        return mHasProfiles;
+    }
+
+    /**
+     * Get a copy of the default space settings as they were saved.
+     *
+     * @return the default space settings.
+     */
+    @NonNull
+    public SpaceSettings getDefaultSettings() {
+
+        return new SpaceSettings(mDefaultSettings);
+    }
+
+    @Nullable
+    public SpaceEntry getSpace(@Nullable UUID spaceId) {
+
+        return spaceId == null ? null : mSpaces.get(spaceId);
+    }
+
+    @NonNull
+    public Collection<SpaceEntry> getSpaces() {
+
+        return Collections.unmodifiableCollection(mSpaces.values());
+    }
+
+    public void serialize(@NonNull Encoder encoder) throws SerializerException {
+
+        encoder.writeUUID(SCHEMA_ID);
+        encoder.writeInt(SCHEMA_VERSION);
+        encoder.writeOptionalUUID(mDefaultSpaceId);
+        encoder.writeOptionalUUID(mCurrentSpaceId);
+        encoder.writeEnum(mHasProfiles ? 1 : 0);
+
+        int flags = 0;
+        if (mDefaultSettings.isSecret()) {
+            flags |= FLAG_SECRET;
+        }
+        if (mDefaultSettings.messageCopyAllowed()) {
+            flags |= FLAG_MESSAGE_COPY_ALLOWED;
+        }
+        if (mDefaultSettings.fileCopyAllowed()) {
+            flags |= FLAG_FILE_COPY_ALLOWED;
+        }
+        encoder.writeString(mDefaultSettings.getName());
+        encoder.writeInt(flags);
+        encoder.writeOptionalString(mDefaultSettings.getStyle());
+
+        final Map<String, String> properties = mDefaultSettings.mProperties;
+        if (properties == null) {
+            encoder.writeInt(0);
+        } else {
+            encoder.writeInt(properties.size());
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                encoder.writeString(property.getKey());
+                encoder.writeString(property.getValue());
+            }
+        }
+
+        encoder.writeInt(mSpaces.size());
+        for (SpaceEntry space : mSpaces.values()) {
+            encoder.writeUUID(space.spaceId);
+            encoder.writeOptionalUUID(space.profileId);
+        }
+    }
+
+    /**
+     * Read the snapshot from the decoder.
+     *
+     * @param decoder the decoder.
+     * @return the snapshot or null if the schema is not recognized.
+     * @throws SerializerException when the content is invalid.
+     */
+    @Nullable
+    public static SpacesSnapshot deserialize(@NonNull Decoder decoder) throws SerializerException {
+
+        final UUID schemaId = decoder.readUUID();
+        final int schemaVersion = decoder.readInt();
+        if (!SCHEMA_ID.equals(schemaId) || schemaVersion != SCHEMA_VERSION) {
+
+            return null;
+        }
+
+        final UUID defaultSpaceId = decoder.readOptionalUUID();
+        final UUID currentSpaceId = decoder.readOptionalUUID();
+        final boolean hasProfiles = decoder.readEnum() != 0;
+
+        final SpaceSettings settings = new SpaceSettings(decoder.readString());
+        final int flags = decoder.readInt();
+        settings.setSecret((flags & FLAG_SECRET) != 0);
+        settings.setMessageCopyAllowed((flags & FLAG_MESSAGE_COPY_ALLOWED) != 0);
+        settings.setFileCopyAllowed((flags & FLAG_FILE_COPY_ALLOWED) != 0);
+        settings.setStyle(decoder.readOptionalString());
+
+        int count = decoder.readInt();
+        if (count > 0) {
+            final Map<String, String> properties = new HashMap<>();
+            while (count > 0) {
+                count--;
+                final String name = decoder.readString();
+                properties.put(name, decoder.readString());
+            }
+            settings.mProperties = properties;
+        }
+
+        count = decoder.readInt();
+        final Map<UUID, SpaceEntry> spaces = new HashMap<>();
+        while (count > 0) {
+            count--;
+            final UUID spaceId = decoder.readUUID();
+            final UUID profileId = decoder.readOptionalUUID();
+            spaces.put(spaceId, new SpaceEntry(spaceId, profileId));
+        }
+
+        return new SpacesSnapshot(defaultSpaceId, currentSpaceId, hasProfiles, settings, spaces);
+    }
+
+    //
+    // Override Object methods
+    //
+
+    @Override
+    @NonNull
+    public String toString() {
+
+        return "SpacesSnapshot[defaultSpaceId=" + mDefaultSpaceId +
+                " currentSpaceId=" + mCurrentSpaceId +
+                " settings=" + mDefaultSettings +
+                " spaces=" + mSpaces.values() + "]";
+    }
+}
@@ -1,5 +1,5 @@
 /*
- *  Copyright (c) 2019-2020 twinlife SA.
+ *  Copyright (c) 2019-2026 twinlife SA.
  *  SPDX-License-Identifier: AGPL-3.0-only
  *
  *  Contributors:
@@ -16,40 +16,109 @@ import org.twinlife.twinlife.Twinlife;
 
 import static org.twinlife.twinme.TwinmeContext.ENABLE_REPORT_LOCATION;
 
+/**
+ * Last known location sent by the user.
+ *
+ * The location is kept in memory and it is saved in the configuration at most once per SAVE_INTERVAL: when
+ * recordGeolocation() returns true, the caller must call flush() later to save the last location.
+ */
 public class LocationReport {
 
+    public static final long SAVE_INTERVAL = 60000; // ms
+
     private static final ConfigIdentifier LAST_TIMESTAMP = new ConfigIdentifier("location", "timestamp", "B9897346-AD61-4B1F-96F1-7C04C97C58D3", Long.class);
     private static final ConfigIdentifier LONGITUDE = new ConfigIdentifier("location", "longitude", "7A9A1269-D0BC-415E-A902-22A4250B2D6C", Float.class);
     private static final ConfigIdentifier LATITUDE = new ConfigIdentifier("location", "latitude", "BC837810-1882-4199-ACF9-DB1177B3EC6F", Float.class);
     private static final ConfigIdentifier ALTITUDE = new ConfigIdentifier("location", "altitude", "3EC08BE2-32C4-48BC-8343-5FEDB55EEF3F", Float.class);
 
-    public static void recordGeolocation(Twinlife twinlife, GeolocationDescriptor geolocationDescriptor) {
+    private static long sTimestamp;
+    private static float sLongitude;
+    private static float sLatitude;
+    private static float sAltitude;
+    private static boolean sLoaded;
+    private static boolean sDirty;
+    private static long sLastSaveTime;
+
+    /**
+     * Record the location of the geolocation descriptor.
+     *
+     * @param twinlife the twinlife instance.
+     * @param geolocationDescriptor the geolocation descriptor that was sent.
+     * @return true if the location is not saved yet and flush() must be called.
+     */
+    public static synchronized boolean recordGeolocation(Twinlife twinlife, GeolocationDescriptor geolocationDescriptor) {
         if (ENABLE_REPORT_LOCATION) {
-            ConfigurationService configurationService = twinlife.getConfigurationService();
-            ConfigurationService.Configuration savedConfiguration = configurationService.getConfiguration(LAST_TIMESTAMP);
-
-            savedConfiguration.setLongConfig(LAST_TIMESTAMP, geolocationDescriptor.getCreatedTimestamp());
-            savedConfiguration.setFloatConfig(LONGITUDE, (float) geolocationDescriptor.getLongitude());
-            savedConfiguration.setFloatConfig(LATITUDE, (float) geolocationDescriptor.getLatitude());
-            savedConfiguration.setFloatConfig(ALTITUDE, (float) geolocationDescriptor.getAltitude());
-            savedConfiguration.save();
+            sTimestamp = geolocationDescriptor.getCreatedTimestamp();
+            sLongitude = (float) geolocationDescriptor.getLongitude();
+            sLatitude = (float) geolocationDescriptor.getLatitude();
+            sAltitude = (float) geolocationDescriptor.getAltitude();
+            sLoaded = true;
+            sDirty = true;
+
+            if (System.currentTimeMillis() - sLastSaveTime < SAVE_INTERVAL) {
+                return true;
+            }
+            save(twinlife);
+        }
+        return false;
+    }
+
+    /**
+     * Save the last location if it was not saved yet.
+     *
+     * @param twinlife the twinlife instance.
+     */
+    public static synchronized void flush(Twinlife twinlife) {
+        if (ENABLE_REPORT_LOCATION && sDirty) {
+            save(twinlife);
         }
     }
 
-    public static String getReport(Twinlife twinlife) {
+    /**
+     * Forget the last location when the user signs out.  The location must be saved by flush() before.
+     */
+    public static synchronized void reset() {
+
+        sTimestamp = 0;
+        sLongitude = 0;
+        sLatitude = 0;
+        sAltitude = 0;
+        sLoaded = false;
+        sDirty = false;
+        sLastSaveTime = 0;
+    }
+
+    public static synchronized String getReport(Twinlife twinlife) {
         if (ENABLE_REPORT_LOCATION) {
-            ConfigurationService configurationService = twinlife.getConfigurationService();
-            ConfigurationService.Configuration savedConfiguration = configurationService.getConfiguration(LAST_TIMESTAMP);
+            if (!sLoaded) {
+                ConfigurationService configurationService = twinlife.getConfigurationService();
+                ConfigurationService.Configuration savedConfiguration = configurationService.getConfiguration(LAST_TIMESTAMP);
 
-            long timestamp = savedConfiguration.getLongConfig(LAST_TIMESTAMP, 0);
-            if (timestamp > 0) {
-                float longitude = savedConfiguration.getFloatConfig(LONGITUDE, (float) 0.0);
-                float latitude = savedConfiguration.getFloatConfig(LATITUDE, (float) 0.0);
-                float altitude = savedConfiguration.getFloatConfig(ALTITUDE, (float) 0.0);
+                sTimestamp = savedConfiguration.getLongConfig(LAST_TIMESTAMP, 0);
+                sLongitude = savedConfiguration.getFloatConfig(LONGITUDE, (float) 0.0);
+                sLatitude = savedConfiguration.getFloatConfig(LATITUDE, (float) 0.0);
+                sAltitude = savedConfiguration.getFloatConfig(ALTITUDE, (float) 0.0);
+                sLoaded = true;
+            }
 
-                return timestamp + ":" + longitude + ":" + latitude + ":" + altitude;
+            if (sTimestamp > 0) {
+                return sTimestamp + ":" + sLongitude + ":" + sLatitude + ":" + sAltitude;
             }
         }
         return null;
     }
+
+    private static void save(Twinlife twinlife) {
+
+        ConfigurationService configurationService = twinlife.getConfigurationService();
+        ConfigurationService.Configuration savedConfiguration = configurationService.getConfiguration(LAST_TIMESTAMP);
+
+        savedConfiguration.setLongConfig(LAST_TIMESTAMP, sTimestamp);
+        savedConfiguration.setFloatConfig(LONGITUDE, sLongitude);
+        savedConfiguration.setFloatConfig(LATITUDE, sLatitude);
+        savedConfiguration.setFloatConfig(ALTITUDE, sAltitude);
+        savedConfiguration.save();
+        sDirty = false;
+        sLastSaveTime = System.currentTimeMillis();
+    }
 }
@@ -0,0 +1,409 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ *
+ *  Contributors:
+ *   Stephane Carrez (Stephane.Carrez@twin.life)
+ */
+
+package org.twinlife.twinme.util;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.BaseService.ErrorCode;
+import org.twinlife.twinlife.ConversationService;
+import org.twinlife.twinlife.ConversationService.Conversation;
+import org.twinlife.twinlife.ConversationService.Descriptor;
+import org.twinlife.twinlife.ConversationService.TransientObjectDescriptor;
+import org.twinlife.twinlife.JobService;
+import org.twinlife.twinme.TwinmeContext;
+import org.twinlife.twinme.models.Contact;
+import org.twinlife.twinme.models.RoomCommandResult;
+import org.twinlife.twinme.models.RoomMemberList;
+
+/**
+ * Iterate over the members of a Twinroom with paged ROOM_LIST_MEMBERS commands.
+ *
+ * The first page is requested by start() and each page is given to the observer when the caller asks for it
+ * with next().  When a page is delivered, the next one is requested immediately so that it is already received
+ * when the caller needs it: at most one page is buffered and one request is in flight.  When the Twinroom does
+ * not support the paged command or does not answer the first page before the timeout, the iterator falls back
+ * to the complete member list which is delivered as a single page.
+ */
+public class RoomMemberIterator {
+    private static final String LOG_TAG = "RoomMemberIterator";
+    private static final boolean DEBUG = false;
+    private static final boolean INFO = org.twinlife.twinlife.BuildConfig.ENABLE_INFO_LOG;
+
+    private static final long ROOM_TIMEOUT = 20000;
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    public interface Observer {
+
+        void onMembers(@NonNull RoomMemberIterator iterator, @NonNull RoomMemberList members, boolean hasMore);
+
+        void onError(@NonNull RoomMemberIterator iterator, @NonNull ErrorCode errorCode);
+    }
+
+    private class ConversationServiceObserver extends ConversationService.DefaultServiceObserver {
+
+        @Override
+        public void onPopDescriptor(long requestId, @NonNull Conversation conversation, @NonNull Descriptor descriptor) {
+
+            if (!(descriptor instanceof TransientObjectDescriptor)) {
+                return;
+            }
+
+            final Object object = ((TransientObjectDescriptor) descriptor).getObject();
+            if (object instanceof RoomCommandResult) {
+                RoomMemberIterator.this.onResult((RoomCommandResult) object);
+            }
+        }
+
+        @Override
+        public void onError(long requestId, ErrorCode errorCode, @Nullable String errorParameter) {
+
+            RoomMemberIterator.this.onError(requestId, errorCode);
+        }
+    }
+
+    private class TwinmeContextObserver extends TwinmeContext.DefaultObserver {
+
+        @Override
+        public void onError(long requestId, ErrorCode errorCode, @Nullable String errorParameter) {
+
+            RoomMemberIterator.this.onError(requestId, errorCode);
+        }
+    }
+
+    @NonNull
+    private final TwinmeContext mTwinmeContext;
+    @NonNull
+    private final Contact mContact;
+    @NonNull
+    private final String mFilter;
+    private final int mPageSize;
+    @NonNull
+    private final Observer mObserver;
+    @NonNull
+    private final ConversationServiceObserver mConversationServiceObserver;
+    @NonNull
+    private final TwinmeContextObserver mTwinmeContextObserver;
+    @NonNull
+    private final RoomMemberList mMembers = new RoomMemberList();
+    private long mRequestId;
+    private long mCursor;
+    private boolean mFirstPage;
+    private boolean mHasMore;
+    private boolean mWaiting;
+    @Nullable
+    private RoomMemberList mPrefetched;
+    private boolean mStarted;
+    @Nullable
+    private JobService.Job mTimeoutJob;
+
+    public RoomMemberIterator(@NonNull TwinmeContext twinmeContext, @NonNull Contact contact,
+                              @NonNull String filter, int pageSize, @NonNull Observer observer) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "RoomMemberIterator: contact=" + contact + " filter=" + filter + " pageSize=" + pageSize);
+        }
+
+        mTwinmeContext = twinmeContext;
+        mContact = contact;
+        mFilter = filter;
+        mPageSize = pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE;
+        mObserver = observer;
+        mConversationServiceObserver = new ConversationServiceObserver();
+        mTwinmeContextObserver = new TwinmeContextObserver();
+    }
+
+    /**
+     * Start the iteration: the first page is requested and given to the observer when it is received.
+     */
+    public void start() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "start");
+        }
+
+        synchronized (this) {
+            if (mStarted) {
+                return;
+            }
+            mStarted = true;
+            mFirstPage = true;
+            mHasMore = true;
+            mWaiting = true;
+            mCursor = 0;
+            mPrefetched = null;
+            mMembers.clear();
+        }
+
+        mTwinmeContext.addObserver(mTwinmeContextObserver);
+        mTwinmeContext.getConversationService().addServiceObserver(mConversationServiceObserver);
+        requestPage(true);
+    }
+
+    /**
+     * Ask for the next page.  The page is given to the observer immediately if it was already received.
+     *
+     * @return false if there is no other page.
+     */
+    public boolean next() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "next");
+        }
+
+        final RoomMemberList page;
+        final boolean hasMore;
+        final boolean prefetch;
+        synchronized (this) {
+            if (!mStarted) {
+                return false;
+            }
+            if (mPrefetched == null) {
+                if (!mHasMore) {
+                    return false;
+                }
+                mWaiting = true;
+                return true;
+            }
+
+            page = mPrefetched;
+            hasMore = mHasMore;
+            mPrefetched = null;
+            mMembers.addAll(page);
+            prefetch = hasMore && mRequestId == 0;
+        }
+
+        if (prefetch) {
+            requestPage(true);
+        }
+        mObserver.onMembers(this, page, hasMore);
+        return true;
+    }
+
+    /**
+     * Stop the iteration.  A page which is received after stop() is ignored.
+     */
+    public void stop() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "stop");
+        }
+
+        synchronized (this) {
+            if (!mStarted) {
+                return;
+            }
+            mStarted = false;
+            mRequestId = 0;
+            mPrefetched = null;
+            cancelTimeout();
+        }
+
+        mTwinmeContext.getConversationService().removeServiceObserver(mConversationServiceObserver);
+        mTwinmeContext.removeObserver(mTwinmeContextObserver);
+    }
+
+    public synchronized boolean hasMore() {
+
+        return mHasMore || mPrefetched != null;
+    }
+
+    /**
+     * Get the members of the pages given to the observer so far.
+     *
+     * @return a copy of the members.
+     */
+    @NonNull
+    public synchronized RoomMemberList getMembers() {
+
+        final RoomMemberList result = new RoomMemberList(mMembers.size());
+        result.addAll(mMembers);
+        return result;
+    }
+
+    //
+    // Private methods
+    //
+
+    private void requestPage(boolean paged) {
+
+        final long requestId = mTwinmeContext.newRequestId();
+        final long cursor;
+        synchronized (this) {
+            if (!mStarted) {
+                return;
+            }
+            mRequestId = requestId;
+            cursor = mCursor;
+            cancelTimeout();
+            mTimeoutJob = mTwinmeContext.getJobService().scheduleIn("RoomMemberIterator", () -> onTimeout(requestId),
+                    ROOM_TIMEOUT, JobService.Priority.MESSAGE);
+        }
+
+        if (DEBUG) {
+            Log.d(LOG_TAG, "requestPage: requestId=" + requestId + " cursor=" + cursor + " paged=" + paged);
+        }
+        if (paged) {
+            mTwinmeContext.roomListMembers(requestId, mContact, mFilter, cursor, mPageSize);
+        } else {
+            mTwinmeContext.roomListMembers(requestId, mContact, mFilter);
+        }
+    }
+
+    private void onResult(@NonNull RoomCommandResult result) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onResult: result=" + result);
+        }
+
+        final RoomMemberList page;
+        final boolean hasMore;
+        final boolean deliver;
+        final boolean prefetch;
+        final boolean fallback;
+        synchronized (this) {
+            if (!mStarted || result.getRequestId() != mRequestId) {
+                return;
+            }
+            mRequestId = 0;
+            cancelTimeout();
+            if (result.getStatus() != RoomCommandResult.Status.SUCCESS) {
+                // A Twinroom that does not know the paged command could reject it.
+                fallback = result.getStatus() == RoomCommandResult.Status.BAD_COMMAND && mFirstPage;
+                if (!fallback) {
+                    mHasMore = false;
+                }
+                page = null;
+                hasMore = false;
+                deliver = false;
+                prefetch = false;
+            } else {
+                fallback = false;
+                final RoomMemberList members = result.getMemberList();
+                page = members == null ? new RoomMemberList(0) : members;
+
+                // An old Twinroom answers with the complete list (schema version 1) and no cursor.
+                hasMore = result.isPaged() && result.getNextCursor() != 0;
+                mHasMore = hasMore;
+                mCursor = result.getNextCursor();
+                mFirstPage = false;
+                deliver = mWaiting;
+                if (deliver) {
+                    mWaiting = false;
+                    mMembers.addAll(page);
+                } else {
+                    mPrefetched = page;
+                }
+                prefetch = deliver && hasMore;
+            }
+        }
+
+        if (page == null) {
+            if (fallback) {
+                fallback();
+            } else {
+                mObserver.onError(this, toErrorCode(result.getStatus()));
+            }
+            return;
+        }
+        if (prefetch) {
+            requestPage(true);
+        }
+        if (deliver) {
+            mObserver.onMembers(this, page, hasMore);
+        }
+    }
+
+    private void onError(long requestId, @NonNull ErrorCode errorCode) {
+
+        final boolean fallback;
+        synchronized (this) {
+            if (!mStarted || requestId != mRequestId) {
+                return;
+            }
+            mRequestId = 0;
+            cancelTimeout();
+            fallback = mFirstPage && errorCode == ErrorCode.FEATURE_NOT_SUPPORTED_BY_PEER;
+            if (!fallback) {
+                mHasMore = false;
+            }
+        }
+
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onError: requestId=" + requestId + " errorCode=" + errorCode);
+        }
+        if (fallback) {
+            fallback();
+        } else {
+            mObserver.onError(this, errorCode);
+        }
+    }
+
+    private void onTimeout(long requestId) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onTimeout: requestId=" + requestId);
+        }
+
+        final boolean fallback;
+        synchronized (this) {
+            if (!mStarted || requestId != mRequestId) {
+                return;
+            }
+            mRequestId = 0;
+            mTimeoutJob = null;
+
+            // A Twinroom that does not know the paged command could also drop it without answering.
+            fallback = mFirstPage;
+            if (!fallback) {
+                mHasMore = false;
+            }
+        }
+
+        if (fallback) {
+            fallback();
+        } else {
+            mObserver.onError(this, ErrorCode.TIMEOUT_ERROR);
+        }
+    }
+
+    private void cancelTimeout() {
+
+        if (mTimeoutJob != null) {
+            mTimeoutJob.cancel();
+            mTimeoutJob = null;
+        }
+    }
+
+    private void fallback() {
+        if (INFO) {
+            Log.i(LOG_TAG, "Paged member list not supported, getting the complete list");
+        }
+
+        synchronized (this) {
+            mFirstPage = false;
+            mCursor = 0;
+        }
+        requestPage(false);
+    }
+
+    @NonNull
+    private static ErrorCode toErrorCode(@NonNull RoomCommandResult.Status status) {
+
+        switch (status) {
+            case PERMISSION_DENIED:
+                return ErrorCode.NO_PERMISSION;
+
+            case ITEM_NOT_FOUND:
+                return ErrorCode.ITEM_NOT_FOUND;
+
+            case BAD_COMMAND:
+                return ErrorCode.BAD_REQUEST;
+
+            default:
+                return ErrorCode.SERVER_ERROR;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.twinlife.twinme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinlife.ConversationService.Conversation;
+import org.twinlife.twinlife.ConversationService.Descriptor;
+import org.twinlife.twinlife.ConversationService.DescriptorId;
+import org.twinlife.twinlife.RepositoryObject;
+import org.twinlife.twinlife.RepositoryService.StatType;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+class CatchUpBufferTest {
+
+    private static final long PROBE_DELAY = 1000;
+    private static final long QUIET_DELAY = 500;
+    private static final long MAX_DURATION = 5000;
+
+    private final UUID mPeerTwincodeId = UUID.randomUUID();
+    private long mSequence;
+
+    private static Conversation newConversation() {
+
+        final UUID conversationId = UUID.randomUUID();
+        final UUID subjectId = UUID.randomUUID();
+        final RepositoryObject subject = (RepositoryObject) Proxy.newProxyInstance(RepositoryObject.class.getClassLoader(),
+                new Class<?>[] { RepositoryObject.class },
+                (proxy, method, args) -> "getId".equals(method.getName()) ? subjectId : null);
+        return (Conversation) Proxy.newProxyInstance(Conversation.class.getClassLoader(),
+                new Class<?>[] { Conversation.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getId":
+                            return conversationId;
+                        case "getSubject":
+                            return subject;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private Descriptor newDescriptor(Descriptor.Type type, UUID twincodeOutboundId) {
+
+        final DescriptorId descriptorId = new DescriptorId(0, twincodeOutboundId, ++mSequence);
+        return (Descriptor) Proxy.newProxyInstance(Descriptor.class.getClassLoader(),
+                new Class<?>[] { Descriptor.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getType":
+                            return type;
+                        case "getDescriptorId":
+                            return descriptorId;
+                        case "getTwincodeOutboundId":
+                            return twincodeOutboundId;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private Descriptor newMessage() {
+
+        return newDescriptor(Descriptor.Type.OBJECT_DESCRIPTOR, mPeerTwincodeId);
+    }
+
+    // Enter the catch-up mode: the descriptors above the threshold are collected.
+    private static void enter(CatchUpBuffer buffer, Conversation conversation, Descriptor descriptor) {
+
+        buffer.start(1000);
+        assertFalse(buffer.record(1000, conversation, descriptor, null));
+        assertFalse(buffer.record(1000, conversation, descriptor, null));
+        assertTrue(buffer.record(1000, conversation, descriptor, null));
+    }
+
+    @Test
+    void testProbe() {
+
+        final CatchUpBuffer buffer = new CatchUpBuffer(2, PROBE_DELAY, QUIET_DELAY, MAX_DURATION);
+        final Conversation conversation = newConversation();
+
+        // Not started: the descriptors are processed immediately.
+        assertFalse(buffer.record(1000, conversation, newMessage(), StatType.NB_MESSAGE_RECEIVED));
+        assertNull(buffer.finish());
+
+        // Too few descriptors within the probe delay.
+        buffer.start(1000);
+        assertFalse(buffer.record(1000, conversation, newMessage(), null));
+        assertFalse(buffer.record(3000, conversation, newMessage(), null));
+        assertFalse(buffer.record(3000, conversation, newMessage(), null));
+        assertNull(buffer.finish());
+    }
+
+    @Test
+    void testLastDescriptor() {
+
+        final CatchUpBuffer buffer = new CatchUpBuffer(2, PROBE_DELAY, QUIET_DELAY, MAX_DURATION);
+        final Conversation conversation1 = newConversation();
+        final Conversation conversation2 = newConversation();
+        final Descriptor image = newDescriptor(Descriptor.Type.IMAGE_DESCRIPTOR, mPeerTwincodeId);
+        final Descriptor lastMessage = newMessage();
+        final Descriptor otherMessage = newMessage();
+
+        enter(buffer, conversation1, newMessage());
+        assertTrue(buffer.record(1100, conversation1, image, StatType.NB_IMAGE_RECEIVED));
+        assertTrue(buffer.record(1200, conversation2, otherMessage, StatType.NB_MESSAGE_RECEIVED));
+        assertTrue(buffer.record(1300, conversation1, lastMessage, StatType.NB_MESSAGE_RECEIVED));
+        assertEquals(QUIET_DELAY - 200, buffer.getRemainingDelay(1500));
+
+        final CatchUpBuffer.Batch batch = buffer.finish();
+        assertNotNull(batch);
+        assertEquals(4, batch.count);
+        assertEquals(3, batch.stats.size());
+
+        // The messages of a conversation are aggregated with its last message.
+        assertEquals(2, batch.descriptors.size());
+        assertSame(otherMessage, batch.descriptors.get(0).descriptor);
+        assertSame(conversation2, batch.descriptors.get(0).conversation);
+        assertEquals(1, batch.descriptors.get(0).count);
+        assertSame(lastMessage, batch.descriptors.get(1).descriptor);
+        assertSame(conversation1, batch.descriptors.get(1).conversation);
+        assertEquals(3, batch.descriptors.get(1).count);
+        assertNull(buffer.finish());
+    }
+
+    @Test
+    void testKeepInvitations() {
+
+        final CatchUpBuffer buffer = new CatchUpBuffer(2, PROBE_DELAY, QUIET_DELAY, MAX_DURATION);
+        final Conversation conversation = newConversation();
+        final Descriptor invitation1 = newDescriptor(Descriptor.Type.INVITATION_DESCRIPTOR, mPeerTwincodeId);
+        final Descriptor invitation2 = newDescriptor(Descriptor.Type.INVITATION_DESCRIPTOR, mPeerTwincodeId);
+        final Descriptor twincode = newDescriptor(Descriptor.Type.TWINCODE_DESCRIPTOR, mPeerTwincodeId);
+        final Descriptor clear = newDescriptor(Descriptor.Type.CLEAR_DESCRIPTOR, mPeerTwincodeId);
+        final Descriptor member = newDescriptor(Descriptor.Type.OBJECT_DESCRIPTOR, UUID.randomUUID());
+
+        enter(buffer, conversation, newMessage());
+        buffer.record(1100, conversation, invitation1, null);
+        buffer.record(1100, conversation, invitation2, null);
+        buffer.record(1100, conversation, twincode, StatType.NB_TWINCODE_RECEIVED);
+        buffer.record(1100, conversation, clear, null);
+        buffer.record(1100, conversation, member, StatType.NB_MESSAGE_RECEIVED);
+
+        // Every invitation, twincode and clear descriptor is kept, the messages of the senders are aggregated.
+        final CatchUpBuffer.Batch batch = buffer.finish();
+        assertNotNull(batch);
+        assertEquals(5, batch.descriptors.size());
+        assertSame(invitation1, batch.descriptors.get(0).descriptor);
+        assertSame(invitation2, batch.descriptors.get(1).descriptor);
+        assertSame(twincode, batch.descriptors.get(2).descriptor);
+        assertSame(clear, batch.descriptors.get(3).descriptor);
+        assertSame(member, batch.descriptors.get(4).descriptor);
+        assertEquals(2, batch.descriptors.get(4).count);
+    }
+
+    @Test
+    void testOriginator() {
+
+        final CatchUpBuffer buffer = new CatchUpBuffer(2, PROBE_DELAY, QUIET_DELAY, MAX_DURATION);
+        final Conversation group = newConversation();
+        final Conversation contact1 = newConversation();
+        final Conversation contact2 = newConversation();
+        final UUID[] members = new UUID[5];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = UUID.randomUUID();
+        }
+
+        // A burst of 300 text and image messages from a group of 5 members and 2 contacts,
+        // the first 2 messages are received before the catch-up mode.
+        enter(buffer, contact1, newMessage());
+        for (int i = 3; i < 300; i++) {
+            final Descriptor.Type type = i % 2 == 0 ? Descriptor.Type.OBJECT_DESCRIPTOR : Descriptor.Type.IMAGE_DESCRIPTOR;
+            switch (i % 3) {
+                case 0:
+                    buffer.record(1100, group, newDescriptor(type, members[i % members.length]), null);
+                    break;
+
+                case 1:
+                    buffer.record(1100, contact1, newDescriptor(type, mPeerTwincodeId), null);
+                    break;
+
+                default:
+                    buffer.record(1100, contact2, newDescriptor(type, UUID.randomUUID()), null);
+                    break;
+            }
+        }
+
+        // One item per originator: a single notification is posted for each of them.
+        final CatchUpBuffer.Batch batch = buffer.finish();
+        assertNotNull(batch);
+        assertEquals(298, batch.count);
+        assertEquals(3, batch.descriptors.size());
+        assertSame(group, batch.descriptors.get(0).conversation);
+        assertEquals(99, batch.descriptors.get(0).count);
+        assertSame(contact1, batch.descriptors.get(1).conversation);
+        assertEquals(100, batch.descriptors.get(1).count);
+        assertSame(contact2, batch.descriptors.get(2).conversation);
+        assertEquals(99, batch.descriptors.get(2).count);
+    }
+
+    @Test
+    void testMaxDuration() {
+
+        final CatchUpBuffer buffer = new CatchUpBuffer(2, PROBE_DELAY, QUIET_DELAY, MAX_DURATION);
+        final Conversation conversation = newConversation();
+
+        enter(buffer, conversation, newMessage());
+        assertTrue(buffer.record(5800, conversation, newMessage(), null));
+        assertEquals(200, buffer.getRemainingDelay(5800));
+        assertEquals(0, buffer.getRemainingDelay(6000));
+    }
+}
@@ -0,0 +1,137 @@
+package org.twinlife.twinme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinme.InvocationQueue.Priority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+class InvocationQueueTest {
+
+    private static final long STALE_DELAY = 60000;
+
+    // The invocations started by the queue.
+    private final List<String> mStarted = new ArrayList<>();
+
+    private boolean submit(InvocationQueue queue, UUID invocationId, Priority priority, String key, String name) {
+
+        return queue.submit(invocationId, priority, key, () -> mStarted.add(name));
+    }
+
+    @Test
+    void testPriority() {
+
+        final InvocationQueue queue = new InvocationQueue(1, 16, STALE_DELAY);
+        final UUID first = UUID.randomUUID();
+        final UUID refresh = UUID.randomUUID();
+        final UUID group = UUID.randomUUID();
+        final UUID pair = UUID.randomUUID();
+
+        submit(queue, first, Priority.REFRESH, null, "first");
+        submit(queue, refresh, Priority.REFRESH, null, "refresh");
+        submit(queue, group, Priority.GROUP, null, "group");
+        submit(queue, pair, Priority.PAIR, null, "pair");
+        assertEquals(Collections.singletonList("first"), mStarted);
+        assertEquals(3, queue.getStats().depth);
+
+        // The pending invocations start one by one, by priority.
+        queue.complete(first);
+        queue.complete(pair);
+        queue.complete(group);
+        assertEquals(Arrays.asList("first", "pair", "group", "refresh"), mStarted);
+
+        final InvocationQueue.Stats stats = queue.getStats();
+        assertEquals(4, stats.count);
+        assertEquals(0, stats.depth);
+        assertEquals(3, stats.maxDepth);
+        assertEquals(1, stats.running);
+    }
+
+    @Test
+    void testCoalesce() {
+
+        final InvocationQueue queue = new InvocationQueue(1, 16, STALE_DELAY);
+        final UUID running = UUID.randomUUID();
+        final UUID pending = UUID.randomUUID();
+        final UUID merged1 = UUID.randomUUID();
+        final UUID merged2 = UUID.randomUUID();
+
+        submit(queue, running, Priority.REFRESH, "key", "running");
+        submit(queue, pending, Priority.REFRESH, "key", "pending");
+        submit(queue, merged1, Priority.REFRESH, "key", "merged1");
+        submit(queue, merged2, Priority.REFRESH, "key", "merged2");
+        assertEquals(2, queue.getStats().coalesced);
+
+        assertNull(queue.complete(running));
+        assertEquals(Arrays.asList("running", "pending"), mStarted);
+
+        // The merged invocations are acknowledged with the result of the pending one.
+        assertEquals(Arrays.asList(merged1, merged2), queue.complete(pending));
+        assertFalse(queue.isRunning());
+    }
+
+    @Test
+    void testReject() {
+
+        final InvocationQueue queue = new InvocationQueue(1, 2, STALE_DELAY);
+
+        assertTrue(submit(queue, UUID.randomUUID(), Priority.REFRESH, null, "r1"));
+        assertTrue(submit(queue, UUID.randomUUID(), Priority.REFRESH, null, "r2"));
+        assertTrue(submit(queue, UUID.randomUUID(), Priority.REFRESH, null, "r3"));
+
+        // The queue is full: only the refresh is rejected.
+        assertFalse(submit(queue, UUID.randomUUID(), Priority.REFRESH, null, "r4"));
+        assertTrue(submit(queue, UUID.randomUUID(), Priority.PAIR, null, "p1"));
+        assertEquals(1, queue.getStats().rejected);
+        assertEquals(3, queue.getStats().depth);
+    }
+
+    @Test
+    void testReleaseStale() throws InterruptedException {
+
+        final InvocationQueue queue = new InvocationQueue(1, 16, 20);
+        final UUID lost = UUID.randomUUID();
+
+        submit(queue, lost, Priority.PAIR, null, "lost");
+        submit(queue, UUID.randomUUID(), Priority.PAIR, null, "next");
+        queue.releaseStale();
+        assertEquals(Collections.singletonList("lost"), mStarted);
+
+        // The invocation is not acknowledged after the stale delay: its slot is released.
+        Thread.sleep(50);
+        queue.releaseStale();
+        assertEquals(Arrays.asList("lost", "next"), mStarted);
+        assertEquals(1, queue.getStats().running);
+
+        // The late acknowledge of the lost invocation is ignored.
+        assertNull(queue.complete(lost));
+        assertTrue(queue.isRunning());
+    }
+
+    @Test
+    void testClear() {
+
+        final InvocationQueue queue = new InvocationQueue(1, 16, STALE_DELAY);
+        final UUID running = UUID.randomUUID();
+
+        submit(queue, running, Priority.PAIR, "key", "running");
+        submit(queue, UUID.randomUUID(), Priority.PAIR, "key2", "pending");
+        queue.clear();
+        assertFalse(queue.isRunning());
+        assertEquals(0, queue.getStats().depth);
+        assertNull(queue.complete(running));
+
+        // The keys are released: a new invocation is not merged with the dropped one.
+        submit(queue, UUID.randomUUID(), Priority.PAIR, "key2", "new");
+        assertEquals(Arrays.asList("running", "new"), mStarted);
+        assertEquals(0, queue.getStats().coalesced);
+    }
+}
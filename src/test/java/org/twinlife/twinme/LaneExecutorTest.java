@@ -0,0 +1,61 @@
+package org.twinlife.twinme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinme.LaneExecutor.Lane;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class LaneExecutorTest {
+
+    // The drain operations posted on the twinlife executor.
+    private final List<Runnable> mDrains = new ArrayList<>();
+    private final List<String> mResult = new ArrayList<>();
+
+    private void drain() {
+
+        while (!mDrains.isEmpty()) {
+            mDrains.remove(0).run();
+        }
+    }
+
+    @Test
+    void testPriority() {
+
+        final LaneExecutor executor = new LaneExecutor(mDrains::add, 60000);
+
+        executor.execute(Lane.BACKGROUND, () -> mResult.add("b1"));
+        executor.execute(Lane.BACKGROUND, () -> mResult.add("b2"));
+        executor.execute(() -> mResult.add("i1"));
+        executor.execute(Lane.REALTIME, () -> mResult.add("r1"));
+        executor.lane(Lane.INTERACTIVE).execute(() -> mResult.add("i2"));
+        assertEquals(5, mDrains.size());
+
+        drain();
+        assertEquals(Arrays.asList("r1", "i1", "i2", "b1", "b2"), mResult);
+
+        final LaneExecutor.Stats stats = executor.getStats(Lane.BACKGROUND);
+        assertEquals(2, stats.count);
+        assertEquals(0, stats.depth);
+        assertEquals(2, stats.maxDepth);
+        assertEquals(2, executor.getStats(Lane.INTERACTIVE).count);
+    }
+
+    @Test
+    void testAging() throws InterruptedException {
+
+        final LaneExecutor executor = new LaneExecutor(mDrains::add, 20);
+
+        executor.execute(Lane.BACKGROUND, () -> mResult.add("b1"));
+        Thread.sleep(50);
+        executor.execute(Lane.INTERACTIVE, () -> mResult.add("i1"));
+        executor.execute(Lane.REALTIME, () -> mResult.add("r1"));
+
+        // The background task waited more than the aging delay: it runs first.
+        drain();
+        assertEquals(Arrays.asList("b1", "r1", "i1"), mResult);
+    }
+}
@@ -0,0 +1,153 @@
+package org.twinlife.twinme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinlife.Notification;
+import org.twinlife.twinlife.NotificationService.NotificationType;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+class NotificationCoalescerTest {
+
+    private static final long WINDOW = 1000;
+
+    private boolean mAcknowledged;
+
+    private Notification newNotification(NotificationType type) {
+
+        final UUID notificationId = UUID.randomUUID();
+        return (Notification) Proxy.newProxyInstance(Notification.class.getClassLoader(),
+                new Class<?>[] { Notification.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getId":
+                            return notificationId;
+                        case "getNotificationType":
+                            return type;
+                        case "isAcknowledged":
+                            return mAcknowledged;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    @Test
+    void testMerge() {
+
+        final NotificationCoalescer coalescer = new NotificationCoalescer(WINDOW);
+        final UUID originatorId = UUID.randomUUID();
+        final Notification notification = newNotification(NotificationType.NEW_TEXT_MESSAGE);
+
+        assertNull(coalescer.merge(originatorId, NotificationType.NEW_TEXT_MESSAGE, 1, 1000));
+        coalescer.put(originatorId, notification, 1, 1000);
+
+        // The next messages within the window after the previous one are merged.
+        assertSame(notification, coalescer.merge(originatorId, NotificationType.NEW_TEXT_MESSAGE, 1, 1500));
+        assertSame(notification, coalescer.merge(originatorId, NotificationType.NEW_TEXT_MESSAGE, 1, 2400));
+        assertEquals(3, coalescer.getCount(notification));
+        assertEquals(2, coalescer.getMergedCount());
+
+        // Another type or another originator is not merged.
+        assertNull(coalescer.merge(originatorId, NotificationType.NEW_IMAGE_MESSAGE, 1, 2400));
+        assertNull(coalescer.merge(UUID.randomUUID(), NotificationType.NEW_TEXT_MESSAGE, 1, 2400));
+
+        // The window has expired.
+        assertNull(coalescer.merge(originatorId, NotificationType.NEW_TEXT_MESSAGE, 1, 3500));
+        assertEquals(3, coalescer.getCount(notification));
+    }
+
+    @Test
+    void testCount() {
+
+        final NotificationCoalescer coalescer = new NotificationCoalescer(WINDOW);
+        final UUID originatorId = UUID.randomUUID();
+        final Notification notification = newNotification(NotificationType.NEW_TEXT_MESSAGE);
+
+        // The notification of a catch-up represents several messages.
+        coalescer.put(originatorId, notification, 5, 1000);
+        assertEquals(5, coalescer.getCount(notification));
+        assertEquals(4, coalescer.getMergedCount());
+
+        assertSame(notification, coalescer.merge(originatorId, NotificationType.NEW_TEXT_MESSAGE, 3, 1100));
+        assertEquals(8, coalescer.getCount(notification));
+        assertEquals(7, coalescer.getMergedCount());
+    }
+
+    @Test
+    void testMessageOnly() {
+
+        final NotificationCoalescer coalescer = new NotificationCoalescer(WINDOW);
+        final UUID originatorId = UUID.randomUUID();
+
+        // The invitations and the conversation reset are never merged.
+        for (NotificationType type : new NotificationType[] { NotificationType.NEW_GROUP_INVITATION,
+                NotificationType.NEW_CONTACT_INVITATION, NotificationType.RESET_CONVERSATION }) {
+            final Notification notification = newNotification(type);
+            coalescer.put(originatorId, notification, 1, 1000);
+            assertNull(coalescer.merge(originatorId, type, 1, 1100));
+            assertEquals(1, coalescer.getCount(notification));
+        }
+        assertEquals(0, coalescer.getMergedCount());
+
+        final Notification geolocation = newNotification(NotificationType.NEW_GEOLOCATION);
+        coalescer.put(originatorId, geolocation, 1, 1000);
+        assertSame(geolocation, coalescer.merge(originatorId, NotificationType.NEW_GEOLOCATION, 1, 1100));
+    }
+
+    @Test
+    void testAcknowledged() {
+
+        final NotificationCoalescer coalescer = new NotificationCoalescer(WINDOW);
+        final UUID originatorId = UUID.randomUUID();
+        final Notification notification = newNotification(NotificationType.NEW_TEXT_MESSAGE);
+
+        coalescer.put(originatorId, notification, 1, 1000);
+        mAcknowledged = true;
+        assertNull(coalescer.merge(originatorId, NotificationType.NEW_TEXT_MESSAGE, 1, 1100));
+        assertEquals(0, coalescer.getMergedCount());
+    }
+
+    @Test
+    void testRemove() {
+
+        final NotificationCoalescer coalescer = new NotificationCoalescer(WINDOW);
+        final UUID originatorId = UUID.randomUUID();
+        final Notification notification = newNotification(NotificationType.NEW_TEXT_MESSAGE);
+
+        coalescer.put(originatorId, notification, 1, 1000);
+        coalescer.merge(originatorId, NotificationType.NEW_TEXT_MESSAGE, 1, 1100);
+        coalescer.remove(notification);
+        assertEquals(1, coalescer.getCount(notification));
+        assertNull(coalescer.merge(originatorId, NotificationType.NEW_TEXT_MESSAGE, 1, 1200));
+    }
+
+    @Test
+    void testPut() {
+
+        final NotificationCoalescer coalescer = new NotificationCoalescer(WINDOW);
+        final UUID originatorId = UUID.randomUUID();
+        final Notification expired = newNotification(NotificationType.NEW_TEXT_MESSAGE);
+        final Notification first = newNotification(NotificationType.NEW_IMAGE_MESSAGE);
+        final Notification second = newNotification(NotificationType.NEW_IMAGE_MESSAGE);
+
+        coalescer.put(UUID.randomUUID(), expired, 1, 1000);
+        coalescer.merge(UUID.randomUUID(), NotificationType.NEW_TEXT_MESSAGE, 1, 1000);
+        coalescer.put(originatorId, first, 1, 1000);
+        coalescer.merge(originatorId, NotificationType.NEW_IMAGE_MESSAGE, 1, 1100);
+
+        // The new notification replaces the previous one of the same originator and type.
+        coalescer.put(originatorId, second, 1, 1200);
+        assertEquals(1, coalescer.getCount(first));
+        assertSame(second, coalescer.merge(originatorId, NotificationType.NEW_IMAGE_MESSAGE, 1, 1300));
+        assertEquals(2, coalescer.getCount(second));
+
+        // The notifications whose window has expired are forgotten by the next put.
+        coalescer.put(UUID.randomUUID(), newNotification(NotificationType.NEW_TEXT_MESSAGE), 1, 5000);
+        assertEquals(1, coalescer.getCount(second));
+    }
+}
@@ -0,0 +1,107 @@
+package org.twinlife.twinme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinlife.BaseService.ErrorCode;
+import org.twinlife.twinlife.Consumer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class SingleFlightTest {
+
+    private static final long TIMEOUT = 30000;
+
+    private final List<Consumer<String>> mFetches = new ArrayList<>();
+    private final List<String> mResults = new ArrayList<>();
+
+    private void execute(SingleFlight singleFlight, int kind, UUID id) {
+
+        singleFlight.execute(kind, id, null, (ErrorCode errorCode, String object) -> mResults.add(object),
+                mFetches::add);
+    }
+
+    @Test
+    void testMerge() {
+
+        final SingleFlight singleFlight = new SingleFlight(TIMEOUT);
+        final UUID id = UUID.randomUUID();
+
+        execute(singleFlight, SingleFlight.CONTACT, id);
+        execute(singleFlight, SingleFlight.CONTACT, id);
+        execute(singleFlight, SingleFlight.CONTACT, id);
+        assertEquals(1, mFetches.size());
+        assertEquals(3, singleFlight.getRequestCount());
+        assertEquals(2, singleFlight.getMergedCount());
+
+        mFetches.get(0).onGet(ErrorCode.SUCCESS, "contact");
+        assertEquals(3, mResults.size());
+        for (String result : mResults) {
+            assertEquals("contact", result);
+        }
+
+        // The key is released: the next request fetches again.
+        execute(singleFlight, SingleFlight.CONTACT, id);
+        assertEquals(2, mFetches.size());
+    }
+
+    @Test
+    void testKeys() {
+
+        final SingleFlight singleFlight = new SingleFlight(TIMEOUT);
+        final UUID id = UUID.randomUUID();
+
+        execute(singleFlight, SingleFlight.CONTACT, id);
+        execute(singleFlight, SingleFlight.GROUP, id);
+        execute(singleFlight, SingleFlight.CONTACT, UUID.randomUUID());
+        singleFlight.execute(SingleFlight.GROUP_MEMBER, id, UUID.randomUUID(),
+                (ErrorCode errorCode, String object) -> mResults.add(object), mFetches::add);
+        assertEquals(4, mFetches.size());
+        assertEquals(0, singleFlight.getMergedCount());
+    }
+
+    @Test
+    void testTimeout() {
+
+        final SingleFlight singleFlight = new SingleFlight(0);
+        final UUID id = UUID.randomUUID();
+
+        // The first fetch is considered lost: the second request starts a new fetch.
+        execute(singleFlight, SingleFlight.CONTACT, id);
+        execute(singleFlight, SingleFlight.CONTACT, id);
+        assertEquals(2, mFetches.size());
+
+        // The late result of the lost fetch is ignored.
+        mFetches.get(0).onGet(ErrorCode.SUCCESS, "old");
+        assertTrue(mResults.isEmpty());
+
+        // Both callers receive the result of the new fetch.
+        mFetches.get(1).onGet(ErrorCode.SUCCESS, "new");
+        assertEquals(2, mResults.size());
+        assertEquals("new", mResults.get(0));
+        assertEquals("new", mResults.get(1));
+    }
+
+    @Test
+    void testClear() {
+
+        final SingleFlight singleFlight = new SingleFlight(TIMEOUT);
+        final UUID id = UUID.randomUUID();
+
+        execute(singleFlight, SingleFlight.CONTACT, id);
+        singleFlight.clear();
+
+        // A new request is not merged with the fetch that was dropped.
+        execute(singleFlight, SingleFlight.CONTACT, id);
+        assertEquals(2, mFetches.size());
+
+        mFetches.get(0).onGet(ErrorCode.SUCCESS, "old");
+        assertTrue(mResults.isEmpty());
+        mFetches.get(1).onGet(ErrorCode.SUCCESS, "new");
+        assertEquals(1, mResults.size());
+        assertEquals("new", mResults.get(0));
+    }
+}
@@ -0,0 +1,202 @@
+package org.twinlife.twinme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinlife.BaseService.ErrorCode;
+import org.twinlife.twinlife.Consumer;
+import org.twinlife.twinlife.RepositoryObject;
+import org.twinlife.twinlife.RepositoryService;
+import org.twinlife.twinlife.TwincodeOutbound;
+import org.twinlife.twinlife.TwinlifeContext;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+class TwincodeIndexTest {
+
+    // The listObjects() requests issued by the index and not yet answered.
+    private final List<Consumer<List<RepositoryObject>>> mRequests = new ArrayList<>();
+    private TwincodeIndex mIndex;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void setUp() {
+
+        final RepositoryService repositoryService = (RepositoryService) Proxy.newProxyInstance(
+                RepositoryService.class.getClassLoader(), new Class<?>[] { RepositoryService.class },
+                (proxy, method, args) -> {
+                    if ("listObjects".equals(method.getName())) {
+                        mRequests.add((Consumer<List<RepositoryObject>>) args[args.length - 1]);
+                    }
+                    return null;
+                });
+        final TwinlifeContext twinlifeContext = (TwinlifeContext) Proxy.newProxyInstance(
+                TwinlifeContext.class.getClassLoader(), new Class<?>[] { TwinlifeContext.class },
+                (proxy, method, args) -> "getRepositoryService".equals(method.getName()) ? repositoryService : null);
+
+        mRequests.clear();
+        mIndex = new TwincodeIndex(twinlifeContext);
+    }
+
+    private static TwincodeOutbound newTwincode(UUID twincodeId) {
+
+        return (TwincodeOutbound) Proxy.newProxyInstance(TwincodeOutbound.class.getClassLoader(),
+                new Class<?>[] { TwincodeOutbound.class },
+                (proxy, method, args) -> "getId".equals(method.getName()) ? twincodeId : null);
+    }
+
+    private static RepositoryObject newObject(UUID objectId, UUID twincodeId, UUID peerTwincodeId) {
+
+        final TwincodeOutbound twincodeOutbound = twincodeId == null ? null : newTwincode(twincodeId);
+        final TwincodeOutbound peerTwincodeOutbound = peerTwincodeId == null ? null : newTwincode(peerTwincodeId);
+        return (RepositoryObject) Proxy.newProxyInstance(RepositoryObject.class.getClassLoader(),
+                new Class<?>[] { RepositoryObject.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getId":
+                            return objectId;
+                        case "getTwincodeOutbound":
+                            return twincodeOutbound;
+                        case "getPeerTwincodeOutbound":
+                            return peerTwincodeOutbound;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "object " + objectId;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private List<RepositoryObject> find(UUID twincodeId) {
+
+        final List<List<RepositoryObject>> result = new ArrayList<>();
+        mIndex.find(twincodeId, (ErrorCode errorCode, List<RepositoryObject> list) -> result.add(list));
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    private void completeLoad(List<RepositoryObject> objects) {
+
+        final List<Consumer<List<RepositoryObject>>> requests = new ArrayList<>(mRequests);
+        mRequests.clear();
+        for (int i = 0; i < requests.size(); i++) {
+            requests.get(i).onGet(ErrorCode.SUCCESS, i == 0 ? objects : Collections.emptyList());
+        }
+    }
+
+    @Test
+    void testLoadAndFind() {
+
+        final UUID twincodeId = UUID.randomUUID();
+        final UUID peerTwincodeId = UUID.randomUUID();
+        final RepositoryObject object = newObject(UUID.randomUUID(), twincodeId, peerTwincodeId);
+
+        // The first lookup loads the index and waits for the load.
+        final List<List<RepositoryObject>> result = new ArrayList<>();
+        mIndex.find(peerTwincodeId, (ErrorCode errorCode, List<RepositoryObject> list) -> result.add(list));
+        assertTrue(result.isEmpty());
+        assertEquals(4, mRequests.size());
+
+        completeLoad(Collections.singletonList(object));
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0).size());
+        assertSame(object, result.get(0).get(0));
+
+        // The next lookups are answered from memory.
+        final List<RepositoryObject> list = find(twincodeId);
+        assertNotNull(list);
+        assertEquals(1, list.size());
+        assertTrue(mRequests.isEmpty());
+        assertEquals(0, find(UUID.randomUUID()).size());
+    }
+
+    @Test
+    void testPutAndRemove() {
+
+        find(UUID.randomUUID());
+        completeLoad(Collections.emptyList());
+
+        final UUID objectId = UUID.randomUUID();
+        final UUID twincodeId = UUID.randomUUID();
+        final UUID newTwincodeId = UUID.randomUUID();
+        mIndex.put(newObject(objectId, twincodeId, null));
+        assertEquals(1, find(twincodeId).size());
+
+        // The object is updated with a new twincode: the old key must not find it.
+        mIndex.put(newObject(objectId, newTwincodeId, null));
+        assertEquals(0, find(twincodeId).size());
+        assertEquals(1, find(newTwincodeId).size());
+
+        mIndex.remove(objectId);
+        assertEquals(0, find(newTwincodeId).size());
+    }
+
+    @Test
+    void testLoadError() {
+
+        final UUID twincodeId = UUID.randomUUID();
+        final List<ErrorCode> errors = new ArrayList<>();
+        mIndex.find(twincodeId, (ErrorCode errorCode, List<RepositoryObject> list) -> errors.add(errorCode));
+
+        // One factory fails: the pending lookup receives the error.
+        final List<Consumer<List<RepositoryObject>>> requests = new ArrayList<>(mRequests);
+        mRequests.clear();
+        requests.get(0).onGet(ErrorCode.SUCCESS, Collections.singletonList(newObject(UUID.randomUUID(), twincodeId, null)));
+        requests.get(1).onGet(ErrorCode.DATABASE_ERROR, null);
+        requests.get(2).onGet(ErrorCode.SUCCESS, Collections.emptyList());
+        assertTrue(errors.isEmpty());
+        requests.get(3).onGet(ErrorCode.SUCCESS, Collections.emptyList());
+        assertEquals(Collections.singletonList(ErrorCode.DATABASE_ERROR), errors);
+
+        // The index is not loaded: the next lookup loads it again.
+        final List<List<RepositoryObject>> result = new ArrayList<>();
+        mIndex.find(twincodeId, (ErrorCode errorCode, List<RepositoryObject> list) -> result.add(list));
+        assertEquals(4, mRequests.size());
+        assertTrue(result.isEmpty());
+
+        completeLoad(Collections.singletonList(newObject(UUID.randomUUID(), twincodeId, null)));
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0).size());
+    }
+
+    @Test
+    void testClearDuringLoad() {
+
+        final UUID twincodeId = UUID.randomUUID();
+        final List<List<RepositoryObject>> result = new ArrayList<>();
+        mIndex.find(twincodeId, (ErrorCode errorCode, List<RepositoryObject> list) -> result.add(list));
+        final List<Consumer<List<RepositoryObject>>> staleRequests = new ArrayList<>(mRequests);
+        mRequests.clear();
+
+        // The pending lookup is answered with an empty list when the index is cleared.
+        mIndex.clear();
+        assertEquals(1, result.size());
+        assertEquals(0, result.get(0).size());
+
+        // A new lookup starts a new load.
+        result.clear();
+        mIndex.find(twincodeId, (ErrorCode errorCode, List<RepositoryObject> list) -> result.add(list));
+        assertEquals(4, mRequests.size());
+
+        // The results of the load started before clear() are dropped and don't complete the new load.
+        for (Consumer<List<RepositoryObject>> request : staleRequests) {
+            request.onGet(ErrorCode.SUCCESS, Collections.singletonList(newObject(UUID.randomUUID(), twincodeId, null)));
+        }
+        assertTrue(result.isEmpty());
+
+        completeLoad(Collections.emptyList());
+        assertEquals(1, result.size());
+        assertEquals(0, result.get(0).size());
+    }
+}
@@ -0,0 +1,227 @@
+package org.twinlife.twinme.actions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinlife.BaseService.ErrorCode;
+import org.twinlife.twinlife.ConversationService;
+import org.twinlife.twinlife.ConversationService.Conversation;
+import org.twinlife.twinlife.ConversationService.TransientObjectDescriptor;
+import org.twinlife.twinlife.JobService;
+import org.twinlife.twinme.TwinmeContext;
+import org.twinlife.twinme.models.RoomCommand;
+import org.twinlife.twinme.models.RoomCommandResult;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+class RoomModerationPipelineTest {
+
+    private final UUID mConversationId = UUID.randomUUID();
+    // The commands pushed on the conversation and the timeout jobs scheduled by the pipeline.
+    private final List<RoomCommand> mCommands = new ArrayList<>();
+    private final List<Runnable> mJobs = new ArrayList<>();
+    private ConversationService.ServiceObserver mObserver;
+    private Conversation mConversation;
+    private TwinmeContext mTwinmeContext;
+    private long mRequestId;
+
+    // The result given to the consumer.
+    private ErrorCode mErrorCode;
+    private RoomModerationPipeline.Report mReport;
+
+    @BeforeEach
+    void setUp() {
+
+        mConversation = (Conversation) Proxy.newProxyInstance(Conversation.class.getClassLoader(),
+                new Class<?>[] { Conversation.class },
+                (proxy, method, args) -> "getId".equals(method.getName()) ? mConversationId : null);
+        final ConversationService conversationService = (ConversationService) Proxy.newProxyInstance(
+                ConversationService.class.getClassLoader(), new Class<?>[] { ConversationService.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "addServiceObserver":
+                            mObserver = (ConversationService.ServiceObserver) args[0];
+                            return null;
+                        case "getOrCreateConversation":
+                            return mConversation;
+                        case "pushCommand":
+                            mCommands.add((RoomCommand) args[2]);
+                            return null;
+                        default:
+                            return null;
+                    }
+                });
+        final JobService.Job job = (JobService.Job) Proxy.newProxyInstance(JobService.Job.class.getClassLoader(),
+                new Class<?>[] { JobService.Job.class }, (proxy, method, args) -> null);
+        final JobService jobService = (JobService) Proxy.newProxyInstance(JobService.class.getClassLoader(),
+                new Class<?>[] { JobService.class },
+                (proxy, method, args) -> {
+                    if ("scheduleIn".equals(method.getName())) {
+                        mJobs.add((Runnable) args[1]);
+                        return job;
+                    }
+                    return null;
+                });
+        mTwinmeContext = (TwinmeContext) Proxy.newProxyInstance(TwinmeContext.class.getClassLoader(),
+                new Class<?>[] { TwinmeContext.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getConversationService":
+                            return conversationService;
+                        case "getJobService":
+                            return jobService;
+                        case "newRequestId":
+                            return ++mRequestId;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    // The contact is only given to the conversation service stub.
+    private RoomModerationPipeline newPipeline(int chunkSize, int window, long timeout) {
+
+        return new RoomModerationPipeline(mTwinmeContext, null, chunkSize, window, timeout);
+    }
+
+    private static List<UUID> newMembers(int count) {
+
+        final List<UUID> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            members.add(UUID.randomUUID());
+        }
+        return members;
+    }
+
+    private void onReport(ErrorCode errorCode, RoomModerationPipeline.Report report) {
+
+        mErrorCode = errorCode;
+        mReport = report;
+    }
+
+    private void answer(RoomCommand command, RoomCommandResult.Status status) {
+
+        final RoomCommandResult result = new RoomCommandResult(command, status);
+        final TransientObjectDescriptor descriptor = (TransientObjectDescriptor) Proxy.newProxyInstance(
+                TransientObjectDescriptor.class.getClassLoader(), new Class<?>[] { TransientObjectDescriptor.class },
+                (proxy, method, args) -> "getObject".equals(method.getName()) ? result : null);
+        mObserver.onPopDescriptor(command.getRequestId(), mConversation, descriptor);
+    }
+
+    @Test
+    void testChunks() {
+
+        final RoomModerationPipeline pipeline = newPipeline(100, 4, 20000);
+        final List<UUID> members = newMembers(250);
+
+        // The members are split in chunks of at most 100 members.
+        pipeline.setRoles("moderator", members, this::onReport);
+        assertEquals(3, mCommands.size());
+        assertEquals(members.subList(0, 100), mCommands.get(0).getList());
+        assertEquals(members.subList(100, 200), mCommands.get(1).getList());
+        assertEquals(members.subList(200, 250), mCommands.get(2).getList());
+        assertEquals(RoomCommand.Action.ROOM_SET_ROLES, mCommands.get(0).getAction());
+
+        for (RoomCommand command : new ArrayList<>(mCommands)) {
+            assertNull(mErrorCode);
+            answer(command, RoomCommandResult.Status.SUCCESS);
+        }
+        assertEquals(ErrorCode.SUCCESS, mErrorCode);
+        assertEquals(250, mReport.getSucceeded().size());
+        assertTrue(mReport.isComplete());
+    }
+
+    @Test
+    void testWindow() {
+
+        final RoomModerationPipeline pipeline = newPipeline(100, 2, 20000);
+        pipeline.deleteMembers(newMembers(5), this::onReport);
+
+        // At most 2 commands are in flight, a result lets the next command be sent.
+        assertEquals(2, mCommands.size());
+        assertEquals(2, pipeline.getInFlightCount());
+        answer(mCommands.get(0), RoomCommandResult.Status.SUCCESS);
+        assertEquals(3, mCommands.size());
+        assertEquals(2, pipeline.getInFlightCount());
+
+        // A result with an unknown request id is ignored.
+        answer(new RoomCommand(1000, RoomCommand.Action.ROOM_DELETE_MEMBER, UUID.randomUUID()),
+                RoomCommandResult.Status.SUCCESS);
+        assertEquals(3, mCommands.size());
+
+        for (int i = 1; i < 5; i++) {
+            answer(mCommands.get(i), RoomCommandResult.Status.SUCCESS);
+        }
+        assertEquals(5, mCommands.size());
+        assertEquals(0, pipeline.getInFlightCount());
+        assertEquals(ErrorCode.SUCCESS, mErrorCode);
+        assertEquals(5, mReport.getSucceeded().size());
+    }
+
+    @Test
+    void testPartialFailure() {
+
+        final RoomModerationPipeline pipeline = newPipeline(2, 4, 20000);
+        final List<UUID> members = newMembers(5);
+        pipeline.setRoles("member", members, this::onReport);
+        assertEquals(3, mCommands.size());
+
+        // A failed chunk does not stop the other chunks: the consumer gets the first error.
+        answer(mCommands.get(0), RoomCommandResult.Status.SUCCESS);
+        answer(mCommands.get(1), RoomCommandResult.Status.PERMISSION_DENIED);
+        mObserver.onError(mCommands.get(2).getRequestId(), ErrorCode.SERVER_ERROR, null);
+
+        assertEquals(ErrorCode.NO_PERMISSION, mErrorCode);
+        assertEquals(5, mReport.getTotal());
+        assertEquals(2, mReport.getSucceeded().size());
+        assertTrue(mReport.getSucceeded().contains(members.get(0)));
+        assertEquals(3, mReport.getFailures().size());
+        assertEquals(ErrorCode.NO_PERMISSION, mReport.getFailures().get(members.get(2)));
+        assertEquals(ErrorCode.NO_PERMISSION, mReport.getFailures().get(members.get(3)));
+        assertEquals(ErrorCode.SERVER_ERROR, mReport.getFailures().get(members.get(4)));
+    }
+
+    @Test
+    void testTimeout() throws InterruptedException {
+
+        final RoomModerationPipeline pipeline = newPipeline(100, 1, 10);
+        final List<UUID> members = newMembers(2);
+        pipeline.signalMembers(members, this::onReport);
+        assertEquals(1, mCommands.size());
+        assertEquals(1, mJobs.size());
+
+        // The command is not answered: it fails with a timeout and the next one is sent.
+        Thread.sleep(20);
+        mJobs.get(0).run();
+        assertEquals(2, mCommands.size());
+        assertNull(mErrorCode);
+
+        answer(mCommands.get(1), RoomCommandResult.Status.SUCCESS);
+        assertEquals(ErrorCode.TIMEOUT_ERROR, mErrorCode);
+        assertEquals(Collections.singletonMap(members.get(0), ErrorCode.TIMEOUT_ERROR), mReport.getFailures());
+        assertEquals(1, mReport.getSucceeded().size());
+
+        // The late result of the expired command is ignored.
+        answer(mCommands.get(0), RoomCommandResult.Status.SUCCESS);
+        assertEquals(1, mReport.getSucceeded().size());
+    }
+
+    @Test
+    void testClose() {
+
+        final RoomModerationPipeline pipeline = newPipeline(100, 1, 20000);
+        pipeline.deleteMembers(newMembers(3), this::onReport);
+        pipeline.close();
+
+        assertEquals(ErrorCode.EXPIRED, mErrorCode);
+        assertEquals(3, mReport.getFailures().size());
+        assertEquals(0, pipeline.getInFlightCount());
+    }
+}
@@ -0,0 +1,106 @@
+package org.twinlife.twinme.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinlife.Serializer;
+import org.twinlife.twinlife.SerializerException;
+import org.twinlife.twinlife.util.BinaryDecoder;
+import org.twinlife.twinlife.util.BinaryEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class RoomCommandResultTest {
+
+    private static final RoomCommandResult.RoomResultSerializer SERIALIZER_V1 = new RoomCommandResult.RoomResultSerializer();
+    private static final RoomCommandResult.RoomResultSerializerV2 SERIALIZER_V2 = new RoomCommandResult.RoomResultSerializerV2();
+
+    private static RoomCommandResult roundTrip(Serializer serializer, RoomCommandResult result, int expectedVersion) throws SerializerException {
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.serialize(null, new BinaryEncoder(outputStream), result);
+
+        final BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(serializer.schemaId, decoder.readUUID());
+        final int version = decoder.readInt();
+        assertEquals(expectedVersion, version);
+        return (RoomCommandResult) (version == 1 ? SERIALIZER_V1 : SERIALIZER_V2).deserialize(null, decoder);
+    }
+
+    private static List<UUID> newMembers(int count) {
+
+        final List<UUID> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            members.add(UUID.randomUUID());
+        }
+        return members;
+    }
+
+    @Test
+    void testVersion() {
+
+        assertEquals(1, SERIALIZER_V1.schemaVersion);
+        assertEquals(2, SERIALIZER_V2.schemaVersion);
+    }
+
+    @Test
+    void testRoundTripV1() throws SerializerException {
+
+        final List<UUID> members = newMembers(3);
+        final RoomCommand command = new RoomCommand(1, RoomCommand.Action.ROOM_LIST_MEMBERS, "all");
+        final RoomCommandResult result = roundTrip(SERIALIZER_V1, new RoomCommandResult(command, members), 1);
+        assertEquals(1, result.getRequestId());
+        assertEquals(RoomCommandResult.Status.SUCCESS, result.getStatus());
+        assertEquals(members, result.getMembers());
+        assertFalse(result.isPaged());
+
+        final RoomCommandResult error = roundTrip(SERIALIZER_V1,
+                new RoomCommandResult(command, RoomCommandResult.Status.PERMISSION_DENIED), 1);
+        assertEquals(RoomCommandResult.Status.PERMISSION_DENIED, error.getStatus());
+        assertTrue(error.getMembers() == null || error.getMembers().isEmpty());
+    }
+
+    @Test
+    void testRoundTripV2() throws SerializerException {
+
+        final List<UUID> members = newMembers(50);
+        final RoomCommand command = new RoomCommand(2, RoomCommand.Action.ROOM_LIST_MEMBERS, "all", 0, 50);
+        final RoomCommandResult result = roundTrip(SERIALIZER_V2,
+                new RoomCommandResult(command, new RoomMemberList(members), 4321), 2);
+        assertEquals(2, result.getRequestId());
+        assertEquals(RoomCommandResult.Status.SUCCESS, result.getStatus());
+        assertTrue(result.isPaged());
+        assertEquals(4321, result.getNextCursor());
+
+        final RoomMemberList list = result.getMemberList();
+        assertNotNull(list);
+        assertEquals(members, list.toList());
+        assertEquals(members, result.getMembers());
+
+        // The last page is empty and has no cursor.
+        final RoomCommandResult last = roundTrip(SERIALIZER_V2,
+                new RoomCommandResult(command, new RoomMemberList(), 0), 2);
+        assertTrue(last.isPaged());
+        assertEquals(0, last.getNextCursor());
+        assertNotNull(last.getMemberList());
+        assertEquals(0, last.getMemberList().size());
+    }
+
+    @Test
+    void testNotPagedV2() throws SerializerException {
+
+        // The answer to a command which is not paged keeps the schema version 1 layout.
+        final List<UUID> members = newMembers(2);
+        final RoomCommand command = new RoomCommand(3, RoomCommand.Action.ROOM_LIST_MEMBERS, "all");
+        final RoomCommandResult result = roundTrip(SERIALIZER_V2, new RoomCommandResult(command, members), 1);
+        assertFalse(result.isPaged());
+        assertEquals(members, result.getMembers());
+    }
+}
@@ -0,0 +1,106 @@
+package org.twinlife.twinme.models;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinlife.ConversationService.DescriptorId;
+import org.twinlife.twinlife.Serializer;
+import org.twinlife.twinlife.SerializerException;
+import org.twinlife.twinlife.util.BinaryDecoder;
+import org.twinlife.twinlife.util.BinaryEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+class RoomCommandTest {
+
+    private static final RoomCommand.RoomCommandSerializer SERIALIZER_V1 = new RoomCommand.RoomCommandSerializer();
+    private static final RoomCommand.RoomCommandSerializerV2 SERIALIZER_V2 = new RoomCommand.RoomCommandSerializerV2();
+
+    // Serialize the command and decode it with the serializer of the schema version found in the data.
+    private static RoomCommand roundTrip(Serializer serializer, RoomCommand command, int expectedVersion) throws SerializerException {
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.serialize(null, new BinaryEncoder(outputStream), command);
+
+        final BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(serializer.schemaId, decoder.readUUID());
+        final int version = decoder.readInt();
+        assertEquals(expectedVersion, version);
+        return (RoomCommand) (version == 1 ? SERIALIZER_V1 : SERIALIZER_V2).deserialize(null, decoder);
+    }
+
+    @Test
+    void testVersion() {
+
+        assertEquals(1, SERIALIZER_V1.schemaVersion);
+        assertEquals(2, SERIALIZER_V2.schemaVersion);
+        assertEquals(SERIALIZER_V1.schemaId, SERIALIZER_V2.schemaId);
+    }
+
+    @Test
+    void testRoundTripV1() throws SerializerException {
+
+        final RoomCommand name = roundTrip(SERIALIZER_V1,
+                new RoomCommand(1, RoomCommand.Action.ROOM_SET_NAME, "room"), 1);
+        assertEquals(1, name.getRequestId());
+        assertEquals(RoomCommand.Action.ROOM_SET_NAME, name.getAction());
+        assertEquals("room", name.getText());
+        assertFalse(name.isPaged());
+
+        final UUID twincodeId = UUID.randomUUID();
+        final RoomCommand message = roundTrip(SERIALIZER_V1,
+                new RoomCommand(2, RoomCommand.Action.ROOM_DELETE_MESSAGE, new DescriptorId(0, twincodeId, 12)), 1);
+        assertNotNull(message.getDescriptorId());
+        assertEquals(twincodeId, message.getDescriptorId().twincodeOutboundId);
+        assertEquals(12, message.getDescriptorId().sequenceId);
+
+        final byte[] image = new byte[] { 1, 2, 3 };
+        final RoomCommand setImage = roundTrip(SERIALIZER_V1,
+                new RoomCommand(3, RoomCommand.Action.ROOM_SET_IMAGE, image), 1);
+        assertArrayEquals(image, setImage.getRawImage());
+
+        final List<UUID> members = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+        final RoomCommand roles = roundTrip(SERIALIZER_V1,
+                new RoomCommand(4, RoomCommand.Action.ROOM_SET_ROLES, "admin", members), 1);
+        assertEquals("admin", roles.getText());
+        assertEquals(members, roles.getList());
+    }
+
+    @Test
+    void testPagedV1() throws SerializerException {
+
+        // The schema version 1 has no paging information: the command asks for the complete list.
+        final RoomCommand command = roundTrip(SERIALIZER_V1,
+                new RoomCommand(5, RoomCommand.Action.ROOM_LIST_MEMBERS, "all", 1234, 50), 1);
+        assertEquals(RoomCommand.Action.ROOM_LIST_MEMBERS, command.getAction());
+        assertEquals("all", command.getText());
+        assertFalse(command.isPaged());
+    }
+
+    @Test
+    void testRoundTripV2() throws SerializerException {
+
+        final RoomCommand command = roundTrip(SERIALIZER_V2,
+                new RoomCommand(6, RoomCommand.Action.ROOM_LIST_MEMBERS, "all", 1234, 50), 2);
+        assertEquals(6, command.getRequestId());
+        assertEquals(RoomCommand.Action.ROOM_LIST_MEMBERS, command.getAction());
+        assertEquals("all", command.getText());
+        assertTrue(command.isPaged());
+        assertEquals(1234, command.getCursor());
+        assertEquals(50, command.getPageSize());
+
+        // The commands which are not paged keep the schema version 1 layout.
+        final RoomCommand name = roundTrip(SERIALIZER_V2,
+                new RoomCommand(7, RoomCommand.Action.ROOM_SET_NAME, "room"), 1);
+        assertEquals("room", name.getText());
+        assertFalse(name.isPaged());
+    }
+}
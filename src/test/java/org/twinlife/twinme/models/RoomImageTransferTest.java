@@ -0,0 +1,88 @@
+package org.twinlife.twinme.models;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinlife.SerializerException;
+import org.twinlife.twinlife.util.BinaryDecoder;
+import org.twinlife.twinlife.util.BinaryEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.UUID;
+
+class RoomImageTransferTest {
+
+    private static final RoomImageTransfer.RoomImageTransferSerializer SERIALIZER = new RoomImageTransfer.RoomImageTransferSerializer();
+    private static final UUID TRANSFER_ID = UUID.randomUUID();
+
+    private static RoomImageTransfer roundTrip(RoomImageTransfer transfer) throws SerializerException {
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        SERIALIZER.serialize(null, new BinaryEncoder(outputStream), transfer);
+
+        final BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(SERIALIZER.schemaId, decoder.readUUID());
+        assertEquals(SERIALIZER.schemaVersion, decoder.readInt());
+        return (RoomImageTransfer) SERIALIZER.deserialize(null, decoder);
+    }
+
+    @Test
+    void testBegin() throws SerializerException {
+
+        final RoomImageTransfer result = roundTrip(RoomImageTransfer.begin(1, TRANSFER_ID, 123456789L));
+        assertEquals(1, result.getRequestId());
+        assertEquals(RoomImageTransfer.Action.BEGIN, result.getAction());
+        assertEquals(TRANSFER_ID, result.getTransferId());
+        assertEquals(123456789L, result.getOffset());
+        assertNull(result.getData());
+    }
+
+    @Test
+    void testChunk() throws SerializerException {
+
+        final byte[] data = new byte[32 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        final RoomImageTransfer result = roundTrip(RoomImageTransfer.chunk(2, TRANSFER_ID, 65536, data));
+        assertEquals(RoomImageTransfer.Action.CHUNK, result.getAction());
+        assertEquals(65536, result.getOffset());
+        assertArrayEquals(data, result.getData());
+    }
+
+    @Test
+    void testCommitAndAbort() throws SerializerException {
+
+        final byte[] checksum = new byte[32];
+        checksum[0] = 0x12;
+        checksum[31] = (byte) 0xff;
+
+        final RoomImageTransfer commit = roundTrip(RoomImageTransfer.commit(3, TRANSFER_ID, checksum));
+        assertEquals(RoomImageTransfer.Action.COMMIT, commit.getAction());
+        assertEquals(0, commit.getOffset());
+        assertArrayEquals(checksum, commit.getData());
+
+        final RoomImageTransfer abort = roundTrip(RoomImageTransfer.abort(4, TRANSFER_ID));
+        assertEquals(4, abort.getRequestId());
+        assertEquals(RoomImageTransfer.Action.ABORT, abort.getAction());
+        assertEquals(TRANSFER_ID, abort.getTransferId());
+        assertNull(abort.getData());
+    }
+
+    @Test
+    void testInvalidAction() {
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final BinaryEncoder encoder = new BinaryEncoder(outputStream);
+        assertThrows(SerializerException.class, () -> {
+            encoder.writeLong(5);
+            encoder.writeEnum(7);
+            SERIALIZER.deserialize(null, new BinaryDecoder(new ByteArrayInputStream(outputStream.toByteArray())));
+        });
+    }
+}
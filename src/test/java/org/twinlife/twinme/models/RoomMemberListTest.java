@@ -0,0 +1,71 @@
+package org.twinlife.twinme.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class RoomMemberListTest {
+
+    @Test
+    void testAddAndGet() {
+
+        final List<UUID> members = new ArrayList<>();
+        final RoomMemberList list = new RoomMemberList(1);
+        assertTrue(list.isEmpty());
+
+        // The list grows beyond its initial capacity.
+        for (int i = 0; i < 100; i++) {
+            final UUID member = UUID.randomUUID();
+            members.add(member);
+            list.add(member);
+        }
+        assertEquals(100, list.size());
+        assertFalse(list.isEmpty());
+        for (int i = 0; i < members.size(); i++) {
+            assertEquals(members.get(i), list.get(i));
+            assertEquals(members.get(i).getMostSignificantBits(), list.getMostSignificantBits(i));
+            assertEquals(members.get(i).getLeastSignificantBits(), list.getLeastSignificantBits(i));
+        }
+        assertEquals(members, list.toList());
+        assertEquals(members, new RoomMemberList(members).toList());
+
+        assertEquals(42, list.indexOf(members.get(42)));
+        assertTrue(list.contains(members.get(99)));
+        assertFalse(list.contains(UUID.randomUUID()));
+        assertFalse(list.contains(null));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(100));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+
+        list.clear();
+        assertEquals(0, list.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+    }
+
+    @Test
+    void testAddAll() {
+
+        final RoomMemberList first = new RoomMemberList();
+        final RoomMemberList second = new RoomMemberList();
+        final UUID member1 = UUID.randomUUID();
+        final UUID member2 = UUID.randomUUID();
+        final UUID member3 = new UUID(-1L, Long.MIN_VALUE);
+        first.add(member1);
+        second.add(member2);
+        second.add(member3.getMostSignificantBits(), member3.getLeastSignificantBits());
+
+        first.addAll(second);
+        assertEquals(3, first.size());
+        assertEquals(member1, first.get(0));
+        assertEquals(member2, first.get(1));
+        assertEquals(member3, first.get(2));
+        assertEquals(2, second.size());
+    }
+}
@@ -0,0 +1,156 @@
+package org.twinlife.twinme.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.twinlife.twinlife.BaseService;
+import org.twinlife.twinlife.SerializerException;
+import org.twinlife.twinlife.util.BinaryDecoder;
+import org.twinlife.twinlife.util.BinaryEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+class SpacesSnapshotTest {
+
+    private static final UUID DEFAULT_SPACE_ID = UUID.randomUUID();
+    private static final UUID SECRET_SPACE_ID = UUID.randomUUID();
+    private static final UUID DEFAULT_PROFILE_ID = UUID.randomUUID();
+    private static final UUID SECRET_PROFILE_ID = UUID.randomUUID();
+
+    private static Space newSpace(UUID spaceId, UUID profileId, boolean isSecret) {
+
+        final List<BaseService.AttributeNameValue> attributes = new ArrayList<>();
+        attributes.add(new BaseService.AttributeNameStringValue("profileId", profileId.toString()));
+
+        final Space space = new Space(null, spaceId, 0, "space", null, attributes, 0);
+        final SpaceSettings settings = new SpaceSettings("space");
+        settings.setSecret(isSecret);
+        space.setSpaceSettings(settings);
+        return space;
+    }
+
+    private static SpacesSnapshot roundTrip(SpacesSnapshot snapshot) throws SerializerException {
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        snapshot.serialize(new BinaryEncoder(outputStream));
+        return SpacesSnapshot.deserialize(new BinaryDecoder(new ByteArrayInputStream(outputStream.toByteArray())));
+    }
+
+    @Test
+    void testRoundTrip() throws SerializerException {
+
+        final SpaceSettings settings = new SpaceSettings("General");
+        settings.setMessageCopyAllowed(false);
+        settings.setStyle("dark");
+        settings.mProperties = new HashMap<>();
+        settings.mProperties.put("color", "ff0000");
+
+        final Space defaultSpace = newSpace(DEFAULT_SPACE_ID, DEFAULT_PROFILE_ID, false);
+        final Space secretSpace = newSpace(SECRET_SPACE_ID, SECRET_PROFILE_ID, true);
+        final SpacesSnapshot snapshot = new SpacesSnapshot(DEFAULT_SPACE_ID, defaultSpace, settings,
+                Arrays.asList(defaultSpace, secretSpace));
+
+        final SpacesSnapshot result = roundTrip(snapshot);
+        assertNotNull(result);
+        assertEquals(DEFAULT_SPACE_ID, result.getDefaultSpaceId());
+        assertEquals(DEFAULT_SPACE_ID, result.getCurrentSpaceId());
+        assertTrue(result.hasSpaces());
+        assertTrue(result.hasProfiles());
+        assertEquals(1, result.getSpaces().size());
+
+        final SpacesSnapshot.SpaceEntry entry = result.getSpace(DEFAULT_SPACE_ID);
+        assertNotNull(entry);
+        assertEquals(DEFAULT_PROFILE_ID, entry.profileId);
+        assertNull(result.getSpace(UUID.randomUUID()));
+        assertNull(result.getSpace(null));
+
+        final SpaceSettings resultSettings = result.getDefaultSettings();
+        assertEquals("General", resultSettings.getName());
+        assertFalse(resultSettings.isSecret());
+        assertFalse(resultSettings.messageCopyAllowed());
+        assertTrue(resultSettings.fileCopyAllowed());
+        assertEquals("dark", resultSettings.getStyle());
+        assertEquals("ff0000", resultSettings.getString("color", ""));
+    }
+
+    @Test
+    void testEmpty() throws SerializerException {
+
+        final SpacesSnapshot result = roundTrip(new SpacesSnapshot(null, null, new SpaceSettings("General"),
+                Collections.emptyList()));
+        assertNotNull(result);
+        assertNull(result.getDefaultSpaceId());
+        assertNull(result.getCurrentSpaceId());
+        assertFalse(result.hasSpaces());
+        assertFalse(result.hasProfiles());
+    }
+
+    @Test
+    void testSecretCurrentSpace() throws SerializerException {
+
+        final Space defaultSpace = newSpace(DEFAULT_SPACE_ID, DEFAULT_PROFILE_ID, false);
+        final Space secretSpace = newSpace(SECRET_SPACE_ID, SECRET_PROFILE_ID, true);
+
+        // The secret current space is never saved: the default space is used instead.
+        final SpacesSnapshot snapshot = new SpacesSnapshot(DEFAULT_SPACE_ID, secretSpace,
+                new SpaceSettings("General"), Arrays.asList(defaultSpace, secretSpace));
+        assertEquals(DEFAULT_SPACE_ID, snapshot.getCurrentSpaceId());
+
+        final SpacesSnapshot result = roundTrip(snapshot);
+        assertNotNull(result);
+        assertEquals(DEFAULT_SPACE_ID, result.getCurrentSpaceId());
+    }
+
+    @Test
+    void testSecretSpaces() throws SerializerException {
+
+        final Space defaultSpace = newSpace(DEFAULT_SPACE_ID, DEFAULT_PROFILE_ID, false);
+        final Space secretSpace = newSpace(SECRET_SPACE_ID, SECRET_PROFILE_ID, true);
+
+        // The secret spaces and their profiles are never saved in the snapshot.
+        final SpacesSnapshot snapshot = new SpacesSnapshot(DEFAULT_SPACE_ID, defaultSpace,
+                new SpaceSettings("General"), Arrays.asList(defaultSpace, secretSpace));
+        assertNull(snapshot.getSpace(SECRET_SPACE_ID));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        snapshot.serialize(new BinaryEncoder(outputStream));
+        final String content = new String(outputStream.toByteArray(), StandardCharsets.ISO_8859_1);
+        assertFalse(content.contains(toBytes(SECRET_SPACE_ID)));
+        assertFalse(content.contains(toBytes(SECRET_PROFILE_ID)));
+
+        final SpacesSnapshot result = roundTrip(snapshot);
+        assertNotNull(result);
+        assertNull(result.getSpace(SECRET_SPACE_ID));
+        assertEquals(1, result.getSpaces().size());
+    }
+
+    private static String toBytes(UUID uuid) throws SerializerException {
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new BinaryEncoder(outputStream).writeUUID(uuid);
+        return new String(outputStream.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    void testInvalidSchema() throws SerializerException {
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final BinaryEncoder encoder = new BinaryEncoder(outputStream);
+        encoder.writeUUID(UUID.randomUUID());
+        encoder.writeInt(SpacesSnapshot.SCHEMA_VERSION);
+
+        assertNull(SpacesSnapshot.deserialize(new BinaryDecoder(new ByteArrayInputStream(outputStream.toByteArray()))));
+    }
+}